@@ -0,0 +1,118 @@
+package com.grupo6.projetointegrador.benchmark;
+
+import com.grupo6.projetointegrador.ProjetoIntegradorApplication;
+import com.grupo6.projetointegrador.dto.CreateInboundOrderDto;
+import com.grupo6.projetointegrador.dto.CreateItemBatchDto;
+import com.grupo6.projetointegrador.dto.CreateOrderPurchaseDto;
+import com.grupo6.projetointegrador.dto.ProductOrderDto;
+import com.grupo6.projetointegrador.model.enumeration.Category;
+import com.grupo6.projetointegrador.repository.ItemBatchRepo;
+import com.grupo6.projetointegrador.service.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Spring context shared by every benchmark of a trial, backed by an in-memory H2 database seeded with
+ * {@code DATABASE/DATA.sql} and a generated dataset of {@link #products} products.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+    @Param({"1000"})
+    public int products;
+
+    OrderPurchaseService orderPurchaseService;
+
+    InboundOrderService inboundOrderService;
+
+    ProductService productService;
+
+    DueDateService dueDateService;
+
+    ItemBatchRepo itemBatchRepo;
+
+    private ConfigurableApplicationContext context;
+
+    private BenchmarkDataSeeder.BenchmarkData data;
+
+    private List<Long> sectionIds;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        context = SpringApplication.run(ProjetoIntegradorApplication.class, "--spring.profiles.active=benchmark");
+        data = new BenchmarkDataSeeder(context.getBean(JdbcTemplate.class)).seed(products);
+        context.getBean(ItemBatchStockIndex.class).load();
+        context.getBean(ExpiryTimeline.class).load();
+        sectionIds = new ArrayList<>(data.sectionIds.values());
+
+        orderPurchaseService = context.getBean(OrderPurchaseService.class);
+        inboundOrderService = context.getBean(InboundOrderService.class);
+        productService = context.getBean(ProductService.class);
+        dueDateService = context.getBean(DueDateService.class);
+        itemBatchRepo = context.getBean(ItemBatchRepo.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    long randomProductId() {
+        return randomOf(data.sellableProductIds);
+    }
+
+    long randomSectionId() {
+        return randomOf(sectionIds);
+    }
+
+    CreateOrderPurchaseDto randomOrderPurchase() {
+        List<ProductOrderDto> productOrders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            productOrders.add(new ProductOrderDto(randomProductId(), 1));
+        }
+        long buyerId = data.firstBuyerId + ThreadLocalRandom.current().nextInt(1_000);
+        return new CreateOrderPurchaseDto(buyerId, LocalDate.now(), productOrders);
+    }
+
+    CreateInboundOrderDto randomInboundOrder() {
+        return randomInboundOrder(5);
+    }
+
+    /**
+     * Builds an inbound order with the given number of batches of products of the same category as the chosen section.
+     */
+    CreateInboundOrderDto randomInboundOrder(int batches) {
+        Category category = Category.values()[ThreadLocalRandom.current().nextInt(Category.values().length)];
+        List<CreateItemBatchDto> itemBatches = new ArrayList<>();
+        for (int i = 0; i < batches; i++) {
+            itemBatches.add(new CreateItemBatchDto(
+                    randomOf(data.productIdsByCategory.get(category)),
+                    100,
+                    LocalDate.now(),
+                    LocalDateTime.now(),
+                    5L,
+                    LocalDate.now().plusDays(60),
+                    BigDecimal.TEN
+            ));
+        }
+        return new CreateInboundOrderDto(
+                data.warehouseOperatorId,
+                data.warehouseId,
+                data.sectionIds.get(category),
+                itemBatches
+        );
+    }
+
+    private static long randomOf(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
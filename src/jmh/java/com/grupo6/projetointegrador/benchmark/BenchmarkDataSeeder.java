@@ -0,0 +1,141 @@
+package com.grupo6.projetointegrador.benchmark;
+
+import com.grupo6.projetointegrador.dataset.DatasetGenerator;
+import com.grupo6.projetointegrador.dataset.DatasetLayout;
+import com.grupo6.projetointegrador.dataset.DatasetProperties;
+import com.grupo6.projetointegrador.dataset.IdGenerators;
+import com.grupo6.projetointegrador.dataset.JdbcDatasetWriter;
+import com.grupo6.projetointegrador.model.enumeration.Category;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Seeds the benchmark database with {@code DATABASE/DATA.sql} and then scales it up with the {@link DatasetGenerator}.
+ * Generated batches get a large quantity, so the order benchmark does not run out of stock.
+ */
+class BenchmarkDataSeeder {
+    private static final String[] TABLES = {
+            "buyer", "seller", "warehouse_operator", "warehouse", "section", "product",
+            "inbound_order", "item_batch", "order_purchase", "product_order"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    BenchmarkDataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    BenchmarkData seed(int products) throws IOException {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        loadDataSql();
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+        DatasetProperties properties = new DatasetProperties();
+        properties.setWarehouses(2);
+        properties.setSellers(Math.max(10, products / 20));
+        properties.setProducts(products);
+        properties.setItemBatches(products * 5);
+        properties.setBuyers(1_000);
+        properties.setOrderPurchases(products);
+        DatasetLayout layout;
+        try (JdbcDatasetWriter writer = new JdbcDatasetWriter(jdbcTemplate, properties.getBatchSize())) {
+            layout = new DatasetGenerator(properties).generate(writer, findFirstIds());
+        }
+        jdbcTemplate.update("UPDATE item_batch SET product_quantity = product_quantity + 1000000 WHERE id >= ?",
+                layout.firstId("item_batch"));
+        restartIdentities();
+        IdGenerators.realign(jdbcTemplate);
+
+        Map<Category, Long> sectionIds = new EnumMap<>(Category.class);
+        Map<Category, List<Long>> productIdsByCategory = new EnumMap<>(Category.class);
+        for (int s = 0; s < Category.values().length; s++) {
+            Category category = DatasetLayout.sectionCategory(s);
+            sectionIds.put(category, layout.sectionId(0, s));
+            productIdsByCategory.put(category, jdbcTemplate.queryForList("SELECT t1.id FROM product AS t1 " +
+                    "JOIN seller AS t2 ON t2.id = t1.seller_id " +
+                    "WHERE t1.category = ? AND t2.active = 'ATIVO' AND t1.id >= ?",
+                    Long.class, category.name(), layout.firstId("product")));
+        }
+        List<Long> sellableProductIds = jdbcTemplate.queryForList("SELECT DISTINCT t1.product_id FROM item_batch AS t1 " +
+                "WHERE t1.seller_active = 'ATIVO' AND t1.due_date > ?", Long.class, LocalDate.now().plusDays(30));
+        return new BenchmarkData(
+                layout.warehouseOperatorId(0),
+                layout.warehouseId(0),
+                sectionIds,
+                productIdsByCategory,
+                sellableProductIds,
+                layout.firstId("buyer")
+        );
+    }
+
+    private void loadDataSql() throws IOException {
+        ClassPathResource dataSql = new ClassPathResource("DATABASE/DATA.sql");
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(dataSql.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.toLowerCase(Locale.ROOT).startsWith("insert into")) {
+                    jdbcTemplate.execute(line.endsWith(";") ? line.substring(0, line.length() - 1) : line);
+                }
+            }
+        }
+    }
+
+    private Map<String, Long> findFirstIds() {
+        Map<String, Long> firstIds = new HashMap<>();
+        for (String table : TABLES) {
+            firstIds.put(table, nextId(table));
+        }
+        return firstIds;
+    }
+
+    private long nextId(String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return maxId == null ? 1 : maxId + 1;
+    }
+
+    private void restartIdentities() {
+        for (String table : TABLES) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + nextId(table));
+        }
+    }
+
+    /**
+     * Ids of the generated rows that make valid benchmark requests.
+     */
+    static class BenchmarkData {
+        final long warehouseOperatorId;
+        final long warehouseId;
+        final Map<Category, Long> sectionIds;
+        final Map<Category, List<Long>> productIdsByCategory;
+        final List<Long> sellableProductIds;
+        final long firstBuyerId;
+
+        BenchmarkData(
+                long warehouseOperatorId,
+                long warehouseId,
+                Map<Category, Long> sectionIds,
+                Map<Category, List<Long>> productIdsByCategory,
+                List<Long> sellableProductIds,
+                long firstBuyerId
+        ) {
+            this.warehouseOperatorId = warehouseOperatorId;
+            this.warehouseId = warehouseId;
+            this.sectionIds = sectionIds;
+            this.productIdsByCategory = productIdsByCategory;
+            this.sellableProductIds = sellableProductIds;
+            this.firstBuyerId = firstBuyerId;
+        }
+    }
+}
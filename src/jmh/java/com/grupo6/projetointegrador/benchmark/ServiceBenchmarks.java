@@ -0,0 +1,58 @@
+package com.grupo6.projetointegrador.benchmark;
+
+import com.grupo6.projetointegrador.dto.DueDateItemBatchDto;
+import com.grupo6.projetointegrador.dto.ItemBatchDto;
+import com.grupo6.projetointegrador.dto.ProductLocationDto;
+import com.grupo6.projetointegrador.dto.TotalPriceDto;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the service layer hot paths against H2.
+ * Run with {@code ./mvnw -P benchmarks compile exec:exec}, see README "Benchmarks".
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ServiceBenchmarks {
+    @Benchmark
+    public TotalPriceDto createOrderPurchase(BenchmarkContext context) {
+        return context.orderPurchaseService.createOrderPurchase(context.randomOrderPurchase());
+    }
+
+    @Benchmark
+    public List<ItemBatchDto> createInboundOrder(BenchmarkContext context) {
+        return context.inboundOrderService.createInboundOrder(context.randomInboundOrder());
+    }
+
+    @Benchmark
+    public List<ItemBatchDto> createLargeInboundOrder(BenchmarkContext context) {
+        return context.inboundOrderService.createInboundOrder(context.randomInboundOrder(200));
+    }
+
+    @Benchmark
+    public ProductLocationDto findProductById(BenchmarkContext context) {
+        return context.productService.findProductById(context.randomProductId(), "V");
+    }
+
+    @Benchmark
+    public List<DueDateItemBatchDto> findItemBatchBySection(BenchmarkContext context) {
+        return context.dueDateService.findItemBatchBySection(context.randomSectionId(), 90);
+    }
+
+    @Benchmark
+    public Optional<ItemBatch> findValidItemBatch(BenchmarkContext context) {
+        return context.itemBatchRepo.findByDueDate21AndProductIdAndQty(context.randomProductId(), 1);
+    }
+
+    @Benchmark
+    public List<DueDateItemBatchDto> findItemBatchByCategory(BenchmarkContext context) {
+        return context.dueDateService.findItemBatchByCategory("FS", 90, "asc");
+    }
+}
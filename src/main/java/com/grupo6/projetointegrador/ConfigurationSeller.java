@@ -1,14 +1,44 @@
 package com.grupo6.projetointegrador;
 
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class ConfigurationSeller {
 
+    /**
+     * RestTemplate backed by a pooled HTTP client, so a slow upstream is cut by the timeouts
+     * instead of holding the request thread.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(
+            @Value("${zip-code.http.max-connections:20}") int maxConnections,
+            @Value("${zip-code.http.connect-timeout-ms:1000}") int connectTimeout,
+            @Value("${zip-code.http.read-timeout-ms:2000}") int readTimeout
+    ) {
+        return pooledRestTemplate(maxConnections, connectTimeout, readTimeout);
+    }
+
+    public static RestTemplate pooledRestTemplate(int maxConnections, int connectTimeout, int readTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(connectTimeout)
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .build();
+        HttpClient httpClient = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
     }
 }
@@ -0,0 +1,42 @@
+package com.grupo6.projetointegrador;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "db-pool", name = "size-from-cores", havingValue = "true")
+public class DataSourceConfiguration {
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfiguration.class);
+
+    /**
+     * Sizes the connection pool when {@code spring.datasource.hikari.maximum-pool-size} is not set: to
+     * {@code db-pool.size} if given, otherwise to {@code cores * connections-per-core + spare}.
+     * A pool larger than that only makes the connections wait on the database instead of on the pool.
+     */
+    @Bean
+    public static BeanPostProcessor hikariPoolSizePostProcessor(
+            @Value("${db-pool.size:0}") int size,
+            @Value("${db-pool.connections-per-core:2}") int connectionsPerCore,
+            @Value("${db-pool.spare-connections:1}") int spareConnections
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource && ((HikariDataSource) bean).getMaximumPoolSize() <= 0) {
+                    int poolSize = size > 0
+                            ? size
+                            : Runtime.getRuntime().availableProcessors() * connectionsPerCore + spareConnections;
+                    ((HikariDataSource) bean).setMaximumPoolSize(poolSize);
+                    logger.info("Connection pool sized to {} connections.", poolSize);
+                }
+                return bean;
+            }
+        };
+    }
+}
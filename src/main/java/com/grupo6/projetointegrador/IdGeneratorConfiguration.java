@@ -0,0 +1,38 @@
+package com.grupo6.projetointegrador;
+
+import com.grupo6.projetointegrador.repository.IdBlockAllocator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfiguration {
+
+    /**
+     * Creates the allocator of the {@code id_generator} ids on a pool of {@code id-generator.pool-size} connections
+     * to the application database, kept apart from the application pool.
+     */
+    @Bean(destroyMethod = "close")
+    public IdBlockAllocator idBlockAllocator(
+            DataSourceProperties dataSourceProperties,
+            @Value("${id-generator.pool-size:2}") int poolSize,
+            @Value("${id-generator.connection-timeout-ms:3000}") long connectionTimeout
+    ) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("id-generator");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(0);
+        dataSource.setConnectionTimeout(connectionTimeout);
+        return new IdBlockAllocator(dataSource);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer idBlockAllocatorCustomizer(IdBlockAllocator idBlockAllocator) {
+        return hibernateProperties -> hibernateProperties.put(IdBlockAllocator.SETTING, idBlockAllocator);
+    }
+}
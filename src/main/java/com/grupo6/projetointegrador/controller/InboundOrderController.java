@@ -5,10 +5,13 @@ import com.grupo6.projetointegrador.dto.ItemBatchDto;
 import com.grupo6.projetointegrador.dto.UpdateItemBatchDto;
 import com.grupo6.projetointegrador.service.*;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import java.util.List;
@@ -20,8 +23,11 @@ public class InboundOrderController {
 
     private final InboundOrderService service;
 
-    public InboundOrderController(InboundOrderService service) {
+    private final InboundOrderBulkLoader bulkLoader;
+
+    public InboundOrderController(InboundOrderService service, InboundOrderBulkLoader bulkLoader) {
         this.service = service;
+        this.bulkLoader = bulkLoader;
     }
 
     @PostMapping
@@ -29,6 +35,25 @@ public class InboundOrderController {
         return new ResponseEntity<>(service.createInboundOrder(createInboundOrderDto), HttpStatus.CREATED);
     }
 
+    /**
+     * Creates many inbound orders at once, read from a JSON array or from NDJSON as the body arrives.
+     * The orders are stored in chunks and the result of each one is streamed back as NDJSON, in the order received.
+     * A load longer than {@code inbound-order-bulk.max-duration} is stopped between chunks, see
+     * {@link InboundOrderBulkLoader}.
+     * @param request the request with the inbound orders in its body
+     * @return the streamed results
+     */
+    @PostMapping(
+            value = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public ResponseEntity<StreamingResponseBody> createInboundOrders(HttpServletRequest request) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> bulkLoader.load(request.getInputStream(), outputStream));
+    }
+
     @PutMapping("/{inboundOrderId}/item-batch")
     @ResponseStatus(HttpStatus.CREATED)
     public List<ItemBatchDto> updateItemBatches(
@@ -37,4 +62,12 @@ public class InboundOrderController {
     ) {
         return service.updateItemBatch(inboundOrderId, updateItemBatchDtos);
     }
+
+    @PatchMapping("/{inboundOrderId}/item-batch")
+    public List<ItemBatchDto> patchItemBatches(
+            @PathVariable Long inboundOrderId,
+            @RequestBody @Valid @NotEmpty List<UpdateItemBatchDto> updateItemBatchDtos
+    ) {
+        return service.patchItemBatch(inboundOrderId, updateItemBatchDtos);
+    }
 }
@@ -32,4 +32,9 @@ public class OrderPurchaseController {
   public String alterOrderPurchase(@PathVariable Long id) {
       return service.endOrder(id);
   }
+
+  @PutMapping("/{id}/cancel")
+  public String cancelOrderPurchase(@PathVariable Long id) {
+      return service.cancelOrder(id);
+  }
 }
@@ -2,23 +2,34 @@ package com.grupo6.projetointegrador.controller;
 
 import com.grupo6.projetointegrador.dto.ProductLocationDto;
 import com.grupo6.projetointegrador.dto.ProductWarehousesDto;
+import com.grupo6.projetointegrador.exception.BusinessRuleException;
 import com.grupo6.projetointegrador.exception.NotFoundException;
 import com.grupo6.projetointegrador.model.enumeration.Category;
 import com.grupo6.projetointegrador.response.PageableResponse;
+import com.grupo6.projetointegrador.service.ProductCatalogueExporter;
 import com.grupo6.projetointegrador.service.ProductService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
-    static final int MAX_LENGTH_ITENS = 5;
+    static final int DEFAULT_PAGE_SIZE = 5;
     private final ProductService productService;
+    private final ProductCatalogueExporter productCatalogueExporter;
+    private final int maxPageSize;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService,
+                             ProductCatalogueExporter productCatalogueExporter,
+                             @Value("${product-listing.max-page-size:50}") int maxPageSize) {
         this.productService = productService;
+        this.productCatalogueExporter = productCatalogueExporter;
+        this.maxPageSize = maxPageSize;
     }
 
     /**
@@ -36,10 +47,25 @@ public class ProductController {
         return ResponseEntity.ok(productService.findProductById(id, order));
     }
 
+    /**
+     * Lists the products a page at a time. With {@code after} the page starts right after the product with
+     * that id, seeking on the key instead of skipping {@code page * size} rows; the {@code nextCursor} of a
+     * response is the {@code after} of the next page.
+     * @param page  the page number, ignored when {@code after} is given
+     * @param after the id of the last product of the previous page
+     * @param size  the number of products per page, limited to {@code product-listing.max-page-size}
+     * @param count {@code false} to leave out the totals, which come from a cached count
+     * @return the page of products
+     */
     @GetMapping
-    public ResponseEntity<?> findAllFreshProducts(@RequestParam(value = "page", defaultValue = "0", required = true) int page) {
-        PageRequest pageRequest = PageRequest.of(page, MAX_LENGTH_ITENS);
-        PageableResponse result = this.productService.findPageableFreshProducts(pageRequest);
+    public ResponseEntity<?> findAllFreshProducts(@RequestParam(value = "page", defaultValue = "0", required = true) int page,
+                                                  @RequestParam(value = "after", required = false) Long after,
+                                                  @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                                                  @RequestParam(value = "count", defaultValue = "true") boolean count) {
+        int pageSize = limitPageSize(size);
+        PageableResponse result = after != null
+                ? this.productService.findFreshProductsAfter(after, pageSize, count)
+                : this.productService.findPageableFreshProducts(PageRequest.of(page, pageSize), count);
         if(result.getContent().size() == 0)
             throw new NotFoundException("Nenhum lote encontrado.");
         else
@@ -49,23 +75,49 @@ public class ProductController {
     @GetMapping("/category-search")
     public ResponseEntity<?> findProductsCategory(
             @RequestParam(name = "category", defaultValue = "FF", required = true) String categoryCode,
-            @RequestParam(value = "page", defaultValue = "0", required = true) int page) {
+            @RequestParam(value = "page", defaultValue = "0", required = true) int page,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(value = "count", defaultValue = "true") boolean count) {
 
         Category category = Category.fromCode(categoryCode);
-        PageRequest pageRequest = PageRequest.of(page, MAX_LENGTH_ITENS);
-        PageableResponse result = this.productService.findProductsByCategory(pageRequest, category);
+        int pageSize = limitPageSize(size);
+        PageableResponse result = after != null
+                ? this.productService.findProductsByCategoryAfter(category, after, pageSize, count)
+                : this.productService.findProductsByCategory(PageRequest.of(page, pageSize), category, count);
         if(result.getContent().size() == 0)
             throw new NotFoundException("Produtos para essa categoria não encontrados.");
         else
             return ResponseEntity.ok(result);
     }
 
+    /**
+     * Exports the whole catalogue with the stock of each product as NDJSON, one product per line,
+     * streamed page by page as it is read from the database. The server compresses the body when the
+     * client accepts gzip ({@code server.compression}). The whole download must fit in
+     * {@code spring.mvc.async.request-timeout}.
+     * @return the streamed catalogue
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(productCatalogueExporter::export);
+    }
+
     @GetMapping("/warehouse/{id}")
     public ResponseEntity<ProductWarehousesDto> findProductWarehouses(@PathVariable Long id) {
         ProductWarehousesDto response = productService.findProductWarehouse(id);
         if(response == null) {
             throw new NotFoundException("Nenhum armazém encontrado com esse produto.");
         }
-        return ResponseEntity.ok(productService.findProductWarehouse(id));
+        return ResponseEntity.ok(response);
+    }
+
+    private int limitPageSize(int size) {
+        if (size < 1) {
+            throw new BusinessRuleException("O tamanho da página deve ser maior que zero.");
+        }
+        return Math.min(size, maxPageSize);
     }
 }
@@ -43,6 +43,11 @@ public class SellerController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    @PatchMapping("/{id}/activate")
+    public ResponseEntity<Seller> activateSeller(@PathVariable Long id) {
+        return new ResponseEntity<>(sellerService.activateSeller(id), HttpStatus.OK);
+    }
+
     @GetMapping("/warehouse/{id}")
     public ResponseEntity<List<InactiveSellerBatchDto>> getInactiveSellerBatches(@PathVariable Long id) {
         return new ResponseEntity<>(sellerService.getInactiveSellerBatches(id), HttpStatus.OK);
@@ -0,0 +1,81 @@
+package com.grupo6.projetointegrador.dataset;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes one CSV file per table plus a {@code load.sql} script with the matching MySQL {@code LOAD DATA} statements.
+ * Null values are written as {@code NULL} and date times as {@code yyyy-MM-dd HH:mm:ss}.
+ */
+public class CsvDatasetWriter implements DatasetWriter {
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Path directory;
+
+    private final BufferedWriter loadScript;
+
+    private BufferedWriter tableWriter;
+
+    public CsvDatasetWriter(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.loadScript = Files.newBufferedWriter(directory.resolve("load.sql"), StandardCharsets.UTF_8);
+        loadScript.write("SET FOREIGN_KEY_CHECKS=0;\n");
+    }
+
+    @Override
+    public void startTable(String table, String... columns) throws IOException {
+        String file = table + ".csv";
+        tableWriter = Files.newBufferedWriter(directory.resolve(file), StandardCharsets.UTF_8);
+        loadScript.write("LOAD DATA LOCAL INFILE '" + file + "' INTO TABLE " + table +
+                " CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY ''" +
+                " LINES TERMINATED BY '\\n' (" + String.join(", ", columns) + ");\n");
+    }
+
+    @Override
+    public void write(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                tableWriter.write(',');
+            }
+            tableWriter.write(format(values[i]));
+        }
+        tableWriter.write('\n');
+    }
+
+    @Override
+    public void endTable() throws IOException {
+        tableWriter.close();
+        tableWriter = null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (tableWriter != null) {
+            tableWriter.close();
+        }
+        for (String statement : IdGenerators.realignStatements()) {
+            loadScript.write(statement + ";\n");
+        }
+        loadScript.write("SET FOREIGN_KEY_CHECKS=1;\n");
+        loadScript.close();
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof LocalDateTime) {
+            return DATE_TIME_FORMAT.format((LocalDateTime) value);
+        }
+        String text = value.toString();
+        if (value instanceof String && (text.contains(",") || text.contains("\"") || text.contains("\n"))) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
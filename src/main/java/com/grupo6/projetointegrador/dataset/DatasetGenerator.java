@@ -0,0 +1,203 @@
+package com.grupo6.projetointegrador.dataset;
+
+import com.grupo6.projetointegrador.model.enumeration.Active;
+import com.grupo6.projetointegrador.model.enumeration.Category;
+import com.grupo6.projetointegrador.model.enumeration.StatusOrder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic generator of warehouses, sections, sellers, products, inbound orders, batches, buyers and orders.<p>
+ * Rows are streamed to a {@link DatasetWriter} table by table, parents first, so memory does not grow with the number
+ * of batches and orders; only the stock per product and warehouse is kept, to write the product_warehouse_stock
+ * summary after the batches, the same one the services keep when a batch is stored through the API.
+ * Every batch belongs to an inbound order of a section with the same category as its product, like the ones
+ * created by the API.
+ */
+public class DatasetGenerator {
+    static final String[] TABLES = {
+            "warehouse_operator", "warehouse", "section", "seller", "product",
+            "inbound_order", "item_batch", "buyer", "order_purchase", "product_order"
+    };
+
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final DatasetProperties properties;
+
+    private final Random random;
+
+    /**
+     * Active status of the seller of each product, copied to the seller_active column of its batches.
+     */
+    private Active[] productSellerActive;
+
+    public DatasetGenerator(DatasetProperties properties) {
+        if (properties.getProducts() < CATEGORIES.length || properties.getSectionsPerWarehouse() < 1) {
+            throw new IllegalArgumentException("Dataset needs at least one product per category and one section.");
+        }
+        this.properties = properties;
+        this.random = new Random(properties.getSeed());
+    }
+
+    /**
+     * Method to write the whole dataset.
+     *
+     * @param writer   The destination of the rows.
+     * @param firstIds The first id to be used for each table, tables missing from the map start at 1.
+     * @return The layout of the generated ids.
+     */
+    public DatasetLayout generate(DatasetWriter writer, Map<String, Long> firstIds) throws IOException {
+        DatasetLayout layout = new DatasetLayout(properties, firstIds);
+        writeWarehouses(writer, layout);
+        writeSellersAndProducts(writer, layout);
+        long[] stock = writeInboundOrdersAndItemBatches(writer, layout);
+        writeProductWarehouseStock(writer, layout, stock);
+        writeBuyersAndOrders(writer, layout);
+        return layout;
+    }
+
+    private void writeWarehouses(DatasetWriter writer, DatasetLayout layout) throws IOException {
+        writer.startTable("warehouse_operator", "id");
+        for (int w = 0; w < properties.getWarehouses(); w++) {
+            writer.write(layout.warehouseOperatorId(w));
+        }
+        writer.endTable();
+
+        writer.startTable("warehouse", "id", "warehouse_operator_id");
+        for (int w = 0; w < properties.getWarehouses(); w++) {
+            writer.write(layout.warehouseId(w), layout.warehouseOperatorId(w));
+        }
+        writer.endTable();
+
+        writer.startTable("section", "id", "category", "volume", "warehouse_id");
+        for (int w = 0; w < properties.getWarehouses(); w++) {
+            for (int s = 0; s < properties.getSectionsPerWarehouse(); s++) {
+                writer.write(layout.sectionId(w, s), DatasetLayout.sectionCategory(s).name(),
+                        10_000_000L, layout.warehouseId(w));
+            }
+        }
+        writer.endTable();
+    }
+
+    private void writeSellersAndProducts(DatasetWriter writer, DatasetLayout layout) throws IOException {
+        writer.startTable("seller", "id", "first_name", "last_name", "email", "address",
+                "house_number", "zip_code", "active");
+        Active[] sellerActive = new Active[properties.getSellers()];
+        for (int i = 0; i < properties.getSellers(); i++) {
+            Active active = random.nextDouble() < properties.getInactiveSellerRate() ? Active.INATIVO : Active.ATIVO;
+            sellerActive[i] = active;
+            writer.write(layout.sellerId(i), "Vendedor", "Numero " + i, "vendedor" + layout.sellerId(i) + "@dataset.com",
+                    "Rua " + (1 + random.nextInt(5_000)), 1 + random.nextInt(3_000),
+                    String.format("%08d", random.nextInt(100_000_000)), active.name());
+        }
+        writer.endTable();
+
+        writer.startTable("product", "id", "price", "category", "seller_id");
+        productSellerActive = new Active[properties.getProducts()];
+        for (int i = 0; i < properties.getProducts(); i++) {
+            int seller = random.nextInt(properties.getSellers());
+            writer.write(layout.productId(i), price(), DatasetLayout.productCategory(i).name(), layout.sellerId(seller));
+            productSellerActive[i] = sellerActive[seller];
+        }
+        writer.endTable();
+    }
+
+    /**
+     * @return The quantity in stock of each product in each warehouse, at {@code product * warehouses + warehouse},
+     * counting only the batches of active sellers.
+     */
+    private long[] writeInboundOrdersAndItemBatches(DatasetWriter writer, DatasetLayout layout) throws IOException {
+        LocalDate referenceDate = properties.getReferenceDate();
+        int sectionsPerWarehouse = properties.getSectionsPerWarehouse();
+
+        writer.startTable("inbound_order", "id", "order_date", "section_id", "warehouse_id", "warehouse_operator_id");
+        for (int k = 0; k < layout.inboundOrders(); k++) {
+            int section = k % layout.sections();
+            int w = section / sectionsPerWarehouse;
+            writer.write(layout.inboundOrderId(k), referenceDate.minusDays(random.nextInt(60)),
+                    layout.sectionId(w, section % sectionsPerWarehouse), layout.warehouseId(w),
+                    layout.warehouseOperatorId(w));
+        }
+        writer.endTable();
+
+        long[] stock = new long[properties.getProducts() * properties.getWarehouses()];
+        writer.startTable("item_batch", "id", "due_date", "manufacturing_date", "manufacturing_time", "price",
+                "product_quantity", "category", "volume", "inbound_order_id", "product_id", "version", "seller_active");
+        for (int b = 0; b < properties.getItemBatches(); b++) {
+            int inboundOrder = b / properties.getItemBatchesPerInboundOrder();
+            Category category = DatasetLayout.sectionCategory((inboundOrder % layout.sections()) % sectionsPerWarehouse);
+            LocalDate manufacturingDate = referenceDate.minusDays(random.nextInt(60));
+            LocalDate dueDate = referenceDate.plusDays(random.nextInt(400) - 30L);
+            LocalDateTime manufacturingTime = manufacturingDate.atTime(random.nextInt(24), random.nextInt(60));
+            BigDecimal price = price();
+            int quantity = random.nextInt(500);
+            long volume = 1L + random.nextInt(10);
+            int product = randomProductIndex(category);
+            if (productSellerActive[product] == Active.ATIVO) {
+                int warehouse = (inboundOrder % layout.sections()) / sectionsPerWarehouse;
+                stock[product * properties.getWarehouses() + warehouse] += quantity;
+            }
+            writer.write(layout.itemBatchId(b), dueDate, manufacturingDate, manufacturingTime, price, quantity,
+                    category.name(), volume, layout.inboundOrderId(inboundOrder), layout.productId(product), 0L,
+                    productSellerActive[product].name());
+        }
+        writer.endTable();
+        return stock;
+    }
+
+    private void writeProductWarehouseStock(DatasetWriter writer, DatasetLayout layout, long[] stock) throws IOException {
+        writer.startTable("product_warehouse_stock", "product_id", "warehouse_id", "quantity");
+        for (int product = 0; product < properties.getProducts(); product++) {
+            for (int w = 0; w < properties.getWarehouses(); w++) {
+                long quantity = stock[product * properties.getWarehouses() + w];
+                if (quantity > 0) {
+                    writer.write(layout.productId(product), layout.warehouseId(w), quantity);
+                }
+            }
+        }
+        writer.endTable();
+    }
+
+    private void writeBuyersAndOrders(DatasetWriter writer, DatasetLayout layout) throws IOException {
+        writer.startTable("buyer", "id");
+        for (int i = 0; i < properties.getBuyers(); i++) {
+            writer.write(layout.buyerId(i));
+        }
+        writer.endTable();
+
+        writer.startTable("order_purchase", "id", "date_order", "status", "buyer_id");
+        for (int i = 0; i < properties.getOrderPurchases(); i++) {
+            StatusOrder status = random.nextBoolean() ? StatusOrder.ABERTO : StatusOrder.FINALIZADO;
+            writer.write(layout.orderPurchaseId(i), properties.getReferenceDate().minusDays(random.nextInt(90)),
+                    status.ordinal(), layout.buyerId(random.nextInt(properties.getBuyers())));
+        }
+        writer.endTable();
+
+        writer.startTable("product_order", "id", "product_id", "quantity", "order_purchase_id");
+        long productOrderId = layout.firstId("product_order");
+        for (int i = 0; i < properties.getOrderPurchases(); i++) {
+            for (int j = 0; j < properties.getProductsPerOrder(); j++) {
+                writer.write(productOrderId++, layout.productId(random.nextInt(properties.getProducts())),
+                        1 + random.nextInt(5), layout.orderPurchaseId(i));
+            }
+        }
+        writer.endTable();
+    }
+
+    /**
+     * Products cycle through the categories, so the product indexes of a category are {@code category + n * 3}.
+     */
+    private int randomProductIndex(Category category) {
+        int productsOfCategory = (properties.getProducts() - category.ordinal() + CATEGORIES.length - 1) / CATEGORIES.length;
+        return random.nextInt(productsOfCategory) * CATEGORIES.length + category.ordinal();
+    }
+
+    private BigDecimal price() {
+        return BigDecimal.valueOf(100 + random.nextInt(9_900), 2);
+    }
+}
@@ -0,0 +1,76 @@
+package com.grupo6.projetointegrador.dataset;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Generates the synthetic dataset when the application starts with {@code --dataset.mode=jdbc} or
+ * {@code --dataset.mode=csv}, then shuts the application down.
+ */
+@Component
+@ConditionalOnProperty(name = "dataset.mode")
+@EnableConfigurationProperties(DatasetProperties.class)
+public class DatasetGeneratorRunner implements ApplicationRunner {
+    private final Logger logger = LoggerFactory.getLogger(DatasetGeneratorRunner.class);
+
+    private final DatasetProperties properties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConfigurableApplicationContext context;
+
+    public DatasetGeneratorRunner(
+            DatasetProperties properties,
+            JdbcTemplate jdbcTemplate,
+            ConfigurableApplicationContext context
+    ) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        long start = System.currentTimeMillis();
+        DatasetGenerator generator = new DatasetGenerator(properties);
+        if ("jdbc".equals(properties.getMode())) {
+            try (DatasetWriter writer = new JdbcDatasetWriter(jdbcTemplate, properties.getBatchSize())) {
+                generator.generate(writer, findFirstIds());
+            }
+            IdGenerators.realign(jdbcTemplate);
+        } else if ("csv".equals(properties.getMode())) {
+            try (DatasetWriter writer = new CsvDatasetWriter(Paths.get(properties.getOutputDirectory()))) {
+                generator.generate(writer, Map.of());
+            }
+        } else {
+            throw new IllegalArgumentException("dataset.mode deve ser jdbc ou csv.");
+        }
+        logger.info("Dataset generated in {} ms.", System.currentTimeMillis() - start);
+        System.exit(SpringApplication.exit(context));
+    }
+
+    /**
+     * Method to continue after the rows already in the database, so the dataset can be added to existing data.
+     */
+    private Map<String, Long> findFirstIds() {
+        Map<String, Long> firstIds = new HashMap<>();
+        for (String table : DatasetGenerator.TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            firstIds.put(table, maxId == null ? 1L : maxId + 1);
+        }
+        return firstIds;
+    }
+}
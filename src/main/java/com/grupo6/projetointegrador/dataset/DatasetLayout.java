@@ -0,0 +1,83 @@
+package com.grupo6.projetointegrador.dataset;
+
+import com.grupo6.projetointegrador.model.enumeration.Category;
+
+import java.util.Map;
+
+/**
+ * Ids and categories of the rows written by {@link DatasetGenerator}, so callers can build valid requests
+ * against the generated data.
+ */
+public class DatasetLayout {
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final DatasetProperties properties;
+
+    private final Map<String, Long> firstIds;
+
+    DatasetLayout(DatasetProperties properties, Map<String, Long> firstIds) {
+        this.properties = properties;
+        this.firstIds = firstIds;
+    }
+
+    public static Category sectionCategory(int sectionIndex) {
+        return CATEGORIES[sectionIndex % CATEGORIES.length];
+    }
+
+    public static Category productCategory(int productIndex) {
+        return CATEGORIES[productIndex % CATEGORIES.length];
+    }
+
+    public long firstId(String table) {
+        return firstIds.getOrDefault(table, 1L);
+    }
+
+    public long warehouseOperatorId(int warehouse) {
+        return firstId("warehouse_operator") + warehouse;
+    }
+
+    public long warehouseId(int warehouse) {
+        return firstId("warehouse") + warehouse;
+    }
+
+    public long sectionId(int warehouse, int section) {
+        return firstId("section") + (long) warehouse * properties.getSectionsPerWarehouse() + section;
+    }
+
+    public long sellerId(int seller) {
+        return firstId("seller") + seller;
+    }
+
+    public long productId(int product) {
+        return firstId("product") + product;
+    }
+
+    public long inboundOrderId(int inboundOrder) {
+        return firstId("inbound_order") + inboundOrder;
+    }
+
+    public long itemBatchId(int itemBatch) {
+        return firstId("item_batch") + itemBatch;
+    }
+
+    public long buyerId(int buyer) {
+        return firstId("buyer") + buyer;
+    }
+
+    public long orderPurchaseId(int orderPurchase) {
+        return firstId("order_purchase") + orderPurchase;
+    }
+
+    public int sections() {
+        return properties.getWarehouses() * properties.getSectionsPerWarehouse();
+    }
+
+    public int inboundOrders() {
+        int perInboundOrder = properties.getItemBatchesPerInboundOrder();
+        return (properties.getItemBatches() + perInboundOrder - 1) / perInboundOrder;
+    }
+
+    public int products() {
+        return properties.getProducts();
+    }
+}
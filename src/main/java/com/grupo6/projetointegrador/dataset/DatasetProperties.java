@@ -0,0 +1,49 @@
+package com.grupo6.projetointegrador.dataset;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.LocalDate;
+
+/**
+ * Scale of the synthetic dataset. The same properties and seed always generate the same rows,
+ * dates are relative to {@link #referenceDate}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "dataset")
+public class DatasetProperties {
+    /**
+     * Where to write the dataset: "jdbc" inserts into the configured datasource, "csv" writes LOAD DATA files.
+     */
+    private String mode;
+
+    private String outputDirectory = "dataset";
+
+    private long seed = 42;
+
+    private LocalDate referenceDate = LocalDate.now();
+
+    private int warehouses = 10;
+
+    private int sectionsPerWarehouse = 6;
+
+    private int sellers = 1_000;
+
+    private double inactiveSellerRate = 0.05;
+
+    private int products = 20_000;
+
+    private int itemBatches = 1_000_000;
+
+    private int itemBatchesPerInboundOrder = 50;
+
+    private int buyers = 10_000;
+
+    private int orderPurchases = 100_000;
+
+    private int productsPerOrder = 3;
+
+    private int batchSize = 1_000;
+}
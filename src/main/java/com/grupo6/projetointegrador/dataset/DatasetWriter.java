@@ -0,0 +1,16 @@
+package com.grupo6.projetointegrador.dataset;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination of the rows created by {@link DatasetGenerator}. Tables are written one at a time,
+ * parents before children, so foreign keys are always satisfied.
+ */
+public interface DatasetWriter extends Closeable {
+    void startTable(String table, String... columns) throws IOException;
+
+    void write(Object... values) throws IOException;
+
+    void endTable() throws IOException;
+}
@@ -0,0 +1,37 @@
+package com.grupo6.projetointegrador.dataset;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves the pooled id generators of the {@code id_generator} table past the rows inserted with explicit ids,
+ * such as the generated dataset, so the application does not hand out ids that are already taken.<p>
+ * Run it only while the application is stopped: a running instance keeps the ids it already reserved.
+ */
+public final class IdGenerators {
+    public static final int ALLOCATION_SIZE = 50;
+
+    static final String[] TABLES = {"inbound_order", "item_batch", "order_purchase", "product_order"};
+
+    private IdGenerators() {
+    }
+
+    /**
+     * @return The statements that restart each generator after the highest id of its table.
+     */
+    public static List<String> realignStatements() {
+        List<String> statements = new ArrayList<>();
+        for (String table : TABLES) {
+            statements.add("DELETE FROM id_generator WHERE sequence_name = '" + table + "'");
+            statements.add("INSERT INTO id_generator (sequence_name, next_val) SELECT '" + table + "', " +
+                    "COALESCE(MAX(id), 0) + " + ALLOCATION_SIZE + " FROM " + table);
+        }
+        return statements;
+    }
+
+    public static void realign(JdbcTemplate jdbcTemplate) {
+        realignStatements().forEach(jdbcTemplate::execute);
+    }
+}
@@ -0,0 +1,56 @@
+package com.grupo6.projetointegrador.dataset;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes the dataset with JDBC batch inserts of {@code batchSize} rows.
+ */
+public class JdbcDatasetWriter implements DatasetWriter {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+
+    private final List<Object[]> rows = new ArrayList<>();
+
+    private String insert;
+
+    public JdbcDatasetWriter(JdbcTemplate jdbcTemplate, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void startTable(String table, String... columns) {
+        insert = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" +
+                String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+    }
+
+    @Override
+    public void write(Object... values) {
+        rows.add(values);
+        if (rows.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void endTable() {
+        flush();
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private void flush() {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(insert, rows);
+            rows.clear();
+        }
+    }
+}
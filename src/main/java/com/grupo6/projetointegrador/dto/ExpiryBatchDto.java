@@ -0,0 +1,15 @@
+package com.grupo6.projetointegrador.dto;
+
+import com.grupo6.projetointegrador.model.enumeration.Category;
+
+import java.time.LocalDate;
+
+public interface ExpiryBatchDto {
+    Long getItemBatchId();
+    Long getProductId();
+    Long getSellerId();
+    Long getSectionId();
+    Category getCategory();
+    LocalDate getDueDate();
+    int getQuantity();
+}
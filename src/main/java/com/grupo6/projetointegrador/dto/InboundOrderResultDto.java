@@ -0,0 +1,39 @@
+package com.grupo6.projetointegrador.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+/**
+ * Result of one inbound order of a bulk load: the stored batches when it was created,
+ * or the errors that rejected it, with the same status the single-order endpoint would answer.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class InboundOrderResultDto {
+    private Long index;
+
+    private int status;
+
+    private List<ItemBatchDto> itemBatches;
+
+    private List<ErrorMessageDto> errors;
+
+    public static InboundOrderResultDto created(List<ItemBatchDto> itemBatches) {
+        return new InboundOrderResultDto(null, HttpStatus.CREATED.value(), itemBatches, null);
+    }
+
+    public static InboundOrderResultDto rejected(HttpStatus status, List<ErrorMessageDto> errors) {
+        return new InboundOrderResultDto(null, status.value(), null, errors);
+    }
+
+    public static InboundOrderResultDto rejected(HttpStatus status, String message, String errorType) {
+        return rejected(status, List.of(ErrorMessageDto.of(message, errorType)));
+    }
+}
@@ -1,6 +1,5 @@
 package com.grupo6.projetointegrador.dto;
 
-import com.grupo6.projetointegrador.model.entity.ItemBatch;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -17,12 +16,12 @@ public class ItemBatchLocationDto {
     private Long sectionId;
     private Long warehouseId;
 
-    public static ItemBatchLocationDto fromItemBatch(ItemBatch itemBatch){
+    public static ItemBatchLocationDto fromStockLocation(StockLocationDto stockLocation){
         return new ItemBatchLocationDto(
-                itemBatch.getId(),
-                itemBatch.getProductQuantity(),
-                itemBatch.getDueDate(),
-                itemBatch.getInboundOrder().getSection().getId(),
-                itemBatch.getInboundOrder().getWarehouse().getId());
+                stockLocation.getItemBatchId(),
+                stockLocation.getProductQuantity(),
+                stockLocation.getDueDate(),
+                stockLocation.getSectionId(),
+                stockLocation.getWarehouseId());
     }
 }
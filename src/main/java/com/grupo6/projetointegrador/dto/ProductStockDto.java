@@ -0,0 +1,13 @@
+package com.grupo6.projetointegrador.dto;
+
+import com.grupo6.projetointegrador.model.enumeration.Category;
+
+import java.math.BigDecimal;
+
+public interface ProductStockDto {
+    Long getProductId();
+    Long getSellerId();
+    Category getCategory();
+    BigDecimal getPrice();
+    long getQuantity();
+}
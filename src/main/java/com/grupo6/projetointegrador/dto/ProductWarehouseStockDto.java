@@ -0,0 +1,7 @@
+package com.grupo6.projetointegrador.dto;
+
+public interface ProductWarehouseStockDto {
+    Long getProductId();
+    Long getWarehouse();
+    long getQuantity();
+}
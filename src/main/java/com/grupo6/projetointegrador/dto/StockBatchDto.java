@@ -0,0 +1,11 @@
+package com.grupo6.projetointegrador.dto;
+
+import java.time.LocalDate;
+
+public interface StockBatchDto {
+    Long getItemBatchId();
+    Long getProductId();
+    Long getSellerId();
+    LocalDate getDueDate();
+    int getQuantity();
+}
@@ -0,0 +1,12 @@
+package com.grupo6.projetointegrador.dto;
+
+import java.time.LocalDate;
+
+public interface StockLocationDto {
+    Long getItemBatchId();
+    int getProductQuantity();
+    LocalDate getDueDate();
+    Long getInboundOrderId();
+    Long getSectionId();
+    Long getWarehouseId();
+}
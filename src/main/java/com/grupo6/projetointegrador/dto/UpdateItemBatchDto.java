@@ -12,6 +12,7 @@ import javax.validation.constraints.Positive;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Data
 @AllArgsConstructor
@@ -43,7 +44,7 @@ public class UpdateItemBatchDto {
     private BigDecimal price;
 
     public ItemBatch toItemBatch(InboundOrder inboundOrder, Product product) {
-        return new ItemBatch(
+        ItemBatch itemBatch = new ItemBatch(
                 itemBatchId,
                 product,
                 productQuantity,
@@ -55,5 +56,58 @@ public class UpdateItemBatchDto {
                 inboundOrder,
                 product.getCategory()
         );
+        if (product.getSeller() != null && product.getSeller().getActive() != null) {
+            itemBatch.setSellerActive(product.getSeller().getActive());
+        }
+        return itemBatch;
+    }
+
+    /**
+     * Method to check if the request changes any field of the stored batch.
+     *
+     * @param itemBatch The stored batch with the same id.
+     * @return true if any field is different.
+     */
+    public boolean differsFrom(ItemBatch itemBatch) {
+        return changesStockOf(itemBatch)
+                || !Objects.equals(manufacturingDate, itemBatch.getManufacturingDate())
+                || !Objects.equals(manufacturingTime, itemBatch.getManufacturingTime())
+                || !Objects.equals(volume, itemBatch.getVolume())
+                || !Objects.equals(dueDate, itemBatch.getDueDate())
+                || itemBatch.getPrice() == null
+                || price.compareTo(itemBatch.getPrice()) != 0;
+    }
+
+    /**
+     * Method to check if the request changes the product or the quantity of the stored batch,
+     * which are the fields kept in the stock summary.
+     *
+     * @param itemBatch The stored batch with the same id.
+     * @return true if the product or the quantity is different.
+     */
+    public boolean changesStockOf(ItemBatch itemBatch) {
+        return productQuantity != itemBatch.getProductQuantity()
+                || itemBatch.getProduct() == null
+                || !productId.equals(itemBatch.getProduct().getId());
+    }
+
+    /**
+     * Method to copy the request fields to the stored batch, so only the changed columns are written on flush.
+     *
+     * @param itemBatch The stored batch with the same id.
+     * @param product   The product of the request.
+     */
+    public void copyTo(ItemBatch itemBatch, Product product) {
+        itemBatch.setProduct(product);
+        itemBatch.setProductQuantity(productQuantity);
+        itemBatch.setManufacturingDate(manufacturingDate);
+        itemBatch.setManufacturingTime(manufacturingTime);
+        itemBatch.setVolume(volume);
+        itemBatch.setDueDate(dueDate);
+        itemBatch.setPrice(price);
+        itemBatch.setCategory(product.getCategory());
+        if (product.getSeller() != null && product.getSeller().getActive() != null) {
+            itemBatch.setSellerActive(product.getSeller().getActive());
+        }
     }
 }
@@ -0,0 +1,7 @@
+package com.grupo6.projetointegrador.exception;
+
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
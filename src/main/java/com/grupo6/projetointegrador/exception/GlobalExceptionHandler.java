@@ -1,9 +1,12 @@
 package com.grupo6.projetointegrador.exception;
 
 import com.grupo6.projetointegrador.dto.ErrorMessageResponseDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -19,11 +22,14 @@ import javax.validation.ConstraintViolationException;
 public class GlobalExceptionHandler {
     private final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseBody
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorMessageResponseDto handleMethodArgumentNotValidException(MethodArgumentNotValidException exception) {
         logger.error("MethodArgumentNotValidException: ", exception);
+        countError(exception, HttpStatus.BAD_REQUEST);
         return ErrorMessageResponseDto.withFieldErrors(exception.getBindingResult().getFieldErrors());
     }
 
@@ -32,6 +38,7 @@ public class GlobalExceptionHandler {
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorMessageResponseDto handleConstraintViolationException(ConstraintViolationException exception) {
         logger.error("ConstraintViolationException: ", exception);
+        countError(exception, HttpStatus.BAD_REQUEST);
         return ErrorMessageResponseDto.withFieldErrors(exception.getConstraintViolations());
     }
 
@@ -40,6 +47,7 @@ public class GlobalExceptionHandler {
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorMessageResponseDto handleNotFoundException(NotFoundException exception) {
         logger.error("NotFoundException: ", exception);
+        countError(exception, HttpStatus.NOT_FOUND);
         return ErrorMessageResponseDto.of(exception.getMessage(), "NOT_FOUND_ERROR");
     }
 
@@ -48,14 +56,34 @@ public class GlobalExceptionHandler {
     @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
     public ErrorMessageResponseDto handleBusinessRuleException(BusinessRuleException exception) {
         logger.error("BusinessRuleException: ", exception);
+        countError(exception, HttpStatus.UNPROCESSABLE_ENTITY);
         return ErrorMessageResponseDto.of(exception.getMessage(), "BUSINESS_RULE_ERROR");
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    @ResponseBody
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorMessageResponseDto handleBadRequestException(BadRequestException exception) {
+        logger.error("BadRequestException: ", exception);
+        countError(exception, HttpStatus.BAD_REQUEST);
+        return ErrorMessageResponseDto.of(exception.getMessage(), "BAD_REQUEST_ERROR");
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseBody
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorMessageResponseDto handleOptimisticLockingFailureException(OptimisticLockingFailureException exception) {
+        logger.error("OptimisticLockingFailureException: ", exception);
+        countError(exception, HttpStatus.CONFLICT);
+        return ErrorMessageResponseDto.of("O registro foi alterado por outra requisição, tente novamente.", "CONFLICT_ERROR");
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     @ResponseBody
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorMessageResponseDto handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException exception) {
         logger.error("MethodArgumentTypeMismatchException: ", exception);
+        countError(exception, HttpStatus.BAD_REQUEST);
         return ErrorMessageResponseDto.of(exception.getMessage(), "METHOD_ARGUMENT_ERROR");
     }
 
@@ -64,6 +92,20 @@ public class GlobalExceptionHandler {
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorMessageResponseDto handleException(Exception exception) {
         logger.error("Exception: ", exception);
+        countError(exception, HttpStatus.INTERNAL_SERVER_ERROR);
         return ErrorMessageResponseDto.of("An unknown server error has occurred", "UNKNOWN_SERVER_ERROR");
     }
+
+    /**
+     * Counts the errors returned by the API by exception type and HTTP status, so error rates can be
+     * followed per outcome.
+     */
+    private void countError(Exception exception, HttpStatus status) {
+        Counter.builder("api.errors")
+                .description("Errors returned by the API")
+                .tag("exception", exception.getClass().getSimpleName())
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)
+                .increment();
+    }
 }
@@ -0,0 +1,79 @@
+package com.grupo6.projetointegrador.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * Turns on the per-request query metrics: registers the {@link QueryMetricsInterceptor} for the API, wraps the
+ * datasource with the {@link QueryMetricsQueryListener}, and registers the {@link QueryMetricsSessionListener}
+ * and a Hibernate post-load listener that count the cache lookups and the entities loaded by each request.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "query-metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryMetricsConfiguration implements WebMvcConfigurer {
+    private final QueryMetricsInterceptor queryMetricsInterceptor;
+
+    public QueryMetricsConfiguration(
+            EntityManagerFactory entityManagerFactory,
+            MeterRegistry meterRegistry,
+            @Value("${query-metrics.log-enabled:true}") boolean logEnabled
+    ) {
+        this.queryMetricsInterceptor = new QueryMetricsInterceptor(meterRegistry, logEnabled);
+        PostLoadEventListener entityLoadListener = event -> {
+            RequestQueryMetrics metrics = RequestQueryMetrics.current();
+            if (metrics != null) {
+                metrics.recordEntityLoad();
+            }
+        };
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, entityLoadListener);
+    }
+
+    /**
+     * Wraps the datasource so every statement, from Hibernate or from a {@code JdbcTemplate}, is counted by the
+     * {@link QueryMetricsQueryListener}. The pool is still reachable through {@link DataSource#unwrap(Class)}.
+     */
+    @Bean
+    public static BeanPostProcessor queryMetricsDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                        .listener(new QueryMetricsQueryListener())
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public static HibernatePropertiesCustomizer queryMetricsSessionListenerCustomizer() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+                QueryMetricsSessionListener.class.getName());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryMetricsInterceptor).addPathPatterns("/api/**");
+    }
+}
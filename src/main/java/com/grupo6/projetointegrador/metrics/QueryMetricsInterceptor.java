@@ -0,0 +1,100 @@
+package com.grupo6.projetointegrador.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interceptor that counts the database work of each request and, once the handler is done, records it in
+ * Micrometer tagged by handler and writes it as a single log line.<p>
+ * For asynchronous handlers, such as the NDJSON export, only the work done on the request thread is counted.
+ */
+public class QueryMetricsInterceptor implements AsyncHandlerInterceptor {
+    private final Logger logger = LoggerFactory.getLogger(QueryMetricsInterceptor.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean logEnabled;
+
+    public QueryMetricsInterceptor(MeterRegistry meterRegistry, boolean logEnabled) {
+        this.meterRegistry = meterRegistry;
+        this.logEnabled = logEnabled;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.REQUEST) {
+            RequestQueryMetrics.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        record(request, handler);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        record(request, handler);
+    }
+
+    private void record(HttpServletRequest request, Object handler) {
+        RequestQueryMetrics metrics = RequestQueryMetrics.finish();
+        if (metrics == null) {
+            return;
+        }
+        String handlerName = handlerName(handler);
+        Tags tags = Tags.of("handler", handlerName);
+        DistributionSummary.builder("request.jdbc.statements")
+                .description("JDBC statements executed per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(metrics.getStatements());
+        Timer.builder("request.jdbc.time")
+                .description("Time spent executing JDBC statements per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(metrics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("request.entity.loads")
+                .description("Entities loaded per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(metrics.getEntityLoads());
+        Counter.builder("request.cache.gets")
+                .description("Second-level cache lookups")
+                .tags(tags.and("result", "hit"))
+                .register(meterRegistry)
+                .increment(metrics.getCacheHits());
+        Counter.builder("request.cache.gets")
+                .description("Second-level cache lookups")
+                .tags(tags.and("result", "miss"))
+                .register(meterRegistry)
+                .increment(metrics.getCacheMisses());
+        if (logEnabled) {
+            logger.info("method={} uri={} handler={} statements={} jdbcTimeMs={} entityLoads={} cacheHits={} cacheMisses={}",
+                    request.getMethod(), request.getRequestURI(), handlerName, metrics.getStatements(),
+                    TimeUnit.NANOSECONDS.toMillis(metrics.getJdbcNanos()), metrics.getEntityLoads(),
+                    metrics.getCacheHits(), metrics.getCacheMisses());
+        }
+    }
+
+    private static String handlerName(Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        }
+        return "unknown";
+    }
+}
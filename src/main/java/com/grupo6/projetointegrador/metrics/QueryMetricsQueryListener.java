@@ -0,0 +1,30 @@
+package com.grupo6.projetointegrador.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Datasource listener that adds every statement executed on the datasource to the {@link RequestQueryMetrics}
+ * of the current request, whether it was issued by Hibernate or by a {@code JdbcTemplate}.<p>
+ * A JDBC batch counts as one statement, as it is sent to the database in one round trip.
+ */
+public class QueryMetricsQueryListener implements QueryExecutionListener {
+    private static final String START_NANOS = QueryMetricsQueryListener.class.getName() + ".start";
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestQueryMetrics metrics = RequestQueryMetrics.current();
+        Long startNanos = execInfo.getCustomValue(START_NANOS, Long.class);
+        if (metrics != null && startNanos != null) {
+            metrics.recordStatement(System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.grupo6.projetointegrador.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Hibernate session listener that adds the second-level cache lookups of a session to the
+ * {@link RequestQueryMetrics} of the current request. The statements are counted on the datasource by the
+ * {@link QueryMetricsQueryListener}, so the ones issued outside Hibernate are counted as well.<p>
+ * Hibernate creates one instance per session, as registered by {@link QueryMetricsConfiguration}.
+ */
+public class QueryMetricsSessionListener extends BaseSessionEventListener {
+
+    @Override
+    public void cacheGetEnd(boolean hit) {
+        RequestQueryMetrics metrics = RequestQueryMetrics.current();
+        if (metrics != null) {
+            metrics.recordCacheGet(hit);
+        }
+    }
+}
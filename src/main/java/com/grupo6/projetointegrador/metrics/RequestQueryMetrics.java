@@ -0,0 +1,66 @@
+package com.grupo6.projetointegrador.metrics;
+
+import lombok.Getter;
+
+/**
+ * Counters of the database work done by the request running on the current thread.<p>
+ * They are started by the {@link QueryMetricsInterceptor} before the handler runs and filled by the
+ * {@link QueryMetricsSessionListener} and the post-load listener registered by {@link QueryMetricsConfiguration}.
+ * Work done outside a request, or on another thread, is not counted.
+ */
+@Getter
+public class RequestQueryMetrics {
+    private static final ThreadLocal<RequestQueryMetrics> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+
+    private long jdbcNanos;
+
+    private long entityLoads;
+
+    private long cacheHits;
+
+    private long cacheMisses;
+
+    /**
+     * Starts counting the work of the request running on the current thread.
+     */
+    static void start() {
+        CURRENT.set(new RequestQueryMetrics());
+    }
+
+    /**
+     * @return The counters of the request running on the current thread, {@code null} if none.
+     */
+    static RequestQueryMetrics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stops counting the work of the request running on the current thread.
+     *
+     * @return The counters of the request, {@code null} if it was not started.
+     */
+    static RequestQueryMetrics finish() {
+        RequestQueryMetrics metrics = CURRENT.get();
+        CURRENT.remove();
+        return metrics;
+    }
+
+    void recordStatement(long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+    }
+
+    void recordEntityLoad() {
+        entityLoads++;
+    }
+
+    void recordCacheGet(boolean hit) {
+        if (hit) {
+            cacheHits++;
+        } else {
+            cacheMisses++;
+        }
+    }
+}
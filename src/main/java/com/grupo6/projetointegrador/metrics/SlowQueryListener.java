@@ -0,0 +1,71 @@
+package com.grupo6.projetointegrador.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Datasource listener that logs the statements slower than a threshold, with their bind parameters, the
+ * number of rows they changed and the service method that issued them.<p>
+ * Only a sample of the slow statements is logged, as set by the sample rate, so a slow database does not
+ * flood the log. The rows are known only for writes: a query is timed before its result set is read.
+ */
+public class SlowQueryListener implements QueryExecutionListener {
+    private static final String SERVICE_PACKAGE = "com.grupo6.projetointegrador.service.";
+
+    private final Logger logger = LoggerFactory.getLogger(SlowQueryListener.class);
+
+    private final DefaultQueryLogEntryCreator logEntryCreator = new DefaultQueryLogEntryCreator();
+
+    private final long thresholdMs;
+
+    private final double sampleRate;
+
+    public SlowQueryListener(long thresholdMs, double sampleRate) {
+        this.thresholdMs = thresholdMs;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMs || !sampled()) {
+            return;
+        }
+        logger.warn("Slow query: {}, Rows:{}, Caller:{}",
+                logEntryCreator.getLogEntry(execInfo, queryInfoList, false, false, false),
+                rows(execInfo.getResult()), caller());
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private static String rows(Object result) {
+        if (result instanceof Integer) {
+            return result.toString();
+        }
+        if (result instanceof int[]) {
+            return String.valueOf(Arrays.stream((int[]) result).sum());
+        }
+        return "-";
+    }
+
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(SERVICE_PACKAGE) && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(SERVICE_PACKAGE.length()) + "." + frame.getMethodName())
+                .orElse("unknown"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.grupo6.projetointegrador.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = "slow-query", name = "enabled", havingValue = "true")
+public class SlowQueryLogConfiguration {
+
+    /**
+     * Wraps the datasource so every statement is timed by the {@link SlowQueryListener}. The pool itself is
+     * untouched and still reachable through {@link DataSource#unwrap(Class)}, so its metrics keep working.
+     */
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(
+            @Value("${slow-query.threshold-ms:500}") long thresholdMs,
+            @Value("${slow-query.sample-rate:1.0}") double sampleRate
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                        .listener(new SlowQueryListener(thresholdMs, sampleRate))
+                        .build();
+            }
+        };
+    }
+}
@@ -1,24 +1,35 @@
 package com.grupo6.projetointegrador.model.entity;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
+@NamedEntityGraph(name = "InboundOrder.section", attributeNodes = @NamedAttributeNode("section"))
 @Getter @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class InboundOrder {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "inbound_order_id")
+    @GenericGenerator(name = "inbound_order_id", strategy = "com.grupo6.projetointegrador.repository.PooledTableIdGenerator",
+            parameters = {
+                    @Parameter(name = "table_name", value = "id_generator"),
+                    @Parameter(name = "segment_column_name", value = "sequence_name"),
+                    @Parameter(name = "value_column_name", value = "next_val"),
+                    @Parameter(name = "segment_value", value = "inbound_order"),
+                    @Parameter(name = "increment_size", value = "50")
+            })
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private WarehouseOperator warehouseOperator;
 
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Section section;
 
     @OneToMany(
@@ -27,7 +38,7 @@ public class InboundOrder {
     )
     private List<ItemBatch> itemBatches;
 
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Warehouse warehouse;
 
     private LocalDate orderDate;
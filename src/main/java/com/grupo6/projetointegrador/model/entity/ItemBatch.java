@@ -1,7 +1,11 @@
 package com.grupo6.projetointegrador.model.entity;
 
+import com.grupo6.projetointegrador.model.enumeration.Active;
 import com.grupo6.projetointegrador.model.enumeration.Category;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
@@ -9,16 +13,30 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+@NamedEntityGraph(name = "ItemBatch.inboundOrder", attributeNodes = @NamedAttributeNode("inboundOrder"))
+@NamedEntityGraph(name = "ItemBatch.productAndInboundOrder", attributeNodes = {
+        @NamedAttributeNode("product"),
+        @NamedAttributeNode("inboundOrder")
+})
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class ItemBatch {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "item_batch_id")
+    @GenericGenerator(name = "item_batch_id", strategy = "com.grupo6.projetointegrador.repository.PooledTableIdGenerator",
+            parameters = {
+                    @Parameter(name = "table_name", value = "id_generator"),
+                    @Parameter(name = "segment_column_name", value = "sequence_name"),
+                    @Parameter(name = "value_column_name", value = "next_val"),
+                    @Parameter(name = "segment_value", value = "item_batch"),
+                    @Parameter(name = "increment_size", value = "50")
+            })
     private Long id;
 
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Product product;
 
     private int productQuantity;
@@ -33,12 +51,29 @@ public class ItemBatch {
 
     private BigDecimal price;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private InboundOrder inboundOrder;
 
     @Enumerated(EnumType.STRING)
     private Category category;
 
+    /**
+     * Copy of the seller's active status, kept in sync by {@link com.grupo6.projetointegrador.repository.ItemBatchRepo#updateSellerActiveBySellerId},
+     * so the stock queries don't need to join product and seller.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(columnDefinition = "varchar(255) default 'ATIVO' not null")
+    private Active sellerActive = Active.ATIVO;
+
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+    public ItemBatch(Long id, Product product, int productQuantity, LocalDate manufacturingDate, LocalDateTime manufacturingTime, Long volume, LocalDate dueDate, BigDecimal price, InboundOrder inboundOrder, Category category) {
+        this(product, productQuantity, manufacturingDate, manufacturingTime, volume, dueDate, price, inboundOrder, category);
+        this.id = id;
+    }
+
     public ItemBatch(Product product, int productQuantity, LocalDate manufacturingDate, LocalDateTime manufacturingTime, Long volume, LocalDate dueDate, BigDecimal price, InboundOrder inboundOrder, Category category) {
         this.product = product;
         this.productQuantity = productQuantity;
@@ -5,22 +5,33 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
+@NamedEntityGraph(name = "OrderPurchase.productOrders", attributeNodes = @NamedAttributeNode("productOrders"))
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class OrderPurchase {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "order_purchase_id")
+    @GenericGenerator(name = "order_purchase_id", strategy = "com.grupo6.projetointegrador.repository.PooledTableIdGenerator",
+            parameters = {
+                    @Parameter(name = "table_name", value = "id_generator"),
+                    @Parameter(name = "segment_column_name", value = "sequence_name"),
+                    @Parameter(name = "value_column_name", value = "next_val"),
+                    @Parameter(name = "segment_value", value = "order_purchase"),
+                    @Parameter(name = "increment_size", value = "50")
+            })
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Buyer buyer;
 
     private LocalDate dateOrder;
@@ -0,0 +1,30 @@
+package com.grupo6.projetointegrador.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+
+/**
+ * Quantity of a product in a warehouse, summed over the batches of active sellers.
+ * Kept up to date by the stock changes, see {@link com.grupo6.projetointegrador.service.ProductWarehouseStockService}.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@IdClass(ProductWarehouseStockId.class)
+public class ProductWarehouseStock {
+    @Id
+    private Long productId;
+
+    @Id
+    private Long warehouseId;
+
+    private long quantity;
+}
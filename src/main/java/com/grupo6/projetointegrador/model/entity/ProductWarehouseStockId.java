@@ -0,0 +1,18 @@
+package com.grupo6.projetointegrador.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class ProductWarehouseStockId implements Serializable {
+    private Long productId;
+
+    private Long warehouseId;
+}
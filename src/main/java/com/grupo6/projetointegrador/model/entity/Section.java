@@ -2,10 +2,13 @@ package com.grupo6.projetointegrador.model.entity;
 
 import com.grupo6.projetointegrador.model.enumeration.Category;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "section")
 @Getter
 @Setter
 @AllArgsConstructor
@@ -15,7 +18,7 @@ public class Section {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Warehouse warehouse;
 
     private Long volume;
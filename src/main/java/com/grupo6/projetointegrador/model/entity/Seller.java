@@ -12,11 +12,15 @@ import javax.validation.constraints.NotNull;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Seller.EMAIL_CONSTRAINT, columnNames = "email"))
+@NamedEntityGraph(name = "Seller.products", attributeNodes = @NamedAttributeNode("products"))
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class Seller {
+    public static final String EMAIL_CONSTRAINT = "uk_seller_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -28,7 +32,6 @@ public class Seller {
     private String lastName;
 
     @NotNull
-    @Column(unique = true)
     private String email;
 
     @NotNull
@@ -0,0 +1,41 @@
+package com.grupo6.projetointegrador.model.entity;
+
+import com.grupo6.projetointegrador.model.enumeration.StatusReservation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private OrderPurchase orderPurchase;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private ItemBatch itemBatch;
+
+    private int quantity;
+
+    @Enumerated(EnumType.STRING)
+    private StatusReservation status;
+
+    private LocalDateTime createdAt;
+
+    public StockReservation(ItemBatch itemBatch, int quantity) {
+        this.itemBatch = itemBatch;
+        this.quantity = quantity;
+        this.status = StatusReservation.RESERVADO;
+        this.createdAt = LocalDateTime.now();
+    }
+}
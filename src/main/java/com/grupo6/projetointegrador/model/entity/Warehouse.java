@@ -1,11 +1,14 @@
 package com.grupo6.projetointegrador.model.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "warehouse")
 @Getter
 @Setter
 @AllArgsConstructor
@@ -16,8 +19,9 @@ public class Warehouse {
     private Long id;
 
     @OneToMany(mappedBy = "warehouse")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "warehouse-sections")
     private List<Section> sections;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     private WarehouseOperator warehouseOperator;
 }
@@ -1,11 +1,14 @@
 package com.grupo6.projetointegrador.model.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "warehouse-operator")
 @Getter
 @Setter
 @AllArgsConstructor
@@ -1,5 +1,5 @@
 package com.grupo6.projetointegrador.model.enumeration;
 
 public enum StatusOrder {
-    ABERTO, FINALIZADO
+    ABERTO, FINALIZADO, CANCELADO
 }
@@ -0,0 +1,5 @@
+package com.grupo6.projetointegrador.model.enumeration;
+
+public enum StatusReservation {
+    RESERVADO, LIQUIDADO, LIBERADO
+}
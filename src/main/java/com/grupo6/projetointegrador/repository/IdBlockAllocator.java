@@ -0,0 +1,103 @@
+package com.grupo6.projetointegrador.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.HibernateException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out the ids of the {@code id_generator} table in blocks, reserved on a small connection pool of its own.<p>
+ * The ids are reserved while the inserting transaction holds a connection of the application pool. Taking the
+ * reservation from that same pool could leave every transaction holding a connection and waiting for a second one;
+ * a reservation here only waits for another reservation, which commits right away, so it always makes progress.<p>
+ * A read of {@code next_val} hands out the ids up to it and moves it one block ahead, the layout the migrations
+ * and {@link com.grupo6.projetointegrador.dataset.IdGenerators} expect. A row still at its initial value hands out
+ * only the ids from 1 up to it, possibly none, and the next block is reserved right after.
+ */
+public class IdBlockAllocator implements AutoCloseable {
+    /**
+     * Hibernate setting under which the allocator is handed to {@link PooledTableIdGenerator}.
+     */
+    public static final String SETTING = "projeto-integrador.id-block-allocator";
+
+    private final HikariDataSource dataSource;
+
+    private final Map<String, IdBlock> blocks = new ConcurrentHashMap<>();
+
+    public IdBlockAllocator(HikariDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Method to take the next id of a sequence, reserving a new block when the current one is used up.
+     *
+     * @param table          The generator table.
+     * @param segmentColumn  The column naming the sequence.
+     * @param valueColumn    The column with the end of the next block.
+     * @param segmentValue   The sequence.
+     * @param allocationSize The number of ids reserved at once.
+     * @return The id.
+     */
+    public long next(String table, String segmentColumn, String valueColumn, String segmentValue, int allocationSize) {
+        IdBlock block = blocks.computeIfAbsent(table + "." + segmentValue, key -> new IdBlock());
+        synchronized (block) {
+            while (block.next > block.last) {
+                block.last = reserve(table, segmentColumn, valueColumn, segmentValue, allocationSize);
+                block.next = Math.max(block.last - allocationSize + 1, 1L);
+            }
+            return block.next++;
+        }
+    }
+
+    private long reserve(String table, String segmentColumn, String valueColumn, String segmentValue, int allocationSize) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                long last = readForUpdate(connection, table, segmentColumn, valueColumn, segmentValue);
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE " + table + " SET " + valueColumn + " = ? WHERE " + segmentColumn + " = ?")) {
+                    update.setLong(1, last + allocationSize);
+                    update.setString(2, segmentValue);
+                    update.executeUpdate();
+                }
+                connection.commit();
+                return last;
+            } catch (SQLException | RuntimeException exception) {
+                connection.rollback();
+                throw exception;
+            }
+        } catch (SQLException exception) {
+            throw new HibernateException("Could not reserve ids of " + table + "." + segmentValue, exception);
+        }
+    }
+
+    private static long readForUpdate(Connection connection, String table, String segmentColumn, String valueColumn,
+                                      String segmentValue) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT " + valueColumn + " FROM " + table + " WHERE " + segmentColumn + " = ? FOR UPDATE")) {
+            select.setString(1, segmentValue);
+            try (ResultSet resultSet = select.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new HibernateException("Missing row " + segmentValue + " in " + table);
+                }
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+
+    private static class IdBlock {
+        private long next = 1L;
+
+        private long last = 0L;
+    }
+}
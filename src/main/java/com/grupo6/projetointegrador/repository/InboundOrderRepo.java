@@ -1,7 +1,12 @@
 package com.grupo6.projetointegrador.repository;
 
 import com.grupo6.projetointegrador.model.entity.InboundOrder;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 public interface InboundOrderRepo extends JpaRepository<InboundOrder, Long> {
+    @EntityGraph("InboundOrder.section")
+    Optional<InboundOrder> findWithSectionById(Long id);
 }
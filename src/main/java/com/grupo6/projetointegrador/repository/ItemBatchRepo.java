@@ -1,45 +1,107 @@
 package com.grupo6.projetointegrador.repository;
 
 import com.grupo6.projetointegrador.dto.DueDateItemBatchDto;
+import com.grupo6.projetointegrador.dto.ExpiryBatchDto;
+import com.grupo6.projetointegrador.dto.StockBatchDto;
+import com.grupo6.projetointegrador.dto.StockLocationDto;
 import com.grupo6.projetointegrador.model.entity.ItemBatch;
+import com.grupo6.projetointegrador.model.enumeration.Active;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ItemBatchRepo extends JpaRepository<ItemBatch, Long> {
+public interface ItemBatchRepo extends JpaRepository<ItemBatch, Long>, ItemBatchStockRepo {
+    String LOCATIONS_BY_PRODUCT_ID = "SELECT t1.id AS itemBatchId, t1.product_quantity AS productQuantity, " +
+            "t1.due_date AS dueDate, t1.inbound_order_id AS inboundOrderId, " +
+            "t2.section_id AS sectionId, t2.warehouse_id AS warehouseId FROM item_batch AS t1 " +
+            "JOIN inbound_order AS t2 ON t2.id = t1.inbound_order_id " +
+            "WHERE t1.product_id = ?1 AND t1.seller_active = 'ATIVO' ";
+
     ItemBatch findByProductId(Long productId);
 
-    @Query(value = "SELECT * FROM item_batch AS t1 LEFT JOIN product AS t2 ON t1.product_id = t2.id " +
-            "LEFT JOIN seller AS t3 ON t2.seller_id = t3.id " +
-            "WHERE t1.product_id = ?1 AND t3.active = 'ATIVO'", nativeQuery = true)
-    List<ItemBatch> findAllByProductId(Long productId);
-
-    @Query(value = "SELECT * FROM item_batch AS t1 LEFT JOIN product AS t2 ON t1.product_id = t2.id " +
-            "LEFT JOIN seller AS t3 ON t2.seller_id = t3.id " +
-            "WHERE t1.product_id = ?1 AND t3.active = 'ATIVO' ORDER BY t1.id ASC", nativeQuery = true)
-    List<ItemBatch> findAllByProductIdOrderByIdAsc(Long productId);
-
-    @Query(value = "SELECT * FROM item_batch AS t1 LEFT JOIN product AS t2 ON t1.product_id = t2.id " +
-            "LEFT JOIN seller AS t3 ON t2.seller_id = t3.id " +
-            "WHERE t1.product_id = ?1 AND t3.active = 'ATIVO' ORDER BY t1.product_quantity ASC", nativeQuery = true)
-    List<ItemBatch> findAllByProductIdOrderByProductQuantityAsc(Long productId);
-
-    @Query(value = "SELECT * FROM item_batch AS t1 LEFT JOIN product AS t2 ON t1.product_id = t2.id " +
-            "LEFT JOIN seller AS t3 ON t2.seller_id = t3.id " +
-            "WHERE t1.product_id = ?1 AND t3.active = 'ATIVO' ORDER BY t1.due_date ASC", nativeQuery = true)
-    List<ItemBatch> findAllByProductIdOrderByDueDateAsc(Long productId);
+    @EntityGraph("ItemBatch.inboundOrder")
+    List<ItemBatch> findWithInboundOrderByIdIn(Collection<Long> ids);
+
+    @EntityGraph("ItemBatch.inboundOrder")
+    List<ItemBatch> findWithInboundOrderByInboundOrderIdAndIdIn(Long inboundOrderId, Collection<Long> ids);
+
+    @Query("SELECT COALESCE(SUM(b.volume), 0) FROM ItemBatch b WHERE b.inboundOrder.id = ?1")
+    long sumVolumeByInboundOrderId(Long inboundOrderId);
+
+    @EntityGraph("ItemBatch.productAndInboundOrder")
+    Optional<ItemBatch> findWithProductAndInboundOrderById(Long id);
+
+    @EntityGraph("ItemBatch.productAndInboundOrder")
+    List<ItemBatch> findWithProductAndInboundOrderByIdIn(Collection<Long> ids);
+
+    @Query(value = LOCATIONS_BY_PRODUCT_ID, nativeQuery = true)
+    List<StockLocationDto> findLocationsByProductId(Long productId);
+
+    @Query(value = LOCATIONS_BY_PRODUCT_ID + "ORDER BY t1.id ASC", nativeQuery = true)
+    List<StockLocationDto> findLocationsByProductIdOrderByIdAsc(Long productId);
+
+    @Query(value = LOCATIONS_BY_PRODUCT_ID + "ORDER BY t1.product_quantity ASC", nativeQuery = true)
+    List<StockLocationDto> findLocationsByProductIdOrderByProductQuantityAsc(Long productId);
+
+    @Query(value = LOCATIONS_BY_PRODUCT_ID + "ORDER BY t1.due_date ASC", nativeQuery = true)
+    List<StockLocationDto> findLocationsByProductIdOrderByDueDateAsc(Long productId);
     /**
      * @param productId
      * @param productQuantity
+     * @param firstValidDueDate the earliest due date a batch can have to be sold, see
+     *                          {@code ItemBatchStockIndex.firstValidDueDate()}
      * @return Optional<ItemBatch>
      */
-    @Query(value = "SELECT t1.* FROM `item_batch` AS t1 LEFT JOIN product AS t2 ON t1.product_id = t2.id " +
-            "LEFT JOIN seller AS t3 ON t2.seller_id = t3.id " +
-            "WHERE t1.due_date > CURRENT_DATE + 21 AND t1.product_id = (?1) " +
-            "AND t1.product_quantity >= (?2) AND t3.active = 'ATIVO' ORDER BY t1.due_date ASC LIMIT 1 ;", nativeQuery = true)
-    Optional<ItemBatch> findByDueDate21AndProductIdAndQty(Long productId, int productQuantity);
+    @Query(value = "SELECT t1.* FROM `item_batch` AS t1 " +
+            "WHERE t1.due_date >= (?3) AND t1.product_id = (?1) " +
+            "AND t1.product_quantity >= (?2) AND t1.seller_active = 'ATIVO' " +
+            "ORDER BY t1.due_date ASC LIMIT 1 ;", nativeQuery = true)
+    Optional<ItemBatch> findByDueDate21AndProductIdAndQty(Long productId, int productQuantity, LocalDate firstValidDueDate);
+
+    /**
+     * @param firstValidDueDate    the earliest due date a batch can have to be sold
+     * @param maxBatchesPerProduct the number of batches returned for each product
+     * @return the first batches to expire of each product, among the sellable ones
+     */
+    @Query(value = "SELECT t3.itemBatchId, t3.productId, t3.sellerId, t3.dueDate, t3.quantity FROM (" +
+            "    SELECT t1.id AS itemBatchId," +
+            "    t1.product_id AS productId," +
+            "    t2.seller_id AS sellerId," +
+            "    t1.due_date AS dueDate," +
+            "    t1.product_quantity AS quantity," +
+            "    ROW_NUMBER() OVER (PARTITION BY t1.product_id ORDER BY t1.due_date ASC, t1.id ASC) AS position" +
+            "    FROM item_batch AS t1" +
+            "    LEFT JOIN product AS t2 ON t2.id = t1.product_id" +
+            "    WHERE t1.seller_active = 'ATIVO'" +
+            "    AND t1.product_quantity > 0" +
+            "    AND t1.due_date >= ?1" +
+            ") AS t3 WHERE t3.position <= ?2", nativeQuery = true)
+    List<StockBatchDto> findFirstSellableBatches(LocalDate firstValidDueDate, int maxBatchesPerProduct);
+
+    @EntityGraph("ItemBatch.productAndInboundOrder")
+    List<ItemBatch> findWithProductAndInboundOrderByProductSellerIdAndProductQuantityGreaterThan(
+            Long sellerId, int productQuantity);
+
+    @Query(value = "SELECT t1.id AS itemBatchId," +
+            "    t1.product_id AS productId," +
+            "    t3.seller_id AS sellerId," +
+            "    t2.section_id AS sectionId," +
+            "    t1.category AS category," +
+            "    t1.due_date AS dueDate," +
+            "    t1.product_quantity AS quantity" +
+            "    FROM item_batch AS t1" +
+            "    LEFT JOIN inbound_order AS t2 ON t2.id = t1.inbound_order_id" +
+            "    LEFT JOIN product AS t3 ON t3.id = t1.product_id" +
+            "    WHERE t1.seller_active = 'ATIVO'" +
+            "    AND t1.product_quantity > 0" +
+            "    AND t1.due_date >= ?1", nativeQuery = true)
+    List<ExpiryBatchDto> findAllUnexpiredBatches(LocalDate today);
 
     @Query(value = "SELECT t1.id AS itemBatchId," +
       "    t1.product_id AS productId," +
@@ -48,11 +110,9 @@ public interface ItemBatchRepo extends JpaRepository<ItemBatch, Long> {
       "    t1.product_quantity AS quantity" +
       "    FROM item_batch AS t1" +
       "    LEFT JOIN inbound_order AS t2 ON t2.id = t1.inbound_order_id" +
-            "    LEFT JOIN product AS t3 ON t3.id = t1.product_id" +
-            "    LEFT JOIN seller AS t4 ON t4.id = t3.seller_id" +
       "    WHERE t2.section_id = ?1" +
       "    AND t1.product_quantity > 0" +
-            "    AND t4.active = 'ATIVO'" +
+            "    AND t1.seller_active = 'ATIVO'" +
       "    AND due_date BETWEEN curdate() AND curdate() + interval ?2 day ORDER BY dueDate", nativeQuery = true)
     List<DueDateItemBatchDto> findByDueDateWithSectionId(Long sectionId, int days);
 
@@ -62,13 +122,16 @@ public interface ItemBatchRepo extends JpaRepository<ItemBatch, Long> {
             "    t1.due_date AS dueDate," +
             "    t1.product_quantity AS quantity" +
             "    FROM item_batch AS t1" +
-            "    LEFT JOIN product AS t2 ON t2.id = t1.product_id" +
-            "    LEFT JOIN seller AS t3 ON t3.id = t2.seller_id" +
             "    WHERE t1.category = ?1" +
-            "    AND t3.active = 'ATIVO'" +
+            "    AND t1.seller_active = 'ATIVO'" +
             "    AND t1.product_quantity > 0" +
             "    AND due_date BETWEEN curdate() AND curdate() + interval ?2 day" +
             "    ORDER BY CASE WHEN ?3 = 'desc' THEN dueDate end DESC," +
             "    CASE WHEN ?3 != 'desc' THEN dueDate end ASC;", nativeQuery = true)
     Optional<List<DueDateItemBatchDto>> findByDueDateWithCategory(String category, int days, String order);
+
+    @Modifying
+    @Query(value = "UPDATE ItemBatch b SET b.sellerActive = ?2, b.version = b.version + 1 " +
+            "WHERE b.product IN (SELECT p FROM Product p WHERE p.seller.id = ?1)")
+    int updateSellerActiveBySellerId(Long sellerId, Active sellerActive);
 }
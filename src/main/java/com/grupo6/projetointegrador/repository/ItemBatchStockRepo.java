@@ -0,0 +1,10 @@
+package com.grupo6.projetointegrador.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ItemBatchStockRepo {
+    List<Long> decrementStock(Map<Long, Integer> quantitiesByItemBatch);
+
+    void incrementStock(Map<Long, Integer> quantitiesByItemBatch);
+}
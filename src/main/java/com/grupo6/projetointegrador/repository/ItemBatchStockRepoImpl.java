@@ -0,0 +1,67 @@
+package com.grupo6.projetointegrador.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ItemBatchStockRepoImpl implements ItemBatchStockRepo {
+    private static final String DECREMENT_STOCK = "UPDATE item_batch SET product_quantity = product_quantity - ?, " +
+            "version = version + 1 WHERE id = ? AND product_quantity >= ?";
+
+    private static final String INCREMENT_STOCK = "UPDATE item_batch SET product_quantity = product_quantity + ?, " +
+            "version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemBatchStockRepoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Subtracts the given quantities from the batches with guarded updates sent as a single JDBC batch.
+     * The updates run in id order, so concurrent finalisations lock the rows in the same order.
+     *
+     * @param quantitiesByItemBatch The quantity to subtract, mapped by batch id.
+     * @return The ids of the batches that did not have enough quantity and were not changed.
+     */
+    @Override
+    public List<Long> decrementStock(Map<Long, Integer> quantitiesByItemBatch) {
+        if (quantitiesByItemBatch.isEmpty()) {
+            return List.of();
+        }
+        List<Long> itemBatchIds = new ArrayList<>(new TreeMap<>(quantitiesByItemBatch).keySet());
+        List<Object[]> arguments = itemBatchIds.stream()
+                .map(id -> new Object[]{quantitiesByItemBatch.get(id), id, quantitiesByItemBatch.get(id)})
+                .collect(Collectors.toList());
+
+        int[] updatedRows = jdbcTemplate.batchUpdate(DECREMENT_STOCK, arguments);
+
+        return IntStream.range(0, updatedRows.length)
+                .filter(index -> updatedRows[index] == 0)
+                .mapToObj(itemBatchIds::get)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Adds the given quantities back to the batches in a single JDBC batch, in id order like
+     * {@link #decrementStock(Map)}.
+     *
+     * @param quantitiesByItemBatch The quantity to add, mapped by batch id.
+     */
+    @Override
+    public void incrementStock(Map<Long, Integer> quantitiesByItemBatch) {
+        if (quantitiesByItemBatch.isEmpty()) {
+            return;
+        }
+        List<Object[]> arguments = new TreeMap<>(quantitiesByItemBatch).entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .collect(Collectors.toList());
+
+        jdbcTemplate.batchUpdate(INCREMENT_STOCK, arguments);
+    }
+}
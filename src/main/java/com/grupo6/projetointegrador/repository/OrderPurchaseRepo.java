@@ -1,9 +1,19 @@
 package com.grupo6.projetointegrador.repository;
 
 import com.grupo6.projetointegrador.model.entity.OrderPurchase;
+import com.grupo6.projetointegrador.model.enumeration.StatusOrder;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
 
 public interface OrderPurchaseRepo extends JpaRepository<OrderPurchase, Long> {
+    @EntityGraph("OrderPurchase.productOrders")
+    Optional<OrderPurchase> findWithProductOrdersById(Long id);
 
+    @Modifying
+    @Query(value = "UPDATE OrderPurchase o SET o.status = ?3 WHERE o.id = ?1 AND o.status = ?2")
+    int updateStatusById(Long id, StatusOrder currentStatus, StatusOrder newStatus);
 }
-
@@ -0,0 +1,37 @@
+package com.grupo6.projetointegrador.repository;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+/**
+ * Table generator whose ids are reserved by the {@link IdBlockAllocator}, on its own connections.
+ * The table is still declared by {@link TableGenerator}, so schema creation and validation see it as before.
+ * Without an allocator in the Hibernate settings, ids are reserved by {@link TableGenerator} itself.
+ */
+public class PooledTableIdGenerator extends TableGenerator {
+    private IdBlockAllocator allocator;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        super.configure(type, params, serviceRegistry);
+        allocator = (IdBlockAllocator) serviceRegistry.getService(ConfigurationService.class)
+                .getSettings()
+                .get(IdBlockAllocator.SETTING);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object obj) {
+        if (allocator == null) {
+            return super.generate(session, obj);
+        }
+        return allocator.next(getTableName(), getSegmentColumnName(), getValueColumnName(), getSegmentValue(),
+                getIncrementSize());
+    }
+}
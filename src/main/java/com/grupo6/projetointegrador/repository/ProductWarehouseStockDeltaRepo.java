@@ -0,0 +1,12 @@
+package com.grupo6.projetointegrador.repository;
+
+import com.grupo6.projetointegrador.model.entity.ProductWarehouseStockId;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ProductWarehouseStockDeltaRepo {
+    void addQuantities(Map<ProductWarehouseStockId, Long> deltas);
+
+    void recountQuantities(Collection<ProductWarehouseStockId> keys);
+}
@@ -0,0 +1,76 @@
+package com.grupo6.projetointegrador.repository;
+
+import com.grupo6.projetointegrador.model.entity.ProductWarehouseStockId;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class ProductWarehouseStockDeltaRepoImpl implements ProductWarehouseStockDeltaRepo {
+    /**
+     * MySQL upsert, also accepted by H2 in MySQL mode. The quantity is added to the stored one, never overwritten,
+     * so concurrent deltas on the same row are all kept.
+     */
+    private static final String ADD_QUANTITY = "INSERT INTO product_warehouse_stock (product_id, warehouse_id, quantity) " +
+            "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)";
+
+    /**
+     * Sets the row to the quantity summed from the batches, zero if none is left. MySQL reads the batches of an
+     * INSERT ... SELECT with shared locks, so a stock change in flight is either committed before the sum or waits
+     * for the row to be written, and is never overwritten.
+     */
+    private static final String RECOUNT_QUANTITY = "INSERT INTO product_warehouse_stock (product_id, warehouse_id, quantity) " +
+            "SELECT ?, ?, COALESCE(SUM(t1.product_quantity), 0) FROM item_batch t1 " +
+            "JOIN inbound_order t2 ON t2.id = t1.inbound_order_id " +
+            "WHERE t1.product_id = ? AND t2.warehouse_id = ? AND t1.seller_active = 'ATIVO' AND t1.product_quantity > 0 " +
+            "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)";
+
+    private static final Comparator<ProductWarehouseStockId> KEY_ORDER = Comparator
+            .comparing(ProductWarehouseStockId::getProductId)
+            .thenComparing(ProductWarehouseStockId::getWarehouseId);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductWarehouseStockDeltaRepoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the quantities to the summary rows, creating the missing ones, with upserts sent as a single JDBC batch.
+     * The rows are written in key order, so concurrent stock changes lock them in the same order.
+     *
+     * @param deltas The quantity to add, mapped by product and warehouse.
+     */
+    @Override
+    public void addQuantities(Map<ProductWarehouseStockId, Long> deltas) {
+        List<Object[]> arguments = deltas.entrySet().stream()
+                .filter(delta -> delta.getValue() != 0)
+                .sorted(Map.Entry.comparingByKey(KEY_ORDER))
+                .map(delta -> new Object[]{delta.getKey().getProductId(), delta.getKey().getWarehouseId(), delta.getValue()})
+                .collect(Collectors.toList());
+        if (!arguments.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_QUANTITY, arguments);
+        }
+    }
+
+    /**
+     * Sets the summary rows to the quantities of their batches, with upserts sent as a single JDBC batch.
+     * Running it again, or on several instances at once, writes the same quantities.
+     * The rows are written in key order, like {@link #addQuantities(Map)}.
+     *
+     * @param keys The product and warehouse of each row.
+     */
+    @Override
+    public void recountQuantities(Collection<ProductWarehouseStockId> keys) {
+        List<Object[]> arguments = keys.stream()
+                .sorted(KEY_ORDER)
+                .map(key -> new Object[]{key.getProductId(), key.getWarehouseId(), key.getProductId(), key.getWarehouseId()})
+                .collect(Collectors.toList());
+        if (!arguments.isEmpty()) {
+            jdbcTemplate.batchUpdate(RECOUNT_QUANTITY, arguments);
+        }
+    }
+}
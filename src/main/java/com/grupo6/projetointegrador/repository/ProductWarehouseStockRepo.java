@@ -0,0 +1,38 @@
+package com.grupo6.projetointegrador.repository;
+
+import com.grupo6.projetointegrador.dto.ProductWarehouseStockDto;
+import com.grupo6.projetointegrador.dto.WarehouseDto;
+import com.grupo6.projetointegrador.model.entity.ProductWarehouseStock;
+import com.grupo6.projetointegrador.model.entity.ProductWarehouseStockId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface ProductWarehouseStockRepo extends JpaRepository<ProductWarehouseStock, ProductWarehouseStockId>,
+        ProductWarehouseStockDeltaRepo {
+    @Query(value = "SELECT warehouse_id AS warehouse, quantity FROM product_warehouse_stock " +
+            "WHERE product_id = ?1", nativeQuery = true)
+    List<WarehouseDto> findWarehousesByProductId(Long productId);
+
+    /**
+     * Difference between the quantities summed from the batches and the summary, per product and warehouse.
+     * Both sides are read by the same statement, so they come from the same snapshot.
+     */
+    @Query(value = "SELECT t.product_id AS productId, t.warehouse_id AS warehouse, SUM(t.quantity) AS quantity FROM (" +
+            "SELECT t1.product_id, t2.warehouse_id, t1.product_quantity AS quantity FROM item_batch t1 " +
+            "JOIN inbound_order t2 ON t2.id = t1.inbound_order_id " +
+            "WHERE t1.product_id BETWEEN ?1 AND ?2 AND t1.seller_active = 'ATIVO' AND t1.product_quantity > 0 " +
+            "UNION ALL " +
+            "SELECT product_id, warehouse_id, -quantity FROM product_warehouse_stock WHERE product_id BETWEEN ?1 AND ?2" +
+            ") t GROUP BY t.product_id, t.warehouse_id HAVING SUM(t.quantity) <> 0", nativeQuery = true)
+    List<ProductWarehouseStockDto> findDriftByProductIdBetween(Long firstProductId, Long lastProductId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE ProductWarehouseStock s SET s.quantity = 0 " +
+            "WHERE s.productId IN (SELECT p.id FROM Product p WHERE p.seller.id = ?1)")
+    int clearBySellerId(Long sellerId);
+}
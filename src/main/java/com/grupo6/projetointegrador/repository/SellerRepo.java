@@ -1,7 +1,21 @@
 package com.grupo6.projetointegrador.repository;
 
 import com.grupo6.projetointegrador.model.entity.Seller;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface SellerRepo extends JpaRepository<Seller, Long> {
+    @EntityGraph("Seller.products")
+    Optional<Seller> findWithProductsById(Long id);
+
+    boolean existsByEmailIgnoreCase(String email);
+
+    boolean existsByEmailIgnoreCaseAndIdNot(String email, Long id);
+
+    @Query("SELECT s.email FROM Seller s")
+    List<String> findAllEmails();
 }
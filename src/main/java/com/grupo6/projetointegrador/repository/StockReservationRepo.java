@@ -0,0 +1,24 @@
+package com.grupo6.projetointegrador.repository;
+
+import com.grupo6.projetointegrador.model.entity.StockReservation;
+import com.grupo6.projetointegrador.model.enumeration.StatusReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockReservationRepo extends JpaRepository<StockReservation, Long> {
+    List<StockReservation> findByOrderPurchaseId(Long orderPurchaseId);
+
+    boolean existsByOrderPurchaseId(Long orderPurchaseId);
+
+    @Modifying
+    @Query(value = "UPDATE StockReservation r SET r.status = ?3 WHERE r.orderPurchase.id = ?1 AND r.status = ?2")
+    int updateStatusByOrderPurchaseId(Long orderPurchaseId, StatusReservation currentStatus, StatusReservation newStatus);
+
+    @Query(value = "SELECT DISTINCT r.orderPurchase.id FROM StockReservation r WHERE r.status = ?1 AND r.createdAt < ?2")
+    List<Long> findOrderPurchaseIdsByStatusAndCreatedAtBefore(StatusReservation status, LocalDateTime createdAt, Pageable pageable);
+}
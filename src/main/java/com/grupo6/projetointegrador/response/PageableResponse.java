@@ -1,17 +1,21 @@
 package com.grupo6.projetointegrador.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.Collection;
 
 @Getter
 @Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PageableResponse {
     private Collection<?> content;
-    private int totalPages;
+    private Integer totalPages;
     private Long totalRecords;
+    private Long nextCursor;
 
     public PageableResponse toResponse(Page<?> page){
         this.content = page.getContent();
@@ -19,4 +23,22 @@ public class PageableResponse {
         this.totalRecords = page.getTotalElements();
         return this;
     }
+
+    /**
+     * Builds the response of a slice, which carries no count of its own.
+     *
+     * @param slice        The slice of records.
+     * @param totalRecords The number of records, or {@code null} to leave the totals out.
+     * @param nextCursor   The key to seek the next slice from, or {@code null} if this is the last one.
+     * @return This response.
+     */
+    public PageableResponse toResponse(Slice<?> slice, Long totalRecords, Long nextCursor){
+        this.content = slice.getContent();
+        this.totalRecords = totalRecords;
+        if (totalRecords != null) {
+            this.totalPages = slice.getSize() == 0 ? 1 : (int) ((totalRecords + slice.getSize() - 1) / slice.getSize());
+        }
+        this.nextCursor = nextCursor;
+        return this;
+    }
 }
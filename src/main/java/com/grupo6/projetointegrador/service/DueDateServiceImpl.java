@@ -5,20 +5,26 @@ import com.grupo6.projetointegrador.exception.BusinessRuleException;
 import com.grupo6.projetointegrador.exception.NotFoundException;
 import com.grupo6.projetointegrador.model.enumeration.Category;
 import com.grupo6.projetointegrador.repository.ItemBatchRepo;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
 @Service
+@Timed("service.method")
 public class DueDateServiceImpl implements DueDateService{
     private final ItemBatchRepo itemBatchRepo;
 
-    public DueDateServiceImpl(ItemBatchRepo itemBatchRepo) {
+    private final ExpiryTimeline expiryTimeline;
+
+    public DueDateServiceImpl(ItemBatchRepo itemBatchRepo, ExpiryTimeline expiryTimeline) {
         this.itemBatchRepo = itemBatchRepo;
+        this.expiryTimeline = expiryTimeline;
     }
 
     /**
-     * This method returns a list of DueDateItemBatchDto objects, which are the result of a query.<p>
+     * This method returns a list of DueDateItemBatchDto objects, read from the {@link ExpiryTimeline} once it is loaded
+     * or else from a query.<p>
      * Also, check the {@link ItemBatchRepo#findByDueDateWithSectionId(Long, int)} method for more movement details.
      *
      * @param sectionId The id of the section you want to search for.
@@ -30,7 +36,9 @@ public class DueDateServiceImpl implements DueDateService{
         if (days < 0) {
             throw new BusinessRuleException("Intervalo de dias inválido. Precisa ser maior que zero.");
         }
-        List<DueDateItemBatchDto> dueDateItemBatchDtos = itemBatchRepo.findByDueDateWithSectionId(sectionId, days);
+        List<DueDateItemBatchDto> dueDateItemBatchDtos = expiryTimeline.isReady()
+                ? expiryTimeline.findBySection(sectionId, days)
+                : itemBatchRepo.findByDueDateWithSectionId(sectionId, days);
         if (dueDateItemBatchDtos.isEmpty()) {
             throw new NotFoundException("Nenhum lote encontrado.");
         }
@@ -39,7 +47,8 @@ public class DueDateServiceImpl implements DueDateService{
 
     /**
      * This method finds all item batches that are due in the next X days, ordered by the given order, and filtered by the given
-     * category.<p>
+     * category. The batches are read from the {@link ExpiryTimeline} once it is loaded or else from a query, and both
+     * answer an invalid category and an empty result the same way.<p>
      * Also, check the {@link ItemBatchRepo#findByDueDateWithCategory(String, int, String)} method for more movement details.
      *
      * @param category The category of the item.
@@ -51,8 +60,15 @@ public class DueDateServiceImpl implements DueDateService{
     public List<DueDateItemBatchDto> findItemBatchByCategory(String category, int days, String order) {
         try {
             String categoryToSearch = Category.fromCode(category).getName();
-            return itemBatchRepo.findByDueDateWithCategory(categoryToSearch, days, order.toLowerCase())
-                    .orElseThrow(() -> new NotFoundException("Nenhum lote encontrado."));
+            List<DueDateItemBatchDto> dueDateItemBatchDtos = expiryTimeline.isReady()
+                    ? expiryTimeline.findByCategory(Category.valueOf(categoryToSearch), days,
+                            "desc".equals(order.toLowerCase()))
+                    : itemBatchRepo.findByDueDateWithCategory(categoryToSearch, days, order.toLowerCase())
+                            .orElse(List.of());
+            if (dueDateItemBatchDtos.isEmpty()) {
+                throw new NotFoundException("Nenhum lote encontrado.");
+            }
+            return dueDateItemBatchDtos;
         } catch (NullPointerException exception) {
             throw new BusinessRuleException("A categoria passada é inválida.");
         }
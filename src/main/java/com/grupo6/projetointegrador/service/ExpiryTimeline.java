@@ -0,0 +1,363 @@
+package com.grupo6.projetointegrador.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.grupo6.projetointegrador.dto.DueDateItemBatchDto;
+import com.grupo6.projetointegrador.dto.ExpiryBatchDto;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
+import com.grupo6.projetointegrador.model.enumeration.Active;
+import com.grupo6.projetointegrador.model.enumeration.Category;
+import com.grupo6.projetointegrador.repository.ItemBatchRepo;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static com.grupo6.projetointegrador.service.TransactionCallbacks.afterCommit;
+
+/**
+ * In-memory timeline of the unexpired batches in stock, bucketed by due date, per section and per category.<p>
+ * It answers the same questions as {@link ItemBatchRepo#findByDueDateWithSectionId(Long, int)} and
+ * {@link ItemBatchRepo#findByDueDateWithCategory(String, int, String)} by walking the day buckets from today,
+ * returning the entries themselves as {@link DueDateItemBatchDto}. Writes are applied only after the surrounding
+ * transaction commits, and the timeline is rebuilt from the database every midnight, dropping expired days.
+ * In between, a scheduled check compares it with the database and rebuilds it on divergence, so changes the
+ * timeline did not see, such as the ones made by another instance, are picked up within the check interval.
+ * A rebuild fills a new set of buckets and swaps it in whole, so queries never see a half-built timeline.
+ */
+@Component
+public class ExpiryTimeline {
+    private final Logger logger = LoggerFactory.getLogger(ExpiryTimeline.class);
+
+    private final ItemBatchRepo itemBatchRepo;
+
+    private final boolean enabled;
+
+    private volatile boolean loaded;
+
+    private volatile Buckets buckets = new Buckets();
+
+    /**
+     * Incremented by every write, under the lock of the timeline, so a check can tell whether the timeline changed
+     * while the database was being read.
+     */
+    private long version;
+
+    public ExpiryTimeline(ItemBatchRepo itemBatchRepo, @Value("${expiry-timeline.enabled:true}") boolean enabled) {
+        this.itemBatchRepo = itemBatchRepo;
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return {@code true} if the timeline is enabled and was already loaded, so it can answer queries.
+     */
+    public boolean isReady() {
+        return enabled && loaded;
+    }
+
+    /**
+     * Loads every unexpired batch in stock from the database once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            replaceAll(findUnexpiredEntries(LocalDate.now()).values());
+            loaded = true;
+        }
+    }
+
+    /**
+     * Rebuilds the timeline from the database at the turn of the day, so expired buckets are dropped and
+     * any divergence from the database is corrected.
+     */
+    @Scheduled(cron = "${expiry-timeline.rebuild-cron:0 0 0 * * *}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        Collection<ExpiryEntry> entries = findUnexpiredEntries(LocalDate.now()).values();
+        replaceAll(entries);
+        loaded = true;
+        logger.info("Expiry timeline rebuilt with {} batches.", entries.size());
+    }
+
+    /**
+     * Compares the timeline with the database and rebuilds it when they differ. Batches that expired since they were
+     * added are dropped first, as the database no longer returns them. The comparison and the rebuild are skipped
+     * when the timeline was written while the database was read, since the rows read may be older than the timeline.
+     *
+     * @return The number of batches that were missing, stale or unknown to the database.
+     */
+    @Scheduled(
+            initialDelayString = "${expiry-timeline.consistency-check-interval-ms:600000}",
+            fixedDelayString = "${expiry-timeline.consistency-check-interval-ms:600000}"
+    )
+    public int checkConsistency() {
+        if (!isReady()) {
+            return 0;
+        }
+        LocalDate today = LocalDate.now();
+        removeWhere(entry -> entry.getDueDate().isBefore(today));
+        long readVersion = currentVersion();
+        Map<Long, ExpiryEntry> expected = findUnexpiredEntries(today);
+        synchronized (this) {
+            if (version != readVersion) {
+                logger.debug("Expiry timeline changed while the database was read, skipping the check.");
+                return 0;
+            }
+            Map<Long, ExpiryEntry> timeline = buckets.entriesByItemBatch;
+            Set<Long> itemBatchIds = new HashSet<>(expected.keySet());
+            itemBatchIds.addAll(timeline.keySet());
+            int divergent = (int) itemBatchIds.stream()
+                    .filter(id -> !Objects.equals(expected.get(id), timeline.get(id)))
+                    .count();
+            if (divergent > 0) {
+                logger.warn("Expiry timeline diverged from the database in {} batches, rebuilding.", divergent);
+                replaceAll(expected.values());
+            }
+            return divergent;
+        }
+    }
+
+    /**
+     * Method to find the batches of a section that expire between today and the given number of days.
+     *
+     * @param sectionId The id of the section.
+     * @param days      The number of days from today.
+     * @return The batches ordered by due date, empty if none.
+     */
+    public List<DueDateItemBatchDto> findBySection(Long sectionId, int days) {
+        return walk(buckets.bySection.get(sectionId), days, false);
+    }
+
+    /**
+     * Method to find the batches of a category that expire between today and the given number of days.
+     *
+     * @param category   The category of the batches.
+     * @param days       The number of days from today.
+     * @param descending {@code true} to return the batches that expire last first.
+     * @return The batches ordered by due date, empty if none.
+     */
+    public List<DueDateItemBatchDto> findByCategory(Category category, int days, boolean descending) {
+        return walk(buckets.byCategory.get(category), days, descending);
+    }
+
+    /**
+     * Registers the current state of the batches once the surrounding transaction commits.
+     *
+     * @param itemBatches The batches that were created or changed.
+     */
+    public void putAll(Collection<ItemBatch> itemBatches) {
+        if (!enabled) {
+            return;
+        }
+        List<ExpiryEntry> entries = itemBatches.stream()
+                .filter(itemBatch -> itemBatch.getId() != null)
+                .map(ExpiryEntry::fromItemBatch)
+                .collect(Collectors.toList());
+        afterCommit(() -> entries.forEach(this::put));
+    }
+
+    /**
+     * Subtracts quantities from the batches once the surrounding transaction commits. Each entry is read and
+     * replaced under the same lock as the other writes, so concurrent orders do not overwrite each other.
+     *
+     * @param quantitiesByItemBatch The quantity taken from each batch, mapped by batch id.
+     */
+    public void decrement(Map<Long, Integer> quantitiesByItemBatch) {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, Integer> quantities = new HashMap<>(quantitiesByItemBatch);
+        afterCommit(() -> quantities.forEach(this::subtract));
+    }
+
+    /**
+     * Removes every batch of the given seller, used when the seller becomes inactive.
+     *
+     * @param sellerId The id of the seller.
+     */
+    public void removeSeller(Long sellerId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> removeWhere(entry -> sellerId.equals(entry.getSellerId())));
+    }
+
+    private List<DueDateItemBatchDto> walk(NavigableMap<LocalDate, Map<Long, ExpiryEntry>> buckets, int days,
+                                           boolean descending) {
+        if (buckets == null || days < 0) {
+            return List.of();
+        }
+        LocalDate today = LocalDate.now();
+        NavigableMap<LocalDate, Map<Long, ExpiryEntry>> range = buckets.subMap(today, true, today.plusDays(days), true);
+        if (descending) {
+            range = range.descendingMap();
+        }
+        List<DueDateItemBatchDto> result = new ArrayList<>();
+        range.values().forEach(bucket -> result.addAll(bucket.values()));
+        return result;
+    }
+
+    private Map<Long, ExpiryEntry> findUnexpiredEntries(LocalDate today) {
+        return itemBatchRepo.findAllUnexpiredBatches(today).stream()
+                .map(ExpiryEntry::fromExpiryBatchDto)
+                .collect(Collectors.toMap(ExpiryEntry::getItemBatchId, entry -> entry));
+    }
+
+    private synchronized long currentVersion() {
+        return version;
+    }
+
+    private synchronized void replaceAll(Collection<ExpiryEntry> entries) {
+        Buckets rebuilt = new Buckets();
+        entries.forEach(rebuilt::put);
+        buckets = rebuilt;
+        version++;
+    }
+
+    private synchronized void put(ExpiryEntry entry) {
+        buckets.put(entry);
+        version++;
+    }
+
+    private synchronized void subtract(Long itemBatchId, int quantity) {
+        ExpiryEntry entry = buckets.entriesByItemBatch.get(itemBatchId);
+        if (entry != null) {
+            buckets.put(entry.withQuantity(entry.getQuantity() - quantity));
+        }
+        version++;
+    }
+
+    private synchronized void removeWhere(Predicate<ExpiryEntry> filter) {
+        buckets.entriesByItemBatch.values().stream()
+                .filter(filter)
+                .collect(Collectors.toList())
+                .forEach(buckets::remove);
+        version++;
+    }
+
+    /**
+     * The batches of the timeline and their day buckets. Changed only while holding the lock of the timeline,
+     * read without it.
+     */
+    private static class Buckets {
+        private final Map<Long, ExpiryEntry> entriesByItemBatch = new ConcurrentHashMap<>();
+
+        private final Map<Long, NavigableMap<LocalDate, Map<Long, ExpiryEntry>>> bySection = new ConcurrentHashMap<>();
+
+        private final Map<Category, NavigableMap<LocalDate, Map<Long, ExpiryEntry>>> byCategory = new ConcurrentHashMap<>();
+
+        void put(ExpiryEntry entry) {
+            remove(entriesByItemBatch.get(entry.getItemBatchId()));
+            if (entry.getQuantity() <= 0 || entry.getDueDate() == null || entry.getDueDate().isBefore(LocalDate.now())
+                    || !entry.isSellerActive()) {
+                return;
+            }
+            entriesByItemBatch.put(entry.getItemBatchId(), entry);
+            if (entry.getSectionId() != null) {
+                bucket(bySection.computeIfAbsent(entry.getSectionId(), id -> new ConcurrentSkipListMap<>()), entry)
+                        .put(entry.getItemBatchId(), entry);
+            }
+            if (entry.getCategory() != null) {
+                bucket(byCategory.computeIfAbsent(entry.getCategory(), id -> new ConcurrentSkipListMap<>()), entry)
+                        .put(entry.getItemBatchId(), entry);
+            }
+        }
+
+        void remove(ExpiryEntry entry) {
+            if (entry == null) {
+                return;
+            }
+            entriesByItemBatch.remove(entry.getItemBatchId());
+            removeFromBucket(bySection.get(entry.getSectionId()), entry);
+            removeFromBucket(byCategory.get(entry.getCategory()), entry);
+        }
+
+        private static Map<Long, ExpiryEntry> bucket(NavigableMap<LocalDate, Map<Long, ExpiryEntry>> buckets,
+                                                     ExpiryEntry entry) {
+            return buckets.computeIfAbsent(entry.getDueDate(), dueDate -> new ConcurrentSkipListMap<>());
+        }
+
+        private static void removeFromBucket(NavigableMap<LocalDate, Map<Long, ExpiryEntry>> buckets,
+                                             ExpiryEntry entry) {
+            if (buckets == null) {
+                return;
+            }
+            Map<Long, ExpiryEntry> bucket = buckets.get(entry.getDueDate());
+            if (bucket != null) {
+                bucket.remove(entry.getItemBatchId());
+                if (bucket.isEmpty()) {
+                    buckets.remove(entry.getDueDate());
+                }
+            }
+        }
+    }
+
+    /**
+     * A batch in the timeline, returned as is by the queries. The fields used only for indexing are not serialized.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    static class ExpiryEntry implements DueDateItemBatchDto {
+        private final Long itemBatchId;
+        private final Long productId;
+        private final Category category;
+        private final LocalDate dueDate;
+        private final int quantity;
+
+        @JsonIgnore
+        private final Long sellerId;
+
+        @JsonIgnore
+        private final Long sectionId;
+
+        @JsonIgnore
+        private final boolean sellerActive;
+
+        ExpiryEntry withQuantity(int quantity) {
+            return new ExpiryEntry(itemBatchId, productId, category, dueDate, quantity, sellerId, sectionId, sellerActive);
+        }
+
+        static ExpiryEntry fromItemBatch(ItemBatch itemBatch) {
+            return new ExpiryEntry(
+                    itemBatch.getId(),
+                    itemBatch.getProduct() != null ? itemBatch.getProduct().getId() : null,
+                    itemBatch.getCategory(),
+                    itemBatch.getDueDate(),
+                    itemBatch.getProductQuantity(),
+                    itemBatch.getProduct() != null && itemBatch.getProduct().getSeller() != null
+                            ? itemBatch.getProduct().getSeller().getId() : null,
+                    itemBatch.getInboundOrder() != null && itemBatch.getInboundOrder().getSection() != null
+                            ? itemBatch.getInboundOrder().getSection().getId() : null,
+                    itemBatch.getSellerActive() == Active.ATIVO
+            );
+        }
+
+        static ExpiryEntry fromExpiryBatchDto(ExpiryBatchDto expiryBatchDto) {
+            return new ExpiryEntry(
+                    expiryBatchDto.getItemBatchId(),
+                    expiryBatchDto.getProductId(),
+                    expiryBatchDto.getCategory(),
+                    expiryBatchDto.getDueDate(),
+                    expiryBatchDto.getQuantity(),
+                    expiryBatchDto.getSellerId(),
+                    expiryBatchDto.getSectionId(),
+                    true
+            );
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.grupo6.projetointegrador.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grupo6.projetointegrador.dto.CreateInboundOrderDto;
+import com.grupo6.projetointegrador.dto.ErrorMessageResponseDto;
+import com.grupo6.projetointegrador.dto.InboundOrderResultDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads inbound orders from a JSON array or from NDJSON, one order at a time, and stores them in chunks.<p>
+ * Each chunk is validated and committed on its own through {@link InboundOrderService#createInboundOrders(List)},
+ * and its results are written as NDJSON as soon as it is committed, so only one chunk is held in memory.
+ * A malformed body stops the load: the chunks already written stay committed.<p>
+ * The response is bounded by the async request timeout, so the load also stops by itself, between chunks, once it
+ * has run for {@code inbound-order-bulk.max-duration}, and writes a last line with the index to resend from.
+ * The maximum duration must leave room for one chunk before {@code spring.mvc.async.request-timeout}; a load cut by
+ * the timeout in the middle of a chunk does not tell whether that chunk was committed.
+ */
+@Component
+public class InboundOrderBulkLoader {
+    private final InboundOrderService inboundOrderService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final int chunkSize;
+
+    private final Duration maxDuration;
+
+    public InboundOrderBulkLoader(
+            InboundOrderService inboundOrderService,
+            ObjectMapper objectMapper,
+            Validator validator,
+            @Value("${inbound-order-bulk.chunk-size:100}") int chunkSize,
+            @Value("${inbound-order-bulk.max-duration:PT25M}") Duration maxDuration
+    ) {
+        this.inboundOrderService = inboundOrderService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * Method to store every inbound order read from the given stream and write the result of each one,
+     * with its position in the request, to the other stream. The output stream is flushed, but not closed.
+     * When the load runs out of time, the orders from the last line's index on are neither read nor stored.
+     *
+     * @param inputStream  The inbound orders, as a JSON array or as NDJSON.
+     * @param outputStream The stream to write the results to.
+     * @return The number of inbound orders read.
+     * @throws IOException if the streams can not be read or written.
+     */
+    public long load(InputStream inputStream, OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        List<CreateInboundOrderDto> validOrders = new ArrayList<>(chunkSize);
+        List<InboundOrderResultDto> results = new ArrayList<>(chunkSize);
+        long read = 0;
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        boolean timedOut = false;
+        try (MappingIterator<CreateInboundOrderDto> orders = objectMapper.readerFor(CreateInboundOrderDto.class)
+                .readValues(inputStream)) {
+            while (orders.hasNextValue()) {
+                if (results.isEmpty() && System.nanoTime() - deadline >= 0) {
+                    timedOut = true;
+                    break;
+                }
+                CreateInboundOrderDto createInboundOrderDto = orders.nextValue();
+                Set<ConstraintViolation<CreateInboundOrderDto>> violations = validator.validate(createInboundOrderDto);
+                if (violations.isEmpty()) {
+                    validOrders.add(createInboundOrderDto);
+                    results.add(null);
+                } else {
+                    results.add(InboundOrderResultDto.rejected(HttpStatus.BAD_REQUEST,
+                            ErrorMessageResponseDto.withFieldErrors(new HashSet<>(violations)).getErrors()));
+                }
+                read++;
+                if (results.size() == chunkSize) {
+                    writeChunk(generator, read - results.size(), validOrders, results);
+                }
+            }
+        } catch (JsonProcessingException exception) {
+            writeChunk(generator, read - results.size(), validOrders, results);
+            InboundOrderResultDto malformed = InboundOrderResultDto.rejected(HttpStatus.BAD_REQUEST,
+                    "Ordem de entrada com JSON inválido.", "METHOD_ARGUMENT_ERROR");
+            malformed.setIndex(read);
+            writeResult(generator, malformed);
+        }
+        writeChunk(generator, read - results.size(), validOrders, results);
+        if (timedOut) {
+            InboundOrderResultDto stopped = InboundOrderResultDto.rejected(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Tempo limite da carga atingido, reenvie as ordens a partir deste índice.", "TIMEOUT_ERROR");
+            stopped.setIndex(read);
+            writeResult(generator, stopped);
+        }
+        generator.close();
+        return read;
+    }
+
+    /**
+     * Method to store the valid orders of a chunk and write the results of the whole chunk, in order.
+     * Both lists are cleared afterwards.
+     *
+     * @param generator   The generator to write the results to.
+     * @param firstIndex  The position in the request of the first order of the chunk.
+     * @param validOrders The orders that passed the field validations.
+     * @param results     The result of each order of the chunk, {@code null} for the valid ones.
+     */
+    private void writeChunk(JsonGenerator generator, long firstIndex, List<CreateInboundOrderDto> validOrders,
+                            List<InboundOrderResultDto> results) throws IOException {
+        if (results.isEmpty()) {
+            return;
+        }
+        Iterator<InboundOrderResultDto> storedResults = validOrders.isEmpty()
+                ? List.<InboundOrderResultDto>of().iterator()
+                : inboundOrderService.createInboundOrders(validOrders).iterator();
+        for (int i = 0; i < results.size(); i++) {
+            InboundOrderResultDto result = results.get(i) != null ? results.get(i) : storedResults.next();
+            result.setIndex(firstIndex + i);
+            writeResult(generator, result);
+        }
+        generator.flush();
+        validOrders.clear();
+        results.clear();
+    }
+
+    private void writeResult(JsonGenerator generator, InboundOrderResultDto result) throws IOException {
+        objectMapper.writeValue(generator, result);
+        generator.writeRaw('\n');
+    }
+}
@@ -1,6 +1,7 @@
 package com.grupo6.projetointegrador.service;
 
 import com.grupo6.projetointegrador.dto.CreateInboundOrderDto;
+import com.grupo6.projetointegrador.dto.InboundOrderResultDto;
 import com.grupo6.projetointegrador.dto.ItemBatchDto;
 import com.grupo6.projetointegrador.dto.UpdateItemBatchDto;
 
@@ -9,5 +10,9 @@ import java.util.List;
 public interface InboundOrderService {
     List<ItemBatchDto> createInboundOrder(CreateInboundOrderDto createInboundOrderDto);
 
+    List<InboundOrderResultDto> createInboundOrders(List<CreateInboundOrderDto> createInboundOrderDtos);
+
     List<ItemBatchDto> updateItemBatch(Long inboundOrderId, List<UpdateItemBatchDto> updateItemBatchDtos);
+
+    List<ItemBatchDto> patchItemBatch(Long inboundOrderId, List<UpdateItemBatchDto> updateItemBatchDtos);
 }
@@ -1,19 +1,33 @@
 package com.grupo6.projetointegrador.service;
 
 import com.grupo6.projetointegrador.dto.*;
+import com.grupo6.projetointegrador.exception.BadRequestException;
 import com.grupo6.projetointegrador.exception.BusinessRuleException;
 import com.grupo6.projetointegrador.exception.NotFoundException;
 import com.grupo6.projetointegrador.model.entity.*;
 import com.grupo6.projetointegrador.model.enumeration.Active;
 import com.grupo6.projetointegrador.repository.*;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("service.method")
 public class InboundOrderServiceImpl implements InboundOrderService {
 
     private final InboundOrderRepo inboundOrderRepo;
@@ -25,68 +39,166 @@ public class InboundOrderServiceImpl implements InboundOrderService {
 
     private final ProductRepo productRepo;
 
+    private final ItemBatchRepo itemBatchRepo;
+
+    private final ItemBatchStockIndex stockIndex;
+
+    private final ProductWarehouseStockService productWarehouseStockService;
+
+    private final ExpiryTimeline expiryTimeline;
+
     public InboundOrderServiceImpl(
             InboundOrderRepo inboundOrderRepo,
             WarehouseRepo warehouseRepo,
             WarehouseOperatorRepo warehouseOperatorRepo,
             ProductRepo productRepo,
-            SectionRepo sectionRepo
+            ItemBatchRepo itemBatchRepo,
+            SectionRepo sectionRepo,
+            ItemBatchStockIndex stockIndex,
+            ProductWarehouseStockService productWarehouseStockService,
+            ExpiryTimeline expiryTimeline
     ) {
         this.inboundOrderRepo = inboundOrderRepo;
         this.warehouseRepo = warehouseRepo;
         this.warehouseOperatorRepo = warehouseOperatorRepo;
         this.productRepo = productRepo;
+        this.itemBatchRepo = itemBatchRepo;
         this.sectionRepo = sectionRepo;
+        this.stockIndex = stockIndex;
+        this.productWarehouseStockService = productWarehouseStockService;
+        this.expiryTimeline = expiryTimeline;
     }
 
     /**
      * This method receives a DTO with a list of items and ids.
      * The main goal is to store those items on the provided section.<p>
-     * Also, check the {@link #validateInboundOrderCreation(List, Warehouse, WarehouseOperator, Section, List)} method for validation details.<p>
+     * Also, check the {@link #validateInboundOrderCreation(List, Warehouse, WarehouseOperator, Section, Collection)} method for validation details.<p>
      * @param createInboundOrderDto This is the object that will be sent by the frontend.
      * @return A List<ItemBatchDto> object with the stored items.
      */
     @Override
     @Transactional
     public List<ItemBatchDto> createInboundOrder(CreateInboundOrderDto createInboundOrderDto) {
+        InboundOrder savedInboundOrder = inboundOrderRepo.save(
+                buildInboundOrder(createInboundOrderDto, this::findProductsOrThrowNotFound)
+        );
+        registerStock(savedInboundOrder.getItemBatches());
+
+        return savedInboundOrder.getItemBatches().stream().map(ItemBatchDto::fromItemBatch).collect(Collectors.toList());
+    }
+
+    /**
+     * This method receives a chunk of inbound orders and stores, in a single transaction, the ones that pass
+     * the same validations as {@link #createInboundOrder(CreateInboundOrderDto)}.
+     * An invalid order is reported in its result instead of failing the others.<p>
+     * The products of the whole chunk are fetched in a single query and the orders are saved together,
+     * so their batches are inserted in JDBC batches.
+     * @param createInboundOrderDtos The inbound orders of the chunk.
+     * @return The result of each inbound order, in the same order as received.
+     */
+    @Override
+    @Transactional
+    public List<InboundOrderResultDto> createInboundOrders(List<CreateInboundOrderDto> createInboundOrderDtos) {
+        Map<Long, Product> chunkProducts = productRepo.findAllWithSellerByIdIn(createInboundOrderDtos.stream()
+                        .flatMap(createInboundOrderDto -> findProductIds(createInboundOrderDto).stream())
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        InboundOrderResultDto[] results = new InboundOrderResultDto[createInboundOrderDtos.size()];
+        InboundOrder[] inboundOrders = new InboundOrder[createInboundOrderDtos.size()];
+        for (int i = 0; i < createInboundOrderDtos.size(); i++) {
+            try {
+                inboundOrders[i] = buildInboundOrder(
+                        createInboundOrderDtos.get(i),
+                        productIds -> selectProductsOrThrowNotFound(productIds, chunkProducts)
+                );
+            } catch (NotFoundException exception) {
+                results[i] = InboundOrderResultDto.rejected(HttpStatus.NOT_FOUND, exception.getMessage(), "NOT_FOUND_ERROR");
+            } catch (BusinessRuleException exception) {
+                results[i] = InboundOrderResultDto.rejected(HttpStatus.UNPROCESSABLE_ENTITY, exception.getMessage(), "BUSINESS_RULE_ERROR");
+            }
+        }
+
+        List<InboundOrder> acceptedInboundOrders = Arrays.stream(inboundOrders)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        inboundOrderRepo.saveAll(acceptedInboundOrders);
+        registerStock(acceptedInboundOrders.stream()
+                .flatMap(inboundOrder -> inboundOrder.getItemBatches().stream())
+                .collect(Collectors.toList()));
+
+        for (int i = 0; i < inboundOrders.length; i++) {
+            if (inboundOrders[i] != null) {
+                results[i] = InboundOrderResultDto.created(inboundOrders[i].getItemBatches().stream()
+                        .map(ItemBatchDto::fromItemBatch)
+                        .collect(Collectors.toList()));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Method to validate an inbound order and build it, with its batches, ready to be saved.<p>
+     * Also, check the {@link #validateInboundOrderCreation(List, Warehouse, WarehouseOperator, Section, Collection)} method for validation details.
+     *
+     * @param createInboundOrderDto The inbound order sent by the frontend.
+     * @param productFinder         Finds the products of the order by id, or throws {@link NotFoundException}.
+     * @return The inbound order, not yet saved.
+     */
+    private InboundOrder buildInboundOrder(
+            CreateInboundOrderDto createInboundOrderDto,
+            Function<Set<Long>, Map<Long, Product>> productFinder
+    ) {
         Warehouse warehouse = findWarehouseOrThrowNotFound(createInboundOrderDto.getWarehouseId());
         Section section = findSectionOrThrowNotFound(createInboundOrderDto.getSectionId());
         WarehouseOperator warehouseOperator = findWarehouseOperatorOrThrowNotFound(createInboundOrderDto.getWarehouseOperatorId());
-        List<Product> products = createInboundOrderDto.getItemBatches().stream()
-                .map((batchDto) -> findProductOrThrowNotFound(batchDto.getProductId()))
-                .collect(Collectors.toList());
+        Map<Long, Product> products = productFinder.apply(findProductIds(createInboundOrderDto));
 
         validateInboundOrderCreation(
                 createInboundOrderDto.getItemBatches(),
                 warehouse,
                 warehouseOperator,
                 section,
-                products
+                products.values()
         );
 
         InboundOrder createdInboundOrder = new InboundOrder();
-        List<ItemBatch> itemBatches = createInboundOrderDto.getItemBatches().stream().map((batchDto) -> {
-            Product foundProduct = products.stream()
-                    .filter(product -> product.getId().equals(batchDto.getProductId()))
-                    .findFirst().get();
-            return batchDto.toItemBatch(createdInboundOrder, foundProduct);
-        }).collect(Collectors.toList());
+        List<ItemBatch> itemBatches = createInboundOrderDto.getItemBatches().stream()
+                .map((batchDto) -> batchDto.toItemBatch(createdInboundOrder, products.get(batchDto.getProductId())))
+                .collect(Collectors.toList());
 
         createdInboundOrder.setOrderDate(LocalDate.now());
         createdInboundOrder.setSection(section);
         createdInboundOrder.setWarehouse(warehouse);
         createdInboundOrder.setWarehouseOperator(warehouseOperator);
         createdInboundOrder.setItemBatches(itemBatches);
+        return createdInboundOrder;
+    }
 
-        InboundOrder savedInboundOrder = inboundOrderRepo.save(createdInboundOrder);
+    private static Set<Long> findProductIds(CreateInboundOrderDto createInboundOrderDto) {
+        return createInboundOrderDto.getItemBatches().stream()
+                .map(CreateItemBatchDto::getProductId)
+                .collect(Collectors.toSet());
+    }
 
-        return savedInboundOrder.getItemBatches().stream().map(ItemBatchDto::fromItemBatch).collect(Collectors.toList());
+    /**
+     * Method to add the stored batches to the in-memory indexes and to the stock summary.
+     *
+     * @param itemBatches The batches that were saved.
+     */
+    private void registerStock(List<ItemBatch> itemBatches) {
+        stockIndex.putAll(itemBatches);
+        expiryTimeline.putAll(itemBatches);
+        productWarehouseStockService.addStock(itemBatches);
     }
 
     /**
-     * Receives the InboundOrder Id and a list o ItemBatch.
-     * It'll update the provided InboundOrder ItemBatches<p>
-     * Also, check the {@link #validateInboundOrderUpdate(List, InboundOrder, List)} method for validation details.<p>
+     * Receives the InboundOrder Id and a list of ItemBatch, and replaces the listed batches with the ones sent:
+     * batches with an id are overwritten field by field, batches without an id are created,
+     * and the batches left out of the list are kept as they are.<p>
+     * As the list is the new content of the inbound order, the section must fit the volume of the whole list.<p>
+     * Also, check the {@link #validateItemBatchReplacement(List, InboundOrder, Map, Map)} method for validation details.<p>
      * @param inboundOrderId This is the InboundOrder ID.
      * @param updateItemBatchDtos This is the object that will be sent by the frontend.
      * @return A List<ItemBatchDto> object with the stored items.
@@ -94,30 +206,153 @@ public class InboundOrderServiceImpl implements InboundOrderService {
     @Override
     @Transactional
     public List<ItemBatchDto> updateItemBatch(Long inboundOrderId, List<UpdateItemBatchDto> updateItemBatchDtos) {
-        InboundOrder inboundOrder = inboundOrderRepo.findById(inboundOrderId)
-                .orElseThrow(() -> new NotFoundException("Ordem de entrada não encontrado."));
-        List<Product> products = updateItemBatchDtos.stream()
-                .map(updateDto -> findProductOrThrowNotFound(updateDto.getProductId()))
-                        .collect(Collectors.toList());
-        validateInboundOrderUpdate(updateItemBatchDtos, inboundOrder, products);
-
-        List<ItemBatch> updatedItemBatches = updateItemBatchDtos.stream()
-                .map(itemBatchDto -> itemBatchDto.toItemBatch(
-                        inboundOrder,
-                        products.stream()
-                                .filter(product -> itemBatchDto.getProductId().equals(product.getId()))
-                                .findFirst().get()
-                ))
+        verifyDistinctItemBatchIds(updateItemBatchDtos);
+        InboundOrder inboundOrder = findInboundOrderOrThrowNotFound(inboundOrderId);
+        Map<Long, ItemBatch> persistedItemBatches = findItemBatchesOrThrowNotFound(inboundOrderId, updateItemBatchDtos);
+        Map<Long, Product> products = findProductsOrThrowNotFound(updateItemBatchDtos.stream()
+                .map(UpdateItemBatchDto::getProductId)
+                .collect(Collectors.toSet()));
+        validateItemBatchReplacement(updateItemBatchDtos, inboundOrder, persistedItemBatches, products);
+
+        return writeItemBatches(inboundOrder, updateItemBatchDtos, updateItemBatchDtos, persistedItemBatches, products);
+    }
+
+    /**
+     * Receives the InboundOrder Id and a list of ItemBatch, and applies them as a patch:
+     * batches with an id are compared with the stored ones and only the changed ones are written,
+     * batches without an id are created, and the batches left out of the list are kept as they are.<p>
+     * Only the columns that changed are updated, and the section volume is checked against the stored
+     * volume of the inbound order plus the difference brought by the request.<p>
+     * Also, check the {@link #validateItemBatchPatch(List, InboundOrder, Map, Map)} method for validation details.<p>
+     * @param inboundOrderId This is the InboundOrder ID.
+     * @param updateItemBatchDtos This is the object that will be sent by the frontend.
+     * @return A List<ItemBatchDto> object with the items sent, in their current state.
+     */
+    @Override
+    @Transactional
+    public List<ItemBatchDto> patchItemBatch(Long inboundOrderId, List<UpdateItemBatchDto> updateItemBatchDtos) {
+        verifyDistinctItemBatchIds(updateItemBatchDtos);
+        InboundOrder inboundOrder = findInboundOrderOrThrowNotFound(inboundOrderId);
+        Map<Long, ItemBatch> persistedItemBatches = findItemBatchesOrThrowNotFound(inboundOrderId, updateItemBatchDtos);
+        List<UpdateItemBatchDto> changedItemBatchDtos = updateItemBatchDtos.stream()
+                .filter(itemBatchDto -> itemBatchDto.getItemBatchId() == null
+                        || itemBatchDto.differsFrom(persistedItemBatches.get(itemBatchDto.getItemBatchId())))
                 .collect(Collectors.toList());
 
-        inboundOrder.setItemBatches(updatedItemBatches);
-        inboundOrderRepo.save(inboundOrder);
+        Map<Long, Product> products = changedItemBatchDtos.isEmpty()
+                ? Map.of()
+                : findProductsOrThrowNotFound(changedItemBatchDtos.stream()
+                        .map(UpdateItemBatchDto::getProductId)
+                        .collect(Collectors.toSet()));
+        validateItemBatchPatch(changedItemBatchDtos, inboundOrder, persistedItemBatches, products);
+
+        return writeItemBatches(inboundOrder, updateItemBatchDtos, changedItemBatchDtos, persistedItemBatches, products);
+    }
+
+    /**
+     * Method to write the given batches and to move the stock summary and the in-memory indexes along with them.
+     * Only the batches whose product or quantity changed are taken out of the stock summary and put back.
+     *
+     * @param inboundOrder         The inbound order being updated.
+     * @param updateItemBatchDtos  All the batches sent by the frontend, in the order of the response.
+     * @param writtenItemBatchDtos The batches to be written, a subset of the ones sent.
+     * @param persistedItemBatches The stored batches referred to by the request, mapped by id.
+     * @param products             The products of the written batches, mapped by id.
+     * @return The batches sent, in their current state.
+     */
+    private List<ItemBatchDto> writeItemBatches(
+            InboundOrder inboundOrder,
+            List<UpdateItemBatchDto> updateItemBatchDtos,
+            List<UpdateItemBatchDto> writtenItemBatchDtos,
+            Map<Long, ItemBatch> persistedItemBatches,
+            Map<Long, Product> products
+    ) {
+        List<ItemBatch> restockedItemBatches = writtenItemBatchDtos.stream()
+                .filter(itemBatchDto -> itemBatchDto.getItemBatchId() != null)
+                .filter(itemBatchDto -> itemBatchDto.changesStockOf(persistedItemBatches.get(itemBatchDto.getItemBatchId())))
+                .map(itemBatchDto -> persistedItemBatches.get(itemBatchDto.getItemBatchId()))
+                .collect(Collectors.toList());
+        productWarehouseStockService.removeStock(restockedItemBatches);
 
-        return updatedItemBatches.stream()
+        List<ItemBatch> changedItemBatches = new ArrayList<>();
+        List<ItemBatch> createdItemBatches = new ArrayList<>();
+        for (UpdateItemBatchDto itemBatchDto : writtenItemBatchDtos) {
+            Product product = products.get(itemBatchDto.getProductId());
+            if (itemBatchDto.getItemBatchId() == null) {
+                createdItemBatches.add(itemBatchDto.toItemBatch(inboundOrder, product));
+            } else {
+                ItemBatch itemBatch = persistedItemBatches.get(itemBatchDto.getItemBatchId());
+                itemBatchDto.copyTo(itemBatch, product);
+                changedItemBatches.add(itemBatch);
+            }
+        }
+        itemBatchRepo.saveAll(createdItemBatches);
+        changedItemBatches.addAll(createdItemBatches);
+        restockedItemBatches.addAll(createdItemBatches);
+        stockIndex.putAll(changedItemBatches);
+        expiryTimeline.putAll(changedItemBatches);
+        productWarehouseStockService.addStock(restockedItemBatches);
+
+        Iterator<ItemBatch> created = createdItemBatches.iterator();
+        return updateItemBatchDtos.stream()
+                .map(itemBatchDto -> itemBatchDto.getItemBatchId() == null
+                        ? created.next()
+                        : persistedItemBatches.get(itemBatchDto.getItemBatchId()))
                 .map(ItemBatchDto::fromItemBatch)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Method to find an inbound order, with its section, by id or throw a not found exception.
+     *
+     * @param inboundOrderId The ID of the inbound order.
+     * @return An inbound order or {@link NotFoundException} - if none found.
+     */
+    private InboundOrder findInboundOrderOrThrowNotFound(Long inboundOrderId) {
+        return inboundOrderRepo.findWithSectionById(inboundOrderId)
+                .orElseThrow(() -> new NotFoundException("Ordem de entrada não encontrado."));
+    }
+
+    /**
+     * Verify that no batch is sent twice in the same request, as only one of the versions could be stored.
+     * @param updateItemBatchDtos The batches sent by the frontend.
+     * @throws BadRequestException if an itemBatchId is repeated.
+     */
+    private void verifyDistinctItemBatchIds(List<UpdateItemBatchDto> updateItemBatchDtos) {
+        Set<Long> itemBatchIds = new HashSet<>();
+        boolean distinct = updateItemBatchDtos.stream()
+                .map(UpdateItemBatchDto::getItemBatchId)
+                .filter(Objects::nonNull)
+                .allMatch(itemBatchIds::add);
+        if (!distinct) {
+            throw new BadRequestException("Lote repetido na requisição.");
+        }
+    }
+
+    /**
+     * Method to find, in a single query, the stored batches of the inbound order that the request refers to by id.
+     *
+     * @param inboundOrderId      The inbound order being updated.
+     * @param updateItemBatchDtos The batches sent by the frontend.
+     * @return The batches mapped by id or {@link NotFoundException} - if any of them is not part of the inbound order.
+     */
+    private Map<Long, ItemBatch> findItemBatchesOrThrowNotFound(Long inboundOrderId, List<UpdateItemBatchDto> updateItemBatchDtos) {
+        Set<Long> itemBatchIds = updateItemBatchDtos.stream()
+                .map(UpdateItemBatchDto::getItemBatchId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (itemBatchIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, ItemBatch> itemBatches = itemBatchRepo.findWithInboundOrderByInboundOrderIdAndIdIn(inboundOrderId, itemBatchIds)
+                .stream()
+                .collect(Collectors.toMap(ItemBatch::getId, Function.identity()));
+        if (itemBatches.size() != itemBatchIds.size()) {
+            throw new NotFoundException("Lote não encontrado.");
+        }
+        return itemBatches;
+    }
+
     /**
      * Method to find a warehouse by id or throw a not found exception.
      *
@@ -147,14 +382,40 @@ public class InboundOrderServiceImpl implements InboundOrderService {
     private Section findSectionOrThrowNotFound(Long sectionId){
         return sectionRepo.findById(sectionId).orElseThrow(() -> new NotFoundException("Seção não encontrada."));
     }
+
     /**
-     * Method to find a product giving id.
+     * Method to find all the given products, with their sellers, in a single query.<p>
+     * Also, check the {@link ProductRepo#findAllWithSellerByIdIn(Collection)} method for more movement details.
      *
-     * @param productId The id of the product.
-     * @return A product with the given id or {@link NotFoundException} - if none found.
+     * @param productIds The ids of the products.
+     * @return The products mapped by id or {@link NotFoundException} - if any of them is not found.
      */
-    private Product findProductOrThrowNotFound(Long productId) {
-        return productRepo.findById(productId).orElseThrow(() -> new NotFoundException("Produto não encontrado."));
+    private Map<Long, Product> findProductsOrThrowNotFound(Set<Long> productIds) {
+        Map<Long, Product> products = productRepo.findAllWithSellerByIdIn(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (products.size() != productIds.size()) {
+            throw new NotFoundException("Produto não encontrado.");
+        }
+        return products;
+    }
+
+    /**
+     * Method to pick the given products from the ones already fetched for a chunk of inbound orders.
+     *
+     * @param productIds    The ids of the products.
+     * @param chunkProducts The products fetched for the chunk, mapped by id.
+     * @return The products mapped by id or {@link NotFoundException} - if any of them is not found.
+     */
+    private Map<Long, Product> selectProductsOrThrowNotFound(Set<Long> productIds, Map<Long, Product> chunkProducts) {
+        Map<Long, Product> products = new HashMap<>();
+        productIds.forEach(productId -> {
+            Product product = chunkProducts.get(productId);
+            if (product == null) {
+                throw new NotFoundException("Produto não encontrado.");
+            }
+            products.put(productId, product);
+        });
+        return products;
     }
 
     /**
@@ -170,7 +431,7 @@ public class InboundOrderServiceImpl implements InboundOrderService {
             Warehouse warehouse,
             WarehouseOperator warehouseOperator,
             Section section,
-            List<Product> products
+            Collection<Product> products
     ) {
         Long volumeToBeStored = itemBatchDtos.stream().map(CreateItemBatchDto::getVolume)
                 .reduce(0L, Long::sum);
@@ -183,21 +444,82 @@ public class InboundOrderServiceImpl implements InboundOrderService {
     }
 
     /**
-     * Validates if the InboundOrder ItemBatches can be updated.
-     * @param itemBatchDtos List of InboundOrder items to be updated.
+     * Validates if the InboundOrder ItemBatches can be replaced by the ones sent.
+     * The section must fit the volume of all the items sent.
+     * @param itemBatchDtos List of InboundOrder items to be stored.
      * @param inboundOrder InboundOrder to be updated.
-     * @param products Products to be updated.
+     * @param persistedItemBatches The stored items referred to by the request, mapped by id.
+     * @param products Products of the items, mapped by id.
      */
-    private void validateInboundOrderUpdate(
+    private void validateItemBatchReplacement(
             List<UpdateItemBatchDto> itemBatchDtos,
             InboundOrder inboundOrder,
-            List<Product> products
+            Map<Long, ItemBatch> persistedItemBatches,
+            Map<Long, Product> products
     ) {
         Long volumeToBeStored = itemBatchDtos.stream().map(UpdateItemBatchDto::getVolume)
                 .reduce(0L, Long::sum);
         Section section = inboundOrder.getSection();
-        verifyIfProductsCategoryDifferFromSection(products, section);
+        verifyIfProductsCategoryDifferFromSection(products.values(), section);
         verifyIfSectionCanStoreItems(section, volumeToBeStored);
+        verifySeller(findRestockedProducts(itemBatchDtos, persistedItemBatches, products));
+    }
+
+    /**
+     * Validates if the changed InboundOrder ItemBatches can be stored.
+     * The section must fit the volume already stored by the inbound order plus the difference brought by the changes.
+     * @param changedItemBatchDtos The changed and new items of the InboundOrder.
+     * @param inboundOrder InboundOrder to be updated.
+     * @param persistedItemBatches The stored items referred to by the request, mapped by id.
+     * @param products Products of the changed items, mapped by id.
+     */
+    private void validateItemBatchPatch(
+            List<UpdateItemBatchDto> changedItemBatchDtos,
+            InboundOrder inboundOrder,
+            Map<Long, ItemBatch> persistedItemBatches,
+            Map<Long, Product> products
+    ) {
+        if (changedItemBatchDtos.isEmpty()) {
+            return;
+        }
+        long volumeDelta = changedItemBatchDtos.stream()
+                .mapToLong(itemBatchDto -> itemBatchDto.getVolume() - (itemBatchDto.getItemBatchId() == null
+                        ? 0L
+                        : Objects.requireNonNullElse(persistedItemBatches.get(itemBatchDto.getItemBatchId()).getVolume(), 0L)))
+                .sum();
+        Section section = inboundOrder.getSection();
+        verifyIfProductsCategoryDifferFromSection(products.values(), section);
+        if (volumeDelta > 0) {
+            verifyIfSectionCanStoreItems(section, itemBatchRepo.sumVolumeByInboundOrderId(inboundOrder.getId()) + volumeDelta);
+        }
+        verifySeller(findRestockedProducts(changedItemBatchDtos, persistedItemBatches, products));
+    }
+
+    /**
+     * Method to pick the products that receive stock from the request: the ones of new batches
+     * and the ones that stored batches are moved to.
+     *
+     * @param itemBatchDtos        The items to be stored.
+     * @param persistedItemBatches The stored items referred to by the request, mapped by id.
+     * @param products             Products of the items, mapped by id.
+     * @return The products receiving stock.
+     */
+    private static List<Product> findRestockedProducts(
+            List<UpdateItemBatchDto> itemBatchDtos,
+            Map<Long, ItemBatch> persistedItemBatches,
+            Map<Long, Product> products
+    ) {
+        return itemBatchDtos.stream()
+                .filter(itemBatchDto -> {
+                    if (itemBatchDto.getItemBatchId() == null) {
+                        return true;
+                    }
+                    Product storedProduct = persistedItemBatches.get(itemBatchDto.getItemBatchId()).getProduct();
+                    return storedProduct == null || !itemBatchDto.getProductId().equals(storedProduct.getId());
+                })
+                .map(itemBatchDto -> products.get(itemBatchDto.getProductId()))
+                .distinct()
+                .collect(Collectors.toList());
     }
 
     /**
@@ -230,7 +552,7 @@ public class InboundOrderServiceImpl implements InboundOrderService {
      * @param section Section to be compared.
      * @throws BusinessRuleException if does not match.
      */
-    private void verifyIfProductsCategoryDifferFromSection(List<Product> products, Section section) {
+    private void verifyIfProductsCategoryDifferFromSection(Collection<Product> products, Section section) {
         boolean validStorageType = products.stream()
                 .map(Product::getCategory)
                 .allMatch(storageType -> section.getCategory().getName().equals(storageType.getName()));
@@ -251,10 +573,19 @@ public class InboundOrderServiceImpl implements InboundOrderService {
         }
     }
 
-    private void verifySeller(List<Product> products) {
-        products.forEach((batch) -> {
-            Seller seller = productRepo.findSellerByProductId(batch.getId())
-                    .orElseThrow(() -> new NotFoundException("Vendedor não encontrado."));
+    /**
+     * Verify if the sellers of the provided Products exist and are active.
+     * The sellers are already fetched with the products, so no query is issued.
+     * @param products Product list.
+     * @throws NotFoundException if a product has no seller.
+     * @throws BusinessRuleException if a seller is inactive.
+     */
+    private void verifySeller(Collection<Product> products) {
+        products.forEach((product) -> {
+            Seller seller = product.getSeller();
+            if (seller == null) {
+                throw new NotFoundException("Vendedor não encontrado.");
+            }
             if(seller.getActive() == Active.INATIVO) {
                 throw new BusinessRuleException("Vendedor inativo.");
             }
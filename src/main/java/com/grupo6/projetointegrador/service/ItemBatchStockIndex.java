@@ -0,0 +1,379 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.dto.StockBatchDto;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
+import com.grupo6.projetointegrador.repository.ItemBatchRepo;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static com.grupo6.projetointegrador.service.TransactionCallbacks.afterCommit;
+
+/**
+ * In-memory first-expired-first-out index of the sellable item batches, grouped by product.<p>
+ * It answers the same question as {@link ItemBatchRepo#findByDueDate21AndProductIdAndQty(Long, int, LocalDate)}
+ * without going to the database. Writes are applied only after the surrounding transaction commits,
+ * and a scheduled check compares the index with the database and rebuilds it on divergence. A rebuild fills a
+ * new index and swaps it in whole, so lookups never see a half-built index.<p>
+ * Only the first batches to expire of each product are kept, up to the configured number, so the memory used
+ * grows with the catalogue and not with the stock. The batches kept are always the first ones of the product.<p>
+ * The index belongs to one application instance and only sees the writes made by it. Stock changed by another
+ * instance is seen at the next consistency check; until then a batch found in the index may not be the one the
+ * database would choose, or may no longer have the quantity, which the guarded stock update catches. A miss
+ * always falls back to the database.
+ */
+@Component
+public class ItemBatchStockIndex {
+    static final int MIN_DAYS_TO_DUE_DATE = 21;
+
+    private static final Comparator<StockEntry> FEFO_ORDER = Comparator
+            .comparing(StockEntry::getDueDate)
+            .thenComparing(StockEntry::getItemBatchId);
+
+    private final Logger logger = LoggerFactory.getLogger(ItemBatchStockIndex.class);
+
+    private final ItemBatchRepo itemBatchRepo;
+
+    private final boolean enabled;
+
+    private final int maxBatchesPerProduct;
+
+    private volatile Entries entries;
+
+    /**
+     * Incremented by every write, under the lock of the index, so a check can tell whether the index changed
+     * while the database was being read.
+     */
+    private long version;
+
+    public ItemBatchStockIndex(
+            ItemBatchRepo itemBatchRepo,
+            @Value("${stock-index.enabled:true}") boolean enabled,
+            @Value("${stock-index.max-batches-per-product:16}") int maxBatchesPerProduct
+    ) {
+        this.itemBatchRepo = itemBatchRepo;
+        this.enabled = enabled;
+        this.maxBatchesPerProduct = maxBatchesPerProduct;
+        this.entries = new Entries(maxBatchesPerProduct);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Loads the first sellable batches of each product from the database once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            replaceAll(findSellableEntries(firstValidDueDate()).values());
+        }
+    }
+
+    /**
+     * Method to find the batch that expires first among the ones with a due date more than 21 days away
+     * and enough quantity to serve the order.
+     *
+     * @param productId The id of the product.
+     * @param quantity  The quantity the buyer wants.
+     * @return The id of the batch or an empty Optional if the index is disabled or has no valid batch.
+     */
+    public Optional<Long> findValidItemBatchId(Long productId, int quantity) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        NavigableSet<StockEntry> productEntries = entries.byProduct.get(productId);
+        if (productEntries == null) {
+            return Optional.empty();
+        }
+        StockEntry lowerBound = new StockEntry(Long.MIN_VALUE, productId, null, firstValidDueDate(), 0);
+        for (StockEntry entry : productEntries.tailSet(lowerBound, true)) {
+            if (entry.getQuantity() >= quantity) {
+                return Optional.of(entry.getItemBatchId());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Registers the current state of a batch. Batches without stock are removed from the index, and batches that
+     * expire after the ones kept for a product that is already full are left out.
+     *
+     * @param itemBatch The batch that was created or changed.
+     */
+    public void put(ItemBatch itemBatch) {
+        putAll(List.of(itemBatch));
+    }
+
+    /**
+     * Registers the current state of the batches once the surrounding transaction commits.
+     *
+     * @param itemBatches The batches that were created or changed.
+     */
+    public void putAll(Collection<ItemBatch> itemBatches) {
+        if (!enabled) {
+            return;
+        }
+        List<StockEntry> changedEntries = itemBatches.stream()
+                .filter(itemBatch -> itemBatch.getId() != null)
+                .map(StockEntry::fromItemBatch)
+                .collect(Collectors.toList());
+        afterCommit(() -> changedEntries.forEach(this::put));
+    }
+
+    /**
+     * Subtracts quantities from the indexed batches once the surrounding transaction commits. Each entry is read
+     * and replaced under the same lock as the other writes, so concurrent orders do not overwrite each other.
+     *
+     * @param quantitiesByItemBatch The quantity taken from each batch, mapped by batch id.
+     */
+    public void decrement(Map<Long, Integer> quantitiesByItemBatch) {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, Integer> quantities = new HashMap<>(quantitiesByItemBatch);
+        afterCommit(() -> quantities.forEach(this::subtract));
+    }
+
+    /**
+     * Removes batches whose indexed quantity turned out to be higher than the stored one, so the next lookup
+     * goes to the database instead of choosing them again. It runs right away, since the stored quantity was
+     * already lower regardless of the surrounding transaction.
+     *
+     * @param itemBatchIds The ids of the stale batches.
+     */
+    public void evict(Collection<Long> itemBatchIds) {
+        if (!enabled) {
+            return;
+        }
+        Set<Long> staleItemBatchIds = new HashSet<>(itemBatchIds);
+        removeWhere(entry -> staleItemBatchIds.contains(entry.getItemBatchId()));
+    }
+
+    /**
+     * Removes every batch of the given seller, used when the seller becomes inactive. The batches are registered
+     * again with {@link #putAll(Collection)} when the seller is reactivated.
+     *
+     * @param sellerId The id of the seller.
+     */
+    public void removeSeller(Long sellerId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> removeWhere(entry -> sellerId.equals(entry.getSellerId())));
+    }
+
+    /**
+     * Compares the index with the database and rebuilds it when they differ. Batches that became too close to
+     * their due date since they were indexed are dropped first, as the database no longer returns them.<p>
+     * The comparison and the rebuild are skipped when the index was written while the database was read, since
+     * the rows read may be older than the index; the next check compares them again. For a truncated product,
+     * only its first batches in the database, as many as the index holds but at least one, are compared, because
+     * the batches after them are left out of the index on purpose.
+     *
+     * @return The number of batches that were missing, stale or unknown to the database.
+     */
+    @Scheduled(
+            initialDelayString = "${stock-index.consistency-check-interval-ms:600000}",
+            fixedDelayString = "${stock-index.consistency-check-interval-ms:600000}"
+    )
+    public int checkConsistency() {
+        if (!enabled) {
+            return 0;
+        }
+        LocalDate firstValidDueDate = firstValidDueDate();
+        removeWhere(entry -> entry.getDueDate().isBefore(firstValidDueDate));
+        long readVersion = currentVersion();
+        Map<Long, StockEntry> expected = findSellableEntries(firstValidDueDate);
+        synchronized (this) {
+            if (version != readVersion) {
+                logger.debug("Stock index changed while the database was read, skipping the check.");
+                return 0;
+            }
+            int divergent = countDivergent(expected);
+            if (divergent > 0) {
+                logger.warn("Stock index diverged from the database in {} batches, rebuilding.", divergent);
+                replaceAll(expected.values());
+            }
+            return divergent;
+        }
+    }
+
+    /**
+     * The earliest due date a batch can have to be sold, more than {@value #MIN_DAYS_TO_DUE_DATE} days from today.
+     * Both the index and the repository queries take the cutoff from here, so they agree on which batches are sellable.
+     */
+    static LocalDate firstValidDueDate() {
+        return LocalDate.now().plusDays(MIN_DAYS_TO_DUE_DATE + 1L);
+    }
+
+    private Map<Long, StockEntry> findSellableEntries(LocalDate firstValidDueDate) {
+        return itemBatchRepo.findFirstSellableBatches(firstValidDueDate, maxBatchesPerProduct).stream()
+                .map(StockEntry::fromStockBatchDto)
+                .collect(Collectors.toMap(StockEntry::getItemBatchId, entry -> entry));
+    }
+
+    private int countDivergent(Map<Long, StockEntry> expected) {
+        Map<Long, List<StockEntry>> expectedByProduct = expected.values().stream()
+                .collect(Collectors.groupingBy(StockEntry::getProductId));
+        Set<Long> productIds = new HashSet<>(expectedByProduct.keySet());
+        productIds.addAll(entries.byProduct.keySet());
+
+        int divergent = 0;
+        for (Long productId : productIds) {
+            NavigableSet<StockEntry> indexedEntries = entries.byProduct.getOrDefault(productId, Collections.emptyNavigableSet());
+            List<StockEntry> expectedEntries = expectedByProduct.getOrDefault(productId, List.of()).stream()
+                    .sorted(FEFO_ORDER)
+                    .limit(entries.truncatedProducts.contains(productId)
+                            ? Math.max(indexedEntries.size(), 1)
+                            : Long.MAX_VALUE)
+                    .collect(Collectors.toList());
+            Set<StockEntry> missing = new HashSet<>(expectedEntries);
+            indexedEntries.forEach(missing::remove);
+            Set<StockEntry> unknown = new HashSet<>(indexedEntries);
+            expectedEntries.forEach(unknown::remove);
+            divergent += Math.max(missing.size(), unknown.size());
+        }
+        return divergent;
+    }
+
+    private synchronized long currentVersion() {
+        return version;
+    }
+
+    private synchronized void replaceAll(Collection<StockEntry> sellableEntries) {
+        Entries rebuilt = new Entries(maxBatchesPerProduct);
+        sellableEntries.forEach(rebuilt::put);
+        sellableEntries.stream()
+                .collect(Collectors.groupingBy(StockEntry::getProductId, Collectors.counting()))
+                .forEach((productId, count) -> {
+                    if (count >= maxBatchesPerProduct) {
+                        rebuilt.truncatedProducts.add(productId);
+                    }
+                });
+        entries = rebuilt;
+        version++;
+    }
+
+    private synchronized void put(StockEntry entry) {
+        entries.put(entry);
+        version++;
+    }
+
+    private synchronized void subtract(Long itemBatchId, int quantity) {
+        StockEntry entry = entries.byItemBatch.get(itemBatchId);
+        if (entry != null) {
+            entries.put(entry.withQuantity(entry.getQuantity() - quantity));
+        }
+        version++;
+    }
+
+    private synchronized void removeWhere(Predicate<StockEntry> filter) {
+        entries.byItemBatch.values().stream()
+                .filter(filter)
+                .collect(Collectors.toList())
+                .forEach(entries::remove);
+        version++;
+    }
+
+    /**
+     * The indexed batches, by id and by product. Changed only while holding the lock of the index, read without it.
+     * A product is truncated once some of its sellable batches were left out, from then on only batches that
+     * expire before the last one kept are added, so the batches kept stay the first ones of the product.
+     */
+    private static class Entries {
+        private final Map<Long, StockEntry> byItemBatch = new ConcurrentHashMap<>();
+
+        private final Map<Long, NavigableSet<StockEntry>> byProduct = new ConcurrentHashMap<>();
+
+        private final Set<Long> truncatedProducts = ConcurrentHashMap.newKeySet();
+
+        private final int maxBatchesPerProduct;
+
+        Entries(int maxBatchesPerProduct) {
+            this.maxBatchesPerProduct = maxBatchesPerProduct;
+        }
+
+        void put(StockEntry entry) {
+            StockEntry previous = byItemBatch.get(entry.getItemBatchId());
+            remove(previous);
+            if (entry.getQuantity() <= 0 || entry.getDueDate() == null
+                    || entry.getDueDate().isBefore(firstValidDueDate())) {
+                return;
+            }
+            NavigableSet<StockEntry> productEntries = byProduct
+                    .computeIfAbsent(entry.getProductId(), id -> new ConcurrentSkipListSet<>(FEFO_ORDER));
+            if (previous == null && truncatedProducts.contains(entry.getProductId())
+                    && (productEntries.isEmpty() || FEFO_ORDER.compare(entry, productEntries.last()) > 0)) {
+                return;
+            }
+            byItemBatch.put(entry.getItemBatchId(), entry);
+            productEntries.add(entry);
+            while (productEntries.size() > maxBatchesPerProduct) {
+                truncatedProducts.add(entry.getProductId());
+                remove(productEntries.last());
+            }
+        }
+
+        void remove(StockEntry entry) {
+            if (entry == null) {
+                return;
+            }
+            byItemBatch.remove(entry.getItemBatchId());
+            NavigableSet<StockEntry> productEntries = byProduct.get(entry.getProductId());
+            if (productEntries != null) {
+                productEntries.remove(entry);
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    static class StockEntry {
+        private final Long itemBatchId;
+        private final Long productId;
+        private final Long sellerId;
+        private final LocalDate dueDate;
+        private final int quantity;
+
+        StockEntry withQuantity(int quantity) {
+            return new StockEntry(itemBatchId, productId, sellerId, dueDate, quantity);
+        }
+
+        static StockEntry fromItemBatch(ItemBatch itemBatch) {
+            return new StockEntry(
+                    itemBatch.getId(),
+                    itemBatch.getProduct().getId(),
+                    itemBatch.getProduct().getSeller() != null ? itemBatch.getProduct().getSeller().getId() : null,
+                    itemBatch.getDueDate(),
+                    itemBatch.getProductQuantity()
+            );
+        }
+
+        static StockEntry fromStockBatchDto(StockBatchDto stockBatchDto) {
+            return new StockEntry(
+                    stockBatchDto.getItemBatchId(),
+                    stockBatchDto.getProductId(),
+                    stockBatchDto.getSellerId(),
+                    stockBatchDto.getDueDate(),
+                    stockBatchDto.getQuantity()
+            );
+        }
+    }
+}
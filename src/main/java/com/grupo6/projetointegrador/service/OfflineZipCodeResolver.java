@@ -0,0 +1,55 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.dto.ZipCodeDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+/**
+ * {@link ZipCodeResolver} backed by a local {@link ZipCodeIndex} file, so seller validation needs no network.
+ * Enabled with {@code zip-code.offline.enabled=true}, a CEP missing from the file is treated as invalid.
+ */
+@Component
+@ConditionalOnProperty(name = "zip-code.offline.enabled", havingValue = "true")
+public class OfflineZipCodeResolver implements ZipCodeResolver {
+    private final ZipCodeIndex zipCodeIndex;
+
+    public OfflineZipCodeResolver(@Value("${zip-code.offline.index-file}") String indexFile) {
+        try {
+            this.zipCodeIndex = ZipCodeIndex.open(Paths.get(indexFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o arquivo de CEP " + indexFile, e);
+        }
+    }
+
+    OfflineZipCodeResolver(ZipCodeIndex zipCodeIndex) {
+        this.zipCodeIndex = zipCodeIndex;
+    }
+
+    /**
+     * Method to find the address of a CEP in the local index.
+     *
+     * @param zipCode The CEP to be resolved.
+     * @return The address of the CEP, with {@code erro} filled if the CEP is not in the index.
+     */
+    @Override
+    public ZipCodeDto resolve(String zipCode) {
+        ZipCodeDto zipCodeDto = new ZipCodeDto();
+        zipCodeDto.setCep(zipCode);
+        zipCodeIndex.findStreet(zipCode).ifPresentOrElse(
+                zipCodeDto::setLogradouro,
+                () -> zipCodeDto.setErro("true")
+        );
+        return zipCodeDto;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        zipCodeIndex.close();
+    }
+}
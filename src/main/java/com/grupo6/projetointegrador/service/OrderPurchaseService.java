@@ -9,5 +9,7 @@ public interface OrderPurchaseService {
 
   String endOrder(Long id);
 
+  String cancelOrder(Long id);
+
   TotalPriceDto createOrderPurchase(CreateOrderPurchaseDto createOrderPurchaseDto);
 }
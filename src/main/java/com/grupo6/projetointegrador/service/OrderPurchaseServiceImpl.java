@@ -11,24 +11,47 @@ import com.grupo6.projetointegrador.model.enumeration.StatusOrder;
 import com.grupo6.projetointegrador.repository.BuyerRepo;
 import com.grupo6.projetointegrador.repository.ItemBatchRepo;
 import com.grupo6.projetointegrador.repository.OrderPurchaseRepo;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("service.method")
 public class OrderPurchaseServiceImpl implements OrderPurchaseService {
     private final OrderPurchaseRepo orderPurchaseRepo;
     private final BuyerRepo buyerRepo;
     private final ItemBatchRepo batchRepo;
-
-    public OrderPurchaseServiceImpl(OrderPurchaseRepo orderPurchaseRepo, BuyerRepo buyerRepo, ItemBatchRepo batchRepo) {
+    private final ItemBatchStockIndex stockIndex;
+    private final StockReservationService stockReservationService;
+    private final ProductWarehouseStockService productWarehouseStockService;
+    private final ExpiryTimeline expiryTimeline;
+
+    public OrderPurchaseServiceImpl(
+            OrderPurchaseRepo orderPurchaseRepo,
+            BuyerRepo buyerRepo,
+            ItemBatchRepo batchRepo,
+            ItemBatchStockIndex stockIndex,
+            StockReservationService stockReservationService,
+            ProductWarehouseStockService productWarehouseStockService,
+            ExpiryTimeline expiryTimeline
+    ) {
       this.orderPurchaseRepo = orderPurchaseRepo;
       this.buyerRepo = buyerRepo;
       this.batchRepo = batchRepo;
+      this.stockIndex = stockIndex;
+      this.stockReservationService = stockReservationService;
+      this.productWarehouseStockService = productWarehouseStockService;
+      this.expiryTimeline = expiryTimeline;
     }
 
     /**
@@ -39,57 +62,94 @@ public class OrderPurchaseServiceImpl implements OrderPurchaseService {
     * @return A DTO with the order and the products of the order or {@link NotFoundException} if none found.
     */
     public OrderPurchaseDto findById(Long id) {
-        OrderPurchase orderPurchase = orderPurchaseRepo.findById(id).orElseThrow(() -> new NotFoundException("Pedido não encontrado."));
+        OrderPurchase orderPurchase = orderPurchaseRepo.findWithProductOrdersById(id).orElseThrow(() -> new NotFoundException("Pedido não encontrado."));
         List<ProductOrderDto> productOrderDtos = orderPurchase.getProductOrders().stream().
               map(ProductOrderDto::fromProductOrder).collect(Collectors.toList());
        return OrderPurchaseDto.fromOrderPurchase(orderPurchase, productOrderDtos);
     }
 
     /**
-    * The method receives an order id, finds the order, checks if it's open (Status Order equals "ABERTO"),
-    * if it is, it sets the status to finalized, saves the order, and then updates the stock of the products in the order,
+    * The method receives an order id, finds the order and moves it from open (Status Order equals "ABERTO")
+    * to finalized in a single conditional update, so two concurrent calls cannot both finalize it.
+    * Then it settles the stock reserved when the order was created. Orders created before reservations existed,
+    * which have no reservation at all, have their stock updated here,
     * throws {@link NotFoundException} - if order purchased id not found.<p>
-    * Also, check the {@link #updateStock(ProductOrder)} method for more movement details.<p>
+    * Also, check the {@link #updateStock(List)} method for more movement details.<p>
     *
     * @param id The id of the order to be finalized.
-    * @return A String or {@link BusinessRuleException} - if status is closed (Status Order equals "FINALIZADO").
+    * @return A String or {@link BusinessRuleException} - if the order is no longer open,
+    * or if its reservations were already released.
     */
     @Transactional
     public String endOrder(Long id) {
-        OrderPurchase orderPurchase = orderPurchaseRepo.findById(id).orElseThrow(() -> new NotFoundException("Pedido não encontrado."));
-        if (orderPurchase.getStatus().equals(StatusOrder.ABERTO)) {
-          orderPurchase.setStatus(StatusOrder.FINALIZADO);
-          orderPurchaseRepo.save(orderPurchase);
+        OrderPurchase orderPurchase = orderPurchaseRepo.findWithProductOrdersById(id).orElseThrow(() -> new NotFoundException("Pedido não encontrado."));
+        if (orderPurchaseRepo.updateStatusById(id, StatusOrder.ABERTO, StatusOrder.FINALIZADO) != 1) {
+            throw new BusinessRuleException("Pedido já foi finalizado.");
+        }
 
-          List<ProductOrder> productOrders = orderPurchase.getProductOrders();
-          productOrders.forEach(this::updateStock);
+        if (stockReservationService.settle(id) == 0) {
+            if (stockReservationService.hasReservations(id)) {
+                throw new BusinessRuleException("A reserva de estoque do pedido já foi liberada.");
+            }
+            updateStock(orderPurchase.getProductOrders());
+        }
+        return "Pedido finalizado com sucesso!";
+    }
 
-          return "Pedido finalizado com sucesso!";
-        } else {
-            throw new BusinessRuleException("Pedido já foi finalizado.");
+    /**
+    * The method receives an order id and cancels the order if it's still open (Status Order equals "ABERTO"),
+    * giving the stock reserved when the order was created back to the batches,
+    * throws {@link NotFoundException} - if order purchased id not found.<p>
+    * Also, check the {@link StockReservationService#release(Long)} method for more movement details.
+    *
+    * @param id The id of the order to be cancelled.
+    * @return A String or {@link BusinessRuleException} - if the order was already finalized or cancelled.
+    */
+    @Transactional
+    public String cancelOrder(Long id) {
+        OrderPurchase orderPurchase = orderPurchaseRepo.findById(id).orElseThrow(() -> new NotFoundException("Pedido não encontrado."));
+        if (!orderPurchase.getStatus().equals(StatusOrder.ABERTO)
+                || orderPurchaseRepo.updateStatusById(id, StatusOrder.ABERTO, StatusOrder.CANCELADO) == 0) {
+            throw new BusinessRuleException("Pedido já foi finalizado ou cancelado.");
         }
+        stockReservationService.release(id);
+        return "Pedido cancelado com sucesso!";
     }
 
     /**
-    * This method receives a DTO with a list of products and quantities, validates the products and quantities,
+    * This method receives a DTO with a list of products and quantities, reserves the quantities in stock,
     * calculates the total cost of the order, and saves the order in the database.<p>
-    * Also, check the {@link #findValidItemBatch(Long, int)} method for more movement details.<p>
+    * The quantities are summed per product and reserved together, so the batches of every line are chosen,
+    * decremented and loaded in a single round trip each.<p>
+    * It runs with read committed isolation so a reservation retry sees the stock committed by concurrent orders.<p>
+    * Also, check the {@link StockReservationService#reserveAll(Map)} method for more movement details.<p>
     * Also, check the {@link #calculateTotalCost(ProductOrderDto, Product)} method for more movement details.
     *
     * @param createOrderPurchaseDto This is the object that will be sent by the frontend.
     * @return A TotalPriceDto object with the total price of the order, a {@code double}.
     */
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public TotalPriceDto createOrderPurchase(CreateOrderPurchaseDto createOrderPurchaseDto) {
         AtomicReference<BigDecimal> totalPrice = new AtomicReference<>(BigDecimal.ZERO);
         Buyer buyer = buyerRepo.findById(createOrderPurchaseDto.getBuyer()).orElseThrow(() -> new NotFoundException("Comprador não encontrado."));
 
         OrderPurchase orderPurchase = new OrderPurchase();
+        Map<Long, Integer> quantitiesByProduct = createOrderPurchaseDto.getProductOrders().stream()
+                .collect(Collectors.groupingBy(
+                        ProductOrderDto::getProductId,
+                        LinkedHashMap::new,
+                        Collectors.summingInt(ProductOrderDto::getQuantity)
+                ));
+        List<StockReservation> stockReservations = stockReservationService.reserveAll(quantitiesByProduct);
+        Map<Long, Product> productsById = new HashMap<>();
+        stockReservations.forEach(stockReservation -> {
+            Product product = stockReservation.getItemBatch().getProduct();
+            productsById.put(product.getId(), product);
+        });
 
         List<ProductOrder> productOrders = createOrderPurchaseDto.getProductOrders().stream().
                 map(productOrderDto -> {
-                  Product product = findValidItemBatch(productOrderDto.getProductId(), productOrderDto.getQuantity())
-                          .getProduct();
+                  Product product = productsById.get(productOrderDto.getProductId());
                   totalPrice.set(totalPrice.get().add(calculateTotalCost(productOrderDto, product)));
                   return productOrderDto.toProductOrder(orderPurchase, product);
                 }).collect(Collectors.toList());
@@ -100,32 +160,79 @@ public class OrderPurchaseServiceImpl implements OrderPurchaseService {
         orderPurchase.setStatus(StatusOrder.ABERTO);
 
         orderPurchaseRepo.save(orderPurchase);
+        stockReservationService.confirm(orderPurchase, stockReservations);
 
         return new TotalPriceDto(totalPrice.get().doubleValue());
     }
 
+    private BigDecimal calculateTotalCost(ProductOrderDto productOrderDto, Product product) {
+        return product.getPrice().multiply(BigDecimal.valueOf(productOrderDto.getQuantity()));
+    }
+
     /**
-     * Method to find a valid product by id and quantity, or throw an exception if it doesn't exist."<p>
-     * The first thing we do is to call the repository's findByDueDateAndQty method, which returns an Optional.
-     * Also, check the {@link ItemBatchRepo#findByDueDate21AndProductIdAndQty(Long, int)} method for more movement details.
+     * Method to take the ordered quantities out of stock.<p>
+     * The quantities are summed per product, a valid batch is chosen for each product and all of them are
+     * decremented with guarded updates sent as a single JDBC batch. A batch whose guard fails is evicted from the
+     * index and chosen again from the database, throws {@link NotFoundException} if no batch has enough quantity anymore.<p>
+     * Also, check the {@link ItemBatchRepo#decrementStock(Map)} method for more movement details.
      *
-     * @param productId the product id
-     * @param quantity the quantity of the product that the user wants to buy
-     * @return A list of ItemBatch objects or {@link NotFoundException} if none found.
+     * @param productOrders The products and quantities of the order.
      */
-    private ItemBatch findValidItemBatch(Long productId, int quantity) {
-        return batchRepo.findByDueDate21AndProductIdAndQty(productId, quantity)
-            .orElseThrow(() -> new NotFoundException("Produto não encontrado."));
-    }
-
-    private BigDecimal calculateTotalCost(ProductOrderDto productOrderDto, Product product) {
-        return product.getPrice().multiply(BigDecimal.valueOf(productOrderDto.getQuantity()));
+    private void updateStock(List<ProductOrder> productOrders) {
+        Map<Long, Integer> quantitiesByProduct = productOrders.stream()
+                .collect(Collectors.groupingBy(
+                        productOrder -> productOrder.getProduct().getId(),
+                        LinkedHashMap::new,
+                        Collectors.summingInt(ProductOrder::getQuantity)
+                ));
+        Map<Long, Long> productsByItemBatch = new HashMap<>();
+        Map<Long, Integer> quantitiesByItemBatch = new HashMap<>();
+        quantitiesByProduct.forEach((productId, quantity) -> {
+            Long itemBatchId = findValidItemBatchId(productId, quantity);
+            productsByItemBatch.put(itemBatchId, productId);
+            quantitiesByItemBatch.put(itemBatchId, quantity);
+        });
+
+        List<Long> staleItemBatchIds = batchRepo.decrementStock(quantitiesByItemBatch);
+        stockIndex.evict(staleItemBatchIds);
+        Map<Long, Integer> decrementedQuantities = new HashMap<>(quantitiesByItemBatch);
+        staleItemBatchIds.forEach(staleItemBatchId -> {
+            Long productId = productsByItemBatch.get(staleItemBatchId);
+            int quantity = decrementedQuantities.remove(staleItemBatchId);
+            Long itemBatchId = batchRepo.findByDueDate21AndProductIdAndQty(productId, quantity,
+                            ItemBatchStockIndex.firstValidDueDate())
+                    .map(ItemBatch::getId)
+                    .orElseThrow(() -> new NotFoundException("Produto não encontrado."));
+            if (!batchRepo.decrementStock(Map.of(itemBatchId, quantity)).isEmpty()) {
+                stockIndex.evict(List.of(itemBatchId));
+                throw new NotFoundException("Produto não encontrado.");
+            }
+            decrementedQuantities.put(itemBatchId, quantity);
+        });
+        stockIndex.decrement(decrementedQuantities);
+        expiryTimeline.decrement(decrementedQuantities);
+        productWarehouseStockService.removeStock(decrementedQuantities);
     }
 
-    private void updateStock(ProductOrder productOrder) {
-        ItemBatch itemBatch = findValidItemBatch(productOrder.getProduct().getId(), productOrder.getQuantity());
-        int quantity = itemBatch.getProductQuantity() - productOrder.getQuantity();
-        itemBatch.setProductQuantity(quantity);
-        batchRepo.save(itemBatch);
+    /**
+     * Method to find the id of a valid batch by product id and quantity, or throw an exception if it doesn't exist.<p>
+     * The batch is chosen by the in-memory {@link ItemBatchStockIndex} and not loaded, a stale choice is caught by
+     * the guarded update of {@link #updateStock(List)}. When the index is disabled or has no valid batch, it falls
+     * back to the repository query and registers the batch found in the index.<p>
+     * Also, check the {@link ItemBatchRepo#findByDueDate21AndProductIdAndQty(Long, int, LocalDate)} method for more movement details.
+     *
+     * @param productId the product id
+     * @param quantity the quantity of the product
+     * @return The id of the batch or {@link NotFoundException} if none found.
+     */
+    private Long findValidItemBatchId(Long productId, int quantity) {
+        return stockIndex.findValidItemBatchId(productId, quantity)
+                .orElseGet(() -> {
+                    ItemBatch itemBatch = batchRepo.findByDueDate21AndProductIdAndQty(productId, quantity,
+                                    ItemBatchStockIndex.firstValidDueDate())
+                            .orElseThrow(() -> new NotFoundException("Produto não encontrado."));
+                    stockIndex.put(itemBatch);
+                    return itemBatch.getId();
+                });
     }
 }
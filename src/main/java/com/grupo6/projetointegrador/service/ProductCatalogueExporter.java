@@ -0,0 +1,83 @@
+package com.grupo6.projetointegrador.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grupo6.projetointegrador.dto.ProductStockDto;
+import com.grupo6.projetointegrador.repository.ProductRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes the whole product catalogue, with the stock of each product, as NDJSON: one JSON object per line.<p>
+ * The products are read in pages of {@code product-export.page-size}, each seeking past the last id written.
+ * Every page is read in its own short transaction, so no database connection is held while the client
+ * downloads, and the memory used does not depend on the size of the catalogue.
+ */
+@Component
+public class ProductCatalogueExporter {
+    private final ProductRepo productRepo;
+
+    private final ObjectMapper objectMapper;
+
+    private final int pageSize;
+
+    public ProductCatalogueExporter(
+            ProductRepo productRepo,
+            ObjectMapper objectMapper,
+            @Value("${product-export.page-size:1000}") int pageSize
+    ) {
+        this.productRepo = productRepo;
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Method to write every product to the given stream, ordered by id.
+     * The stream is flushed, but not closed.
+     *
+     * @param outputStream The stream to write to.
+     * @return The number of products written.
+     * @throws IOException if the stream can not be written.
+     */
+    public long export(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        long written = 0;
+        long lastId = 0;
+        List<ProductStockDto> page;
+        do {
+            page = productRepo.findProductStockAfter(lastId, PageRequest.of(0, pageSize));
+            for (ProductStockDto product : page) {
+                writeProduct(generator, product);
+                lastId = product.getProductId();
+                written++;
+            }
+            generator.flush();
+        } while (page.size() == pageSize);
+        generator.close();
+        return written;
+    }
+
+    private static void writeProduct(JsonGenerator generator, ProductStockDto product) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("productId", product.getProductId());
+        if (product.getSellerId() != null) {
+            generator.writeNumberField("sellerId", product.getSellerId());
+        }
+        if (product.getCategory() != null) {
+            generator.writeStringField("category", product.getCategory().name());
+        }
+        if (product.getPrice() != null) {
+            generator.writeNumberField("price", product.getPrice());
+        }
+        generator.writeNumberField("quantity", product.getQuantity());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
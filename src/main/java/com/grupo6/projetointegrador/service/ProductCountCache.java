@@ -0,0 +1,54 @@
+package com.grupo6.projetointegrador.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grupo6.projetointegrador.model.enumeration.Category;
+import com.grupo6.projetointegrador.repository.ProductRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of the product counts shown by the listing endpoints, so paging through the products
+ * does not run a {@code count(*)} on every page. The counts are estimates: they may lag behind the database
+ * by up to the configured time to live.
+ */
+@Component
+public class ProductCountCache {
+    private static final String ALL_PRODUCTS = "*";
+
+    private final ProductRepo productRepo;
+
+    private final Cache<String, Long> counts;
+
+    public ProductCountCache(
+            ProductRepo productRepo,
+            @Value("${product-listing.count-cache-ttl-seconds:60}") long ttlSeconds
+    ) {
+        this.productRepo = productRepo;
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * @return The number of products.
+     */
+    public long countProducts() {
+        return counts.get(ALL_PRODUCTS, key -> productRepo.count());
+    }
+
+    /**
+     * Method to count the products of a category whose seller is active.
+     *
+     * @param category The category of the products, {@code null} counts none.
+     * @return The number of products.
+     */
+    public long countProductsByCategory(Category category) {
+        if (category == null) {
+            return 0;
+        }
+        return counts.get(category.name(), key -> productRepo.countProductsByCategory(category));
+    }
+}
@@ -8,8 +8,10 @@ import org.springframework.data.domain.Pageable;
 
 public interface ProductService {
     ProductLocationDto findProductById(Long productId, String order);
-    PageableResponse findProductsByCategory(Pageable pageable, Category category);
-    PageableResponse findPageableFreshProducts(Pageable pageable);
+    PageableResponse findProductsByCategory(Pageable pageable, Category category, boolean count);
+    PageableResponse findProductsByCategoryAfter(Category category, Long lastId, int size, boolean count);
+    PageableResponse findPageableFreshProducts(Pageable pageable, boolean count);
+    PageableResponse findFreshProductsAfter(Long lastId, int size, boolean count);
 
     ProductWarehousesDto findProductWarehouse(Long id);
 }
@@ -2,60 +2,128 @@ package com.grupo6.projetointegrador.service;
 
 import com.grupo6.projetointegrador.dto.*;
 import com.grupo6.projetointegrador.exception.NotFoundException;
-import com.grupo6.projetointegrador.model.entity.ItemBatch;
 import com.grupo6.projetointegrador.model.entity.Product;
 import com.grupo6.projetointegrador.model.enumeration.Category;
 import com.grupo6.projetointegrador.repository.ItemBatchRepo;
 import com.grupo6.projetointegrador.repository.ProductRepo;
 import com.grupo6.projetointegrador.response.PageableResponse;
-import org.springframework.data.domain.Page;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("service.method")
 public class ProductServiceImpl implements ProductService {
     private final ProductRepo productRepo;
 
     private final ItemBatchRepo itemBatchRepo;
 
-    public ProductServiceImpl(ProductRepo productRepo, ItemBatchRepo itemBatchRepo) {
+    private final ProductWarehouseStockService productWarehouseStockService;
+
+    private final ProductCountCache productCountCache;
+
+    public ProductServiceImpl(
+            ProductRepo productRepo,
+            ItemBatchRepo itemBatchRepo,
+            ProductWarehouseStockService productWarehouseStockService,
+            ProductCountCache productCountCache
+    ) {
         this.productRepo = productRepo;
         this.itemBatchRepo = itemBatchRepo;
+        this.productWarehouseStockService = productWarehouseStockService;
+        this.productCountCache = productCountCache;
+    }
+
+    /**
+     * This method returns a pageable response of fresh products.<p>
+     * Also, check the {@link #toResponse(Slice, Supplier)} method for more movement details.
+     *
+     * @param pageable This is the pageable object that contains the page number and page size.
+     * @param count    {@code true} to include the cached count of products.
+     * @return A PageableResponse object whit list of Product.
+     */
+    @Override
+    public PageableResponse findPageableFreshProducts(Pageable pageable, boolean count) {
+        Slice<Product> result = productRepo.findPageableProducts(pageable);
+        return toResponse(result, count ? productCountCache::countProducts : null);
+    }
+
+    /**
+     * This method returns the fresh products after the given id, seeking on the primary key instead of
+     * skipping an offset.<p>
+     * Also, check the {@link #toResponse(Slice, Supplier)} method for more movement details.
+     *
+     * @param lastId The id of the last product of the previous page.
+     * @param size   The number of products to return.
+     * @param count  {@code true} to include the cached count of products.
+     * @return A PageableResponse object whit list of Product.
+     */
+    @Override
+    public PageableResponse findFreshProductsAfter(Long lastId, int size, boolean count) {
+        Slice<Product> result = productRepo.findProductsAfter(lastId, PageRequest.of(0, size));
+        return toResponse(result, count ? productCountCache::countProducts : null);
     }
 
     /**
-     * This method returns a pageable response of fresh products.
+     * This method returns a pageable response of products by category.<p>
+     * Also, check the {@link #toResponse(Slice, Supplier)} method for more movement details.
      *
-     * @param pageable This is the pageable object that contains the page number, page size, and sort information.
+     * @param pageable This is the pageable object that contains the page number and page size.
+     * @param category The category to search for
+     * @param count    {@code true} to include the cached count of products in the category.
      * @return A PageableResponse object whit list of Product.
      */
     @Override
-    public PageableResponse findPageableFreshProducts(Pageable pageable) {
-        Page<Product> result = productRepo.findPageableProducts(pageable);
-        return new PageableResponse().toResponse(result);
+    public PageableResponse findProductsByCategory(Pageable pageable, Category category, boolean count) {
+        Slice<Product> result = productRepo.findProductsByCategory(pageable, category);
+        return toResponse(result, count ? () -> productCountCache.countProductsByCategory(category) : null);
     }
 
     /**
-     * This method returns a pageable response of products by category.
+     * This method returns the products of a category after the given id, seeking on the category index
+     * instead of skipping an offset.<p>
+     * Also, check the {@link #toResponse(Slice, Supplier)} method for more movement details.
      *
-     * @param pageable This is the pageable object that contains the page number, page size, and sort order.
      * @param category The category to search for
+     * @param lastId   The id of the last product of the previous page.
+     * @param size     The number of products to return.
+     * @param count    {@code true} to include the cached count of products in the category.
      * @return A PageableResponse object whit list of Product.
      */
     @Override
-    public PageableResponse findProductsByCategory(Pageable pageable, Category category) {
-        Page<Product> result = productRepo.findProductsByCategory(pageable, category);
-        return new PageableResponse().toResponse(result);
+    public PageableResponse findProductsByCategoryAfter(Category category, Long lastId, int size, boolean count) {
+        Slice<Product> result = productRepo.findProductsByCategoryAfter(category, lastId, PageRequest.of(0, size));
+        return toResponse(result, count ? () -> productCountCache.countProductsByCategory(category) : null);
+    }
+
+    /**
+     * Method to create the response of a slice of products, with the id of its last product as the cursor
+     * of the next page when there is one.
+     *
+     * @param slice The slice of products, ordered by id.
+     * @param count The supplier of the count of products, or {@code null} to leave the totals out.
+     * @return A PageableResponse object whit list of Product.
+     */
+    private PageableResponse toResponse(Slice<Product> slice, Supplier<Long> count) {
+        List<Product> products = slice.getContent();
+        Long nextCursor = slice.hasNext() ? products.get(products.size() - 1).getId() : null;
+        return new PageableResponse().toResponse(slice, count != null ? count.get() : null, nextCursor);
     }
 
     /**
      * This method takes a product id and an order and returns a ProductLocationDto object.<p>
+     * The batches come with their section and warehouse from a single projection query, so no entity is loaded.<p>
      * Also, check the {@link #verifyProductExists(Long)} method for more movement details.<p>
-     * Also, check the {@link #findItemBatchByProductId(Long, String)} method for more movement details.<p>
+     * Also, check the {@link #findStockLocationsByProductId(Long, String)} method for more movement details.<p>
      * Also, check the {@link #createSectionDto(List)} method for more movement details.
      *
      * @param productId The id of the product you want to find.
@@ -65,9 +133,9 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public ProductLocationDto findProductById(Long productId, String order) {
         verifyProductExists(productId);
-        List<ItemBatch> itemBatchList = findItemBatchByProductId(productId, order);
-        List<SectionDto> sectionDto = createSectionDto(itemBatchList);
-        List<ItemBatchLocationDto> itemBatchLocationDto = itemBatchList.stream().map(ItemBatchLocationDto::fromItemBatch).collect(Collectors.toList());
+        List<StockLocationDto> stockLocations = findStockLocationsByProductId(productId, order);
+        List<SectionDto> sectionDto = createSectionDto(stockLocations);
+        List<ItemBatchLocationDto> itemBatchLocationDto = stockLocations.stream().map(ItemBatchLocationDto::fromStockLocation).collect(Collectors.toList());
         return new ProductLocationDto(sectionDto, productId, itemBatchLocationDto);
     }
 
@@ -82,53 +150,48 @@ public class ProductServiceImpl implements ProductService {
     }
 
     /**
-     * Method to return a list of ItemBatch objects, ordered by the parameter passed to the function.
+     * Method to return the location of each batch of the product, ordered by the parameter passed to the function.
      *
      * @param productId The product id that you want to find the batches.
      * @param order     L = order by id, Q = order by quantity, V = order by due date
-     * @return A list of ItemBatch objects or {@link NotFoundException} if ItemBatch list is empty.
+     * @return A list of StockLocationDto objects or {@link NotFoundException} if the list is empty.
      */
-    private List<ItemBatch> findItemBatchByProductId(Long productId, String order) {
-        List<ItemBatch> itemBatchList;
+    private List<StockLocationDto> findStockLocationsByProductId(Long productId, String order) {
+        List<StockLocationDto> stockLocations;
         switch (order) {
             case "L":
-                itemBatchList = itemBatchRepo.findAllByProductIdOrderByIdAsc(productId);
+                stockLocations = itemBatchRepo.findLocationsByProductIdOrderByIdAsc(productId);
                 break;
             case "Q":
-                itemBatchList = itemBatchRepo.findAllByProductIdOrderByProductQuantityAsc(productId);
+                stockLocations = itemBatchRepo.findLocationsByProductIdOrderByProductQuantityAsc(productId);
                 break;
             case "V":
-                itemBatchList = itemBatchRepo.findAllByProductIdOrderByDueDateAsc(productId);
+                stockLocations = itemBatchRepo.findLocationsByProductIdOrderByDueDateAsc(productId);
                 break;
             default:
-                itemBatchList = itemBatchRepo.findAllByProductId(productId);
+                stockLocations = itemBatchRepo.findLocationsByProductId(productId);
                 break;
         }
-        if (itemBatchList.isEmpty()) {
+        if (stockLocations.isEmpty()) {
             throw new NotFoundException("Lotes para esse produto não encontrados.");
         }
-        return itemBatchList;
+        return stockLocations;
     }
 
     /**
-     * Method to create a list of SectionDto.
+     * Method to create a list of SectionDto, one for each inbound order of the batches.
      *
-     * @param itemBatch the list of ItemBatch objects that we want to create the SectionDto objects from.
-     * @return A list of SectionDto objects.
+     * @param stockLocations the locations of the batches that we want to create the SectionDto objects from.
+     * @return A list of SectionDto objects, in the order the inbound orders first appear.
      */
-    private List<SectionDto> createSectionDto(List<ItemBatch> itemBatch) {
+    private List<SectionDto> createSectionDto(List<StockLocationDto> stockLocations) {
         List<SectionDto> sectionDtoList = new ArrayList<>();
 
-        List<Long> inboundOrderCovered = new ArrayList<>();
-
-        itemBatch.forEach((batch) -> {
-            Long batchInboundOrderId = batch.getInboundOrder().getId();
+        Set<Long> inboundOrderCovered = new HashSet<>();
 
-            if (!inboundOrderCovered.contains(batchInboundOrderId)) {
-                SectionDto sectionDto = new SectionDto(batch.getInboundOrder().getSection().getId(),
-                        batch.getInboundOrder().getWarehouse().getId());
-                sectionDtoList.add(sectionDto);
-                inboundOrderCovered.add(batchInboundOrderId);
+        stockLocations.forEach((stockLocation) -> {
+            if (inboundOrderCovered.add(stockLocation.getInboundOrderId())) {
+                sectionDtoList.add(new SectionDto(stockLocation.getSectionId(), stockLocation.getWarehouseId()));
             }
         });
 
@@ -137,14 +200,14 @@ public class ProductServiceImpl implements ProductService {
 
     /**
      * Method to find a product in all warehouses.<p>
-     * Also, check the {@link ProductRepo#findWarehousesByProduct(Long)} method for more movement details.
+     * Also, check the {@link ProductWarehouseStockService#findWarehouses(Long)} method for more movement details.
      *
      * @param id The id of the product
      * @return A list of warehouses that have the product with the given id or {@code null} if warehouse list is empty.
      */
     @Override
     public ProductWarehousesDto findProductWarehouse(Long id) {
-        List<WarehouseDto> warehouses = productRepo.findWarehousesByProduct(id);
+        List<WarehouseDto> warehouses = productWarehouseStockService.findWarehouses(id);
         if (warehouses.isEmpty()) {
             return null;
         }
@@ -0,0 +1,26 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.dto.WarehouseDto;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductWarehouseStockService {
+    List<WarehouseDto> findWarehouses(Long productId);
+
+    void addStock(Collection<ItemBatch> itemBatches);
+
+    void addStock(Collection<ItemBatch> itemBatches, Map<Long, Integer> quantitiesByItemBatch);
+
+    void removeStock(Collection<ItemBatch> itemBatches);
+
+    void removeStock(Collection<ItemBatch> itemBatches, Map<Long, Integer> quantitiesByItemBatch);
+
+    void removeStock(Map<Long, Integer> quantitiesByItemBatch);
+
+    void clearSeller(Long sellerId);
+
+    int reconcile();
+}
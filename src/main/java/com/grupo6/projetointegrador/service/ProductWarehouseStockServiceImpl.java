@@ -0,0 +1,199 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.dto.WarehouseDto;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
+import com.grupo6.projetointegrador.model.entity.ProductWarehouseStockId;
+import com.grupo6.projetointegrador.model.enumeration.Active;
+import com.grupo6.projetointegrador.repository.ItemBatchRepo;
+import com.grupo6.projetointegrador.repository.ProductRepo;
+import com.grupo6.projetointegrador.repository.ProductWarehouseStockRepo;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the product_warehouse_stock summary, so the warehouses of a product are read by primary key
+ * instead of aggregating all of its batches.<p>
+ * Stock changes are added to the summary in the transaction that moves the stock, so concurrent changes to the same
+ * row are never lost. A scheduled reconciliation compares the summary with the batches and sets the rows that
+ * drifted back to the quantity of their batches; as it writes absolute quantities, the instances that run it
+ * at the same time write the same values instead of correcting the drift once each.
+ */
+@Service
+@Timed("service.method")
+public class ProductWarehouseStockServiceImpl implements ProductWarehouseStockService {
+    private final Logger logger = LoggerFactory.getLogger(ProductWarehouseStockServiceImpl.class);
+
+    private final ProductWarehouseStockRepo productWarehouseStockRepo;
+
+    private final ProductRepo productRepo;
+
+    private final ItemBatchRepo itemBatchRepo;
+
+    private final int reconciliationChunkSize;
+
+    public ProductWarehouseStockServiceImpl(
+            ProductWarehouseStockRepo productWarehouseStockRepo,
+            ProductRepo productRepo,
+            ItemBatchRepo itemBatchRepo,
+            @Value("${product-warehouse-stock.reconciliation-chunk-size:1000}") int reconciliationChunkSize
+    ) {
+        this.productWarehouseStockRepo = productWarehouseStockRepo;
+        this.productRepo = productRepo;
+        this.itemBatchRepo = itemBatchRepo;
+        this.reconciliationChunkSize = reconciliationChunkSize;
+    }
+
+    /**
+     * Method to find the quantity of a product in each warehouse.<p>
+     * A product missing from the summary, e.g. with batches stored outside the services, is summed from its batches
+     * without writing, the next reconciliation adds it to the summary.<p>
+     * Also, check the {@link ProductRepo#findWarehousesByProduct(Long)} method for more movement details.
+     *
+     * @param productId The id of the product.
+     * @return The warehouses that have the product in stock, empty if none.
+     */
+    @Override
+    public List<WarehouseDto> findWarehouses(Long productId) {
+        List<WarehouseDto> warehouses = productWarehouseStockRepo.findWarehousesByProductId(productId);
+        if (warehouses.isEmpty()) {
+            warehouses = productRepo.findWarehousesByProduct(productId);
+        }
+        return warehouses.stream()
+                .filter(warehouse -> warehouse.getQuantity() > 0)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Method to add the quantity of new or updated batches to the summary.
+     *
+     * @param itemBatches The batches, with their product and inbound order.
+     */
+    @Override
+    public void addStock(Collection<ItemBatch> itemBatches) {
+        applyDeltas(sumByProductAndWarehouse(itemBatches, ItemBatch::getProductQuantity));
+    }
+
+    /**
+     * Method to add back to the summary the quantities returned to batches by a released reservation.
+     *
+     * @param itemBatches           The batches, with their product and inbound order.
+     * @param quantitiesByItemBatch The quantity returned, mapped by batch id.
+     */
+    @Override
+    public void addStock(Collection<ItemBatch> itemBatches, Map<Long, Integer> quantitiesByItemBatch) {
+        applyDeltas(sumByProductAndWarehouse(itemBatches, itemBatch -> quantitiesByItemBatch.get(itemBatch.getId())));
+    }
+
+    /**
+     * Method to remove the quantity of batches that are being replaced from the summary.
+     *
+     * @param itemBatches The batches, with their product and inbound order.
+     */
+    @Override
+    public void removeStock(Collection<ItemBatch> itemBatches) {
+        applyDeltas(sumByProductAndWarehouse(itemBatches, itemBatch -> -itemBatch.getProductQuantity()));
+    }
+
+    /**
+     * Method to remove the quantities taken out of batches by an order from the summary, for batches the caller
+     * already loaded.
+     *
+     * @param itemBatches           The batches, with their product and inbound order.
+     * @param quantitiesByItemBatch The quantity taken, mapped by batch id.
+     */
+    @Override
+    public void removeStock(Collection<ItemBatch> itemBatches, Map<Long, Integer> quantitiesByItemBatch) {
+        applyDeltas(sumByProductAndWarehouse(itemBatches, itemBatch -> -quantitiesByItemBatch.get(itemBatch.getId())));
+    }
+
+    /**
+     * Method to remove the quantities taken out of batches by an order from the summary.
+     * The batches are loaded in a single query to find their product and warehouse.
+     *
+     * @param quantitiesByItemBatch The quantity taken, mapped by batch id.
+     */
+    @Override
+    public void removeStock(Map<Long, Integer> quantitiesByItemBatch) {
+        if (quantitiesByItemBatch.isEmpty()) {
+            return;
+        }
+        List<ItemBatch> itemBatches = itemBatchRepo.findWithInboundOrderByIdIn(quantitiesByItemBatch.keySet());
+        applyDeltas(sumByProductAndWarehouse(itemBatches,
+                itemBatch -> -quantitiesByItemBatch.get(itemBatch.getId())));
+    }
+
+    /**
+     * Method to zero the summary of the products of a seller that was made inactive.
+     *
+     * @param sellerId The id of the seller.
+     */
+    @Override
+    public void clearSeller(Long sellerId) {
+        productWarehouseStockRepo.clearBySellerId(sellerId);
+    }
+
+    /**
+     * Compares the summary with the batches, a chunk of product ids at a time, and recounts the rows that drifted
+     * from their batches. The recount sums the batches again in the statement that writes the row, so stock changes
+     * committed after the comparison are counted, and running it twice changes nothing.<p>
+     * Also, check the {@link ProductWarehouseStockRepo#recountQuantities(Collection)} method for more details.
+     *
+     * @return The number of products that drifted from their batches.
+     */
+    @Override
+    @Scheduled(
+            initialDelayString = "${product-warehouse-stock.reconciliation-interval-ms:3600000}",
+            fixedDelayString = "${product-warehouse-stock.reconciliation-interval-ms:3600000}"
+    )
+    public int reconcile() {
+        long maxProductId = productRepo.findMaxId().orElse(0L);
+        Set<Long> driftedProductIds = new HashSet<>();
+        for (long firstProductId = 1; firstProductId <= maxProductId; firstProductId += reconciliationChunkSize) {
+            long lastProductId = firstProductId + reconciliationChunkSize - 1;
+            List<ProductWarehouseStockId> driftedRows = new ArrayList<>();
+            productWarehouseStockRepo.findDriftByProductIdBetween(firstProductId, lastProductId).forEach(stock -> {
+                driftedRows.add(new ProductWarehouseStockId(stock.getProductId(), stock.getWarehouse()));
+                driftedProductIds.add(stock.getProductId());
+            });
+            productWarehouseStockRepo.recountQuantities(driftedRows);
+        }
+        if (!driftedProductIds.isEmpty()) {
+            logger.warn("Product warehouse stock drifted from the batches in {} products, corrected.", driftedProductIds.size());
+        }
+        return driftedProductIds.size();
+    }
+
+    private Map<ProductWarehouseStockId, Long> sumByProductAndWarehouse(
+            Collection<ItemBatch> itemBatches,
+            ToIntFunction<ItemBatch> quantity
+    ) {
+        Map<ProductWarehouseStockId, Long> deltas = new LinkedHashMap<>();
+        itemBatches.stream()
+                .filter(itemBatch -> itemBatch.getSellerActive() == Active.ATIVO)
+                .filter(itemBatch -> itemBatch.getProduct() != null && itemBatch.getInboundOrder() != null
+                        && itemBatch.getInboundOrder().getWarehouse() != null)
+                .forEach(itemBatch -> deltas.merge(
+                        new ProductWarehouseStockId(itemBatch.getProduct().getId(),
+                                itemBatch.getInboundOrder().getWarehouse().getId()),
+                        (long) quantity.applyAsInt(itemBatch),
+                        Long::sum));
+        return deltas;
+    }
+
+    /**
+     * Method to add the deltas to the summary rows in a single JDBC batch.
+     *
+     * @param deltas The quantity to add, mapped by product and warehouse.
+     */
+    private void applyDeltas(Map<ProductWarehouseStockId, Long> deltas) {
+        productWarehouseStockRepo.addQuantities(deltas);
+    }
+}
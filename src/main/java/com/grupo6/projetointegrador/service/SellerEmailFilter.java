@@ -0,0 +1,124 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.repository.SellerRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Locale;
+
+import static com.grupo6.projetointegrador.service.TransactionCallbacks.afterCommit;
+
+/**
+ * In-memory Bloom filter of the seller emails, compared ignoring case.<p>
+ * A negative answer means the email is certainly not registered, so the database lookup can be skipped.
+ * A positive answer may be a false positive and must be confirmed with
+ * {@link SellerRepo#existsByEmailIgnoreCase(String)}. Emails are never removed, the unique constraint
+ * on {@code seller.email} stays as the last guard.
+ */
+@Component
+public class SellerEmailFilter {
+    private final SellerRepo sellerRepo;
+
+    private final boolean enabled;
+
+    private final int numberOfBits;
+
+    private final int numberOfHashes;
+
+    private final BitSet bits;
+
+    private volatile boolean loaded;
+
+    public SellerEmailFilter(
+            SellerRepo sellerRepo,
+            @Value("${seller-email-filter.enabled:true}") boolean enabled,
+            @Value("${seller-email-filter.expected-emails:100000}") int expectedEmails,
+            @Value("${seller-email-filter.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
+        this.sellerRepo = sellerRepo;
+        this.enabled = enabled;
+        int expected = Math.max(expectedEmails, 1);
+        this.numberOfBits = (int) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numberOfHashes = Math.max(1, (int) Math.round((double) numberOfBits / expected * Math.log(2)));
+        this.bits = new BitSet(numberOfBits);
+    }
+
+    /**
+     * Loads every seller email from the database once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            sellerRepo.findAllEmails().forEach(this::add);
+            loaded = true;
+        }
+    }
+
+    /**
+     * Method to check if an email may already be registered.
+     *
+     * @param email The email to check.
+     * @return {@code false} only if the email is certainly not registered, {@code true} if the filter
+     * is disabled, not loaded yet or the email may exist.
+     */
+    public boolean mightContain(String email) {
+        if (!enabled || !loaded) {
+            return true;
+        }
+        long hash = hash(email);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        synchronized (bits) {
+            for (int i = 1; i <= numberOfHashes; i++) {
+                if (!bits.get(index(hash1, hash2, i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registers an email once the surrounding transaction commits.
+     *
+     * @param email The email of the created or updated seller.
+     */
+    public void put(String email) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> add(email));
+    }
+
+    private void add(String email) {
+        long hash = hash(email);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        synchronized (bits) {
+            for (int i = 1; i <= numberOfHashes; i++) {
+                bits.set(index(hash1, hash2, i));
+            }
+        }
+    }
+
+    private int index(int hash1, int hash2, int i) {
+        int combinedHash = hash1 + i * hash2;
+        return (combinedHash & Integer.MAX_VALUE) % numberOfBits;
+    }
+
+    /**
+     * 64-bit FNV-1a of the lower case email, split in two 32-bit hashes for double hashing.
+     */
+    private static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : email.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -12,6 +12,7 @@ public interface SellerService {
     Seller findSeller(Long id);
     Seller updateSeller(Long id, UpdateSellerDto updateSellerDto);
     void deleteSeller(Long id);
+    Seller activateSeller(Long id);
 
     List<InactiveSellerBatchDto> getInactiveSellerBatches(Long id);
 }
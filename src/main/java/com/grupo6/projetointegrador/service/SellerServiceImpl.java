@@ -6,21 +6,27 @@ import com.grupo6.projetointegrador.dto.UpdateSellerDto;
 import com.grupo6.projetointegrador.dto.ZipCodeDto;
 import com.grupo6.projetointegrador.exception.BusinessRuleException;
 import com.grupo6.projetointegrador.exception.NotFoundException;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
 import com.grupo6.projetointegrador.model.entity.Product;
 import com.grupo6.projetointegrador.model.entity.Seller;
 import com.grupo6.projetointegrador.model.enumeration.Active;
+import com.grupo6.projetointegrador.repository.ItemBatchRepo;
 import com.grupo6.projetointegrador.repository.ProductRepo;
 import com.grupo6.projetointegrador.repository.SellerRepo;
 import com.grupo6.projetointegrador.repository.WarehouseRepo;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 @Service
+@Timed("service.method")
 public class SellerServiceImpl implements SellerService {
 
     @Autowired
@@ -29,16 +35,32 @@ public class SellerServiceImpl implements SellerService {
     @Autowired
     private ProductRepo productRepo;
 
+    @Autowired
+    private ItemBatchRepo itemBatchRepo;
+
     @Autowired
     private WarehouseRepo warehouseRepo;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private ZipCodeResolver zipCodeResolver;
+
+    @Autowired
+    private ItemBatchStockIndex stockIndex;
+
+    @Autowired
+    private SellerEmailFilter sellerEmailFilter;
+
+    @Autowired
+    private ProductWarehouseStockService productWarehouseStockService;
+
+    @Autowired
+    private ExpiryTimeline expiryTimeline;
 
     /**
      * This method returns a new Seller.
      * Or throws a {@link BusinessRuleException} if the zip code doesn't match the address given.
      * Or throws a {@link BusinessRuleException} if the email provided already exists in the database.
+     * Also, check the {@link #saveCheckingEmail(Seller)} method for more movement details.
      *
      * @param createSellerDto This is the entry object of seller information,
      *                        containing first name, last name, email, address, house number and zip code.
@@ -62,7 +84,9 @@ public class SellerServiceImpl implements SellerService {
         newSeller.setFirstName(createSellerDto.getFirstName());
         newSeller.setLastName(createSellerDto.getLastName());
 
-        return sellerRepo.save(newSeller);
+        Seller savedSeller = saveCheckingEmail(newSeller);
+        sellerEmailFilter.put(createSellerDto.getEmail());
+        return savedSeller;
     }
 
     /**
@@ -74,11 +98,12 @@ public class SellerServiceImpl implements SellerService {
      */
     @Override
     public Seller findSeller(Long id) {
-        return sellerRepo.findById(id).orElseThrow(() -> new NotFoundException("Vendedor não encontrado."));
+        return sellerRepo.findWithProductsById(id).orElseThrow(() -> new NotFoundException("Vendedor não encontrado."));
     }
 
     /**
-     * This method returns an updated Seller.
+     * This method returns an updated Seller, loaded with its products so it can be serialized after the
+     * transaction ends.
      * Or throws a {@link NotFoundException} if the seller is not found.
      * Or throws a {@link BusinessRuleException} if the seller is inactive.
      *
@@ -90,7 +115,7 @@ public class SellerServiceImpl implements SellerService {
     @Override
     @Transactional
     public Seller updateSeller(Long id, UpdateSellerDto updateSellerDto) {
-        Seller seller = sellerRepo.findById(id).orElseThrow(() -> new NotFoundException("Vendedor não encontrado."));
+        Seller seller = sellerRepo.findWithProductsById(id).orElseThrow(() -> new NotFoundException("Vendedor não encontrado."));
         if (seller.getActive().equals(Active.INATIVO)) {
             throw new BusinessRuleException("Usuário inativo.");
         }
@@ -99,6 +124,7 @@ public class SellerServiceImpl implements SellerService {
         if (updateSellerDto.getEmail() != null) {
             checkEmail(updateSellerDto.getEmail(), seller.getId());
             seller.setEmail(updateSellerDto.getEmail());
+            sellerEmailFilter.put(updateSellerDto.getEmail());
         }
 
         if (updateSellerDto.getAddress() != null) {
@@ -117,7 +143,7 @@ public class SellerServiceImpl implements SellerService {
             seller.setLastName(updateSellerDto.getLastName());
         }
 
-        return sellerRepo.save(seller);
+        return saveCheckingEmail(seller);
     }
 
     /**
@@ -125,9 +151,13 @@ public class SellerServiceImpl implements SellerService {
      * Or throws a {@link NotFoundException} if the seller is not found.
      * Or throws a {@link BusinessRuleException} if the seller is already inactive.
      *
+     * The batches of the seller are flagged as inactive in a single bulk update and its stock leaves the
+     * warehouse summary.
+     *
      * @param id This is the id of the seller set to be deleted.
      */
     @Override
+    @Transactional
     public void deleteSeller(Long id) {
         Seller seller = sellerRepo.findById(id).orElseThrow(() -> new NotFoundException("Vendedor não encontrado."));
         if (seller.getActive().equals(Active.INATIVO)) {
@@ -135,6 +165,39 @@ public class SellerServiceImpl implements SellerService {
         }
         seller.setActive(Active.INATIVO);
         sellerRepo.save(seller);
+        itemBatchRepo.updateSellerActiveBySellerId(seller.getId(), Active.INATIVO);
+        productWarehouseStockService.clearSeller(seller.getId());
+        stockIndex.removeSeller(seller.getId());
+        expiryTimeline.removeSeller(seller.getId());
+    }
+
+    /**
+     * This method makes an inactive Seller active again.
+     * Or throws a {@link NotFoundException} if the seller is not found.
+     * Or throws a {@link BusinessRuleException} if the seller is already active.
+     *
+     * The batches of the seller are flagged as active in a single bulk update, then the ones with stock are loaded
+     * in a single query and added back to the warehouse summary, the stock index and the expiry timeline.
+     *
+     * @param id This is the id of the seller set to be activated.
+     * @return A Seller object of the activated seller.
+     */
+    @Override
+    @Transactional
+    public Seller activateSeller(Long id) {
+        Seller seller = sellerRepo.findWithProductsById(id).orElseThrow(() -> new NotFoundException("Vendedor não encontrado."));
+        if (seller.getActive().equals(Active.ATIVO)) {
+            throw new BusinessRuleException("Usuário já está ativo.");
+        }
+        seller.setActive(Active.ATIVO);
+        Seller savedSeller = sellerRepo.save(seller);
+        itemBatchRepo.updateSellerActiveBySellerId(seller.getId(), Active.ATIVO);
+        List<ItemBatch> itemBatches = itemBatchRepo
+                .findWithProductAndInboundOrderByProductSellerIdAndProductQuantityGreaterThan(seller.getId(), 0);
+        productWarehouseStockService.addStock(itemBatches);
+        stockIndex.putAll(itemBatches);
+        expiryTimeline.putAll(itemBatches);
+        return savedSeller;
     }
 
     /**
@@ -158,6 +221,33 @@ public class SellerServiceImpl implements SellerService {
         return inactiveSellerBatches;
     }
 
+    /**
+     * This method saves the seller right away, so an email registered meanwhile, or by another instance whose
+     * emails the local {@link SellerEmailFilter} has not seen, is caught here by the unique constraint.
+     * Or throws a {@link BusinessRuleException} if the unique constraint on the email is violated.
+     *
+     * @param seller The seller to be saved.
+     * @return The saved seller.
+     */
+    private Seller saveCheckingEmail(Seller seller) {
+        try {
+            return sellerRepo.saveAndFlush(seller);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConstraintViolation(e)) {
+                throw new BusinessRuleException("Email já cadastrado.");
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isEmailConstraintViolation(DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException)) {
+            return false;
+        }
+        String constraintName = ((ConstraintViolationException) e.getCause()).getConstraintName();
+        return constraintName != null && constraintName.toLowerCase(Locale.ROOT).contains(Seller.EMAIL_CONSTRAINT);
+    }
+
     /**
      * This method checks if the zip code matches the address received.
      * Or throws a {@link BusinessRuleException} if the zip code isn't valid.
@@ -167,9 +257,7 @@ public class SellerServiceImpl implements SellerService {
      * @param address This is the seller's address.
      */
     private void checkZipCode(String zipCode, String address) {
-        ZipCodeDto zipCodeDtoDto = restTemplate
-                .getForEntity("https://viacep.com.br/ws/"+zipCode+"/json/", ZipCodeDto.class)
-                .getBody();
+        ZipCodeDto zipCodeDtoDto = zipCodeResolver.resolve(zipCode);
         if (zipCodeDtoDto.getErro() != null) {
             throw new BusinessRuleException("CEP inválido.");
         }
@@ -179,20 +267,25 @@ public class SellerServiceImpl implements SellerService {
     }
 
     /**
-     * This method checks if the email received already exists in the database, excluding the own seller entry.
+     * This method checks if the email received already exists in the database, ignoring case and
+     * excluding the own seller entry. Emails the {@link SellerEmailFilter} has never seen skip the query; those are
+     * still checked by the unique constraint when the seller is saved, see {@link #saveCheckingEmail(Seller)}.
      * Or throws a {@link BusinessRuleException} if the email provided already exists in the database
      *                                           and is not associated with the current seller.
      *
      * @param email This is the seller's email.
-     * @param id This is the seller's id.
+     * @param id This is the seller's id, null for a new seller.
      */
     private void checkEmail(String email, Long id) {
-        List<Seller> sellers = sellerRepo.findAll();
-        sellers.forEach((seller) -> {
-            if (seller.getEmail().matches(email) && !seller.getId().equals(id)) {
-                throw new BusinessRuleException("Email já cadastrado.");
-            }
-        });
+        if (!sellerEmailFilter.mightContain(email)) {
+            return;
+        }
+        boolean emailExists = id == null
+                ? sellerRepo.existsByEmailIgnoreCase(email)
+                : sellerRepo.existsByEmailIgnoreCaseAndIdNot(email, id);
+        if (emailExists) {
+            throw new BusinessRuleException("Email já cadastrado.");
+        }
     }
 
     /**
@@ -208,17 +301,13 @@ public class SellerServiceImpl implements SellerService {
         if(updateSellerDto.getZipCode() != null && updateSellerDto.getAddress() != null) {
             checkZipCode(updateSellerDto.getZipCode(), updateSellerDto.getAddress());
         } else if (updateSellerDto.getZipCode() != null) {
-            ZipCodeDto zipCodeDtoDto = restTemplate
-                    .getForEntity("https://viacep.com.br/ws/"+updateSellerDto.getZipCode()+"/json/", ZipCodeDto.class)
-                    .getBody();
-            if (!zipCodeDtoDto.getLogradouro().equals(seller.getAddress())) {
+            ZipCodeDto zipCodeDtoDto = zipCodeResolver.resolve(updateSellerDto.getZipCode());
+            if (!seller.getAddress().equals(zipCodeDtoDto.getLogradouro())) {
                 throw new BusinessRuleException("CEP não corresponde ao endereço passado.");
             }
         } else if (updateSellerDto.getAddress() != null) {
-            ZipCodeDto zipCodeDtoDto = restTemplate
-                    .getForEntity("https://viacep.com.br/ws/"+seller.getZipCode()+"/json/", ZipCodeDto.class)
-                    .getBody();
-            if (!zipCodeDtoDto.getLogradouro().equals(updateSellerDto.getAddress())) {
+            ZipCodeDto zipCodeDtoDto = zipCodeResolver.resolve(seller.getZipCode());
+            if (!updateSellerDto.getAddress().equals(zipCodeDtoDto.getLogradouro())) {
                 throw new BusinessRuleException("CEP não corresponde ao endereço passado.");
             }
         }
@@ -0,0 +1,21 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.model.entity.OrderPurchase;
+import com.grupo6.projetointegrador.model.entity.StockReservation;
+
+import java.util.List;
+import java.util.Map;
+
+public interface StockReservationService {
+    List<StockReservation> reserveAll(Map<Long, Integer> quantitiesByProduct);
+
+    void confirm(OrderPurchase orderPurchase, List<StockReservation> stockReservations);
+
+    int settle(Long orderPurchaseId);
+
+    boolean hasReservations(Long orderPurchaseId);
+
+    int release(Long orderPurchaseId);
+
+    int releaseExpired();
+}
@@ -0,0 +1,213 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.exception.BusinessRuleException;
+import com.grupo6.projetointegrador.exception.NotFoundException;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
+import com.grupo6.projetointegrador.model.entity.OrderPurchase;
+import com.grupo6.projetointegrador.model.entity.StockReservation;
+import com.grupo6.projetointegrador.model.enumeration.StatusOrder;
+import com.grupo6.projetointegrador.model.enumeration.StatusReservation;
+import com.grupo6.projetointegrador.repository.ItemBatchRepo;
+import com.grupo6.projetointegrador.repository.OrderPurchaseRepo;
+import com.grupo6.projetointegrador.repository.StockReservationRepo;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Timed("service.method")
+public class StockReservationServiceImpl implements StockReservationService {
+    private final StockReservationRepo stockReservationRepo;
+    private final OrderPurchaseRepo orderPurchaseRepo;
+    private final ItemBatchRepo batchRepo;
+    private final ItemBatchStockIndex stockIndex;
+    private final ProductWarehouseStockService productWarehouseStockService;
+    private final ExpiryTimeline expiryTimeline;
+    private final int maxAttempts;
+    private final Duration expiry;
+    private final int sweepSize;
+
+    public StockReservationServiceImpl(
+            StockReservationRepo stockReservationRepo,
+            OrderPurchaseRepo orderPurchaseRepo,
+            ItemBatchRepo batchRepo,
+            ItemBatchStockIndex stockIndex,
+            ProductWarehouseStockService productWarehouseStockService,
+            ExpiryTimeline expiryTimeline,
+            @Value("${stock-reservation.max-attempts:3}") int maxAttempts,
+            @Value("${stock-reservation.expiry:PT30M}") Duration expiry,
+            @Value("${stock-reservation.sweep-size:100}") int sweepSize
+    ) {
+        this.stockReservationRepo = stockReservationRepo;
+        this.orderPurchaseRepo = orderPurchaseRepo;
+        this.batchRepo = batchRepo;
+        this.stockIndex = stockIndex;
+        this.productWarehouseStockService = productWarehouseStockService;
+        this.expiryTimeline = expiryTimeline;
+        this.maxAttempts = maxAttempts;
+        this.expiry = expiry;
+        this.sweepSize = sweepSize;
+    }
+
+    /**
+     * Method to take the quantities of the products of an order out of stock when the order is created.<p>
+     * A valid batch is chosen for each product and the quantities are subtracted with guarded updates sent as a
+     * single JDBC batch, which only succeed if the batches still have the quantities. The products whose batch
+     * was taken first by a concurrent order get another batch chosen from the database, up to the configured
+     * number of attempts. The reserved batches are then loaded in a single query.<p>
+     * Also, check the {@link ItemBatchRepo#decrementStock(Map)} method for more movement details.
+     *
+     * @param quantitiesByProduct The quantity the buyer wants, mapped by product id.
+     * @return The reservations not yet linked to an order, {@link NotFoundException} if no batch has the quantity
+     * of a product or {@link BusinessRuleException} if every attempt lost to a concurrent order.
+     */
+    @Override
+    public List<StockReservation> reserveAll(Map<Long, Integer> quantitiesByProduct) {
+        Map<Long, Integer> pendingQuantities = new LinkedHashMap<>(quantitiesByProduct);
+        Map<Long, Integer> reservedQuantities = new LinkedHashMap<>();
+        for (int attempt = 0; attempt < maxAttempts && !pendingQuantities.isEmpty(); attempt++) {
+            boolean useIndex = attempt == 0;
+            Map<Long, Long> productsByItemBatch = new HashMap<>();
+            Map<Long, Integer> quantitiesByItemBatch = new LinkedHashMap<>();
+            pendingQuantities.forEach((productId, quantity) -> {
+                Long itemBatchId = findCandidateItemBatchId(productId, quantity, useIndex);
+                productsByItemBatch.put(itemBatchId, productId);
+                quantitiesByItemBatch.put(itemBatchId, quantity);
+            });
+
+            Set<Long> staleItemBatchIds = new HashSet<>(batchRepo.decrementStock(quantitiesByItemBatch));
+            quantitiesByItemBatch.forEach((itemBatchId, quantity) -> {
+                if (!staleItemBatchIds.contains(itemBatchId)) {
+                    pendingQuantities.remove(productsByItemBatch.get(itemBatchId));
+                    reservedQuantities.put(itemBatchId, quantity);
+                }
+            });
+        }
+        if (!pendingQuantities.isEmpty()) {
+            throw new BusinessRuleException("Estoque alterado por outro pedido, tente novamente.");
+        }
+
+        stockIndex.decrement(reservedQuantities);
+        expiryTimeline.decrement(reservedQuantities);
+        List<ItemBatch> itemBatches = batchRepo.findWithProductAndInboundOrderByIdIn(reservedQuantities.keySet());
+        productWarehouseStockService.removeStock(itemBatches, reservedQuantities);
+        return itemBatches.stream()
+                .map(itemBatch -> new StockReservation(itemBatch, reservedQuantities.get(itemBatch.getId())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Method to link the reservations to the saved order.
+     *
+     * @param orderPurchase     The order that owns the reservations.
+     * @param stockReservations The reservations made for the order.
+     */
+    @Override
+    public void confirm(OrderPurchase orderPurchase, List<StockReservation> stockReservations) {
+        stockReservations.forEach(stockReservation -> stockReservation.setOrderPurchase(orderPurchase));
+        stockReservationRepo.saveAll(stockReservations);
+    }
+
+    /**
+     * Method to mark the reservations of an order as settled when the order is finalized.
+     *
+     * @param orderPurchaseId The id of the order.
+     * @return The number of reservations settled, zero if the order has none.
+     */
+    @Override
+    @Transactional
+    public int settle(Long orderPurchaseId) {
+        return stockReservationRepo.updateStatusByOrderPurchaseId(
+                orderPurchaseId, StatusReservation.RESERVADO, StatusReservation.LIQUIDADO);
+    }
+
+    /**
+     * Method to check if an order has reservations, whatever their status.
+     *
+     * @param orderPurchaseId The id of the order.
+     * @return false only for orders created before the reservations existed.
+     */
+    @Override
+    public boolean hasReservations(Long orderPurchaseId) {
+        return stockReservationRepo.existsByOrderPurchaseId(orderPurchaseId);
+    }
+
+    /**
+     * Method to give the stock reserved by an order back to its batches when the order is cancelled.<p>
+     * The reservations are marked as released before the stock is returned, so an order released twice, or
+     * settled at the same time, returns its stock at most once.
+     *
+     * @param orderPurchaseId The id of the order.
+     * @return The number of reservations released, zero if the order has none left to release.
+     */
+    @Override
+    @Transactional
+    public int release(Long orderPurchaseId) {
+        if (stockReservationRepo.updateStatusByOrderPurchaseId(
+                orderPurchaseId, StatusReservation.RESERVADO, StatusReservation.LIBERADO) == 0) {
+            return 0;
+        }
+        List<StockReservation> stockReservations = stockReservationRepo.findByOrderPurchaseId(orderPurchaseId);
+        Map<Long, Integer> quantitiesByItemBatch = stockReservations.stream()
+                .collect(Collectors.groupingBy(
+                        stockReservation -> stockReservation.getItemBatch().getId(),
+                        Collectors.summingInt(StockReservation::getQuantity)
+                ));
+        batchRepo.incrementStock(quantitiesByItemBatch);
+
+        List<ItemBatch> itemBatches = batchRepo.findWithProductAndInboundOrderByIdIn(quantitiesByItemBatch.keySet());
+        stockIndex.putAll(itemBatches);
+        expiryTimeline.putAll(itemBatches);
+        productWarehouseStockService.addStock(itemBatches, quantitiesByItemBatch);
+        return stockReservations.size();
+    }
+
+    /**
+     * Cancels the open orders whose reservations are older than the configured expiry and releases their stock,
+     * so abandoned orders do not hold it forever. At most the configured number of orders is cancelled per run.
+     *
+     * @return The number of orders cancelled.
+     */
+    @Override
+    @Transactional
+    @Scheduled(
+            initialDelayString = "${stock-reservation.sweep-interval-ms:60000}",
+            fixedDelayString = "${stock-reservation.sweep-interval-ms:60000}"
+    )
+    public int releaseExpired() {
+        List<Long> orderPurchaseIds = stockReservationRepo.findOrderPurchaseIdsByStatusAndCreatedAtBefore(
+                StatusReservation.RESERVADO, LocalDateTime.now().minus(expiry), PageRequest.of(0, sweepSize));
+        int cancelled = 0;
+        for (Long orderPurchaseId : orderPurchaseIds) {
+            if (orderPurchaseRepo.updateStatusById(orderPurchaseId, StatusOrder.ABERTO, StatusOrder.CANCELADO) == 1) {
+                release(orderPurchaseId);
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    private Long findCandidateItemBatchId(Long productId, int quantity, boolean useIndex) {
+        Optional<Long> indexedItemBatchId = useIndex
+                ? stockIndex.findValidItemBatchId(productId, quantity)
+                : Optional.empty();
+        return indexedItemBatchId.orElseGet(() -> batchRepo.findByDueDate21AndProductIdAndQty(productId, quantity,
+                        ItemBatchStockIndex.firstValidDueDate())
+                .map(ItemBatch::getId)
+                .orElseThrow(() -> new NotFoundException("Produto não encontrado.")));
+    }
+}
@@ -0,0 +1,127 @@
+package com.grupo6.projetointegrador.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.grupo6.projetointegrador.dto.ZipCodeDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * {@link ZipCodeResolver} backed by the ViaCEP web service.<p>
+ * Answers are kept in a bounded cache keyed by the digits of the CEP, invalid CEPs included with a shorter time
+ * to live. The cache holds the pending lookup of a CEP too, so concurrent lookups of the same CEP wait for a single
+ * upstream call. Upstream failures are not cached.
+ */
+@Component
+@ConditionalOnProperty(name = "zip-code.offline.enabled", havingValue = "false", matchIfMissing = true)
+public class ViaCepZipCodeResolver implements ZipCodeResolver {
+    private final RestTemplate restTemplate;
+
+    private final String baseUrl;
+
+    private final AsyncCache<String, ZipCodeDto> cache;
+
+    public ViaCepZipCodeResolver(
+            RestTemplate restTemplate,
+            @Value("${zip-code.via-cep.base-url:https://viacep.com.br/ws/}") String baseUrl,
+            @Value("${zip-code.cache.max-size:10000}") long maxSize,
+            @Value("${zip-code.cache.ttl-minutes:1440}") long ttlMinutes,
+            @Value("${zip-code.cache.invalid-ttl-minutes:60}") long invalidTtlMinutes
+    ) {
+        this.restTemplate = restTemplate;
+        this.baseUrl = baseUrl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ZipCodeExpiry(Duration.ofMinutes(ttlMinutes), Duration.ofMinutes(invalidTtlMinutes)))
+                .buildAsync();
+    }
+
+    /**
+     * Method to find the address of a CEP. Only the digits of the CEP are used, so "86070-180" and "86070180"
+     * share the same cache entry. A CEP without eight digits is invalid and is not sent upstream.<p>
+     * The caller that adds the pending lookup to the cache makes the upstream call on its own thread, outside
+     * the cache's locks; the others wait for it.
+     *
+     * @param zipCode The CEP to be resolved.
+     * @return The address of the CEP, with {@code erro} filled if the CEP is invalid.
+     */
+    @Override
+    public ZipCodeDto resolve(String zipCode) {
+        String digits = zipCode == null ? "" : zipCode.replaceAll("\\D", "");
+        if (digits.length() != 8) {
+            return invalidZipCode(digits);
+        }
+        CompletableFuture<ZipCodeDto> lookup = new CompletableFuture<>();
+        CompletableFuture<ZipCodeDto> cached = cache.get(digits, (key, executor) -> lookup);
+        if (cached == lookup) {
+            try {
+                lookup.complete(fetch(digits));
+            } catch (RuntimeException e) {
+                lookup.completeExceptionally(e);
+            }
+        }
+        return await(cached);
+    }
+
+    private static ZipCodeDto await(CompletableFuture<ZipCodeDto> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private ZipCodeDto fetch(String zipCode) {
+        try {
+            ZipCodeDto zipCodeDto = restTemplate.getForObject(baseUrl + zipCode + "/json/", ZipCodeDto.class);
+            return zipCodeDto != null ? zipCodeDto : invalidZipCode(zipCode);
+        } catch (HttpClientErrorException.BadRequest e) {
+            return invalidZipCode(zipCode);
+        }
+    }
+
+    private static ZipCodeDto invalidZipCode(String zipCode) {
+        ZipCodeDto zipCodeDto = new ZipCodeDto();
+        zipCodeDto.setCep(zipCode);
+        zipCodeDto.setErro("true");
+        return zipCodeDto;
+    }
+
+    private static class ZipCodeExpiry implements Expiry<String, ZipCodeDto> {
+        private final long ttlNanos;
+        private final long invalidTtlNanos;
+
+        ZipCodeExpiry(Duration ttl, Duration invalidTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.invalidTtlNanos = invalidTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String zipCode, ZipCodeDto zipCodeDto, long currentTime) {
+            return zipCodeDto.getErro() != null ? invalidTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String zipCode, ZipCodeDto zipCodeDto, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(zipCode, zipCodeDto, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String zipCode, ZipCodeDto zipCodeDto, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.grupo6.projetointegrador.service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Read-only CEP to street table stored in a compact binary file and memory mapped.<p>
+ * Layout, big endian: the magic number, the number of entries {@code n}, {@code n} sorted CEPs as 8-digit
+ * integers, {@code n} offsets into the street section and the street section itself, where each street is
+ * an unsigned short length followed by its UTF-8 bytes, cut at a character boundary when longer than the length
+ * fits. A lookup is a binary search on the CEP keys.
+ */
+public class ZipCodeIndex implements Closeable {
+    static final int MAGIC = 0x43455031;
+
+    private static final int HEADER_SIZE = 8;
+
+    private static final int MAX_STREET_LENGTH = 0xFFFF;
+
+    private final FileChannel channel;
+
+    private final IntBuffer keys;
+
+    private final IntBuffer offsets;
+
+    private final ByteBuffer streets;
+
+    private final int size;
+
+    private ZipCodeIndex(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Arquivo de CEP inválido.");
+        }
+        this.size = buffer.getInt(4);
+        int keysEnd = HEADER_SIZE + size * Integer.BYTES;
+        int offsetsEnd = keysEnd + size * Integer.BYTES;
+        this.keys = slice(buffer, HEADER_SIZE, keysEnd).asIntBuffer();
+        this.offsets = slice(buffer, keysEnd, offsetsEnd).asIntBuffer();
+        this.streets = slice(buffer, offsetsEnd, buffer.capacity());
+    }
+
+    /**
+     * Method to map an index file created by {@link #write(Map, Path)}.
+     *
+     * @param indexFile The binary index file.
+     * @return The mapped index, that must be closed when no longer used.
+     */
+    public static ZipCodeIndex open(Path indexFile) throws IOException {
+        FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ);
+        try {
+            return new ZipCodeIndex(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Method to find the street of a CEP.
+     *
+     * @param zipCode The CEP, with or without the hyphen.
+     * @return The street or an empty Optional if the CEP is malformed or not in the index.
+     */
+    public Optional<String> findStreet(String zipCode) {
+        int key = parseZipCode(zipCode);
+        if (key < 0) {
+            return Optional.empty();
+        }
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleKey = keys.get(middle);
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                return Optional.of(readStreet(offsets.get(middle)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Method to convert a CSV file with the CEP in the first column and the street in the second one, separated
+     * by the first comma or semicolon found outside quotes in the first line, a comma if there is none.
+     *
+     * @param csvFile   The CSV file.
+     * @param indexFile The binary index file to be written.
+     * @return The number of CEPs written.
+     * @see #convert(Path, Path, char)
+     */
+    public static int convert(Path csvFile, Path indexFile) throws IOException {
+        String firstLine;
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            firstLine = reader.readLine();
+        }
+        return convert(csvFile, indexFile, detectDelimiter(firstLine));
+    }
+
+    /**
+     * Method to convert a CSV file with the CEP in the first column and the street in the second one.
+     * A header line is skipped, fields may be quoted and a repeated CEP keeps the last street. Only the given
+     * delimiter separates fields, so a street may contain the other one unquoted.
+     *
+     * @param csvFile   The CSV file.
+     * @param indexFile The binary index file to be written.
+     * @param delimiter The field delimiter, usually a comma or a semicolon.
+     * @return The number of CEPs written.
+     */
+    public static int convert(Path csvFile, Path indexFile, char delimiter) throws IOException {
+        Map<Integer, String> streetsByZipCode = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                List<String> fields = parseCsvLine(line, delimiter);
+                if (fields.size() < 2) {
+                    continue;
+                }
+                int key = parseZipCode(fields.get(0));
+                if (key >= 0) {
+                    streetsByZipCode.put(key, fields.get(1));
+                }
+            }
+        }
+        write(streetsByZipCode, indexFile);
+        return streetsByZipCode.size();
+    }
+
+    /**
+     * Method to write the binary index.
+     *
+     * @param streetsByZipCode The streets mapped by CEP, iterated in ascending CEP order.
+     * @param indexFile        The binary index file to be written.
+     */
+    static void write(Map<Integer, String> streetsByZipCode, Path indexFile) throws IOException {
+        int size = streetsByZipCode.size();
+        List<byte[]> streets = new ArrayList<>(size);
+        try (OutputStream fileOutput = Files.newOutputStream(indexFile);
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput))) {
+            output.writeInt(MAGIC);
+            output.writeInt(size);
+            for (Map.Entry<Integer, String> entry : streetsByZipCode.entrySet()) {
+                output.writeInt(entry.getKey());
+                streets.add(entry.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+            int offset = 0;
+            for (byte[] street : streets) {
+                output.writeInt(offset);
+                offset += Short.BYTES + storedLength(street);
+            }
+            for (byte[] street : streets) {
+                int length = storedLength(street);
+                output.writeShort(length);
+                output.write(street, 0, length);
+            }
+        }
+    }
+
+    /**
+     * @return The number of bytes of the street that fit in the index, without splitting a UTF-8 character.
+     */
+    static int storedLength(byte[] street) {
+        if (street.length <= MAX_STREET_LENGTH) {
+            return street.length;
+        }
+        int length = MAX_STREET_LENGTH;
+        while (length > 0 && (street[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return length;
+    }
+
+    static int parseZipCode(String zipCode) {
+        if (zipCode == null) {
+            return -1;
+        }
+        int key = 0;
+        int digits = 0;
+        for (int i = 0; i < zipCode.length(); i++) {
+            char c = zipCode.charAt(i);
+            if (c >= '0' && c <= '9') {
+                key = key * 10 + (c - '0');
+                digits++;
+            } else if (c != '-' && c != '.' && c != ' ') {
+                return -1;
+            }
+        }
+        return digits == 8 ? key : -1;
+    }
+
+    private String readStreet(int offset) {
+        int length = streets.getShort(offset) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        ByteBuffer street = streets.duplicate();
+        street.position(offset + Short.BYTES);
+        street.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int start, int end) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(start);
+        duplicate.limit(end);
+        return duplicate.slice();
+    }
+
+    static char detectDelimiter(String line) {
+        boolean quoted = false;
+        for (int i = 0; line != null && i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (c == ',' || c == ';')) {
+                return c;
+            }
+        }
+        return ',';
+    }
+
+    private static List<String> parseCsvLine(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
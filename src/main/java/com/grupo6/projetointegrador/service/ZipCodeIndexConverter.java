@@ -0,0 +1,25 @@
+package com.grupo6.projetointegrador.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command line tool to convert a CEP CSV file into the binary format read by {@link ZipCodeIndex}.<p>
+ * Usage: {@code ZipCodeIndexConverter <cep.csv> <cep.idx> [delimiter]}, the delimiter is detected from the first
+ * line when omitted.
+ */
+public class ZipCodeIndexConverter {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3 || (args.length == 3 && args[2].length() != 1)) {
+            System.err.println("Uso: ZipCodeIndexConverter <arquivo.csv> <arquivo.idx> [delimitador]");
+            System.exit(1);
+        }
+        Path csvFile = Paths.get(args[0]);
+        Path indexFile = Paths.get(args[1]);
+        int size = args.length == 3
+                ? ZipCodeIndex.convert(csvFile, indexFile, args[2].charAt(0))
+                : ZipCodeIndex.convert(csvFile, indexFile);
+        System.out.println(size + " CEPs gravados em " + indexFile);
+    }
+}
@@ -0,0 +1,7 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.dto.ZipCodeDto;
+
+public interface ZipCodeResolver {
+    ZipCodeDto resolve(String zipCode);
+}
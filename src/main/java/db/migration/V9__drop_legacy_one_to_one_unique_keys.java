@@ -0,0 +1,106 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drops the unique keys left on the foreign keys that were mapped as {@code @OneToOne} while Hibernate created the
+ * schema. Those columns are now {@code @ManyToOne}, and V1 creates them without a unique key, so only the databases
+ * baselined at version 1 have the keys to drop. Hibernate named them after a hash, so they are looked up by column.<p>
+ * The database may back the foreign key with the unique key, so the foreign key is dropped with it and added back,
+ * which gives it a plain index again.
+ */
+public class V9__drop_legacy_one_to_one_unique_keys extends BaseJavaMigration {
+    private static final String[][] MANY_TO_ONE_COLUMNS = {
+            {"item_batch", "product_id"},
+            {"product_order", "product_id"},
+            {"inbound_order", "section_id"},
+            {"inbound_order", "warehouse_id"}
+    };
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        for (String[] tableColumn : MANY_TO_ONE_COLUMNS) {
+            dropUniqueKeys(connection, tableColumn[0], tableColumn[1]);
+        }
+    }
+
+    /**
+     * Method to drop the single column unique keys on a column, and the foreign keys on it while they are dropped.
+     *
+     * @param connection The connection of the migration.
+     * @param table      Name of the table.
+     * @param column     Name of the foreign key column.
+     */
+    private void dropUniqueKeys(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table;
+        List<String> uniqueKeys = findUniqueKeys(metaData, connection, tableName, column);
+        if (uniqueKeys.isEmpty()) {
+            return;
+        }
+
+        List<String> addForeignKeys = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rows = metaData.getImportedKeys(connection.getCatalog(), connection.getSchema(), tableName)) {
+                while (rows.next()) {
+                    if (column.equalsIgnoreCase(rows.getString("FKCOLUMN_NAME"))) {
+                        String name = rows.getString("FK_NAME");
+                        addForeignKeys.add("ALTER TABLE " + table + " ADD CONSTRAINT " + name
+                                + " FOREIGN KEY (" + column + ") REFERENCES " + rows.getString("PKTABLE_NAME")
+                                + " (" + rows.getString("PKCOLUMN_NAME") + ")");
+                        statement.execute("ALTER TABLE " + table + " DROP FOREIGN KEY " + name);
+                    }
+                }
+            }
+            for (String uniqueKey : uniqueKeys) {
+                statement.execute("DROP INDEX " + uniqueKey + " ON " + table);
+            }
+            for (String addForeignKey : addForeignKeys) {
+                statement.execute(addForeignKey);
+            }
+        }
+    }
+
+    /**
+     * Method to find the unique indexes whose only column is the given one.
+     *
+     * @param metaData   The metadata of the connection.
+     * @param connection The connection of the migration.
+     * @param tableName  Name of the table, as stored by the database.
+     * @param column     Name of the column.
+     * @return The names of the unique indexes.
+     */
+    private List<String> findUniqueKeys(DatabaseMetaData metaData, Connection connection, String tableName,
+                                        String column) throws SQLException {
+        Map<String, List<String>> columnsByIndex = new LinkedHashMap<>();
+        try (ResultSet rows = metaData.getIndexInfo(
+                connection.getCatalog(), connection.getSchema(), tableName, true, false)) {
+            while (rows.next()) {
+                String name = rows.getString("INDEX_NAME");
+                String indexColumn = rows.getString("COLUMN_NAME");
+                if (name != null && indexColumn != null) {
+                    columnsByIndex.computeIfAbsent(name, key -> new ArrayList<>()).add(indexColumn);
+                }
+            }
+        }
+        List<String> uniqueKeys = new ArrayList<>();
+        columnsByIndex.forEach((name, columns) -> {
+            if (columns.size() == 1 && columns.get(0).equalsIgnoreCase(column)) {
+                uniqueKeys.add(name);
+            }
+        });
+        return uniqueKeys;
+    }
+}
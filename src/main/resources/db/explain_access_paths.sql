@@ -0,0 +1,61 @@
+-- EXPLAIN for each item_batch access path and the index it is expected to use (column `key`).
+-- The "expected" lines are the plans the indexes were designed for, not output captured from MySQL:
+-- compare them with the real plans after running this file against a database populated by the
+-- dataset generator (see README), e.g.
+--   mysql projeto_integrador < src/main/resources/db/explain_access_paths.sql
+
+-- ItemBatchRepo.findByDueDate21AndProductIdAndQty
+-- expected: single table, range on ix_item_batch_product_active_due_date_quantity, no filesort
+EXPLAIN SELECT t1.* FROM item_batch AS t1
+    WHERE t1.due_date >= CURRENT_DATE + INTERVAL 22 DAY AND t1.product_id = 1
+    AND t1.product_quantity >= 1 AND t1.seller_active = 'ATIVO' ORDER BY t1.due_date ASC LIMIT 1;
+
+-- ItemBatchRepo.findLocationsByProductIdOrderByDueDateAsc
+-- expected: t1 ref on ix_item_batch_product_active_due_date_quantity, no filesort, t2 eq_ref on PRIMARY
+EXPLAIN SELECT t1.id, t1.product_quantity, t1.due_date, t1.inbound_order_id, t2.section_id, t2.warehouse_id
+    FROM item_batch AS t1 JOIN inbound_order AS t2 ON t2.id = t1.inbound_order_id
+    WHERE t1.product_id = 1 AND t1.seller_active = 'ATIVO' ORDER BY t1.due_date ASC;
+
+-- ItemBatchRepo.findByDueDateWithCategory
+-- expected: single table, range on ix_item_batch_category_active_due_date_quantity
+EXPLAIN SELECT t1.id, t1.product_id, t1.category, t1.due_date, t1.product_quantity
+    FROM item_batch AS t1
+    WHERE t1.category = 'FS' AND t1.seller_active = 'ATIVO' AND t1.product_quantity > 0
+    AND t1.due_date BETWEEN curdate() AND curdate() + interval 30 day
+    ORDER BY t1.due_date;
+
+-- ItemBatchRepo.findByDueDateWithSectionId
+-- expected: t2 ref on the section_id foreign key index, t1 range on ix_item_batch_inbound_order_active_due_date_quantity
+EXPLAIN SELECT t1.id, t1.product_id, t1.category, t1.due_date, t1.product_quantity
+    FROM item_batch AS t1
+    LEFT JOIN inbound_order AS t2 ON t2.id = t1.inbound_order_id
+    WHERE t2.section_id = 1 AND t1.product_quantity > 0 AND t1.seller_active = 'ATIVO'
+    AND t1.due_date BETWEEN curdate() AND curdate() + interval 30 day
+    ORDER BY t1.due_date;
+
+-- ProductRepo.findProductsByCategory
+-- expected: p ref on ix_product_category_id, no filesort
+EXPLAIN SELECT p.* FROM product p LEFT JOIN seller s ON p.seller_id = s.id
+    WHERE p.category = 'FS' AND s.active = 'ATIVO' ORDER BY p.id LIMIT 6;
+
+-- ProductRepo.findProductsAfter
+-- expected: range on PRIMARY, no filesort
+EXPLAIN SELECT p.* FROM product p WHERE p.id > 1000 ORDER BY p.id LIMIT 6;
+
+-- ProductRepo.findProductsByCategoryAfter
+-- expected: p range on ix_product_category_id, no filesort
+EXPLAIN SELECT p.* FROM product p LEFT JOIN seller s ON p.seller_id = s.id
+    WHERE p.category = 'FS' AND p.id > 1000 AND s.active = 'ATIVO' ORDER BY p.id LIMIT 6;
+
+-- ItemBatchRepo.updateSellerActiveBySellerId
+-- expected: product ref on the seller_id foreign key index, item_batch ref on ix_item_batch_product_active_due_date_quantity
+EXPLAIN UPDATE item_batch SET seller_active = 'INATIVO', version = version + 1
+    WHERE product_id IN (SELECT id FROM product WHERE seller_id = 1);
+
+-- ProductWarehouseStockRepo.findWarehousesByProductId
+-- expected: ref on PRIMARY
+EXPLAIN SELECT warehouse_id AS warehouse, quantity FROM product_warehouse_stock WHERE product_id = 1;
+
+-- SellerRepo.existsByEmailIgnoreCase
+-- expected: ref on ix_seller_email_upper
+EXPLAIN SELECT s.id FROM seller s WHERE upper(s.email) = upper('vendedor@email.com') LIMIT 1;
@@ -0,0 +1,3 @@
+-- Hibernate named the unique key on seller.email after a hash; SellerServiceImpl recognizes duplicate emails
+-- by the constraint name, so it gets the name declared in Seller.EMAIL_CONSTRAINT.
+ALTER TABLE seller RENAME INDEX UK_crgbovyy4gvgsum2yyb3fbfn7 TO uk_seller_email;
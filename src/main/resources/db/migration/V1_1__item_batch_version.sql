@@ -0,0 +1,2 @@
+-- Version column of the optimistic lock that guards the stock of each batch.
+ALTER TABLE item_batch ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,11 @@
+-- Quantity taken from a batch by an order, kept until the order is finished or released.
+CREATE TABLE stock_reservation (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    quantity INTEGER NOT NULL,
+    status VARCHAR(255),
+    item_batch_id BIGINT,
+    order_purchase_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_stock_reservation_item_batch FOREIGN KEY (item_batch_id) REFERENCES item_batch (id),
+    CONSTRAINT fk_stock_reservation_order_purchase FOREIGN KEY (order_purchase_id) REFERENCES order_purchase (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,99 @@
+-- Schema as Hibernate created it from the entities before the migrations existed, constraint names included.
+-- Databases created before the migrations are baselined at this version (spring.flyway.baseline-on-migrate)
+-- and only run the next ones, so this file must not change.
+
+CREATE TABLE buyer (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE inbound_order (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    order_date DATE,
+    section_id BIGINT,
+    warehouse_id BIGINT,
+    warehouse_operator_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE item_batch (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    category VARCHAR(255),
+    due_date DATE,
+    manufacturing_date DATE,
+    manufacturing_time DATETIME(6),
+    price DECIMAL(19, 2),
+    product_quantity INTEGER NOT NULL,
+    volume BIGINT,
+    inbound_order_id BIGINT,
+    product_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE order_purchase (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    date_order DATE,
+    status INTEGER,
+    buyer_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE product (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    category VARCHAR(255),
+    price DECIMAL(19, 2),
+    seller_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE product_order (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    quantity INTEGER NOT NULL,
+    order_purchase_id BIGINT,
+    product_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE section (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    category VARCHAR(255),
+    volume BIGINT,
+    warehouse_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE seller (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    active VARCHAR(255),
+    address VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    house_number INTEGER NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    zip_code VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE warehouse (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    warehouse_operator_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE warehouse_operator (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+ALTER TABLE seller ADD CONSTRAINT UK_crgbovyy4gvgsum2yyb3fbfn7 UNIQUE (email);
+ALTER TABLE inbound_order ADD CONSTRAINT FKssby27jgvmajihvv9wsls44sm FOREIGN KEY (section_id) REFERENCES section (id);
+ALTER TABLE inbound_order ADD CONSTRAINT FK88b3xu9v3ad5kgehabm40g21 FOREIGN KEY (warehouse_id) REFERENCES warehouse (id);
+ALTER TABLE inbound_order ADD CONSTRAINT FK6b5ia4ktwd3x588eum1gscf49 FOREIGN KEY (warehouse_operator_id) REFERENCES warehouse_operator (id);
+ALTER TABLE item_batch ADD CONSTRAINT FK8f4et4e3e6mnep6n20e7tj65j FOREIGN KEY (inbound_order_id) REFERENCES inbound_order (id);
+ALTER TABLE item_batch ADD CONSTRAINT FK39eancubo27f3b4ga03f2hk3x FOREIGN KEY (product_id) REFERENCES product (id);
+ALTER TABLE order_purchase ADD CONSTRAINT FK3afv7xdbcw0s658vsfiput0xb FOREIGN KEY (buyer_id) REFERENCES buyer (id);
+ALTER TABLE product ADD CONSTRAINT FKesd6fy52tk7esoo2gcls4lfe3 FOREIGN KEY (seller_id) REFERENCES seller (id);
+ALTER TABLE product_order ADD CONSTRAINT FKe8h3tosojib3qvjnaparlar4k FOREIGN KEY (order_purchase_id) REFERENCES order_purchase (id);
+ALTER TABLE product_order ADD CONSTRAINT FKh73acsd9s5wp6l0e55td6jr1m FOREIGN KEY (product_id) REFERENCES product (id);
+ALTER TABLE section ADD CONSTRAINT FKlimr8jdiu8ur1jp722gvhsb9t FOREIGN KEY (warehouse_id) REFERENCES warehouse (id);
+ALTER TABLE warehouse ADD CONSTRAINT FKrycfd3n03721pf3dcq20ejnq2 FOREIGN KEY (warehouse_operator_id) REFERENCES warehouse_operator (id);
@@ -0,0 +1,13 @@
+-- Composite indexes for the ItemBatchRepo and ProductRepo access paths, see db/explain_access_paths.sql.
+
+-- findByDueDate21AndProductIdAndQty and findAllByProductId*: product_id = ? AND due_date > ? AND product_quantity >= ?
+CREATE INDEX ix_item_batch_product_due_date_quantity ON item_batch (product_id, due_date, product_quantity);
+
+-- findByDueDateWithCategory: category = ? AND due_date BETWEEN ? AND ? AND product_quantity > 0
+CREATE INDEX ix_item_batch_category_due_date_quantity ON item_batch (category, due_date, product_quantity);
+
+-- findByDueDateWithSectionId: joined from inbound_order.section_id, then due_date BETWEEN ? AND ?
+CREATE INDEX ix_item_batch_inbound_order_due_date_quantity ON item_batch (inbound_order_id, due_date, product_quantity);
+
+-- findProductsByCategory: category = ? joined to seller
+CREATE INDEX ix_product_category_seller ON product (category, seller_id);
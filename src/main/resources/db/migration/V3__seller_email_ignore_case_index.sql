@@ -0,0 +1,3 @@
+-- SellerRepo.existsByEmailIgnoreCase* compares upper(email), which the unique index on email cannot serve.
+-- Functional indexes need MySQL 8.0.13 or later.
+CREATE INDEX ix_seller_email_upper ON seller ((UPPER(email)));
@@ -0,0 +1,19 @@
+-- Quantity of each product per warehouse, summed over the batches of active sellers.
+-- Kept up to date by the stock changes and checked by a scheduled reconciliation.
+CREATE TABLE product_warehouse_stock (
+    product_id BIGINT NOT NULL,
+    warehouse_id BIGINT NOT NULL,
+    quantity BIGINT NOT NULL,
+    PRIMARY KEY (product_id, warehouse_id),
+    CONSTRAINT fk_product_warehouse_stock_product FOREIGN KEY (product_id) REFERENCES product (id),
+    CONSTRAINT fk_product_warehouse_stock_warehouse FOREIGN KEY (warehouse_id) REFERENCES warehouse (id)
+) ENGINE = InnoDB;
+
+INSERT INTO product_warehouse_stock (product_id, warehouse_id, quantity)
+SELECT t1.product_id, t2.warehouse_id, SUM(t1.product_quantity)
+FROM item_batch AS t1
+    JOIN inbound_order AS t2 ON t2.id = t1.inbound_order_id
+WHERE t1.seller_active = 'ATIVO'
+    AND t1.product_id IS NOT NULL
+    AND t2.warehouse_id IS NOT NULL
+GROUP BY t1.product_id, t2.warehouse_id;
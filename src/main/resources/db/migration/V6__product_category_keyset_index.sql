@@ -0,0 +1,2 @@
+-- findProductsByCategoryAfter: category = ? AND id > ? ORDER BY id, seeks on the index instead of skipping offset rows
+CREATE INDEX ix_product_category_id ON product (category, id);
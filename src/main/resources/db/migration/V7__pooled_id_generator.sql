@@ -0,0 +1,13 @@
+-- Pooled ids for the entities inserted in bulk. Hibernate reserves 50 ids per round trip to this table
+-- instead of reading one AUTO_INCREMENT value per insert, so their inserts can be sent in JDBC batches.
+CREATE TABLE id_generator (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+) ENGINE = InnoDB;
+
+-- Each sequence starts after the existing rows: a read of next_val hands out the 50 ids up to it.
+INSERT INTO id_generator (sequence_name, next_val) SELECT 'inbound_order', COALESCE(MAX(id), 0) + 50 FROM inbound_order;
+INSERT INTO id_generator (sequence_name, next_val) SELECT 'item_batch', COALESCE(MAX(id), 0) + 50 FROM item_batch;
+INSERT INTO id_generator (sequence_name, next_val) SELECT 'order_purchase', COALESCE(MAX(id), 0) + 50 FROM order_purchase;
+INSERT INTO id_generator (sequence_name, next_val) SELECT 'product_order', COALESCE(MAX(id), 0) + 50 FROM product_order;
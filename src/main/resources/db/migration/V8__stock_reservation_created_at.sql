@@ -0,0 +1,6 @@
+-- Reservations record when they were made, so the ones of abandoned orders can be released after a while.
+-- The existing reservations start counting from this migration.
+ALTER TABLE stock_reservation ADD COLUMN created_at DATETIME(6);
+UPDATE stock_reservation SET created_at = CURRENT_TIMESTAMP(6);
+
+CREATE INDEX idx_stock_reservation_status_created_at ON stock_reservation (status, created_at);
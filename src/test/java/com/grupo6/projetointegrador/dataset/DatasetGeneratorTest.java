@@ -0,0 +1,155 @@
+package com.grupo6.projetointegrador.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DatasetGeneratorTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void generate_writesSameFiles_whenSeedAndScaleAreTheSame() throws IOException {
+        // Given
+        Path first = tempDir.resolve("first");
+        Path second = tempDir.resolve("second");
+
+        // When
+        try (CsvDatasetWriter writer = new CsvDatasetWriter(first)) {
+            new DatasetGenerator(smallScale()).generate(writer, Map.of());
+        }
+        try (CsvDatasetWriter writer = new CsvDatasetWriter(second)) {
+            new DatasetGenerator(smallScale()).generate(writer, Map.of());
+        }
+
+        // Then
+        for (String table : DatasetGenerator.TABLES) {
+            assertThat(Files.readAllLines(first.resolve(table + ".csv")))
+                    .isEqualTo(Files.readAllLines(second.resolve(table + ".csv")));
+        }
+        assertThat(Files.readString(first.resolve("load.sql"))).contains("LOAD DATA LOCAL INFILE 'item_batch.csv'");
+        assertThat(Files.readString(first.resolve("load.sql")))
+                .contains("INSERT INTO id_generator (sequence_name, next_val) SELECT 'item_batch'");
+    }
+
+    @Test
+    void generate_writesConfiguredScale_withBatchesInSectionsOfTheirCategory() throws IOException {
+        // Given
+        DatasetProperties properties = smallScale();
+        RecordingWriter writer = new RecordingWriter();
+
+        // When
+        new DatasetGenerator(properties).generate(writer, Map.of("product", 100L));
+
+        // Then
+        assertThat(writer.rows.get("warehouse")).hasSize(2);
+        assertThat(writer.rows.get("section")).hasSize(12);
+        assertThat(writer.rows.get("product")).hasSize(30);
+        assertThat(writer.rows.get("item_batch")).hasSize(200);
+        assertThat(writer.rows.get("inbound_order")).hasSize(20);
+        assertThat(writer.rows.get("product_order")).hasSize(150);
+        assertThat(writer.rows.get("product").get(0)[0]).isEqualTo(100L);
+
+        Map<Object, Object> categoryByProduct = new HashMap<>();
+        writer.rows.get("product").forEach(row -> categoryByProduct.put(row[0], row[2]));
+        Map<Object, Object> categoryBySection = new HashMap<>();
+        writer.rows.get("section").forEach(row -> categoryBySection.put(row[0], row[1]));
+        Map<Object, Object> sectionByInboundOrder = new HashMap<>();
+        writer.rows.get("inbound_order").forEach(row -> sectionByInboundOrder.put(row[0], row[2]));
+        writer.rows.get("item_batch").forEach(row -> {
+            assertThat(categoryByProduct.get(row[9])).isEqualTo(row[6]);
+            assertThat(categoryBySection.get(sectionByInboundOrder.get(row[8]))).isEqualTo(row[6]);
+        });
+    }
+
+    @Test
+    void generate_copiesSellerActiveToBatches() throws IOException {
+        // Given
+        DatasetProperties properties = smallScale();
+        properties.setInactiveSellerRate(0.5);
+        RecordingWriter writer = new RecordingWriter();
+
+        // When
+        new DatasetGenerator(properties).generate(writer, Map.of());
+
+        // Then
+        Map<Object, Object> activeBySeller = new HashMap<>();
+        writer.rows.get("seller").forEach(row -> activeBySeller.put(row[0], row[7]));
+        Map<Object, Object> sellerByProduct = new HashMap<>();
+        writer.rows.get("product").forEach(row -> sellerByProduct.put(row[0], row[3]));
+        assertThat(activeBySeller).containsValues("ATIVO", "INATIVO");
+        writer.rows.get("item_batch").forEach(row ->
+                assertThat(row[11]).isEqualTo(activeBySeller.get(sellerByProduct.get(row[9]))));
+    }
+
+    @Test
+    void generate_writesStockSummaryOfActiveSellersBatches() throws IOException {
+        // Given
+        DatasetProperties properties = smallScale();
+        properties.setInactiveSellerRate(0.5);
+        RecordingWriter writer = new RecordingWriter();
+
+        // When
+        new DatasetGenerator(properties).generate(writer, Map.of());
+
+        // Then
+        Map<Object, Object> warehouseByInboundOrder = new HashMap<>();
+        writer.rows.get("inbound_order").forEach(row -> warehouseByInboundOrder.put(row[0], row[3]));
+        Map<List<Object>, Long> expectedStock = new HashMap<>();
+        writer.rows.get("item_batch").stream()
+                .filter(row -> "ATIVO".equals(row[11]) && (int) row[5] > 0)
+                .forEach(row -> expectedStock.merge(List.of(row[9], warehouseByInboundOrder.get(row[8])),
+                        (long) (int) row[5], Long::sum));
+        Map<List<Object>, Long> writtenStock = new HashMap<>();
+        writer.rows.get("product_warehouse_stock").forEach(row -> writtenStock.put(List.of(row[0], row[1]), (Long) row[2]));
+        assertThat(writtenStock).isNotEmpty().isEqualTo(expectedStock);
+    }
+
+    private DatasetProperties smallScale() {
+        DatasetProperties properties = new DatasetProperties();
+        properties.setReferenceDate(LocalDate.of(2022, 11, 10));
+        properties.setWarehouses(2);
+        properties.setSectionsPerWarehouse(6);
+        properties.setSellers(10);
+        properties.setProducts(30);
+        properties.setItemBatches(200);
+        properties.setItemBatchesPerInboundOrder(10);
+        properties.setBuyers(5);
+        properties.setOrderPurchases(50);
+        properties.setProductsPerOrder(3);
+        return properties;
+    }
+
+    private static class RecordingWriter implements DatasetWriter {
+        private final Map<String, List<Object[]>> rows = new HashMap<>();
+
+        private String table;
+
+        @Override
+        public void startTable(String table, String... columns) {
+            this.table = table;
+            rows.put(table, new ArrayList<>());
+        }
+
+        @Override
+        public void write(Object... values) {
+            rows.get(table).add(values);
+        }
+
+        @Override
+        public void endTable() {
+            table = null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
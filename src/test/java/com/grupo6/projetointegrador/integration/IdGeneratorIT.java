@@ -0,0 +1,44 @@
+package com.grupo6.projetointegrador.integration;
+
+import com.grupo6.projetointegrador.model.entity.OrderPurchase;
+import com.grupo6.projetointegrador.repository.OrderPurchaseRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs with an application pool of a single connection, held by the inserting transaction while the ids are reserved.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:id-generator;MODE=MYSQL",
+        "spring.datasource.hikari.maximum-pool-size=1",
+        "spring.datasource.hikari.connection-timeout=1000"
+})
+@ActiveProfiles("test")
+public class IdGeneratorIT {
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderPurchaseRepo orderPurchaseRepo;
+
+    @Test
+    void save_reserveIdsOnTheirOwnConnections_whenApplicationPoolIsHeld() {
+        // When
+        List<Long> ids = transactionTemplate.execute(status -> IntStream.range(0, 120)
+                .mapToObj(i -> orderPurchaseRepo.save(new OrderPurchase()).getId())
+                .collect(Collectors.toList()));
+
+        // Then
+        assertThat(ids).hasSize(120).doesNotHaveDuplicates();
+        assertThat(orderPurchaseRepo.count()).isEqualTo(120);
+    }
+}
@@ -6,15 +6,24 @@ import com.grupo6.projetointegrador.dto.CreateInboundOrderDto;
 import com.grupo6.projetointegrador.dto.CreateItemBatchDto;
 import com.grupo6.projetointegrador.dto.ItemBatchDto;
 import com.grupo6.projetointegrador.dto.UpdateItemBatchDto;
+import com.grupo6.projetointegrador.dto.WarehouseDto;
 import com.grupo6.projetointegrador.factory.WarehouseFactory;
+import com.grupo6.projetointegrador.model.entity.InboundOrder;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
 import com.grupo6.projetointegrador.model.entity.Product;
+import com.grupo6.projetointegrador.model.entity.ProductWarehouseStock;
+import com.grupo6.projetointegrador.model.entity.ProductWarehouseStockId;
 import com.grupo6.projetointegrador.model.entity.Section;
 import com.grupo6.projetointegrador.model.entity.Seller;
 import com.grupo6.projetointegrador.model.entity.Warehouse;
+import com.grupo6.projetointegrador.model.entity.WarehouseOperator;
 import com.grupo6.projetointegrador.model.enumeration.Active;
 import com.grupo6.projetointegrador.model.enumeration.Category;
 import com.grupo6.projetointegrador.repository.*;
+import com.grupo6.projetointegrador.service.InboundOrderBulkLoader;
 import com.grupo6.projetointegrador.service.InboundOrderService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,16 +33,31 @@ import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import javax.persistence.EntityManagerFactory;
+import javax.validation.Validator;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -51,6 +75,9 @@ public class InboundOrderControllerIT {
     @Autowired
     private InboundOrderService inboundOrderService;
 
+    @Autowired
+    private InboundOrderRepo inboundOrderRepo;
+
     @Autowired
     private ProductRepo productRepo;
 
@@ -66,6 +93,15 @@ public class InboundOrderControllerIT {
     @Autowired
     private SectionRepo sectionRepo;
 
+    @Autowired
+    private ProductWarehouseStockRepo productWarehouseStockRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private Validator validator;
+
     @Test
     void createInboundOrder_createInboundOrder_whenAllProvidedDataIsValid() throws Exception {
         // Given
@@ -192,6 +228,145 @@ public class InboundOrderControllerIT {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void createInboundOrder_keepsSelectCount_whenOrderHasManyProducts() throws Exception {
+        // Given
+        createOperatorAndWarehouseAndSection();
+        createProductsAndSeller(10);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        postInboundOrderWithProducts(List.of(1L));
+
+        // When
+        statistics.clear();
+        postInboundOrderWithProducts(List.of(1L));
+        long singleProductStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        postInboundOrderWithProducts(LongStream.rangeClosed(1, 10).boxed().collect(Collectors.toList()));
+        long manyProductsStatements = statistics.getPrepareStatementCount();
+
+        // Then
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(11);
+        assertThat(manyProductsStatements).isEqualTo(singleProductStatements);
+    }
+
+    @Test
+    void createInboundOrder_addQuantityToWarehouseSummary_whenProductIsStoredTwice() throws Exception {
+        // Given
+        createOperatorAndWarehouseAndSection();
+        createProductsAndSeller(1);
+
+        // When
+        postInboundOrderWithProducts(List.of(1L));
+        postInboundOrderWithProducts(List.of(1L));
+
+        // Then
+        assertThat(productWarehouseStockRepo.findWarehousesByProductId(1L))
+                .extracting(WarehouseDto::getQuantity)
+                .containsExactly(20);
+    }
+
+    @Test
+    void recountQuantities_writeTheBatchesSum_whenCalledTwice() {
+        // Given
+        createOperatorAndWarehouseAndSection();
+        createProductsAndSeller(2);
+        createInboundWithOneItem();
+        productWarehouseStockRepo.addQuantities(Map.of(new ProductWarehouseStockId(1L, 1L), 7L));
+        List<ProductWarehouseStockId> keys = List.of(new ProductWarehouseStockId(1L, 1L), new ProductWarehouseStockId(2L, 1L));
+
+        // When
+        productWarehouseStockRepo.recountQuantities(keys);
+        productWarehouseStockRepo.recountQuantities(keys);
+
+        // Then
+        assertThat(productWarehouseStockRepo.findAllById(keys))
+                .extracting(ProductWarehouseStock::getProductId, ProductWarehouseStock::getQuantity)
+                .containsExactlyInAnyOrder(tuple(1L, 10L), tuple(2L, 0L));
+    }
+
+    @Test
+    void createInboundOrders_streamOneResultPerOrder_whenBodyIsNdjson() throws Exception {
+        // Given
+        createOperatorAndWarehouseAndSection();
+        createProductAndSeller(1L, 1L);
+        CreateInboundOrderDto validDto = newInboundOrderDto(1L);
+        CreateInboundOrderDto unknownProductDto = newInboundOrderDto(99L);
+        String body = objectMapper.writeValueAsString(validDto) + "\n"
+                + objectMapper.writeValueAsString(unknownProductDto) + "\n"
+                + objectMapper.writeValueAsString(validDto) + "\n";
+
+        // When
+        MvcResult asyncResult = mockMvc.perform(post("/api/inboundorder/bulk")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Then
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(3);
+        for (int i = 0; i < lines.length; i++) {
+            assertThat(objectMapper.readTree(lines[i]).get("index").asInt()).isEqualTo(i);
+        }
+        assertThat(objectMapper.readTree(lines[0]).get("status").asInt()).isEqualTo(201);
+        assertThat(objectMapper.readTree(lines[1]).get("status").asInt()).isEqualTo(404);
+        assertThat(objectMapper.readTree(lines[2]).get("status").asInt()).isEqualTo(201);
+        assertThat(inboundOrderRepo.count()).isEqualTo(2);
+    }
+
+    @Test
+    void createInboundOrders_stopWithResendIndex_whenMaxDurationIsReached() throws Exception {
+        // Given
+        createOperatorAndWarehouseAndSection();
+        createProductAndSeller(1L, 1L);
+        String body = objectMapper.writeValueAsString(newInboundOrderDto(1L)) + "\n";
+        InboundOrderBulkLoader bulkLoader = new InboundOrderBulkLoader(inboundOrderService, objectMapper, validator,
+                100, Duration.ZERO);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // When
+        long read = bulkLoader.load(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), outputStream);
+
+        // Then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(read).isZero();
+        assertThat(lines).hasSize(1);
+        assertThat(objectMapper.readTree(lines[0]).get("index").asInt()).isZero();
+        assertThat(objectMapper.readTree(lines[0]).get("status").asInt()).isEqualTo(503);
+        assertThat(inboundOrderRepo.count()).isZero();
+    }
+
+    @Test
+    void createInboundOrders_rejectInvalidOrder_whenBodyIsJsonArray() throws Exception {
+        // Given
+        createOperatorAndWarehouseAndSection();
+        createProductAndSeller(1L, 1L);
+        CreateInboundOrderDto invalidDto = newInboundOrderDto(1L);
+        invalidDto.setSectionId(null);
+        String body = objectMapper.writeValueAsString(List.of(newInboundOrderDto(1L), invalidDto));
+
+        // When
+        MvcResult asyncResult = mockMvc.perform(post("/api/inboundorder/bulk")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Then
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("status").asInt()).isEqualTo(201);
+        assertThat(objectMapper.readTree(lines[1]).get("status").asInt()).isEqualTo(400);
+        assertThat(objectMapper.readTree(lines[1]).get("errors").get(0).get("field").asText()).isEqualTo("sectionId");
+    }
+
     @Test
     void updateItemBatches_updateAnItemAndCreateOne_whenAllProvidedDataIsValid() throws Exception {
         // Given
@@ -257,6 +432,62 @@ public class InboundOrderControllerIT {
         assertThat(createdItemBatchDto.getProductQuantity()).isEqualTo(createItemDto.getProductQuantity());
     }
 
+    @Test
+    void patchItemBatches_loadAndUpdateOnlyTheRequestedBatch() throws Exception {
+        // Given
+        createOperatorAndWarehouseAndSection();
+        createProductAndSeller(1L, 1L);
+        createInboundWithOneItem();
+        UpdateItemBatchDto updateExistingItemDto = new UpdateItemBatchDto(
+                1L,
+                1L,
+                5,
+                LocalDate.of(2021, 10, 20),
+                LocalDateTime.of(2021, 10, 20, 1, 30, 10),
+                4L,
+                LocalDate.of(2021, 11, 20),
+                BigDecimal.valueOf(50)
+        );
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        mockMvc.perform(patch("/api/inboundorder/1/item-batch")
+                        .content(objectMapper.writeValueAsString(List.of(updateExistingItemDto)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(statistics.getEntityStatistics(InboundOrder.class.getName()).getLoadCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(ItemBatch.class.getName()).getLoadCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(ItemBatch.class.getName()).getUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionStatistics(InboundOrder.class.getName() + ".itemBatches").getFetchCount()).isZero();
+        assertThat(statistics.getEntityStatistics(Warehouse.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(WarehouseOperator.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    void patchItemBatches_returns400_whenItemBatchIsRepeated() throws Exception {
+        // Given
+        UpdateItemBatchDto updateExistingItemDto = new UpdateItemBatchDto(
+                1L,
+                1L,
+                5,
+                LocalDate.of(2021, 10, 20),
+                LocalDateTime.of(2021, 10, 20, 1, 30, 10),
+                4L,
+                LocalDate.of(2021, 11, 20),
+                BigDecimal.valueOf(50)
+        );
+
+        // When / Then
+        mockMvc.perform(patch("/api/inboundorder/1/item-batch")
+                        .content(objectMapper.writeValueAsString(List.of(updateExistingItemDto, updateExistingItemDto)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0].message").value("Lote repetido na requisição."));
+    }
+
     @Test
     void updateItemBatches_returns404_whenInputIsInvalid() throws Exception {
         // given
@@ -332,6 +563,59 @@ public class InboundOrderControllerIT {
         sellerRepo.save(seller);
     }
 
+    private void createProductsAndSeller(int quantity) {
+        Seller seller = sellerRepo.save(new Seller(
+                1L,
+                "Fulano",
+                "de Tal",
+                "fulano.dtal@teste.com",
+                "Rua Canopus",
+                123,
+                "86070180",
+                Active.ATIVO,
+                null
+        ));
+        List<Product> products = LongStream.rangeClosed(1, quantity)
+                .mapToObj(id -> productRepo.save(new Product(id, BigDecimal.valueOf(5), Category.FRESCO, seller)))
+                .collect(Collectors.toList());
+
+        seller.setProducts(products);
+        sellerRepo.save(seller);
+    }
+
+    private void postInboundOrderWithProducts(List<Long> productIds) throws Exception {
+        List<CreateItemBatchDto> createItemBatchDtos = productIds.stream()
+                .map(productId -> new CreateItemBatchDto(
+                        productId,
+                        10,
+                        LocalDate.now(),
+                        LocalDateTime.now(),
+                        5L,
+                        LocalDate.now().plusDays(30),
+                        BigDecimal.valueOf(40)
+                ))
+                .collect(Collectors.toList());
+        CreateInboundOrderDto createInboundOrderDto = new CreateInboundOrderDto(1L, 1L, 1L, createItemBatchDtos);
+
+        mockMvc.perform(post("/api/inboundorder")
+                        .content(objectMapper.writeValueAsString(createInboundOrderDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated());
+    }
+
+    private CreateInboundOrderDto newInboundOrderDto(Long productId) {
+        CreateItemBatchDto createItemBatchDto = new CreateItemBatchDto(
+                productId,
+                10,
+                LocalDate.now(),
+                LocalDateTime.now(),
+                5L,
+                LocalDate.now().plusDays(30),
+                BigDecimal.valueOf(40)
+        );
+        return new CreateInboundOrderDto(1L, 1L, 1L, List.of(createItemBatchDto));
+    }
+
     private void createInboundWithOneItem() {
         CreateItemBatchDto createItemBatchDto = new CreateItemBatchDto(
                 1L,
@@ -10,6 +10,8 @@ import com.grupo6.projetointegrador.model.enumeration.Active;
 import com.grupo6.projetointegrador.model.enumeration.Category;
 import com.grupo6.projetointegrador.model.enumeration.StatusOrder;
 import com.grupo6.projetointegrador.repository.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +23,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import javax.persistence.EntityManagerFactory;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -57,6 +60,9 @@ public class OrderPurchaseControllerIT {
     @Autowired
     private SellerRepo sellerRepo;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Test
     void findOrderPurchase_getOrderPurchaseDto_whenProvidedOrderPurchaseIdExists() throws Exception {
         // Given
@@ -79,6 +85,24 @@ public class OrderPurchaseControllerIT {
         assertThat(orderPurchaseDto.getDateOrder()).isEqualTo(LocalDate.now());
     }
 
+    @Test
+    void findOrderPurchase_loadOrderAndProductOrdersInOneQuery() throws Exception {
+        // Given
+        createOrderPurchase(StatusOrder.ABERTO);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        mockMvc.perform(get("/api/order-purchase/1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Buyer.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(Product.class.getName()).getLoadCount()).isZero();
+    }
+
     @Test
     void findOrderPurchase_throwsNotFound_whenOrderPurchaseDoesNotExists() throws Exception {
         mockMvc.perform(get("/api/order-purchase/1")
@@ -102,6 +126,25 @@ public class OrderPurchaseControllerIT {
         assertThat(orderPurchase.getStatus()).isEqualTo(StatusOrder.FINALIZADO);
     }
 
+    @Test
+    void alterOrderPurchase_loadOrderWithItsLinesInOneQuery() throws Exception {
+        // Given
+        createOrderPurchase(StatusOrder.ABERTO);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        mockMvc.perform(put("/api/order-purchase/1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+        assertThat(statistics.getEntityStatistics(OrderPurchase.class.getName()).getLoadCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionStatistics(OrderPurchase.class.getName() + ".productOrders").getFetchCount()).isZero();
+        assertThat(statistics.getEntityStatistics(Buyer.class.getName()).getLoadCount()).isZero();
+    }
+
     @Test
     void alterOrderPurchase_throwsNotFoundException_whenProvidedOrderPurchaseDoesNotExists() throws Exception {
         mockMvc.perform(put("/api/order-purchase/1")
@@ -145,6 +188,59 @@ public class OrderPurchaseControllerIT {
         assertThat(totalPriceDto.getTotalPrice()).isEqualTo(20);
     }
 
+    @Test
+    void createOrderPurchase_reserveStockWithoutLoadingOtherBatches() throws Exception {
+        // Given
+        createProductAndSellerAndItemBatch();
+        createBuyer();
+        CreateOrderPurchaseDto createOrderPurchaseDto = new CreateOrderPurchaseDto(
+                1L,
+                LocalDate.now(),
+                List.of(new ProductOrderDto(1L, 2))
+        );
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        mockMvc.perform(post("/api/order-purchase")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createOrderPurchaseDto)))
+                .andExpect(status().isCreated());
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+        assertThat(statistics.getEntityStatistics(ItemBatch.class.getName()).getLoadCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Seller.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    void cancelOrderPurchase_returnReservedStockToBatch() throws Exception {
+        // Given
+        ItemBatch itemBatch = createProductAndSellerAndItemBatch();
+        createBuyer();
+        CreateOrderPurchaseDto createOrderPurchaseDto = new CreateOrderPurchaseDto(
+                1L,
+                LocalDate.now(),
+                List.of(new ProductOrderDto(1L, 4))
+        );
+        mockMvc.perform(post("/api/order-purchase")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createOrderPurchaseDto)))
+                .andExpect(status().isCreated());
+        Long orderPurchaseId = orderPurchaseRepo.findAll().get(0).getId();
+        assertThat(itemBatchRepo.findById(itemBatch.getId()).orElseThrow().getProductQuantity()).isEqualTo(6);
+
+        // When
+        mockMvc.perform(put("/api/order-purchase/" + orderPurchaseId + "/cancel"))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(itemBatchRepo.findById(itemBatch.getId()).orElseThrow().getProductQuantity()).isEqualTo(10);
+        assertThat(orderPurchaseRepo.findById(orderPurchaseId).orElseThrow().getStatus()).isEqualTo(StatusOrder.CANCELADO);
+        mockMvc.perform(put("/api/order-purchase/" + orderPurchaseId + "/cancel"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     void createOrderPurchase_throwsNotFound_whenBuyerDoesNotExists() throws Exception {
         // Given
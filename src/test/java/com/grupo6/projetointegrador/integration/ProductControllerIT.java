@@ -10,25 +10,34 @@ import com.grupo6.projetointegrador.model.enumeration.Active;
 import com.grupo6.projetointegrador.model.enumeration.Category;
 import com.grupo6.projetointegrador.repository.*;
 import com.grupo6.projetointegrador.response.PageableResponse;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import javax.persistence.EntityManagerFactory;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -42,6 +51,9 @@ public class ProductControllerIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Autowired
     private ProductRepo productRepo;
 
@@ -92,6 +104,28 @@ public class ProductControllerIT {
         assertThat(item1Quantity).isLessThan(item2Quantity);
     }
 
+    @Test
+    void findProductById_loadLocationsWithoutLoadingEntities() throws Exception {
+        // Given
+        Long productId = 1L;
+        String order = "V";
+
+        createProductAndSeller(productId, 1L);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        mockMvc.perform(get("/api/products/" + productId + "?order=" + order)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        for (Class<?> entity : List.of(ItemBatch.class, InboundOrder.class, Section.class, Warehouse.class, WarehouseOperator.class)) {
+            assertThat(statistics.getEntityStatistics(entity.getName()).getLoadCount()).as(entity.getSimpleName()).isZero();
+        }
+    }
+
     @Test
     void findProductById_getOrderedByItemBatchIdAsc_whenOrderValueIsL() throws Exception {
         // Given
@@ -182,6 +216,23 @@ public class ProductControllerIT {
         assertThat(pageableResponse.getContent().size()).isEqualTo(2);
     }
 
+    @Test
+    void findAllFreshProducts_loadPageWithoutLoadingSellersOrBatches() throws Exception {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        mockMvc.perform(get("/api/products?page=0")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Seller.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(ItemBatch.class.getName()).getLoadCount()).isZero();
+    }
+
     @Test
     void findAllFreshProducts_throwNotFound_whenThereAreNoProductForGivenPage() throws Exception {
         // Given
@@ -193,6 +244,42 @@ public class ProductControllerIT {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void findAllFreshProducts_seekNextPage_whenAfterIsTheNextCursor() throws Exception {
+        // Given
+        PageableResponse firstPage = objectMapper.readValue(
+                mockMvc.perform(get("/api/products" + "?size=1")
+                                .contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString(),
+                PageableResponse.class
+        );
+
+        // When
+        ResultActions result = mockMvc.perform(get("/api/products" + "?after=" + firstPage.getNextCursor() + "&size=1&count=false")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        PageableResponse secondPage = objectMapper.readValue(
+                result.andReturn().getResponse().getContentAsString(),
+                PageableResponse.class
+        );
+
+        // Then
+        assertThat(firstPage.getContent().size()).isEqualTo(1);
+        assertThat(firstPage.getTotalRecords()).isNotNull();
+        assertThat(secondPage.getContent().size()).isEqualTo(1);
+        assertThat(secondPage.getNextCursor()).isNull();
+        assertThat(secondPage.getTotalRecords()).isNull();
+    }
+
+    @Test
+    void findAllFreshProducts_throwUnprocessableEntity_whenSizeIsNotPositive() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/api/products" + "?size=0")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     void findProductsCategory_getFrescoProducts_whenItExists() throws Exception {
         // Given
@@ -226,6 +313,35 @@ public class ProductControllerIT {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void exportProducts_streamOneProductPerLine() throws Exception {
+        // When
+        MvcResult asyncResult = mockMvc.perform(get("/api/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+
+        // Then
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize((int) productRepo.count());
+        assertThat(objectMapper.readTree(lines[0]).has("quantity")).isTrue();
+    }
+
+    @Test
+    void exportProducts_useConfiguredAsyncTimeout() throws Exception {
+        // When
+        MvcResult asyncResult = mockMvc.perform(get("/api/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult));
+
+        // Then
+        assertThat(asyncResult.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+    }
+
     @Test
     void findProductWarehouses_getProductsWarehouse_whenItExists() throws Exception {
         // Given
@@ -239,6 +355,27 @@ public class ProductControllerIT {
                 .andExpect(jsonPath("warehouses").isNotEmpty());
     }
 
+    @Test
+    void findProductWarehouses_readStockSummaryWithoutLoadingEntities() throws Exception {
+        // Given
+        Long productId = 1L;
+
+        createProductAndSeller(productId, 1L);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        mockMvc.perform(get("/api/products/warehouse/" + productId)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        for (Class<?> entity : List.of(ItemBatch.class, InboundOrder.class, Warehouse.class, Seller.class)) {
+            assertThat(statistics.getEntityStatistics(entity.getName()).getLoadCount()).as(entity.getSimpleName()).isZero();
+        }
+    }
+
     @Test
     void findProductWarehouses_throwsNotFound_whenItDoesNotExists() throws Exception {
         // Given
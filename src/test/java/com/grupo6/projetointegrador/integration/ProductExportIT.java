@@ -0,0 +1,96 @@
+package com.grupo6.projetointegrador.integration;
+
+import com.grupo6.projetointegrador.model.entity.Product;
+import com.grupo6.projetointegrador.model.entity.Seller;
+import com.grupo6.projetointegrador.model.enumeration.Active;
+import com.grupo6.projetointegrador.model.enumeration.Category;
+import com.grupo6.projetointegrador.repository.ProductRepo;
+import com.grupo6.projetointegrador.repository.SellerRepo;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Downloads the catalogue export through the embedded server, which the compression is configured on.
+ * It runs on its own H2 database and with small pages, so the export reads several of them.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:export;MODE=MYSQL",
+        "product-export.page-size=2"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ActiveProfiles("test")
+public class ProductExportIT {
+    private static final int PRODUCTS = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private SellerRepo sellerRepo;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeAll
+    void setup() {
+        Seller seller = sellerRepo.save(new Seller(
+                null, "Fulano", "de Tal", "exportacao@teste.com", "Rua Canopus", 123, "86070180", Active.ATIVO, null));
+        for (int i = 0; i < PRODUCTS; i++) {
+            productRepo.save(new Product(null, BigDecimal.valueOf(5), Category.FRESCO, seller));
+        }
+    }
+
+    @Test
+    void exportProducts_gzipBody_whenClientAcceptsIt() throws Exception {
+        // When
+        HttpResponse<byte[]> response = export("gzip, deflate");
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8).split("\n")).hasSize(PRODUCTS);
+        }
+    }
+
+    @Test
+    void exportProducts_plainBody_whenClientDoesNotAcceptGzip() throws Exception {
+        // When
+        HttpResponse<byte[]> response = export("identity");
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+        String[] lines = new String(response.body(), StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(PRODUCTS);
+        assertThat(lines[0]).contains("\"quantity\":0");
+    }
+
+    private HttpResponse<byte[]> export(String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products/export"))
+                .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,169 @@
+package com.grupo6.projetointegrador.integration;
+
+import com.grupo6.projetointegrador.dto.InactiveSellerBatchDto;
+import com.grupo6.projetointegrador.dto.ProductStockDto;
+import com.grupo6.projetointegrador.dto.StockBatchDto;
+import com.grupo6.projetointegrador.dto.WarehouseDto;
+import com.grupo6.projetointegrador.model.entity.InboundOrder;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
+import com.grupo6.projetointegrador.model.entity.Product;
+import com.grupo6.projetointegrador.model.entity.Section;
+import com.grupo6.projetointegrador.model.entity.Seller;
+import com.grupo6.projetointegrador.model.entity.Warehouse;
+import com.grupo6.projetointegrador.model.entity.WarehouseOperator;
+import com.grupo6.projetointegrador.model.enumeration.Active;
+import com.grupo6.projetointegrador.model.enumeration.Category;
+import com.grupo6.projetointegrador.repository.ItemBatchRepo;
+import com.grupo6.projetointegrador.repository.ProductRepo;
+import com.grupo6.projetointegrador.service.SellerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the native ProductRepo queries that filter on {@code item_batch.seller_active} against batches of an active
+ * and of a deactivated seller. Each test rolls back, so the shared database is left as it was.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class ProductRepoIT {
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private ItemBatchRepo itemBatchRepo;
+
+    @Autowired
+    private SellerService sellerService;
+
+    private Warehouse warehouse;
+
+    private InboundOrder inboundOrder;
+
+    private ItemBatch activeItemBatch;
+
+    private Product activeProduct;
+
+    private Product inactiveProduct;
+
+    @BeforeEach
+    void setup() {
+        WarehouseOperator warehouseOperator = persist(new WarehouseOperator(null, null));
+        warehouse = persist(new Warehouse(null, null, warehouseOperator));
+        Section section = persist(new Section(null, warehouse, 1000L, Category.FRESCO));
+        inboundOrder = persist(
+                new InboundOrder(null, warehouseOperator, section, null, warehouse, LocalDate.now()));
+
+        Seller activeSeller = persist(newSeller("ativo.filtro@teste.com"));
+        Seller inactiveSeller = persist(newSeller("inativo.filtro@teste.com"));
+        activeProduct = persist(new Product(null, BigDecimal.TEN, Category.FRESCO, activeSeller));
+        inactiveProduct = persist(new Product(null, BigDecimal.TEN, Category.FRESCO, inactiveSeller));
+        activeItemBatch = persist(newItemBatch(activeProduct, 10, inboundOrder));
+        persist(newItemBatch(inactiveProduct, 20, inboundOrder));
+        entityManager.flush();
+
+        sellerService.deleteSeller(inactiveSeller.getId());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findWarehousesByProduct_ignoreBatches_whenSellerIsInactive() {
+        // When
+        List<WarehouseDto> activeWarehouses = productRepo.findWarehousesByProduct(activeProduct.getId());
+        List<WarehouseDto> inactiveWarehouses = productRepo.findWarehousesByProduct(inactiveProduct.getId());
+
+        // Then
+        assertThat(activeWarehouses).hasSize(1);
+        assertThat(activeWarehouses.get(0).getQuantity()).isEqualTo(10);
+        assertThat(inactiveWarehouses).isEmpty();
+    }
+
+    @Test
+    void findProductStockAfter_countZeroQuantity_whenSellerIsInactive() {
+        // When
+        List<ProductStockDto> products = productRepo.findProductStockAfter(
+                activeProduct.getId() - 1, PageRequest.of(0, 2));
+
+        // Then
+        assertThat(products).extracting(ProductStockDto::getProductId)
+                .containsExactly(activeProduct.getId(), inactiveProduct.getId());
+        assertThat(products).extracting(ProductStockDto::getQuantity).containsExactly(10L, 0L);
+    }
+
+    @Test
+    void findBatchesInWarehouseFromInactiveSellers_returnOnlyBatchesOfInactiveSeller() {
+        // When
+        List<InactiveSellerBatchDto> batches = productRepo.findBatchesInWarehouseFromInactiveSellers(warehouse.getId());
+
+        // Then
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0).getProductId()).isEqualTo(inactiveProduct.getId());
+        assertThat(batches.get(0).getQuantity()).isEqualTo(20);
+    }
+
+    @Test
+    void findByDueDate21AndProductIdAndQty_returnEmpty_whenSellerIsInactive() {
+        // Given
+        LocalDate firstValidDueDate = LocalDate.now().plusDays(22);
+
+        // When / Then
+        assertThat(itemBatchRepo.findByDueDate21AndProductIdAndQty(activeProduct.getId(), 1, firstValidDueDate)).isPresent();
+        assertThat(itemBatchRepo.findByDueDate21AndProductIdAndQty(inactiveProduct.getId(), 1, firstValidDueDate)).isEmpty();
+    }
+
+    @Test
+    void findFirstSellableBatches_returnFirstBatchesToExpireOfEachProduct() {
+        // Given
+        Product product = entityManager.getReference(Product.class, activeProduct.getId());
+        InboundOrder batchInboundOrder = entityManager.getReference(InboundOrder.class, inboundOrder.getId());
+        ItemBatch closeToDueDate = persist(newItemBatch(product, 5, batchInboundOrder, LocalDate.now().plusDays(10)));
+        ItemBatch first = persist(newItemBatch(product, 5, batchInboundOrder, LocalDate.now().plusDays(30)));
+        ItemBatch last = persist(newItemBatch(product, 5, batchInboundOrder, LocalDate.now().plusDays(90)));
+        entityManager.flush();
+
+        // When
+        List<StockBatchDto> batches = itemBatchRepo.findFirstSellableBatches(LocalDate.now().plusDays(22), 2);
+
+        // Then
+        assertThat(batches).filteredOn(batch -> batch.getProductId().equals(activeProduct.getId()))
+                .extracting(StockBatchDto::getItemBatchId)
+                .containsExactlyInAnyOrder(first.getId(), activeItemBatch.getId())
+                .doesNotContain(closeToDueDate.getId(), last.getId());
+        assertThat(batches).noneMatch(batch -> batch.getProductId().equals(inactiveProduct.getId()));
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    private Seller newSeller(String email) {
+        return new Seller(null, "Fulano", "de Tal", email, "Rua Canopus", 123, "86070180", Active.ATIVO, null);
+    }
+
+    private ItemBatch newItemBatch(Product product, int quantity, InboundOrder inboundOrder) {
+        return newItemBatch(product, quantity, inboundOrder, LocalDate.now().plusDays(60));
+    }
+
+    private ItemBatch newItemBatch(Product product, int quantity, InboundOrder inboundOrder, LocalDate dueDate) {
+        return new ItemBatch(product, quantity, LocalDate.now(), LocalDateTime.now(), 1L,
+                dueDate, BigDecimal.TEN, inboundOrder, Category.FRESCO);
+    }
+}
@@ -0,0 +1,181 @@
+package com.grupo6.projetointegrador.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grupo6.projetointegrador.dto.CreateInboundOrderDto;
+import com.grupo6.projetointegrador.dto.CreateItemBatchDto;
+import com.grupo6.projetointegrador.dto.CreateOrderPurchaseDto;
+import com.grupo6.projetointegrador.dto.ProductOrderDto;
+import com.grupo6.projetointegrador.model.entity.Buyer;
+import com.grupo6.projetointegrador.model.entity.Product;
+import com.grupo6.projetointegrador.model.entity.Section;
+import com.grupo6.projetointegrador.model.entity.Seller;
+import com.grupo6.projetointegrador.model.entity.Warehouse;
+import com.grupo6.projetointegrador.model.entity.WarehouseOperator;
+import com.grupo6.projetointegrador.model.enumeration.Active;
+import com.grupo6.projetointegrador.model.enumeration.Category;
+import com.grupo6.projetointegrador.repository.BuyerRepo;
+import com.grupo6.projetointegrador.repository.ProductRepo;
+import com.grupo6.projetointegrador.repository.SectionRepo;
+import com.grupo6.projetointegrador.repository.SellerRepo;
+import com.grupo6.projetointegrador.repository.WarehouseOperatorRepo;
+import com.grupo6.projetointegrador.repository.WarehouseRepo;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class QueryMetricsIT {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private SellerRepo sellerRepo;
+
+    @Autowired
+    private BuyerRepo buyerRepo;
+
+    @Autowired
+    private WarehouseOperatorRepo warehouseOperatorRepo;
+
+    @Autowired
+    private WarehouseRepo warehouseRepo;
+
+    @Autowired
+    private SectionRepo sectionRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void findProductById_recordStatementsTaggedByHandler() throws Exception {
+        // Given
+        Product product = createProductInStock("metricas.produto@teste.com");
+        String handler = "ProductController.findProductById";
+        long requestsBefore = statements(handler).count();
+        double statementsBefore = statements(handler).totalAmount();
+
+        // When
+        mockMvc.perform(get("/api/products/" + product.getId()))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(statements(handler).count()).isEqualTo(requestsBefore + 1);
+        assertThat(statements(handler).totalAmount()).isGreaterThan(statementsBefore);
+        assertThat(jdbcTime(handler).count()).isEqualTo(requestsBefore + 1);
+    }
+
+    @Test
+    void createOrderPurchase_recordStatementsIssuedOutsideHibernate() throws Exception {
+        // Given
+        Product product = createProductInStock("metricas.compra@teste.com");
+        Buyer buyer = buyerRepo.save(new Buyer(null, List.of()));
+        CreateOrderPurchaseDto createOrderPurchaseDto = new CreateOrderPurchaseDto(
+                buyer.getId(),
+                LocalDate.now(),
+                List.of(new ProductOrderDto(product.getId(), 2))
+        );
+        String handler = "OrderPurchaseController.createOrderPurchase";
+        double statementsBefore = statements(handler).totalAmount();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        mockMvc.perform(post("/api/order-purchase")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createOrderPurchaseDto)))
+                .andExpect(status().isCreated());
+
+        // Then
+        assertThat(statements(handler).totalAmount() - statementsBefore)
+                .isGreaterThan(statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findSeller_recordEntityLoadsTaggedByHandler() throws Exception {
+        // Given
+        Seller seller = sellerRepo.save(newSeller("metricas.vendedor@teste.com"));
+        String handler = "SellerController.findSeller";
+        double loadsBefore = entityLoads(handler).totalAmount();
+
+        // When
+        mockMvc.perform(get("/api/seller/" + seller.getId()))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(entityLoads(handler).totalAmount()).isGreaterThan(loadsBefore);
+    }
+
+    private DistributionSummary statements(String handler) {
+        return DistributionSummary.builder("request.jdbc.statements").tag("handler", handler).register(meterRegistry);
+    }
+
+    private Timer jdbcTime(String handler) {
+        return Timer.builder("request.jdbc.time").tag("handler", handler).register(meterRegistry);
+    }
+
+    private DistributionSummary entityLoads(String handler) {
+        return DistributionSummary.builder("request.entity.loads").tag("handler", handler).register(meterRegistry);
+    }
+
+    private Product createProductInStock(String sellerEmail) throws Exception {
+        Seller seller = sellerRepo.save(newSeller(sellerEmail));
+        Product product = productRepo.save(new Product(null, BigDecimal.valueOf(5), Category.FRESCO, seller));
+        WarehouseOperator warehouseOperator = warehouseOperatorRepo.save(new WarehouseOperator(null, null));
+        Warehouse warehouse = warehouseRepo.save(new Warehouse(null, List.of(), warehouseOperator));
+        Section section = sectionRepo.save(new Section(null, warehouse, 200L, Category.FRESCO));
+        CreateInboundOrderDto createInboundOrderDto = new CreateInboundOrderDto(
+                warehouseOperator.getId(),
+                warehouse.getId(),
+                section.getId(),
+                List.of(new CreateItemBatchDto(
+                        product.getId(),
+                        10,
+                        LocalDate.now(),
+                        LocalDateTime.now(),
+                        20L,
+                        LocalDate.now().plusDays(50),
+                        BigDecimal.valueOf(40)
+                ))
+        );
+        mockMvc.perform(post("/api/inboundorder")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createInboundOrderDto)))
+                .andExpect(status().isCreated());
+        return product;
+    }
+
+    private Seller newSeller(String email) {
+        return new Seller(null, "Fulano", "de Tal", email, "Rua Canopus", 123, "86070180", Active.ATIVO, null);
+    }
+}
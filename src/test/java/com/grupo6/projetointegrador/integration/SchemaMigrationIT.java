@@ -0,0 +1,180 @@
+package com.grupo6.projetointegrador.integration;
+
+import com.grupo6.projetointegrador.model.entity.Seller;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.Location;
+import org.flywaydb.core.api.ResourceProvider;
+import org.flywaydb.core.api.resource.LoadableResource;
+import org.flywaydb.core.internal.resource.classpath.ClassPathResource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the Flyway migrations on their own H2 database and lets Hibernate validate the entities against the result.
+ * The migrations H2 cannot parse are replaced by the equivalents in {@code db/migration-h2}. Legacy databases are
+ * seeded from the frozen schema in {@code db/legacy}, baselined at version 1 and migrated like the production ones.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=MYSQL",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@ActiveProfiles("test")
+public class SchemaMigrationIT {
+    private static final String COLUMNS_QUERY = "SELECT table_name || '.' || column_name || ' ' || data_type"
+            + " FROM information_schema.columns WHERE table_schema = 'PUBLIC' AND UPPER(table_name) <> 'FLYWAY_SCHEMA_HISTORY'"
+            + " ORDER BY 1";
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate freshJdbcTemplate;
+
+    @Test
+    void migrate_createSchemaValidatedByEntities() {
+        // Then
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("10");
+        assertThat(flyway.info().pending()).isEmpty();
+    }
+
+    @Test
+    void migrate_matchFreshSchema_whenDatabaseWasBaselined() {
+        // Given
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:legacy-baseline;MODE=MYSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = createLegacySchema(dataSource);
+
+        // When
+        migrateBaselined(dataSource);
+
+        // Then
+        assertThat(jdbcTemplate.queryForList(COLUMNS_QUERY, String.class))
+                .contains("ITEM_BATCH.VERSION BIGINT", "STOCK_RESERVATION.CREATED_AT TIMESTAMP")
+                .isEqualTo(freshJdbcTemplate.queryForList(COLUMNS_QUERY, String.class));
+        jdbcTemplate.update("INSERT INTO seller (id, active, address, email, first_name, house_number, last_name, zip_code)"
+                + " VALUES (1, 'ATIVO', 'Rua A', 'seller@email.com', 'Ana', 1, 'Lima', '01001000')");
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "INSERT INTO seller (id, active, address, email, first_name, house_number, last_name, zip_code)"
+                        + " VALUES (2, 'ATIVO', 'Rua B', 'seller@email.com', 'Bia', 2, 'Melo', '01001000')"))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining(Seller.EMAIL_CONSTRAINT.toUpperCase());
+    }
+
+    @Test
+    void migrate_dropOneToOneUniqueKeys_whenDatabaseWasBaselined() {
+        // Given
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:legacy;MODE=MYSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = createLegacySchema(dataSource);
+        jdbcTemplate.execute("CREATE UNIQUE INDEX UK_item_batch_product ON item_batch (product_id)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX UK_product_order_product ON product_order (product_id)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX UK_inbound_order_section ON inbound_order (section_id)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX UK_inbound_order_warehouse ON inbound_order (warehouse_id)");
+
+        // When
+        migrateBaselined(dataSource);
+
+        // Then
+        jdbcTemplate.update("INSERT INTO warehouse (id) VALUES (1)");
+        jdbcTemplate.update("INSERT INTO section (id, warehouse_id) VALUES (1, 1)");
+        jdbcTemplate.update("INSERT INTO inbound_order (id, section_id, warehouse_id) VALUES (1, 1, 1), (2, 1, 1)");
+        jdbcTemplate.update("INSERT INTO product (id) VALUES (1)");
+        jdbcTemplate.update("INSERT INTO item_batch (id, product_quantity, product_id) VALUES (1, 1, 1), (2, 1, 1)");
+        jdbcTemplate.update("INSERT INTO product_order (id, quantity, product_id) VALUES (1, 1, 1), (2, 1, 1)");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inbound_order", Long.class)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item_batch", Long.class)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product_order", Long.class)).isEqualTo(2);
+    }
+
+    private JdbcTemplate createLegacySchema(DataSource dataSource) {
+        new ResourceDatabasePopulator(
+                new org.springframework.core.io.ClassPathResource("db/legacy/da70144_schema.sql"))
+                .execute(dataSource);
+        return new JdbcTemplate(dataSource);
+    }
+
+    private void migrateBaselined(DataSource dataSource) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .resourceProvider(new H2ResourceProvider())
+                .load()
+                .migrate();
+    }
+
+    @TestConfiguration
+    static class H2Migrations {
+        @Bean
+        FlywayConfigurationCustomizer h2MigrationsCustomizer() {
+            return configuration -> configuration.resourceProvider(new H2ResourceProvider());
+        }
+    }
+
+    /**
+     * Lists the migrations of {@code db/migration}, taking the ones also found in {@code db/migration-h2} from there.
+     */
+    static class H2ResourceProvider implements ResourceProvider {
+        private static final Location MIGRATIONS = new Location("classpath:db/migration");
+        private static final Location H2_MIGRATIONS = new Location("classpath:db/migration-h2");
+
+        private final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+
+        @Override
+        public LoadableResource getResource(String name) {
+            ClassPathResource h2Resource = find(H2_MIGRATIONS, name);
+            if (h2Resource.exists()) {
+                return h2Resource;
+            }
+            ClassPathResource resource = find(MIGRATIONS, name);
+            return resource.exists() ? resource : null;
+        }
+
+        @Override
+        public Collection<LoadableResource> getResources(String prefix, String[] suffixes) {
+            List<LoadableResource> resources = new ArrayList<>();
+            for (Resource resource : list(MIGRATIONS)) {
+                String name = resource.getFilename();
+                if (name != null && name.startsWith(prefix) && Arrays.stream(suffixes).anyMatch(name::endsWith)) {
+                    resources.add(getResource(name));
+                }
+            }
+            return resources;
+        }
+
+        private ClassPathResource find(Location location, String name) {
+            return new ClassPathResource(location, location.getPath() + "/" + name,
+                    getClass().getClassLoader(), StandardCharsets.UTF_8);
+        }
+
+        private Resource[] list(Location location) {
+            try {
+                return resolver.getResources("classpath:" + location.getPath() + "/*");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.grupo6.projetointegrador.integration;
+
+import com.grupo6.projetointegrador.model.entity.Product;
+import com.grupo6.projetointegrador.model.entity.Seller;
+import com.grupo6.projetointegrador.model.enumeration.Active;
+import com.grupo6.projetointegrador.model.enumeration.Category;
+import com.grupo6.projetointegrador.repository.ProductRepo;
+import com.grupo6.projetointegrador.repository.SellerRepo;
+import com.grupo6.projetointegrador.service.SellerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SecondLevelCacheIT {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private SellerRepo sellerRepo;
+
+    @Autowired
+    private SellerService sellerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findById_readProductFromCache_whenItWasAlreadyLoaded() {
+        // Given
+        Seller seller = sellerRepo.save(newSeller("cache.produto@teste.com"));
+        Product product = productRepo.save(new Product(null, BigDecimal.valueOf(5), Category.FRESCO, seller));
+        productRepo.findById(product.getId());
+        statistics.clear();
+
+        // When
+        Product result = productRepo.findById(product.getId()).orElseThrow();
+
+        // Then
+        assertThat(result.getCategory()).isEqualTo(Category.FRESCO);
+        assertThat(statistics.getDomainDataRegionStatistics("product").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics("product").getMissCount()).isZero();
+    }
+
+    @Test
+    void findById_readSellerFromDatabase_whenItWasAlreadyLoaded() {
+        // Given
+        Seller seller = sellerRepo.save(newSeller("cache.vendedor@teste.com"));
+        sellerRepo.findById(seller.getId());
+        statistics.clear();
+
+        // When
+        sellerService.deleteSeller(seller.getId());
+        Seller result = sellerRepo.findById(seller.getId()).orElseThrow();
+
+        // Then
+        assertThat(result.getActive()).isEqualTo(Active.INATIVO);
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .containsEntity(Seller.class, seller.getId())).isFalse();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isZero();
+    }
+
+    @Test
+    void findById_recordCacheHitInMeterRegistry_whenProductWasAlreadyLoaded() {
+        // Given
+        Seller seller = sellerRepo.save(newSeller("cache.metricas@teste.com"));
+        Product product = productRepo.save(new Product(null, BigDecimal.valueOf(5), Category.FRESCO, seller));
+        productRepo.findById(product.getId());
+        double hits = productCacheHits();
+
+        // When
+        productRepo.findById(product.getId());
+
+        // Then
+        assertThat(productCacheHits()).isEqualTo(hits + 1);
+    }
+
+    private double productCacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", "product").tag("result", "hit")
+                .functionCounter().count();
+    }
+
+    private Seller newSeller(String email) {
+        return new Seller(null, "Fulano", "de Tal", email, "Rua Canopus", 123, "86070180", Active.ATIVO, null);
+    }
+}
@@ -0,0 +1,185 @@
+package com.grupo6.projetointegrador.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grupo6.projetointegrador.dto.UpdateSellerDto;
+import com.grupo6.projetointegrador.dto.WarehouseDto;
+import com.grupo6.projetointegrador.model.entity.InboundOrder;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
+import com.grupo6.projetointegrador.model.entity.Product;
+import com.grupo6.projetointegrador.model.entity.Section;
+import com.grupo6.projetointegrador.model.entity.Seller;
+import com.grupo6.projetointegrador.model.entity.Warehouse;
+import com.grupo6.projetointegrador.model.entity.WarehouseOperator;
+import com.grupo6.projetointegrador.model.enumeration.Active;
+import com.grupo6.projetointegrador.model.enumeration.Category;
+import com.grupo6.projetointegrador.repository.ProductRepo;
+import com.grupo6.projetointegrador.repository.SellerRepo;
+import com.grupo6.projetointegrador.service.ItemBatchStockIndex;
+import com.grupo6.projetointegrador.service.ProductWarehouseStockService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class SellerControllerIT {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SellerRepo sellerRepo;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ItemBatchStockIndex stockIndex;
+
+    @Autowired
+    private ProductWarehouseStockService productWarehouseStockService;
+
+    @Test
+    void findSeller_loadSellerAndProductsInOneQuery() throws Exception {
+        // Given
+        Seller seller = sellerRepo.save(new Seller(
+                null,
+                "Fulano",
+                "de Tal",
+                "seller.graph@teste.com",
+                "Rua Canopus",
+                123,
+                "86070180",
+                Active.ATIVO,
+                null
+        ));
+        productRepo.saveAll(List.of(
+                new Product(null, BigDecimal.valueOf(5), Category.FRESCO, seller),
+                new Product(null, BigDecimal.valueOf(8), Category.FRESCO, seller)
+        ));
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        mockMvc.perform(get("/api/seller/" + seller.getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("products.length()").value(2));
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionStatistics(Seller.class.getName() + ".products").getFetchCount()).isZero();
+    }
+
+    @Test
+    void updateSeller_returnSellerWithProducts() throws Exception {
+        // Given
+        Seller seller = sellerRepo.save(newSeller("seller.update@teste.com"));
+        productRepo.save(new Product(null, BigDecimal.valueOf(5), Category.FRESCO, seller));
+        UpdateSellerDto updateSellerDto = new UpdateSellerDto("Ciclano", null, null, null, null, null);
+
+        // When / Then
+        mockMvc.perform(patch("/api/seller/" + seller.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateSellerDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("firstName").value("Ciclano"))
+                .andExpect(jsonPath("products.length()").value(1));
+    }
+
+    @Test
+    void updateSeller_returns422_whenEmailIsUnknownToLocalFilter() throws Exception {
+        // Given
+        sellerRepo.save(newSeller("seller.other.instance@teste.com"));
+        Seller seller = sellerRepo.save(newSeller("seller.this.instance@teste.com"));
+        UpdateSellerDto updateSellerDto = new UpdateSellerDto(null, null, "seller.other.instance@teste.com", null, null, null);
+
+        // When / Then
+        mockMvc.perform(patch("/api/seller/" + seller.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateSellerDto)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("errors[0].message").value("Email já cadastrado."));
+    }
+
+    @Test
+    void activateSeller_putsSellerBatchesBackOnSale_whenSellerWasDeleted() throws Exception {
+        // Given
+        Seller seller = sellerRepo.save(newSeller("seller.reactivated@teste.com"));
+        ItemBatch itemBatch = transactionTemplate.execute(status -> {
+            WarehouseOperator warehouseOperator = persist(new WarehouseOperator(null, null));
+            Warehouse warehouse = persist(new Warehouse(null, null, warehouseOperator));
+            Section section = persist(new Section(null, warehouse, 1000L, Category.FRESCO));
+            InboundOrder inboundOrder = persist(
+                    new InboundOrder(null, warehouseOperator, section, null, warehouse, LocalDate.now()));
+            Product product = persist(new Product(null, BigDecimal.TEN, Category.FRESCO, entityManager.merge(seller)));
+            return persist(new ItemBatch(product, 10, LocalDate.now(), LocalDateTime.now(), 1L,
+                    LocalDate.now().plusDays(60), BigDecimal.TEN, inboundOrder, Category.FRESCO));
+        });
+        Long productId = itemBatch.getProduct().getId();
+        stockIndex.put(itemBatch);
+        mockMvc.perform(delete("/api/seller/" + seller.getId()))
+                .andExpect(status().isNoContent());
+        assertThat(stockIndex.findValidItemBatchId(productId, 1)).isEmpty();
+
+        // When
+        mockMvc.perform(patch("/api/seller/" + seller.getId() + "/activate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("active").value("ATIVO"));
+
+        // Then
+        assertThat(stockIndex.findValidItemBatchId(productId, 1)).contains(itemBatch.getId());
+        assertThat(productWarehouseStockService.findWarehouses(productId))
+                .extracting(WarehouseDto::getQuantity).containsExactly(10);
+        mockMvc.perform(patch("/api/seller/" + seller.getId() + "/activate"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("errors[0].message").value("Usuário já está ativo."));
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    private Seller newSeller(String email) {
+        return new Seller(null, "Fulano", "de Tal", email, "Rua Canopus", 123, "86070180", Active.ATIVO, null);
+    }
+}
@@ -0,0 +1,68 @@
+package com.grupo6.projetointegrador.integration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ServiceMetricsIT {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void findProductById_timeServiceMethodWithItsOutcome() throws Exception {
+        // Given
+        long callsBefore = serviceTimer("ProductServiceImpl", "findProductById", "NotFoundException").count();
+
+        // When
+        mockMvc.perform(get("/api/products/999999"))
+                .andExpect(status().isNotFound());
+
+        // Then
+        assertThat(serviceTimer("ProductServiceImpl", "findProductById", "NotFoundException").count())
+                .isEqualTo(callsBefore + 1);
+    }
+
+    @Test
+    void findProductById_countNotFoundError() throws Exception {
+        // Given
+        double errorsBefore = apiErrors("NotFoundException", "404").count();
+
+        // When
+        mockMvc.perform(get("/api/products/999999"))
+                .andExpect(status().isNotFound());
+
+        // Then
+        assertThat(apiErrors("NotFoundException", "404").count()).isEqualTo(errorsBefore + 1);
+    }
+
+    private Timer serviceTimer(String className, String method, String exception) {
+        return Timer.builder("service.method")
+                .tag("class", "com.grupo6.projetointegrador.service." + className)
+                .tag("method", method)
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+
+    private Counter apiErrors(String exception, String status) {
+        return Counter.builder("api.errors")
+                .tag("exception", exception)
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+}
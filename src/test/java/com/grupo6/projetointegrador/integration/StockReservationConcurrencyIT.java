@@ -0,0 +1,118 @@
+package com.grupo6.projetointegrador.integration;
+
+import com.grupo6.projetointegrador.dto.CreateOrderPurchaseDto;
+import com.grupo6.projetointegrador.dto.ProductOrderDto;
+import com.grupo6.projetointegrador.model.entity.*;
+import com.grupo6.projetointegrador.model.enumeration.Active;
+import com.grupo6.projetointegrador.model.enumeration.Category;
+import com.grupo6.projetointegrador.repository.*;
+import com.grupo6.projetointegrador.service.OrderPurchaseService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "stock-reservation.max-attempts=10")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class StockReservationConcurrencyIT {
+    private static final int STOCK = 100;
+    private static final int QUANTITY_PER_ORDER = 7;
+    private static final int CONCURRENT_ORDERS = 20;
+
+    @Autowired
+    private OrderPurchaseService orderPurchaseService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private BuyerRepo buyerRepo;
+
+    @Autowired
+    private ItemBatchRepo itemBatchRepo;
+
+    @Autowired
+    private SellerRepo sellerRepo;
+
+    @Test
+    void createOrderPurchase_neverOversells_whenOrdersAreConcurrent() throws Exception {
+        // Given
+        ItemBatch itemBatch = createProductAndSellerAndItemBatch();
+        Buyer buyer = buyerRepo.save(new Buyer(null, List.of()));
+        CreateOrderPurchaseDto createOrderPurchaseDto = new CreateOrderPurchaseDto(
+                buyer.getId(),
+                LocalDate.now(),
+                List.of(new ProductOrderDto(itemBatch.getProduct().getId(), QUANTITY_PER_ORDER))
+        );
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_ORDERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_ORDERS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                orderPurchaseService.createOrderPurchase(createOrderPurchaseDto);
+                successes.incrementAndGet();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                // Orders rejected because of stock or lost retries are expected.
+            }
+        }
+        executor.shutdown();
+        int finalQuantity = itemBatchRepo.findById(itemBatch.getId()).get().getProductQuantity();
+
+        // Then
+        assertThat(successes.get()).isPositive();
+        assertThat(successes.get() * QUANTITY_PER_ORDER).isLessThanOrEqualTo(STOCK);
+        assertThat(finalQuantity).isGreaterThanOrEqualTo(0);
+        assertThat(finalQuantity).isEqualTo(STOCK - successes.get() * QUANTITY_PER_ORDER);
+    }
+
+    private ItemBatch createProductAndSellerAndItemBatch() {
+        Seller seller = sellerRepo.save(new Seller(
+                null,
+                "Fulano",
+                "de Tal",
+                "fulano.dtal@teste.com",
+                "Rua Canopus",
+                123,
+                "86070180",
+                Active.ATIVO,
+                null
+        ));
+        Product product = productRepo.save(new Product(null, BigDecimal.valueOf(10), Category.FRESCO, seller));
+        return itemBatchRepo.save(new ItemBatch(
+                product,
+                STOCK,
+                LocalDate.now(),
+                LocalDateTime.now(),
+                20L,
+                LocalDate.now().plusDays(50),
+                BigDecimal.valueOf(100),
+                null,
+                product.getCategory()
+        ));
+    }
+}
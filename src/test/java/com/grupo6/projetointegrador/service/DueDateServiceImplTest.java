@@ -25,6 +25,9 @@ public class DueDateServiceImplTest {
     @Mock
     private ItemBatchRepo itemBatchRepo;
 
+    @Mock
+    private ExpiryTimeline expiryTimeline;
+
     @InjectMocks
     private DueDateServiceImpl dueDateService;
 
@@ -109,6 +112,73 @@ public class DueDateServiceImplTest {
                 .isInstanceOf(NotFoundException.class);
     }
 
+    @Test
+    void findItemBatchByCategory_throwsNotFoundException_whenResultIsEmptyList() {
+        // Given
+        String categoryCode = Category.FRESCO.getCode();
+        int days = 5;
+        String order = "asc";
+
+        // When
+        Mockito.when(itemBatchRepo.findByDueDateWithCategory(Category.FRESCO.getName(), days, order))
+                .thenReturn(Optional.of(List.of()));
+
+        // Then
+        assertThatThrownBy(() -> dueDateService.findItemBatchByCategory(categoryCode, days, order))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void findItemBatchByCategory_throwsNotFoundException_whenTimelineHasNoBatches() {
+        // Given
+        String categoryCode = Category.FRESCO.getCode();
+        int days = 5;
+        String order = "asc";
+
+        // When
+        Mockito.when(expiryTimeline.isReady()).thenReturn(true);
+        Mockito.when(expiryTimeline.findByCategory(Category.FRESCO, days, false)).thenReturn(List.of());
+
+        // Then
+        assertThatThrownBy(() -> dueDateService.findItemBatchByCategory(categoryCode, days, order))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void findItemBatchBySection_getItemsFromTimeline_whenTimelineIsReady() {
+        // Given
+        Long sectionId = 1L;
+        int days = 5;
+        DueDateItemBatchDto dueDateItemBatchDto = genericDueDateItemBatchDto();
+
+        // When
+        Mockito.when(expiryTimeline.isReady()).thenReturn(true);
+        Mockito.when(expiryTimeline.findBySection(sectionId, days)).thenReturn(List.of(dueDateItemBatchDto));
+        List<DueDateItemBatchDto> result = dueDateService.findItemBatchBySection(sectionId, days);
+
+        // Then
+        assertThat(result).containsExactly(dueDateItemBatchDto);
+        Mockito.verifyNoInteractions(itemBatchRepo);
+    }
+
+    @Test
+    void findItemBatchByCategory_getItemsFromTimeline_whenTimelineIsReady() {
+        // Given
+        String categoryCode = Category.FRESCO.getCode();
+        int days = 5;
+        String order = "DESC";
+        DueDateItemBatchDto dueDateItemBatchDto = genericDueDateItemBatchDto();
+
+        // When
+        Mockito.when(expiryTimeline.isReady()).thenReturn(true);
+        Mockito.when(expiryTimeline.findByCategory(Category.FRESCO, days, true)).thenReturn(List.of(dueDateItemBatchDto));
+        List<DueDateItemBatchDto> result = dueDateService.findItemBatchByCategory(categoryCode, days, order);
+
+        // Then
+        assertThat(result).containsExactly(dueDateItemBatchDto);
+        Mockito.verifyNoInteractions(itemBatchRepo);
+    }
+
     private DueDateItemBatchDto genericDueDateItemBatchDto() {
         return new DueDateItemBatchDto() {
             @Override
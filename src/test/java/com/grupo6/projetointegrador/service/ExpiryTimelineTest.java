@@ -0,0 +1,223 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.dto.DueDateItemBatchDto;
+import com.grupo6.projetointegrador.dto.ExpiryBatchDto;
+import com.grupo6.projetointegrador.factory.InboundOrderFactory;
+import com.grupo6.projetointegrador.factory.WarehouseFactory;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
+import com.grupo6.projetointegrador.model.enumeration.Category;
+import com.grupo6.projetointegrador.repository.ItemBatchRepo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+public class ExpiryTimelineTest {
+    @Mock
+    private ItemBatchRepo itemBatchRepo;
+
+    @Test
+    void findByCategory_walksDayBucketsWithinInterval() {
+        // Given
+        ExpiryTimeline expiryTimeline = new ExpiryTimeline(itemBatchRepo, true);
+        Mockito.when(itemBatchRepo.findAllUnexpiredBatches(LocalDate.now())).thenReturn(List.of(
+                genericExpiryBatchDto(1L, Category.FRESCO, LocalDate.now().plusDays(5)),
+                genericExpiryBatchDto(2L, Category.FRESCO, LocalDate.now()),
+                genericExpiryBatchDto(3L, Category.FRESCO, LocalDate.now().plusDays(10)),
+                genericExpiryBatchDto(4L, Category.CONGELADO, LocalDate.now().plusDays(1))
+        ));
+
+        // When
+        expiryTimeline.load();
+
+        // Then
+        assertThat(expiryTimeline.isReady()).isTrue();
+        assertThat(expiryTimeline.findByCategory(Category.FRESCO, 7, false))
+                .extracting(DueDateItemBatchDto::getItemBatchId).containsExactly(2L, 1L);
+        assertThat(expiryTimeline.findByCategory(Category.FRESCO, 10, true))
+                .extracting(DueDateItemBatchDto::getItemBatchId).containsExactly(3L, 1L, 2L);
+        assertThat(expiryTimeline.findBySection(1L, 30)).hasSize(4);
+        assertThat(expiryTimeline.findByCategory(Category.REFRIGERADO, 30, false)).isEmpty();
+    }
+
+    @Test
+    void putAll_updatesBuckets_whenBatchChangesAndRunsOut() {
+        // Given
+        ExpiryTimeline expiryTimeline = new ExpiryTimeline(itemBatchRepo, true);
+        ItemBatch itemBatch = genericItemBatch();
+
+        // When / Then
+        expiryTimeline.putAll(List.of(itemBatch));
+        assertThat(expiryTimeline.findBySection(1L, 30)).extracting(DueDateItemBatchDto::getQuantity)
+                .containsExactly(10);
+
+        itemBatch.setDueDate(LocalDate.now().plusDays(60));
+        expiryTimeline.putAll(List.of(itemBatch));
+        assertThat(expiryTimeline.findBySection(1L, 30)).isEmpty();
+        assertThat(expiryTimeline.findByCategory(Category.FRESCO, 60, false)).hasSize(1);
+
+        expiryTimeline.decrement(Map.of(itemBatch.getId(), 10));
+        assertThat(expiryTimeline.findByCategory(Category.FRESCO, 60, false)).isEmpty();
+    }
+
+    @Test
+    void decrement_keepsEveryDecrement_whenOrdersRunConcurrently() throws InterruptedException {
+        // Given
+        ExpiryTimeline expiryTimeline = new ExpiryTimeline(itemBatchRepo, true);
+        ItemBatch itemBatch = genericItemBatch();
+        itemBatch.setProductQuantity(1000);
+        expiryTimeline.putAll(List.of(itemBatch));
+
+        // When
+        decrementConcurrently(() -> expiryTimeline.decrement(Map.of(itemBatch.getId(), 1)), 4, 200);
+
+        // Then
+        assertThat(expiryTimeline.findBySection(1L, 30)).extracting(DueDateItemBatchDto::getQuantity)
+                .containsExactly(200);
+    }
+
+    @Test
+    void removeSeller_removesSellerBatches() {
+        // Given
+        ExpiryTimeline expiryTimeline = new ExpiryTimeline(itemBatchRepo, true);
+        ItemBatch itemBatch = genericItemBatch();
+        expiryTimeline.putAll(List.of(itemBatch));
+
+        // When
+        expiryTimeline.removeSeller(itemBatch.getProduct().getSeller().getId());
+
+        // Then
+        assertThat(expiryTimeline.findBySection(1L, 30)).isEmpty();
+    }
+
+    @Test
+    void checkConsistency_rebuildsTimeline_whenDatabaseDiffers() {
+        // Given
+        ExpiryTimeline expiryTimeline = new ExpiryTimeline(itemBatchRepo, true);
+        Mockito.when(itemBatchRepo.findAllUnexpiredBatches(LocalDate.now()))
+                .thenReturn(List.of(genericExpiryBatchDto(1L, Category.FRESCO, LocalDate.now().plusDays(5))))
+                .thenReturn(List.of(genericExpiryBatchDto(2L, Category.FRESCO, LocalDate.now().plusDays(3))));
+        expiryTimeline.load();
+
+        // When
+        int divergent = expiryTimeline.checkConsistency();
+
+        // Then
+        assertThat(divergent).isEqualTo(2);
+        assertThat(expiryTimeline.findByCategory(Category.FRESCO, 7, false))
+                .extracting(DueDateItemBatchDto::getItemBatchId).containsExactly(2L);
+    }
+
+    @Test
+    void checkConsistency_skipsRebuild_whenTimelineChangesWhileDatabaseIsRead() {
+        // Given
+        ExpiryTimeline expiryTimeline = new ExpiryTimeline(itemBatchRepo, true);
+        ItemBatch itemBatch = genericItemBatch();
+        Mockito.when(itemBatchRepo.findAllUnexpiredBatches(LocalDate.now()))
+                .thenReturn(List.of())
+                .thenAnswer(invocation -> {
+                    expiryTimeline.putAll(List.of(itemBatch));
+                    return List.of();
+                });
+        expiryTimeline.load();
+
+        // When
+        int divergent = expiryTimeline.checkConsistency();
+
+        // Then
+        assertThat(divergent).isZero();
+        assertThat(expiryTimeline.findBySection(1L, 30)).extracting(DueDateItemBatchDto::getItemBatchId)
+                .containsExactly(itemBatch.getId());
+    }
+
+    @Test
+    void isReady_returnsFalse_whenTimelineIsDisabled() {
+        // Given
+        ExpiryTimeline expiryTimeline = new ExpiryTimeline(itemBatchRepo, false);
+
+        // When
+        expiryTimeline.load();
+        expiryTimeline.putAll(List.of(genericItemBatch()));
+
+        // Then
+        assertThat(expiryTimeline.isReady()).isFalse();
+        assertThat(expiryTimeline.findBySection(1L, 30)).isEmpty();
+        Mockito.verifyNoInteractions(itemBatchRepo);
+    }
+
+    private static void decrementConcurrently(Runnable decrement, int threads, int decrementsPerThread)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int thread = 0; thread < threads; thread++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < decrementsPerThread; i++) {
+                    decrement.run();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private ItemBatch genericItemBatch() {
+        ItemBatch itemBatch = InboundOrderFactory.build(WarehouseFactory.build().getSections().get(0))
+                .getItemBatches().get(0);
+        itemBatch.setCategory(Category.FRESCO);
+        return itemBatch;
+    }
+
+    private ExpiryBatchDto genericExpiryBatchDto(Long itemBatchId, Category category, LocalDate dueDate) {
+        return new ExpiryBatchDto() {
+            @Override
+            public Long getItemBatchId() {
+                return itemBatchId;
+            }
+
+            @Override
+            public Long getProductId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getSellerId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getSectionId() {
+                return 1L;
+            }
+
+            @Override
+            public Category getCategory() {
+                return category;
+            }
+
+            @Override
+            public LocalDate getDueDate() {
+                return dueDate;
+            }
+
+            @Override
+            public int getQuantity() {
+                return 5;
+            }
+        };
+    }
+}
@@ -2,8 +2,10 @@ package com.grupo6.projetointegrador.service;
 
 import com.grupo6.projetointegrador.dto.CreateInboundOrderDto;
 import com.grupo6.projetointegrador.dto.CreateItemBatchDto;
+import com.grupo6.projetointegrador.dto.InboundOrderResultDto;
 import com.grupo6.projetointegrador.dto.ItemBatchDto;
 import com.grupo6.projetointegrador.dto.UpdateItemBatchDto;
+import com.grupo6.projetointegrador.exception.BadRequestException;
 import com.grupo6.projetointegrador.exception.BusinessRuleException;
 import com.grupo6.projetointegrador.exception.NotFoundException;
 import com.grupo6.projetointegrador.factory.InboundOrderFactory;
@@ -25,6 +27,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -43,9 +46,21 @@ public class InboundOrderServiceImplTest {
     @Mock
     private ProductRepo productRepo;
 
+    @Mock
+    private ItemBatchRepo itemBatchRepo;
+
     @Mock
     private SectionRepo sectionRepo;
 
+    @Mock
+    private ItemBatchStockIndex stockIndex;
+
+    @Mock
+    private ProductWarehouseStockService productWarehouseStockService;
+
+    @Mock
+    private ExpiryTimeline expiryTimeline;
+
     @InjectMocks
     private InboundOrderServiceImpl inboundOrderService;
 
@@ -53,7 +68,6 @@ public class InboundOrderServiceImplTest {
     void createInboundOrder_saveInboundOrder_AllProvidedDataIsValid() {
         // Given
         CreateInboundOrderDto createInboundOrderDto = setupCreateInboundOrderDto();
-        Seller seller = setupSellerContainingTwoProducts();
 
         // When
         Warehouse warehouse = WarehouseFactory.build();
@@ -63,8 +77,8 @@ public class InboundOrderServiceImplTest {
         Mockito.when(warehouseRepo.findById(1L)).thenReturn(Optional.of(warehouse));
         Mockito.when(sectionRepo.findById(1L)).thenReturn(Optional.of(section));
         Mockito.when(warehouseOperatorRepo.findById(1L)).thenReturn(Optional.of(warehouse.getWarehouseOperator()));
-        Mockito.when(productRepo.findById(1L)).thenReturn(Optional.of(inboundOrder.getItemBatches().get(0).getProduct()));
-        Mockito.when(productRepo.findSellerByProductId(ArgumentMatchers.any())).thenReturn(Optional.of(seller));
+        Mockito.when(productRepo.findAllWithSellerByIdIn(Set.of(1L)))
+                .thenReturn(List.of(inboundOrder.getItemBatches().get(0).getProduct()));
         Mockito.when(inboundOrderRepo.save(ArgumentMatchers.any())).thenReturn(inboundOrder);
         List<ItemBatchDto> itemBatchDtos = inboundOrderService.createInboundOrder(createInboundOrderDto);
 
@@ -72,6 +86,34 @@ public class InboundOrderServiceImplTest {
         assertThat(itemBatchDtos).isNotEmpty();
     }
 
+    @Test
+    void createInboundOrders_saveOnlyValidOrders_whenOneOrderIsInvalid() {
+        // Given
+        CreateInboundOrderDto validDto = setupCreateInboundOrderDto();
+        CreateInboundOrderDto invalidDto = setupCreateInboundOrderDto();
+        invalidDto.setWarehouseId(2L);
+        Warehouse warehouse = WarehouseFactory.build();
+        Section section = warehouse.getSections().get(0);
+        InboundOrder inboundOrder = InboundOrderFactory.build(section);
+        Mockito.when(warehouseRepo.findById(1L)).thenReturn(Optional.of(warehouse));
+        Mockito.when(warehouseRepo.findById(2L)).thenReturn(Optional.empty());
+        Mockito.when(sectionRepo.findById(1L)).thenReturn(Optional.of(section));
+        Mockito.when(warehouseOperatorRepo.findById(1L)).thenReturn(Optional.of(warehouse.getWarehouseOperator()));
+        Mockito.when(productRepo.findAllWithSellerByIdIn(Set.of(1L)))
+                .thenReturn(List.of(inboundOrder.getItemBatches().get(0).getProduct()));
+
+        // When
+        List<InboundOrderResultDto> results = inboundOrderService.createInboundOrders(List.of(validDto, invalidDto));
+
+        // Then
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getStatus()).isEqualTo(201);
+        assertThat(results.get(0).getItemBatches()).hasSize(1);
+        assertThat(results.get(1).getStatus()).isEqualTo(404);
+        Mockito.verify(inboundOrderRepo).saveAll(ArgumentMatchers.<List<InboundOrder>>argThat(orders -> orders.size() == 1));
+        Mockito.verify(productRepo, Mockito.times(1)).findAllWithSellerByIdIn(ArgumentMatchers.any());
+    }
+
     @Test
     void createInboundOrder_throwException_whenWarehouseDoesNotExists() {
         // Given
@@ -100,7 +142,8 @@ public class InboundOrderServiceImplTest {
         Mockito.when(warehouseRepo.findById(1L)).thenReturn(Optional.of(warehouse));
         Mockito.when(sectionRepo.findById(1L)).thenReturn(Optional.of(section));
         Mockito.when(warehouseOperatorRepo.findById(2L)).thenReturn(Optional.of(warehouseOperator));
-        Mockito.when(productRepo.findById(1L)).thenReturn(Optional.of(inboundOrder.getItemBatches().get(0).getProduct()));
+        Mockito.when(productRepo.findAllWithSellerByIdIn(Set.of(1L)))
+                .thenReturn(List.of(inboundOrder.getItemBatches().get(0).getProduct()));
 
         assertThatThrownBy(() -> inboundOrderService.createInboundOrder(createInboundOrderDto))
                 .isInstanceOf(BusinessRuleException.class);
@@ -121,7 +164,8 @@ public class InboundOrderServiceImplTest {
         Mockito.when(warehouseRepo.findById(1L)).thenReturn(Optional.of(warehouse));
         Mockito.when(sectionRepo.findById(2L)).thenReturn(Optional.of(section));
         Mockito.when(warehouseOperatorRepo.findById(1L)).thenReturn(Optional.of(warehouse.getWarehouseOperator()));
-        Mockito.when(productRepo.findById(1L)).thenReturn(Optional.of(inboundOrder.getItemBatches().get(0).getProduct()));
+        Mockito.when(productRepo.findAllWithSellerByIdIn(Set.of(1L)))
+                .thenReturn(List.of(inboundOrder.getItemBatches().get(0).getProduct()));
 
         assertThatThrownBy(() -> inboundOrderService.createInboundOrder(createInboundOrderDto))
                 .isInstanceOf(BusinessRuleException.class);
@@ -141,7 +185,8 @@ public class InboundOrderServiceImplTest {
         Mockito.when(warehouseRepo.findById(1L)).thenReturn(Optional.of(warehouse));
         Mockito.when(sectionRepo.findById(1L)).thenReturn(Optional.of(section));
         Mockito.when(warehouseOperatorRepo.findById(1L)).thenReturn(Optional.of(warehouse.getWarehouseOperator()));
-        Mockito.when(productRepo.findById(1L)).thenReturn(Optional.of(inboundOrder.getItemBatches().get(0).getProduct()));
+        Mockito.when(productRepo.findAllWithSellerByIdIn(Set.of(1L)))
+                .thenReturn(List.of(inboundOrder.getItemBatches().get(0).getProduct()));
 
         assertThatThrownBy(() -> inboundOrderService.createInboundOrder(createInboundOrderDto))
                 .isInstanceOf(BusinessRuleException.class);
@@ -162,7 +207,27 @@ public class InboundOrderServiceImplTest {
         Mockito.when(warehouseRepo.findById(1L)).thenReturn(Optional.of(warehouse));
         Mockito.when(sectionRepo.findById(2L)).thenReturn(Optional.of(section));
         Mockito.when(warehouseOperatorRepo.findById(1L)).thenReturn(Optional.of(warehouse.getWarehouseOperator()));
-        Mockito.when(productRepo.findById(1L)).thenReturn(Optional.of(inboundOrder.getItemBatches().get(0).getProduct()));
+        Mockito.when(productRepo.findAllWithSellerByIdIn(Set.of(1L)))
+                .thenReturn(List.of(inboundOrder.getItemBatches().get(0).getProduct()));
+
+        assertThatThrownBy(() -> inboundOrderService.createInboundOrder(createInboundOrderDto))
+                .isInstanceOf(BusinessRuleException.class);
+    }
+
+    @Test
+    void createInboundOrder_throwException_whenSellerIsInactive() {
+        // Given
+        CreateInboundOrderDto createInboundOrderDto = setupCreateInboundOrderDto();
+
+        // When / Then
+        Warehouse warehouse = WarehouseFactory.build();
+        Section section = warehouse.getSections().get(0);
+        Product product = InboundOrderFactory.build(section).getItemBatches().get(0).getProduct();
+        product.getSeller().setActive(Active.INATIVO);
+        Mockito.when(warehouseRepo.findById(1L)).thenReturn(Optional.of(warehouse));
+        Mockito.when(sectionRepo.findById(1L)).thenReturn(Optional.of(section));
+        Mockito.when(warehouseOperatorRepo.findById(1L)).thenReturn(Optional.of(warehouse.getWarehouseOperator()));
+        Mockito.when(productRepo.findAllWithSellerByIdIn(Set.of(1L))).thenReturn(List.of(product));
 
         assertThatThrownBy(() -> inboundOrderService.createInboundOrder(createInboundOrderDto))
                 .isInstanceOf(BusinessRuleException.class);
@@ -195,12 +260,11 @@ public class InboundOrderServiceImplTest {
         );
 
         // When
-        Mockito.when(inboundOrderRepo.findById(ArgumentMatchers.anyLong()))
+        Mockito.when(inboundOrderRepo.findWithSectionById(ArgumentMatchers.anyLong()))
                 .thenReturn(Optional.of(savedInboundOrder));
-        Mockito.when(productRepo.findById(1L))
-                .thenReturn(products.stream().filter(product -> product.getId().equals(1L)).findFirst());
-        Mockito.when(productRepo.findById(2L))
-                .thenReturn(products.stream().filter(product -> product.getId().equals(2L)).findFirst());
+        Mockito.when(itemBatchRepo.findWithInboundOrderByInboundOrderIdAndIdIn(1L, Set.of(1L)))
+                .thenReturn(savedInboundOrder.getItemBatches());
+        Mockito.when(productRepo.findAllWithSellerByIdIn(Set.of(1L, 2L))).thenReturn(products);
 
         // Then
         List<ItemBatchDto> result = inboundOrderService.updateItemBatch(
@@ -250,8 +314,11 @@ public class InboundOrderServiceImplTest {
         );
 
         // When
-        Mockito.when(inboundOrderRepo.findById(ArgumentMatchers.anyLong()))
-                .thenReturn(Optional.of(setupGenericInboundOrder()));
+        InboundOrder savedInboundOrder = setupGenericInboundOrder();
+        Mockito.when(inboundOrderRepo.findWithSectionById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(savedInboundOrder));
+        Mockito.when(itemBatchRepo.findWithInboundOrderByInboundOrderIdAndIdIn(1L, Set.of(1L)))
+                .thenReturn(savedInboundOrder.getItemBatches());
 
         // Then
         assertThatThrownBy(
@@ -277,10 +344,11 @@ public class InboundOrderServiceImplTest {
         );
 
         // When
-        Mockito.when(inboundOrderRepo.findById(ArgumentMatchers.anyLong()))
+        Mockito.when(inboundOrderRepo.findWithSectionById(ArgumentMatchers.anyLong()))
                 .thenReturn(Optional.of(savedInboundOrder));
-        Mockito.when(productRepo.findById(1L))
-                .thenReturn(products.stream().filter(product -> product.getId().equals(1L)).findFirst());
+        Mockito.when(itemBatchRepo.findWithInboundOrderByInboundOrderIdAndIdIn(1L, Set.of(1L)))
+                .thenReturn(savedInboundOrder.getItemBatches());
+        Mockito.when(productRepo.findAllWithSellerByIdIn(Set.of(1L))).thenReturn(List.of(products.get(0)));
 
         // Then
         assertThatThrownBy(
@@ -289,7 +357,7 @@ public class InboundOrderServiceImplTest {
     }
 
     @Test
-    void updateItemBatch_throwsBusinessException_whenSectionVolumeIsNotAvailable() {
+    void patchItemBatch_throwsBusinessException_whenSectionVolumeIsNotAvailable() {
         List<Product> products = setupSellerContainingTwoProducts().getProducts();
 
         InboundOrder savedInboundOrder = setupGenericInboundOrder();
@@ -305,15 +373,140 @@ public class InboundOrderServiceImplTest {
         );
 
         // When
-        Mockito.when(inboundOrderRepo.findById(ArgumentMatchers.anyLong()))
+        Mockito.when(inboundOrderRepo.findWithSectionById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(savedInboundOrder));
+        Mockito.when(itemBatchRepo.findWithInboundOrderByInboundOrderIdAndIdIn(1L, Set.of(1L)))
+                .thenReturn(savedInboundOrder.getItemBatches());
+        Mockito.when(itemBatchRepo.sumVolumeByInboundOrderId(savedInboundOrder.getId())).thenReturn(10L);
+        Mockito.when(productRepo.findAllWithSellerByIdIn(Set.of(1L))).thenReturn(List.of(products.get(0)));
+
+        // Then
+        assertThatThrownBy(
+                () -> inboundOrderService.patchItemBatch(1L, List.of(updateArrozItemBatch))
+        ).isInstanceOf(BusinessRuleException.class);
+    }
+
+    @Test
+    void patchItemBatch_writeNothing_whenItemIsUnchanged() {
+        // Given
+        InboundOrder savedInboundOrder = setupGenericInboundOrder();
+        ItemBatch savedItemBatch = savedInboundOrder.getItemBatches().get(0);
+        UpdateItemBatchDto unchangedItemBatch = new UpdateItemBatchDto(
+                savedItemBatch.getId(),
+                savedItemBatch.getProduct().getId(),
+                savedItemBatch.getProductQuantity(),
+                savedItemBatch.getManufacturingDate(),
+                savedItemBatch.getManufacturingTime(),
+                savedItemBatch.getVolume(),
+                savedItemBatch.getDueDate(),
+                new BigDecimal("50.00")
+        );
+
+        // When
+        Mockito.when(inboundOrderRepo.findWithSectionById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(savedInboundOrder));
+        Mockito.when(itemBatchRepo.findWithInboundOrderByInboundOrderIdAndIdIn(1L, Set.of(1L)))
+                .thenReturn(savedInboundOrder.getItemBatches());
+        List<ItemBatchDto> result = inboundOrderService.patchItemBatch(1L, List.of(unchangedItemBatch));
+
+        // Then
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getItemBatchId()).isEqualTo(savedItemBatch.getId());
+        Mockito.verifyNoInteractions(productRepo);
+        Mockito.verify(productWarehouseStockService).removeStock(List.of());
+        Mockito.verify(productWarehouseStockService).addStock(List.of());
+        Mockito.verify(itemBatchRepo, Mockito.never()).sumVolumeByInboundOrderId(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    void updateItemBatch_throwsBusinessException_whenItemsSentExceedSectionVolume() {
+        // Given
+        List<Product> products = setupSellerContainingTwoProducts().getProducts();
+        InboundOrder savedInboundOrder = setupGenericInboundOrder();
+        UpdateItemBatchDto updateArrozItemBatch = new UpdateItemBatchDto(
+                1L,
+                1L,
+                1,
+                LocalDate.of(2021, 10, 20),
+                LocalDateTime.of(2021, 10, 20, 1, 30, 10),
+                savedInboundOrder.getSection().getVolume() + 1,
+                LocalDate.of(2021, 11, 20),
+                BigDecimal.valueOf(50)
+        );
+
+        // When
+        Mockito.when(inboundOrderRepo.findWithSectionById(ArgumentMatchers.anyLong()))
                 .thenReturn(Optional.of(savedInboundOrder));
-        Mockito.when(productRepo.findById(1L))
-                .thenReturn(products.stream().filter(product -> product.getId().equals(1L)).findFirst());
+        Mockito.when(itemBatchRepo.findWithInboundOrderByInboundOrderIdAndIdIn(1L, Set.of(1L)))
+                .thenReturn(savedInboundOrder.getItemBatches());
+        Mockito.when(productRepo.findAllWithSellerByIdIn(Set.of(1L))).thenReturn(List.of(products.get(0)));
 
         // Then
         assertThatThrownBy(
                 () -> inboundOrderService.updateItemBatch(1L, List.of(updateArrozItemBatch))
         ).isInstanceOf(BusinessRuleException.class);
+        Mockito.verify(itemBatchRepo, Mockito.never()).sumVolumeByInboundOrderId(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    void updateItemBatch_throwsBadRequestException_whenItemBatchIsRepeated() {
+        // Given
+        UpdateItemBatchDto firstVersion = new UpdateItemBatchDto(
+                1L,
+                1L,
+                1,
+                LocalDate.of(2021, 10, 20),
+                LocalDateTime.of(2021, 10, 20, 1, 30, 10),
+                4L,
+                LocalDate.of(2021, 11, 20),
+                BigDecimal.valueOf(50)
+        );
+        UpdateItemBatchDto secondVersion = new UpdateItemBatchDto(
+                1L,
+                1L,
+                7,
+                LocalDate.of(2021, 10, 20),
+                LocalDateTime.of(2021, 10, 20, 1, 30, 10),
+                4L,
+                LocalDate.of(2021, 11, 20),
+                BigDecimal.valueOf(50)
+        );
+
+        // Then
+        assertThatThrownBy(
+                () -> inboundOrderService.patchItemBatch(1L, List.of(firstVersion, secondVersion))
+        ).isInstanceOf(BadRequestException.class);
+        Mockito.verifyNoInteractions(inboundOrderRepo, itemBatchRepo);
+    }
+
+    @Test
+    void patchItemBatch_throwsBusinessException_whenSellerOfNewItemIsInactive() {
+        // Given
+        List<Product> products = setupSellerContainingTwoProducts().getProducts();
+        products.get(1).getSeller().setActive(Active.INATIVO);
+        InboundOrder savedInboundOrder = setupGenericInboundOrder();
+        UpdateItemBatchDto createFeijaoItemBatch = new UpdateItemBatchDto(
+                null,
+                2L,
+                5,
+                LocalDate.of(2021, 8, 20),
+                LocalDateTime.of(2021, 3, 20, 1, 30, 10),
+                2L,
+                LocalDate.of(2020, 11, 20),
+                BigDecimal.valueOf(60)
+        );
+
+        // When
+        Mockito.when(inboundOrderRepo.findWithSectionById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(savedInboundOrder));
+        Mockito.when(itemBatchRepo.sumVolumeByInboundOrderId(savedInboundOrder.getId())).thenReturn(10L);
+        Mockito.when(productRepo.findAllWithSellerByIdIn(Set.of(2L))).thenReturn(List.of(products.get(1)));
+
+        // Then
+        assertThatThrownBy(
+                () -> inboundOrderService.patchItemBatch(1L, List.of(createFeijaoItemBatch))
+        ).isInstanceOf(BusinessRuleException.class);
+        Mockito.verify(itemBatchRepo, Mockito.never()).saveAll(ArgumentMatchers.anyList());
     }
 
     private InboundOrder setupGenericInboundOrder() {
@@ -0,0 +1,305 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.dto.StockBatchDto;
+import com.grupo6.projetointegrador.factory.InboundOrderFactory;
+import com.grupo6.projetointegrador.factory.WarehouseFactory;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
+import com.grupo6.projetointegrador.repository.ItemBatchRepo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemBatchStockIndexTest {
+    @Mock
+    private ItemBatchRepo itemBatchRepo;
+
+    @Test
+    void findValidItemBatchId_getFirstExpiringBatch_whenDueDateAndQuantityAreValid() {
+        // Given
+        ItemBatchStockIndex stockIndex = new ItemBatchStockIndex(itemBatchRepo, true, 16);
+        Mockito.when(itemBatchRepo.findFirstSellableBatches(ItemBatchStockIndex.firstValidDueDate(), 16)).thenReturn(List.of(
+                genericStockBatchDto(1L, LocalDate.now().plusDays(10), 50),
+                genericStockBatchDto(2L, LocalDate.now().plusDays(40), 50),
+                genericStockBatchDto(3L, LocalDate.now().plusDays(30), 1),
+                genericStockBatchDto(4L, LocalDate.now().plusDays(35), 50)
+        ));
+
+        // When
+        stockIndex.load();
+
+        // Then
+        assertThat(stockIndex.findValidItemBatchId(1L, 5)).contains(4L);
+        assertThat(stockIndex.findValidItemBatchId(1L, 1)).contains(3L);
+        assertThat(stockIndex.findValidItemBatchId(1L, 51)).isEmpty();
+        assertThat(stockIndex.findValidItemBatchId(2L, 1)).isEmpty();
+    }
+
+    @Test
+    void put_updatesQuantityAndRemovesEmptyBatch() {
+        // Given
+        ItemBatchStockIndex stockIndex = new ItemBatchStockIndex(itemBatchRepo, true, 16);
+        ItemBatch itemBatch = InboundOrderFactory.build(WarehouseFactory.build().getSections().get(0))
+                .getItemBatches().get(0);
+
+        // When / Then
+        stockIndex.put(itemBatch);
+        assertThat(stockIndex.findValidItemBatchId(1L, 10)).contains(itemBatch.getId());
+
+        itemBatch.setProductQuantity(4);
+        stockIndex.put(itemBatch);
+        assertThat(stockIndex.findValidItemBatchId(1L, 10)).isEmpty();
+        assertThat(stockIndex.findValidItemBatchId(1L, 4)).contains(itemBatch.getId());
+
+        itemBatch.setProductQuantity(0);
+        stockIndex.put(itemBatch);
+        assertThat(stockIndex.findValidItemBatchId(1L, 1)).isEmpty();
+    }
+
+    @Test
+    void decrement_keepsEveryDecrement_whenOrdersRunConcurrently() throws InterruptedException {
+        // Given
+        ItemBatchStockIndex stockIndex = new ItemBatchStockIndex(itemBatchRepo, true, 16);
+        ItemBatch itemBatch = InboundOrderFactory.build(WarehouseFactory.build().getSections().get(0))
+                .getItemBatches().get(0);
+        itemBatch.setProductQuantity(1000);
+        stockIndex.put(itemBatch);
+
+        // When
+        decrementConcurrently(() -> stockIndex.decrement(Map.of(itemBatch.getId(), 1)), 4, 200);
+
+        // Then
+        assertThat(stockIndex.findValidItemBatchId(1L, 200)).contains(itemBatch.getId());
+        assertThat(stockIndex.findValidItemBatchId(1L, 201)).isEmpty();
+    }
+
+    @Test
+    void removeSeller_removesSellerBatches() {
+        // Given
+        ItemBatchStockIndex stockIndex = new ItemBatchStockIndex(itemBatchRepo, true, 16);
+        ItemBatch itemBatch = InboundOrderFactory.build(WarehouseFactory.build().getSections().get(0))
+                .getItemBatches().get(0);
+        stockIndex.put(itemBatch);
+
+        // When
+        stockIndex.removeSeller(itemBatch.getProduct().getSeller().getId());
+
+        // Then
+        assertThat(stockIndex.findValidItemBatchId(1L, 1)).isEmpty();
+    }
+
+    @Test
+    void evict_removesStaleBatch() {
+        // Given
+        ItemBatchStockIndex stockIndex = new ItemBatchStockIndex(itemBatchRepo, true, 16);
+        ItemBatch itemBatch = InboundOrderFactory.build(WarehouseFactory.build().getSections().get(0))
+                .getItemBatches().get(0);
+        stockIndex.put(itemBatch);
+
+        // When
+        stockIndex.evict(List.of(itemBatch.getId()));
+
+        // Then
+        assertThat(stockIndex.findValidItemBatchId(1L, 1)).isEmpty();
+    }
+
+    @Test
+    void checkConsistency_rebuildsIndex_whenDatabaseDiffers() {
+        // Given
+        ItemBatchStockIndex stockIndex = new ItemBatchStockIndex(itemBatchRepo, true, 16);
+        ItemBatch itemBatch = InboundOrderFactory.build(WarehouseFactory.build().getSections().get(0))
+                .getItemBatches().get(0);
+        stockIndex.put(itemBatch);
+        Mockito.when(itemBatchRepo.findFirstSellableBatches(ItemBatchStockIndex.firstValidDueDate(), 16)).thenReturn(List.of(
+                genericStockBatchDto(itemBatch.getId(), itemBatch.getDueDate(), 2)
+        ));
+
+        // When
+        int divergent = stockIndex.checkConsistency();
+
+        // Then
+        assertThat(divergent).isEqualTo(1);
+        assertThat(stockIndex.findValidItemBatchId(1L, 3)).isEmpty();
+        assertThat(stockIndex.checkConsistency()).isZero();
+    }
+
+    @Test
+    void checkConsistency_keepsIndex_whenTruncatedProductLeftOutLaterBatches() {
+        // Given
+        ItemBatchStockIndex stockIndex = new ItemBatchStockIndex(itemBatchRepo, true, 2);
+        Mockito.when(itemBatchRepo.findFirstSellableBatches(ItemBatchStockIndex.firstValidDueDate(), 2))
+                .thenReturn(List.of(
+                        genericStockBatchDto(1L, LocalDate.now().plusDays(30), 1),
+                        genericStockBatchDto(2L, LocalDate.now().plusDays(40), 1)
+                ))
+                .thenReturn(List.of(
+                        genericStockBatchDto(2L, LocalDate.now().plusDays(40), 1),
+                        genericStockBatchDto(3L, LocalDate.now().plusDays(50), 1)
+                ));
+        stockIndex.load();
+        stockIndex.decrement(Map.of(1L, 1));
+
+        // When
+        int divergent = stockIndex.checkConsistency();
+
+        // Then
+        assertThat(divergent).isZero();
+        assertThat(stockIndex.findValidItemBatchId(1L, 1)).contains(2L);
+    }
+
+    @Test
+    void checkConsistency_skipsRebuild_whenIndexChangesWhileDatabaseIsRead() {
+        // Given
+        ItemBatchStockIndex stockIndex = new ItemBatchStockIndex(itemBatchRepo, true, 16);
+        ItemBatch itemBatch = genericItemBatch(1L, LocalDate.now().plusDays(30), 10);
+        Mockito.when(itemBatchRepo.findFirstSellableBatches(ItemBatchStockIndex.firstValidDueDate(), 16))
+                .thenAnswer(invocation -> {
+                    stockIndex.put(itemBatch);
+                    return List.of();
+                });
+
+        // When
+        int divergent = stockIndex.checkConsistency();
+
+        // Then
+        assertThat(divergent).isZero();
+        assertThat(stockIndex.findValidItemBatchId(1L, 10)).contains(1L);
+    }
+
+    @Test
+    void load_keepsOnlyFirstBatchesOfProduct_whenProductIsFull() {
+        // Given
+        ItemBatchStockIndex stockIndex = new ItemBatchStockIndex(itemBatchRepo, true, 2);
+        Mockito.when(itemBatchRepo.findFirstSellableBatches(ItemBatchStockIndex.firstValidDueDate(), 2)).thenReturn(List.of(
+                genericStockBatchDto(1L, LocalDate.now().plusDays(30), 1),
+                genericStockBatchDto(2L, LocalDate.now().plusDays(40), 1)
+        ));
+        stockIndex.load();
+
+        // When
+        stockIndex.putAll(List.of(genericItemBatch(3L, LocalDate.now().plusDays(50), 50)));
+
+        // Then
+        assertThat(stockIndex.findValidItemBatchId(1L, 5)).isEmpty();
+        assertThat(stockIndex.findValidItemBatchId(1L, 1)).contains(1L);
+    }
+
+    @Test
+    void put_dropsLastExpiringBatch_whenEarlierBatchFillsProduct() {
+        // Given
+        ItemBatchStockIndex stockIndex = new ItemBatchStockIndex(itemBatchRepo, true, 2);
+        stockIndex.putAll(List.of(
+                genericItemBatch(1L, LocalDate.now().plusDays(30), 1),
+                genericItemBatch(2L, LocalDate.now().plusDays(40), 50)
+        ));
+
+        // When
+        stockIndex.put(genericItemBatch(3L, LocalDate.now().plusDays(35), 1));
+        stockIndex.put(genericItemBatch(4L, LocalDate.now().plusDays(60), 50));
+
+        // Then
+        assertThat(stockIndex.findValidItemBatchId(1L, 5)).isEmpty();
+        assertThat(stockIndex.findValidItemBatchId(1L, 1)).contains(1L);
+        stockIndex.put(genericItemBatch(1L, LocalDate.now().plusDays(30), 0));
+        assertThat(stockIndex.findValidItemBatchId(1L, 1)).contains(3L);
+    }
+
+    @Test
+    void putAll_addsSellerBatchesBack_afterSellerWasRemoved() {
+        // Given
+        ItemBatchStockIndex stockIndex = new ItemBatchStockIndex(itemBatchRepo, true, 16);
+        ItemBatch itemBatch = InboundOrderFactory.build(WarehouseFactory.build().getSections().get(0))
+                .getItemBatches().get(0);
+        stockIndex.put(itemBatch);
+        stockIndex.removeSeller(itemBatch.getProduct().getSeller().getId());
+
+        // When
+        stockIndex.putAll(List.of(itemBatch));
+
+        // Then
+        assertThat(stockIndex.findValidItemBatchId(1L, 1)).contains(itemBatch.getId());
+    }
+
+    @Test
+    void findValidItemBatchId_returnsEmpty_whenIndexIsDisabled() {
+        // Given
+        ItemBatchStockIndex stockIndex = new ItemBatchStockIndex(itemBatchRepo, false, 16);
+        ItemBatch itemBatch = InboundOrderFactory.build(WarehouseFactory.build().getSections().get(0))
+                .getItemBatches().get(0);
+
+        // When
+        stockIndex.put(itemBatch);
+
+        // Then
+        assertThat(stockIndex.findValidItemBatchId(1L, 1)).isEmpty();
+        Mockito.verifyNoInteractions(itemBatchRepo);
+    }
+
+    private static void decrementConcurrently(Runnable decrement, int threads, int decrementsPerThread)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int thread = 0; thread < threads; thread++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < decrementsPerThread; i++) {
+                    decrement.run();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private ItemBatch genericItemBatch(Long itemBatchId, LocalDate dueDate, int quantity) {
+        ItemBatch itemBatch = InboundOrderFactory.build(WarehouseFactory.build().getSections().get(0))
+                .getItemBatches().get(0);
+        itemBatch.setId(itemBatchId);
+        itemBatch.setDueDate(dueDate);
+        itemBatch.setProductQuantity(quantity);
+        return itemBatch;
+    }
+
+    private StockBatchDto genericStockBatchDto(Long itemBatchId, LocalDate dueDate, int quantity) {
+        return new StockBatchDto() {
+            @Override
+            public Long getItemBatchId() {
+                return itemBatchId;
+            }
+
+            @Override
+            public Long getProductId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getSellerId() {
+                return 1L;
+            }
+
+            @Override
+            public LocalDate getDueDate() {
+                return dueDate;
+            }
+
+            @Override
+            public int getQuantity() {
+                return quantity;
+            }
+        };
+    }
+}
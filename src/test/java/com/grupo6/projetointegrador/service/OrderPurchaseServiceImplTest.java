@@ -21,6 +21,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -37,6 +38,18 @@ public class OrderPurchaseServiceImplTest {
     @Mock
     private ItemBatchRepo batchRepo;
 
+    @Mock
+    private ItemBatchStockIndex stockIndex;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private ProductWarehouseStockService productWarehouseStockService;
+
+    @Mock
+    private ExpiryTimeline expiryTimeline;
+
     @InjectMocks
     private OrderPurchaseServiceImpl orderPurchaseService;
 
@@ -49,18 +62,82 @@ public class OrderPurchaseServiceImplTest {
 
         OrderPurchase orderPurchase = setupGenericOrderPurchase(product);
         ProductOrder productOrder = orderPurchase.getProductOrders().get(0);
-        int initialProductQuantity = itemBatch.getProductQuantity();
 
         // When
-        Mockito.when(orderPurchaseRepo.findById(orderId)).thenReturn(Optional.of(orderPurchase));
-        Mockito.when(batchRepo.findByDueDate21AndProductIdAndQty(product.getId(), productOrder.getQuantity()))
+        Mockito.when(orderPurchaseRepo.findWithProductOrdersById(orderId)).thenReturn(Optional.of(orderPurchase));
+        Mockito.when(orderPurchaseRepo.updateStatusById(orderId, StatusOrder.ABERTO, StatusOrder.FINALIZADO)).thenReturn(1);
+        Mockito.when(batchRepo.findByDueDate21AndProductIdAndQty(product.getId(), productOrder.getQuantity(),
+                ItemBatchStockIndex.firstValidDueDate()))
                 .thenReturn(Optional.of(itemBatch));
         String result = orderPurchaseService.endOrder(orderId);
 
         // Then
         assertThat(result).isEqualTo("Pedido finalizado com sucesso!");
-        assertThat(orderPurchase.getStatus()).isEqualTo(StatusOrder.FINALIZADO);
-        assertThat(initialProductQuantity).isGreaterThan(itemBatch.getProductQuantity());
+        Mockito.verify(batchRepo).decrementStock(Map.of(itemBatch.getId(), productOrder.getQuantity()));
+    }
+
+    @Test
+    void endOrder_settlesReservations_whenOrderHasReservedStock() {
+        // Given
+        Long orderId = 1L;
+        ItemBatch itemBatch = setupGenericItemBatch();
+        OrderPurchase orderPurchase = setupGenericOrderPurchase(itemBatch.getProduct());
+
+        // When
+        Mockito.when(orderPurchaseRepo.findWithProductOrdersById(orderId)).thenReturn(Optional.of(orderPurchase));
+        Mockito.when(orderPurchaseRepo.updateStatusById(orderId, StatusOrder.ABERTO, StatusOrder.FINALIZADO)).thenReturn(1);
+        Mockito.when(stockReservationService.settle(orderId)).thenReturn(1);
+        String result = orderPurchaseService.endOrder(orderId);
+
+        // Then
+        assertThat(result).isEqualTo("Pedido finalizado com sucesso!");
+        Mockito.verifyNoInteractions(batchRepo);
+    }
+
+    @Test
+    void endOrder_decrementsAnotherBatch_whenChosenBatchNoLongerHasQuantity() {
+        // Given
+        Long orderId = 1L;
+        ItemBatch itemBatch = setupGenericItemBatch();
+        ItemBatch otherItemBatch = setupGenericItemBatch();
+        otherItemBatch.setId(2L);
+        Product product = itemBatch.getProduct();
+        assertThat(otherItemBatch).isNotSameAs(itemBatch);
+
+        OrderPurchase orderPurchase = setupGenericOrderPurchase(product);
+
+        // When
+        Mockito.when(orderPurchaseRepo.findWithProductOrdersById(orderId)).thenReturn(Optional.of(orderPurchase));
+        Mockito.when(orderPurchaseRepo.updateStatusById(orderId, StatusOrder.ABERTO, StatusOrder.FINALIZADO)).thenReturn(1);
+        Mockito.when(stockIndex.findValidItemBatchId(product.getId(), 2)).thenReturn(Optional.of(itemBatch.getId()));
+        Mockito.when(batchRepo.decrementStock(Map.of(itemBatch.getId(), 2))).thenReturn(List.of(itemBatch.getId()));
+        Mockito.when(batchRepo.findByDueDate21AndProductIdAndQty(product.getId(), 2, ItemBatchStockIndex.firstValidDueDate()))
+                .thenReturn(Optional.of(otherItemBatch));
+        orderPurchaseService.endOrder(orderId);
+
+        // Then
+        Mockito.verify(batchRepo).decrementStock(Map.of(itemBatch.getId(), 2));
+        Mockito.verify(stockIndex).evict(List.of(itemBatch.getId()));
+        Mockito.verify(batchRepo).decrementStock(Map.of(otherItemBatch.getId(), 2));
+        Mockito.verify(stockIndex).decrement(Map.of(otherItemBatch.getId(), 2));
+        Mockito.verify(productWarehouseStockService).removeStock(Map.of(otherItemBatch.getId(), 2));
+    }
+
+    @Test
+    void endOrder_throwBusinessRuleException_whenReservationsWereReleased() {
+        // Given
+        Long orderId = 1L;
+        OrderPurchase orderPurchase = setupGenericOrderPurchase(setupGenericItemBatch().getProduct());
+
+        // When
+        Mockito.when(orderPurchaseRepo.findWithProductOrdersById(orderId)).thenReturn(Optional.of(orderPurchase));
+        Mockito.when(orderPurchaseRepo.updateStatusById(orderId, StatusOrder.ABERTO, StatusOrder.FINALIZADO)).thenReturn(1);
+        Mockito.when(stockReservationService.hasReservations(orderId)).thenReturn(true);
+
+        // Then
+        assertThatThrownBy(() -> orderPurchaseService.endOrder(orderId))
+                .isInstanceOf(BusinessRuleException.class);
+        Mockito.verifyNoInteractions(batchRepo);
     }
 
     @Test
@@ -69,7 +146,7 @@ public class OrderPurchaseServiceImplTest {
         Long orderId = 1L;
 
         // When / Then
-        Mockito.when(orderPurchaseRepo.findById(orderId)).thenReturn(Optional.empty());
+        Mockito.when(orderPurchaseRepo.findWithProductOrdersById(orderId)).thenReturn(Optional.empty());
         assertThatThrownBy(() -> orderPurchaseService.endOrder(orderId))
                 .isInstanceOf(NotFoundException.class);
     }
@@ -84,15 +161,46 @@ public class OrderPurchaseServiceImplTest {
         OrderPurchase orderPurchase = setupGenericOrderPurchase(product);
         orderPurchase.setStatus(StatusOrder.FINALIZADO);
         // When / Then
-        Mockito.when(orderPurchaseRepo.findById(orderId)).thenReturn(Optional.of(orderPurchase));
+        Mockito.when(orderPurchaseRepo.findWithProductOrdersById(orderId)).thenReturn(Optional.of(orderPurchase));
         assertThatThrownBy(() -> orderPurchaseService.endOrder(orderId))
                 .isInstanceOf(BusinessRuleException.class);
     }
 
+    @Test
+    void cancelOrder_cancelOrderAndReleaseStock_whenOrderHasAbertoStatus() {
+        // Given
+        Long orderId = 1L;
+        OrderPurchase orderPurchase = setupGenericOrderPurchase(setupGenericItemBatch().getProduct());
+
+        // When
+        Mockito.when(orderPurchaseRepo.findById(orderId)).thenReturn(Optional.of(orderPurchase));
+        Mockito.when(orderPurchaseRepo.updateStatusById(orderId, StatusOrder.ABERTO, StatusOrder.CANCELADO)).thenReturn(1);
+        String result = orderPurchaseService.cancelOrder(orderId);
+
+        // Then
+        assertThat(result).isEqualTo("Pedido cancelado com sucesso!");
+        Mockito.verify(stockReservationService).release(orderId);
+    }
+
+    @Test
+    void cancelOrder_throwBusinessRuleException_whenOrderStatusIsFinalizado() {
+        // Given
+        Long orderId = 1L;
+        OrderPurchase orderPurchase = setupGenericOrderPurchase(setupGenericItemBatch().getProduct());
+        orderPurchase.setStatus(StatusOrder.FINALIZADO);
+
+        // When / Then
+        Mockito.when(orderPurchaseRepo.findById(orderId)).thenReturn(Optional.of(orderPurchase));
+        assertThatThrownBy(() -> orderPurchaseService.cancelOrder(orderId))
+                .isInstanceOf(BusinessRuleException.class);
+        Mockito.verifyNoInteractions(stockReservationService);
+    }
+
     @Test
     void createOrderPurchase_createsOrderPurchase_whenDtoValidAndBuyerExists() {
         // Given
         ItemBatch itemBatch = setupGenericItemBatch();
+        StockReservation stockReservation = new StockReservation(itemBatch, 2);
 
         Buyer buyer = new Buyer(1L, null);
         CreateOrderPurchaseDto createOrderPurchaseDto = new CreateOrderPurchaseDto(
@@ -103,12 +211,53 @@ public class OrderPurchaseServiceImplTest {
 
         // When
         Mockito.when(buyerRepo.findById(1L)).thenReturn(Optional.of(buyer));
-        Mockito.when(batchRepo.findByDueDate21AndProductIdAndQty(1L, 2))
-                .thenReturn(Optional.of(itemBatch));
+        Mockito.when(stockReservationService.reserveAll(Map.of(1L, 2))).thenReturn(List.of(stockReservation));
         TotalPriceDto totalPriceDto = orderPurchaseService.createOrderPurchase(createOrderPurchaseDto);
         // Then
         assertThat(totalPriceDto).isNotNull();
         assertThat(totalPriceDto.getTotalPrice()).isEqualTo(10);
+        Mockito.verify(stockReservationService).confirm(Mockito.any(OrderPurchase.class), Mockito.eq(List.of(stockReservation)));
+    }
+
+    @Test
+    void createOrderPurchase_reservesSummedQuantities_whenProductIsOrderedInSeveralLines() {
+        // Given
+        ItemBatch itemBatch = setupGenericItemBatch();
+        StockReservation stockReservation = new StockReservation(itemBatch, 5);
+
+        Buyer buyer = new Buyer(1L, null);
+        CreateOrderPurchaseDto createOrderPurchaseDto = new CreateOrderPurchaseDto(
+                1L,
+                LocalDate.now(),
+                List.of(new ProductOrderDto(1L, 2), new ProductOrderDto(1L, 3))
+        );
+
+        // When
+        Mockito.when(buyerRepo.findById(1L)).thenReturn(Optional.of(buyer));
+        Mockito.when(stockReservationService.reserveAll(Map.of(1L, 5))).thenReturn(List.of(stockReservation));
+        TotalPriceDto totalPriceDto = orderPurchaseService.createOrderPurchase(createOrderPurchaseDto);
+
+        // Then
+        assertThat(totalPriceDto.getTotalPrice()).isEqualTo(25);
+        Mockito.verify(stockReservationService).reserveAll(Map.of(1L, 5));
+    }
+
+    @Test
+    void createOrderPurchase_throwBusinessRuleException_whenStockCannotBeReserved() {
+        // Given
+        Buyer buyer = new Buyer(1L, null);
+        CreateOrderPurchaseDto createOrderPurchaseDto = new CreateOrderPurchaseDto(
+                1L,
+                LocalDate.now(),
+                List.of(new ProductOrderDto(1L, 2))
+        );
+
+        // When / Then
+        Mockito.when(buyerRepo.findById(1L)).thenReturn(Optional.of(buyer));
+        Mockito.when(stockReservationService.reserveAll(Map.of(1L, 2))).thenThrow(BusinessRuleException.class);
+        assertThatThrownBy(() -> orderPurchaseService.createOrderPurchase(createOrderPurchaseDto))
+                .isInstanceOf(BusinessRuleException.class);
+        Mockito.verify(orderPurchaseRepo, Mockito.never()).save(Mockito.any());
     }
 
     @Test
@@ -0,0 +1,120 @@
+package com.grupo6.projetointegrador.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grupo6.projetointegrador.dto.ProductStockDto;
+import com.grupo6.projetointegrador.model.enumeration.Category;
+import com.grupo6.projetointegrador.repository.ProductRepo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductCatalogueExporterTest {
+    @Mock
+    private ProductRepo productRepo;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void export_writesOneProductPerLine_readingPagesAfterTheLastId() throws IOException {
+        // Given
+        ProductCatalogueExporter exporter = new ProductCatalogueExporter(productRepo, objectMapper, 2);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Mockito.when(productRepo.findProductStockAfter(0L, PageRequest.of(0, 2))).thenReturn(List.of(
+                genericProductStockDto(1L, Category.FRESCO, 30),
+                genericProductStockDto(4L, Category.CONGELADO, 0)
+        ));
+        Mockito.when(productRepo.findProductStockAfter(4L, PageRequest.of(0, 2))).thenReturn(List.of(
+                genericProductStockDto(7L, Category.REFRIGERADO, 5)
+        ));
+
+        // When
+        long written = exporter.export(outputStream);
+
+        // Then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(written).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("productId").asLong()).isEqualTo(1L);
+        assertThat(first.get("category").asText()).isEqualTo("FRESCO");
+        assertThat(first.get("price").decimalValue()).isEqualByComparingTo("10.50");
+        assertThat(first.get("quantity").asLong()).isEqualTo(30L);
+        assertThat(objectMapper.readTree(lines[1]).get("quantity").asLong()).isZero();
+        assertThat(objectMapper.readTree(lines[2]).get("productId").asLong()).isEqualTo(7L);
+    }
+
+    @Test
+    void export_readNextPage_whenPageIsFull() throws IOException {
+        // Given
+        ProductCatalogueExporter exporter = new ProductCatalogueExporter(productRepo, objectMapper, 1);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Mockito.when(productRepo.findProductStockAfter(0L, PageRequest.of(0, 1))).thenReturn(List.of(
+                genericProductStockDto(1L, Category.FRESCO, 30)
+        ));
+        Mockito.when(productRepo.findProductStockAfter(1L, PageRequest.of(0, 1))).thenReturn(List.of());
+
+        // When
+        long written = exporter.export(outputStream);
+
+        // Then
+        assertThat(written).isEqualTo(1);
+        Mockito.verify(productRepo, Mockito.times(2)).findProductStockAfter(Mockito.anyLong(), Mockito.any());
+    }
+
+    @Test
+    void export_writesNothing_whenThereAreNoProducts() throws IOException {
+        // Given
+        ProductCatalogueExporter exporter = new ProductCatalogueExporter(productRepo, objectMapper, 2);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Mockito.when(productRepo.findProductStockAfter(0L, PageRequest.of(0, 2))).thenReturn(List.of());
+
+        // When
+        long written = exporter.export(outputStream);
+
+        // Then
+        assertThat(written).isZero();
+        assertThat(outputStream.size()).isZero();
+    }
+
+    private ProductStockDto genericProductStockDto(Long productId, Category category, long quantity) {
+        return new ProductStockDto() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Long getSellerId() {
+                return 1L;
+            }
+
+            @Override
+            public Category getCategory() {
+                return category;
+            }
+
+            @Override
+            public BigDecimal getPrice() {
+                return new BigDecimal("10.50");
+            }
+
+            @Override
+            public long getQuantity() {
+                return quantity;
+            }
+        };
+    }
+}
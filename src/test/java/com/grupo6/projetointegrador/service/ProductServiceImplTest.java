@@ -1,16 +1,13 @@
 package com.grupo6.projetointegrador.service;
 
+import com.grupo6.projetointegrador.dto.ItemBatchLocationDto;
 import com.grupo6.projetointegrador.dto.ProductLocationDto;
 import com.grupo6.projetointegrador.dto.ProductWarehousesDto;
+import com.grupo6.projetointegrador.dto.SectionDto;
+import com.grupo6.projetointegrador.dto.StockLocationDto;
 import com.grupo6.projetointegrador.dto.WarehouseDto;
 import com.grupo6.projetointegrador.exception.NotFoundException;
-import com.grupo6.projetointegrador.factory.InboundOrderFactory;
-import com.grupo6.projetointegrador.factory.ItemBatchFactory;
-import com.grupo6.projetointegrador.factory.WarehouseFactory;
-import com.grupo6.projetointegrador.model.entity.ItemBatch;
 import com.grupo6.projetointegrador.model.entity.Product;
-import com.grupo6.projetointegrador.model.entity.Section;
-import com.grupo6.projetointegrador.model.entity.Warehouse;
 import com.grupo6.projetointegrador.model.enumeration.Category;
 import com.grupo6.projetointegrador.repository.ItemBatchRepo;
 import com.grupo6.projetointegrador.repository.ProductRepo;
@@ -22,8 +19,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,14 +37,20 @@ public class ProductServiceImplTest {
     @Mock
     private ItemBatchRepo itemBatchRepo;
 
+    @Mock
+    private ProductWarehouseStockService productWarehouseStockService;
+
+    @Mock
+    private ProductCountCache productCountCache;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
     @Test
     void findPageableFreshProducts_returnPageableResponse() {
         Mockito.when(productRepo.findPageableProducts(ArgumentMatchers.any()))
-                .thenReturn(Page.empty());
-        PageableResponse result = productService.findPageableFreshProducts(null);
+                .thenReturn(new SliceImpl<>(List.of()));
+        PageableResponse result = productService.findPageableFreshProducts(null, false);
         assertThat(result).isNotNull();
     }
 
@@ -54,31 +59,89 @@ public class ProductServiceImplTest {
         Category category = Category.FRESCO;
 
         Mockito.when(productRepo.findProductsByCategory(ArgumentMatchers.any(), ArgumentMatchers.eq(category)))
-                .thenReturn(Page.empty());
-        PageableResponse result = productService.findProductsByCategory(null, category);
+                .thenReturn(new SliceImpl<>(List.of()));
+        PageableResponse result = productService.findProductsByCategory(null, category, false);
         assertThat(result).isNotNull();
     }
 
+    @Test
+    void findPageableFreshProducts_returnCachedTotals_whenCountIsRequested() {
+        // Given
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        List<Product> products = List.of(buildProduct(1L), buildProduct(2L));
+
+        // When
+        Mockito.when(productRepo.findPageableProducts(pageRequest)).thenReturn(new SliceImpl<>(products, pageRequest, true));
+        Mockito.when(productCountCache.countProducts()).thenReturn(5L);
+        PageableResponse result = productService.findPageableFreshProducts(pageRequest, true);
+
+        // Then
+        assertThat(result.getTotalRecords()).isEqualTo(5L);
+        assertThat(result.getTotalPages()).isEqualTo(3);
+        assertThat(result.getNextCursor()).isEqualTo(2L);
+        Mockito.verify(productRepo, Mockito.never()).count();
+    }
+
+    @Test
+    void findFreshProductsAfter_returnNextCursor_whenThereAreMoreProducts() {
+        // Given
+        Long lastId = 10L;
+        int size = 2;
+        PageRequest pageRequest = PageRequest.of(0, size);
+        List<Product> products = List.of(buildProduct(11L), buildProduct(14L));
+
+        // When
+        Mockito.when(productRepo.findProductsAfter(lastId, pageRequest)).thenReturn(new SliceImpl<>(products, pageRequest, true));
+        PageableResponse result = productService.findFreshProductsAfter(lastId, size, false);
+
+        // Then
+        assertThat(result.getContent()).isEqualTo(products);
+        assertThat(result.getNextCursor()).isEqualTo(14L);
+        assertThat(result.getTotalRecords()).isNull();
+        assertThat(result.getTotalPages()).isNull();
+        Mockito.verifyNoInteractions(productCountCache);
+    }
+
+    @Test
+    void findProductsByCategoryAfter_returnNoCursor_whenItIsTheLastPage() {
+        // Given
+        Category category = Category.CONGELADO;
+        Long lastId = 10L;
+        int size = 5;
+        PageRequest pageRequest = PageRequest.of(0, size);
+        List<Product> products = List.of(buildProduct(12L));
+
+        // When
+        Mockito.when(productRepo.findProductsByCategoryAfter(category, lastId, pageRequest))
+                .thenReturn(new SliceImpl<>(products, pageRequest, false));
+        Mockito.when(productCountCache.countProductsByCategory(category)).thenReturn(6L);
+        PageableResponse result = productService.findProductsByCategoryAfter(category, lastId, size, true);
+
+        // Then
+        assertThat(result.getContent()).isEqualTo(products);
+        assertThat(result.getNextCursor()).isNull();
+        assertThat(result.getTotalRecords()).isEqualTo(6L);
+        assertThat(result.getTotalPages()).isEqualTo(2);
+    }
+
     @Test
     void findProductById_getProductLocationDtoOrderedByDueDateAsc_whenOrderValueIsV() {
         // Given
         Long productId = 1L;
         String order = "V";
-        Warehouse warehouse = WarehouseFactory.build();
-        Section section = warehouse.getSections().get(0);
-        ItemBatch itemBatch = ItemBatchFactory.build(InboundOrderFactory.build(section));
+        StockLocationDto stockLocation = genericStockLocationDto(1L, 1L, 2L);
 
         // When
         Mockito.when(productRepo.findById(1L)).thenReturn(Optional.of(new Product()));
-        Mockito.when(itemBatchRepo.findAllByProductIdOrderByDueDateAsc(productId))
-                .thenReturn(List.of(itemBatch));
+        Mockito.when(itemBatchRepo.findLocationsByProductIdOrderByDueDateAsc(productId))
+                .thenReturn(List.of(stockLocation));
         ProductLocationDto result = productService.findProductById(productId, order);
 
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getProductId()).isEqualTo(productId);
-        assertThat(result.getSectionDto().get(0).getSectionId()).isEqualTo(section.getId());
-        assertThat(result.getItemBatchLocationDto().get(0).getItemBatchId()).isEqualTo(itemBatch.getId());
+        assertThat(result.getSectionDto().get(0).getSectionId()).isEqualTo(stockLocation.getSectionId());
+        assertThat(result.getItemBatchLocationDto().get(0).getItemBatchId()).isEqualTo(stockLocation.getItemBatchId());
     }
 
     @Test
@@ -86,21 +149,19 @@ public class ProductServiceImplTest {
         // Given
         Long productId = 1L;
         String order = "L";
-        Warehouse warehouse = WarehouseFactory.build();
-        Section section = warehouse.getSections().get(0);
-        ItemBatch itemBatch = ItemBatchFactory.build(InboundOrderFactory.build(section));
+        StockLocationDto stockLocation = genericStockLocationDto(1L, 1L, 2L);
 
         // When
         Mockito.when(productRepo.findById(1L)).thenReturn(Optional.of(new Product()));
-        Mockito.when(itemBatchRepo.findAllByProductIdOrderByIdAsc(productId))
-                .thenReturn(List.of(itemBatch));
+        Mockito.when(itemBatchRepo.findLocationsByProductIdOrderByIdAsc(productId))
+                .thenReturn(List.of(stockLocation));
         ProductLocationDto result = productService.findProductById(productId, order);
 
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getProductId()).isEqualTo(productId);
-        assertThat(result.getSectionDto().get(0).getSectionId()).isEqualTo(section.getId());
-        assertThat(result.getItemBatchLocationDto().get(0).getItemBatchId()).isEqualTo(itemBatch.getId());
+        assertThat(result.getSectionDto().get(0).getSectionId()).isEqualTo(stockLocation.getSectionId());
+        assertThat(result.getItemBatchLocationDto().get(0).getItemBatchId()).isEqualTo(stockLocation.getItemBatchId());
     }
 
     @Test
@@ -108,21 +169,19 @@ public class ProductServiceImplTest {
         // Given
         Long productId = 1L;
         String order = "Q";
-        Warehouse warehouse = WarehouseFactory.build();
-        Section section = warehouse.getSections().get(0);
-        ItemBatch itemBatch = ItemBatchFactory.build(InboundOrderFactory.build(section));
+        StockLocationDto stockLocation = genericStockLocationDto(1L, 1L, 2L);
 
         // When
         Mockito.when(productRepo.findById(1L)).thenReturn(Optional.of(new Product()));
-        Mockito.when(itemBatchRepo.findAllByProductIdOrderByProductQuantityAsc(productId))
-                .thenReturn(List.of(itemBatch));
+        Mockito.when(itemBatchRepo.findLocationsByProductIdOrderByProductQuantityAsc(productId))
+                .thenReturn(List.of(stockLocation));
         ProductLocationDto result = productService.findProductById(productId, order);
 
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getProductId()).isEqualTo(productId);
-        assertThat(result.getSectionDto().get(0).getSectionId()).isEqualTo(section.getId());
-        assertThat(result.getItemBatchLocationDto().get(0).getItemBatchId()).isEqualTo(itemBatch.getId());
+        assertThat(result.getSectionDto().get(0).getSectionId()).isEqualTo(stockLocation.getSectionId());
+        assertThat(result.getItemBatchLocationDto().get(0).getItemBatchId()).isEqualTo(stockLocation.getItemBatchId());
     }
 
     @Test
@@ -130,21 +189,42 @@ public class ProductServiceImplTest {
         // Given
         Long productId = 1L;
         String order = "UNKNOWN";
-        Warehouse warehouse = WarehouseFactory.build();
-        Section section = warehouse.getSections().get(0);
-        ItemBatch itemBatch = ItemBatchFactory.build(InboundOrderFactory.build(section));
+        StockLocationDto stockLocation = genericStockLocationDto(1L, 1L, 2L);
 
         // When
         Mockito.when(productRepo.findById(1L)).thenReturn(Optional.of(new Product()));
-        Mockito.when(itemBatchRepo.findAllByProductId(productId))
-                .thenReturn(List.of(itemBatch));
+        Mockito.when(itemBatchRepo.findLocationsByProductId(productId))
+                .thenReturn(List.of(stockLocation));
         ProductLocationDto result = productService.findProductById(productId, order);
 
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getProductId()).isEqualTo(productId);
-        assertThat(result.getSectionDto().get(0).getSectionId()).isEqualTo(section.getId());
-        assertThat(result.getItemBatchLocationDto().get(0).getItemBatchId()).isEqualTo(itemBatch.getId());
+        assertThat(result.getSectionDto().get(0).getSectionId()).isEqualTo(stockLocation.getSectionId());
+        assertThat(result.getItemBatchLocationDto().get(0).getItemBatchId()).isEqualTo(stockLocation.getItemBatchId());
+    }
+
+    @Test
+    void findProductById_getOneSectionDtoPerInboundOrder_whenBatchesShareInboundOrders() {
+        // Given
+        Long productId = 1L;
+        String order = "V";
+        List<StockLocationDto> stockLocations = List.of(
+                genericStockLocationDto(1L, 1L, 2L),
+                genericStockLocationDto(2L, 2L, 3L),
+                genericStockLocationDto(3L, 1L, 2L)
+        );
+
+        // When
+        Mockito.when(productRepo.findById(1L)).thenReturn(Optional.of(new Product()));
+        Mockito.when(itemBatchRepo.findLocationsByProductIdOrderByDueDateAsc(productId))
+                .thenReturn(stockLocations);
+        ProductLocationDto result = productService.findProductById(productId, order);
+
+        // Then
+        assertThat(result.getSectionDto()).extracting(SectionDto::getSectionId).containsExactly(2L, 3L);
+        assertThat(result.getItemBatchLocationDto()).extracting(ItemBatchLocationDto::getItemBatchId)
+                .containsExactly(1L, 2L, 3L);
     }
 
     @Test
@@ -167,14 +247,14 @@ public class ProductServiceImplTest {
 
         // When / Then
         Mockito.when(productRepo.findById(1L)).thenReturn(Optional.of(new Product()));
-        Mockito.when(itemBatchRepo.findAllByProductIdOrderByProductQuantityAsc(productId))
+        Mockito.when(itemBatchRepo.findLocationsByProductIdOrderByProductQuantityAsc(productId))
                 .thenReturn(List.of());
         assertThatThrownBy(() -> productService.findProductById(productId, order))
                 .isInstanceOf(NotFoundException.class);
     }
 
     @Test
-    void findProductWarehouse_getProductWarehousesDto_whenProductRepoFindsIt() {
+    void findProductWarehouse_getProductWarehousesDto_whenStockSummaryFindsIt() {
         // Given
         Long productId = 1L;
         WarehouseDto warehouseDto = new WarehouseDto() {
@@ -190,7 +270,7 @@ public class ProductServiceImplTest {
         };
 
         // When
-        Mockito.when(productRepo.findWarehousesByProduct(productId))
+        Mockito.when(productWarehouseStockService.findWarehouses(productId))
                 .thenReturn(List.of(warehouseDto));
         ProductWarehousesDto result = productService.findProductWarehouse(productId);
 
@@ -199,16 +279,56 @@ public class ProductServiceImplTest {
     }
 
     @Test
-    void findProductWarehouse_getNull_whenProductRepoReturnsEmptyList() {
+    void findProductWarehouse_getNull_whenStockSummaryReturnsEmptyList() {
         // Given
         Long productId = 1L;
 
         // When
-        Mockito.when(productRepo.findWarehousesByProduct(productId))
+        Mockito.when(productWarehouseStockService.findWarehouses(productId))
                 .thenReturn(List.of());
         ProductWarehousesDto result = productService.findProductWarehouse(productId);
 
         // Then
         assertThat(result).isNull();
     }
+
+    private static Product buildProduct(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+
+    private static StockLocationDto genericStockLocationDto(Long itemBatchId, Long inboundOrderId, Long sectionId) {
+        return new StockLocationDto() {
+            @Override
+            public Long getItemBatchId() {
+                return itemBatchId;
+            }
+
+            @Override
+            public int getProductQuantity() {
+                return 10;
+            }
+
+            @Override
+            public LocalDate getDueDate() {
+                return LocalDate.now().plusDays(30);
+            }
+
+            @Override
+            public Long getInboundOrderId() {
+                return inboundOrderId;
+            }
+
+            @Override
+            public Long getSectionId() {
+                return sectionId;
+            }
+
+            @Override
+            public Long getWarehouseId() {
+                return 1L;
+            }
+        };
+    }
 }
@@ -0,0 +1,157 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.dto.ProductWarehouseStockDto;
+import com.grupo6.projetointegrador.dto.WarehouseDto;
+import com.grupo6.projetointegrador.factory.InboundOrderFactory;
+import com.grupo6.projetointegrador.factory.WarehouseFactory;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
+import com.grupo6.projetointegrador.model.entity.ProductWarehouseStockId;
+import com.grupo6.projetointegrador.model.enumeration.Active;
+import com.grupo6.projetointegrador.repository.ItemBatchRepo;
+import com.grupo6.projetointegrador.repository.ProductRepo;
+import com.grupo6.projetointegrador.repository.ProductWarehouseStockRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductWarehouseStockServiceImplTest {
+    @Mock
+    private ProductWarehouseStockRepo productWarehouseStockRepo;
+
+    @Mock
+    private ProductRepo productRepo;
+
+    @Mock
+    private ItemBatchRepo itemBatchRepo;
+
+    private ProductWarehouseStockServiceImpl productWarehouseStockService;
+
+    @BeforeEach
+    void setup() {
+        productWarehouseStockService = new ProductWarehouseStockServiceImpl(
+                productWarehouseStockRepo, productRepo, itemBatchRepo, 1000);
+    }
+
+    @Test
+    void findWarehouses_getWarehousesWithStock_whenProductIsInSummary() {
+        // Given
+        Mockito.when(productWarehouseStockRepo.findWarehousesByProductId(1L))
+                .thenReturn(List.of(warehouseDto(1L, 10), warehouseDto(2L, 0)));
+
+        // When
+        List<WarehouseDto> result = productWarehouseStockService.findWarehouses(1L);
+
+        // Then
+        assertThat(result).extracting(WarehouseDto::getWarehouse).containsExactly(1L);
+        Mockito.verifyNoInteractions(productRepo);
+    }
+
+    @Test
+    void findWarehouses_sumBatchesWithoutWriting_whenProductIsNotInSummary() {
+        // Given
+        Mockito.when(productWarehouseStockRepo.findWarehousesByProductId(1L)).thenReturn(List.of());
+        Mockito.when(productRepo.findWarehousesByProduct(1L)).thenReturn(List.of(warehouseDto(1L, 10)));
+
+        // When
+        List<WarehouseDto> result = productWarehouseStockService.findWarehouses(1L);
+
+        // Then
+        assertThat(result).extracting(WarehouseDto::getQuantity).containsExactly(10);
+        Mockito.verify(productWarehouseStockRepo, Mockito.never()).addQuantities(ArgumentMatchers.any());
+    }
+
+    @Test
+    void addStock_addsQuantitiesOfAllRowsInOneCall() {
+        // Given
+        ItemBatch itemBatch = setupGenericItemBatch();
+        ItemBatch otherItemBatch = setupGenericItemBatch();
+        otherItemBatch.setId(2L);
+        otherItemBatch.getInboundOrder().getWarehouse().setId(2L);
+
+        // When
+        productWarehouseStockService.addStock(List.of(itemBatch, otherItemBatch));
+
+        // Then
+        Mockito.verify(productWarehouseStockRepo).addQuantities(Map.of(
+                new ProductWarehouseStockId(1L, 1L), 10L,
+                new ProductWarehouseStockId(1L, 2L), 10L
+        ));
+        Mockito.verifyNoInteractions(productRepo);
+    }
+
+    @Test
+    void removeStock_ignoresBatch_whenSellerIsInactive() {
+        // Given
+        ItemBatch itemBatch = setupGenericItemBatch();
+        itemBatch.setSellerActive(Active.INATIVO);
+
+        // When
+        productWarehouseStockService.removeStock(List.of(itemBatch), Map.of(itemBatch.getId(), 2));
+
+        // Then
+        Mockito.verify(productWarehouseStockRepo).addQuantities(Map.of());
+    }
+
+    @Test
+    void reconcile_recountDriftedRows() {
+        // Given
+        Mockito.when(productRepo.findMaxId()).thenReturn(Optional.of(2L));
+        Mockito.when(productWarehouseStockRepo.findDriftByProductIdBetween(1L, 1000L))
+                .thenReturn(List.of(stockDto(2L, 1L, -2)));
+
+        // When
+        int drifted = productWarehouseStockService.reconcile();
+
+        // Then
+        assertThat(drifted).isEqualTo(1);
+        Mockito.verify(productWarehouseStockRepo).recountQuantities(List.of(new ProductWarehouseStockId(2L, 1L)));
+    }
+
+    private ItemBatch setupGenericItemBatch() {
+        return InboundOrderFactory.build(WarehouseFactory.build().getSections().get(0)).getItemBatches().get(0);
+    }
+
+    private WarehouseDto warehouseDto(Long warehouseId, int quantity) {
+        return new WarehouseDto() {
+            @Override
+            public Long getWarehouse() {
+                return warehouseId;
+            }
+
+            @Override
+            public int getQuantity() {
+                return quantity;
+            }
+        };
+    }
+
+    private ProductWarehouseStockDto stockDto(Long productId, Long warehouseId, long quantity) {
+        return new ProductWarehouseStockDto() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Long getWarehouse() {
+                return warehouseId;
+            }
+
+            @Override
+            public long getQuantity() {
+                return quantity;
+            }
+        };
+    }
+}
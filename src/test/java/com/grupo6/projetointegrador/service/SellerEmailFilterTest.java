@@ -0,0 +1,62 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.repository.SellerRepo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+public class SellerEmailFilterTest {
+    @Mock
+    private SellerRepo sellerRepo;
+
+    @Test
+    void mightContain_matchesLoadedEmailsIgnoringCase() {
+        // Given
+        SellerEmailFilter sellerEmailFilter = new SellerEmailFilter(sellerRepo, true, 1000, 0.01);
+        Mockito.when(sellerRepo.findAllEmails()).thenReturn(List.of("fulano.dtal@teste.com"));
+
+        // When
+        sellerEmailFilter.load();
+
+        // Then
+        assertThat(sellerEmailFilter.mightContain("fulano.dtal@teste.com")).isTrue();
+        assertThat(sellerEmailFilter.mightContain("Fulano.DTal@Teste.com")).isTrue();
+        assertThat(sellerEmailFilter.mightContain("ciclano@teste.com")).isFalse();
+    }
+
+    @Test
+    void put_addsEmail_whenOutsideTransaction() {
+        // Given
+        SellerEmailFilter sellerEmailFilter = new SellerEmailFilter(sellerRepo, true, 1000, 0.01);
+        Mockito.when(sellerRepo.findAllEmails()).thenReturn(List.of());
+        sellerEmailFilter.load();
+
+        // When
+        sellerEmailFilter.put("ciclano@teste.com");
+
+        // Then
+        assertThat(sellerEmailFilter.mightContain("ciclano@teste.com")).isTrue();
+    }
+
+    @Test
+    void mightContain_returnsTrue_whenFilterIsDisabledOrNotLoaded() {
+        // Given
+        SellerEmailFilter disabledFilter = new SellerEmailFilter(sellerRepo, false, 1000, 0.01);
+        SellerEmailFilter notLoadedFilter = new SellerEmailFilter(sellerRepo, true, 1000, 0.01);
+
+        // When
+        disabledFilter.load();
+
+        // Then
+        assertThat(disabledFilter.mightContain("ciclano@teste.com")).isTrue();
+        assertThat(notLoadedFilter.mightContain("ciclano@teste.com")).isTrue();
+        Mockito.verifyNoInteractions(sellerRepo);
+    }
+}
@@ -6,15 +6,20 @@ import com.grupo6.projetointegrador.dto.UpdateSellerDto;
 import com.grupo6.projetointegrador.dto.ZipCodeDto;
 import com.grupo6.projetointegrador.exception.BusinessRuleException;
 import com.grupo6.projetointegrador.exception.NotFoundException;
+import com.grupo6.projetointegrador.factory.InboundOrderFactory;
 import com.grupo6.projetointegrador.factory.SellerFactory;
+import com.grupo6.projetointegrador.factory.WarehouseFactory;
 import com.grupo6.projetointegrador.factory.ZipCodeDtoFactory;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
 import com.grupo6.projetointegrador.model.entity.Seller;
 import com.grupo6.projetointegrador.model.entity.Warehouse;
 import com.grupo6.projetointegrador.model.enumeration.Active;
 import com.grupo6.projetointegrador.model.enumeration.Category;
+import com.grupo6.projetointegrador.repository.ItemBatchRepo;
 import com.grupo6.projetointegrador.repository.ProductRepo;
 import com.grupo6.projetointegrador.repository.SellerRepo;
 import com.grupo6.projetointegrador.repository.WarehouseRepo;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
@@ -22,10 +27,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -42,7 +46,7 @@ public class SellerServiceImplTest {
     private SellerRepo sellerRepo;
 
     @Mock
-    private RestTemplate restTemplate;
+    private ZipCodeResolver zipCodeResolver;
 
     @Mock
     private WarehouseRepo warehouseRepo;
@@ -50,6 +54,21 @@ public class SellerServiceImplTest {
     @Mock
     private ProductRepo productRepo;
 
+    @Mock
+    private ItemBatchRepo itemBatchRepo;
+
+    @Mock
+    private ItemBatchStockIndex stockIndex;
+
+    @Mock
+    private SellerEmailFilter sellerEmailFilter;
+
+    @Mock
+    private ProductWarehouseStockService productWarehouseStockService;
+
+    @Mock
+    private ExpiryTimeline expiryTimeline;
+
     @InjectMocks
     private SellerServiceImpl sellerService;
 
@@ -61,10 +80,9 @@ public class SellerServiceImplTest {
         // When
         Seller newSeller = SellerFactory.build(createSellerDto);
         ZipCodeDto zipCodeDto = ZipCodeDtoFactory.build(createSellerDto, null);
-        Mockito.when(restTemplate.getForEntity(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
-                .thenReturn(new ResponseEntity<>(zipCodeDto, HttpStatus.OK));
-        Mockito.when(sellerRepo.findAll()).thenReturn(new ArrayList<>());
-        Mockito.when(sellerRepo.save(ArgumentMatchers.any())).thenReturn(newSeller);
+        Mockito.when(zipCodeResolver.resolve(ArgumentMatchers.anyString()))
+                .thenReturn(zipCodeDto);
+        Mockito.when(sellerRepo.saveAndFlush(ArgumentMatchers.any())).thenReturn(newSeller);
         Seller result = sellerService.createSeller(createSellerDto);
 
         // Then
@@ -75,6 +93,48 @@ public class SellerServiceImplTest {
         assertThat(result.getFirstName()).isEqualTo(createSellerDto.getFirstName());
         assertThat(result.getLastName()).isEqualTo(createSellerDto.getLastName());
         assertThat(result.getHouseNumber()).isEqualTo(createSellerDto.getHouseNumber());
+        verify(sellerRepo, never()).existsByEmailIgnoreCase(ArgumentMatchers.anyString());
+        verify(sellerEmailFilter).put(createSellerDto.getEmail());
+    }
+
+    @Test
+    void createSeller_returnSeller_whenFilterMatchIsFalsePositive() {
+        // Given
+        CreateSellerDto createSellerDto = setupCreateSellerDto();
+
+        // When
+        Seller newSeller = SellerFactory.build(createSellerDto);
+        ZipCodeDto zipCodeDto = ZipCodeDtoFactory.build(createSellerDto, null);
+        Mockito.when(zipCodeResolver.resolve(ArgumentMatchers.anyString()))
+                .thenReturn(zipCodeDto);
+        Mockito.when(sellerEmailFilter.mightContain(createSellerDto.getEmail())).thenReturn(true);
+        Mockito.when(sellerRepo.existsByEmailIgnoreCase(createSellerDto.getEmail())).thenReturn(false);
+        Mockito.when(sellerRepo.saveAndFlush(ArgumentMatchers.any())).thenReturn(newSeller);
+        Seller result = sellerService.createSeller(createSellerDto);
+
+        // Then
+        assertThat(result).isNotNull();
+        assertThat(result.getEmail()).isEqualTo(createSellerDto.getEmail());
+    }
+
+    @Test
+    void createSeller_returnBusinessRuleException_whenEmailWasRegisteredElsewhere() {
+        // Given
+        CreateSellerDto createSellerDto = setupCreateSellerDto();
+        DataIntegrityViolationException emailViolation = new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Duplicate entry", new SQLException(), "seller.uk_seller_email"));
+
+        // When
+        ZipCodeDto zipCodeDto = ZipCodeDtoFactory.build(createSellerDto, null);
+        Mockito.when(zipCodeResolver.resolve(ArgumentMatchers.anyString()))
+                .thenReturn(zipCodeDto);
+        Mockito.when(sellerRepo.saveAndFlush(ArgumentMatchers.any())).thenThrow(emailViolation);
+
+        // Then
+        assertThatThrownBy(() -> sellerService.createSeller(createSellerDto))
+                .isInstanceOf(BusinessRuleException.class)
+                .hasMessage("Email já cadastrado.");
+        verify(sellerEmailFilter, never()).put(createSellerDto.getEmail());
     }
 
     @Test
@@ -90,8 +150,8 @@ public class SellerServiceImplTest {
         );
 
         // When
-        Mockito.when(restTemplate.getForEntity(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
-                .thenReturn(new ResponseEntity<>(new ZipCodeDto(
+        Mockito.when(zipCodeResolver.resolve(ArgumentMatchers.anyString()))
+                .thenReturn(new ZipCodeDto(
                         createSellerDto.getZipCode(),
                         "Rua Teste",
                         null,
@@ -99,7 +159,7 @@ public class SellerServiceImplTest {
                         null,
                         null,
                         null
-                        ), HttpStatus.OK));
+                        ));
 
         // Then
         assertThatThrownBy(() -> sellerService.createSeller(createSellerDto))
@@ -119,8 +179,8 @@ public class SellerServiceImplTest {
         );
 
         // When
-        Mockito.when(restTemplate.getForEntity(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
-                .thenReturn(new ResponseEntity<>(new ZipCodeDto(
+        Mockito.when(zipCodeResolver.resolve(ArgumentMatchers.anyString()))
+                .thenReturn(new ZipCodeDto(
                         null,
                         null,
                         null,
@@ -128,7 +188,7 @@ public class SellerServiceImplTest {
                         null,
                         null,
                         "Erro"
-                ), HttpStatus.OK));
+                ));
 
         // Then
         assertThatThrownBy(() -> sellerService.createSeller(createSellerDto))
@@ -146,14 +206,13 @@ public class SellerServiceImplTest {
                 123,
                 "26379030"
         );
-        List<Seller> sellers = new ArrayList<>();
-        sellers.add(SellerFactory.build(setupCreateSellerDto()));
 
         // When
         ZipCodeDto zipCodeDto = ZipCodeDtoFactory.build(createSellerDto, null);
-        Mockito.when(restTemplate.getForEntity(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
-                .thenReturn(new ResponseEntity<>(zipCodeDto, HttpStatus.OK));
-        Mockito.when(sellerRepo.findAll()).thenReturn(sellers);
+        Mockito.when(zipCodeResolver.resolve(ArgumentMatchers.anyString()))
+                .thenReturn(zipCodeDto);
+        Mockito.when(sellerEmailFilter.mightContain(createSellerDto.getEmail())).thenReturn(true);
+        Mockito.when(sellerRepo.existsByEmailIgnoreCase(createSellerDto.getEmail())).thenReturn(true);
 
         // Then
         assertThatThrownBy(() -> sellerService.createSeller(createSellerDto))
@@ -166,7 +225,7 @@ public class SellerServiceImplTest {
         Seller seller = SellerFactory.build(setupCreateSellerDto());
 
         // When
-        Mockito.when(sellerRepo.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
+        Mockito.when(sellerRepo.findWithProductsById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
         Seller result = sellerService.findSeller(ArgumentMatchers.anyLong());
 
         // Then
@@ -179,7 +238,7 @@ public class SellerServiceImplTest {
         // Given
 
         // When
-        Mockito.when(sellerRepo.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
+        Mockito.when(sellerRepo.findWithProductsById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
 
         // Then
         assertThatThrownBy(() -> sellerService.findSeller(ArgumentMatchers.anyLong())).isInstanceOf(NotFoundException.class);
@@ -211,12 +270,11 @@ public class SellerServiceImplTest {
                 seller.getActive(),
                 seller.getProducts()
         );
-        Mockito.when(sellerRepo.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
+        Mockito.when(sellerRepo.findWithProductsById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
         ZipCodeDto zipCodeDto = ZipCodeDtoFactory.build(null, updateSellerDto);
-        Mockito.when(restTemplate.getForEntity(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
-                .thenReturn(new ResponseEntity<>(zipCodeDto, HttpStatus.OK));
-        Mockito.when(sellerRepo.findAll()).thenReturn(new ArrayList<>());
-        Mockito.when(sellerRepo.save(ArgumentMatchers.any())).thenReturn(updatedSeller);
+        Mockito.when(zipCodeResolver.resolve(ArgumentMatchers.anyString()))
+                .thenReturn(zipCodeDto);
+        Mockito.when(sellerRepo.saveAndFlush(ArgumentMatchers.any())).thenReturn(updatedSeller);
         Seller result = sellerService.updateSeller(seller.getId(), updateSellerDto);
 
         // Then
@@ -237,7 +295,7 @@ public class SellerServiceImplTest {
         // When
         Seller seller = SellerFactory.build(setupCreateSellerDto());
         seller.setActive(Active.INATIVO);
-        Mockito.when(sellerRepo.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
+        Mockito.when(sellerRepo.findWithProductsById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
 
         // Then
         assertThatThrownBy(() -> sellerService.updateSeller(seller.getId(), new UpdateSellerDto()))
@@ -249,7 +307,7 @@ public class SellerServiceImplTest {
         // Given
 
         // When
-        Mockito.when(sellerRepo.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
+        Mockito.when(sellerRepo.findWithProductsById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
 
         // Then
         assertThatThrownBy(() -> sellerService.updateSeller(1L, new UpdateSellerDto()))
@@ -271,9 +329,9 @@ public class SellerServiceImplTest {
 
         // When
         Seller seller = SellerFactory.build(createSellerDto);
-        Mockito.when(sellerRepo.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
-        Mockito.when(restTemplate.getForEntity(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
-                .thenReturn(new ResponseEntity<>(new ZipCodeDto(
+        Mockito.when(sellerRepo.findWithProductsById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
+        Mockito.when(zipCodeResolver.resolve(ArgumentMatchers.anyString()))
+                .thenReturn(new ZipCodeDto(
                         updateSellerDto.getZipCode(),
                         "Avenida Teste",
                         null,
@@ -281,7 +339,7 @@ public class SellerServiceImplTest {
                         null,
                         null,
                         null
-                ), HttpStatus.OK));
+                ));
 
         // Then
         assertThatThrownBy(() -> sellerService.updateSeller(seller.getId(), updateSellerDto))
@@ -303,9 +361,9 @@ public class SellerServiceImplTest {
 
         // When
         Seller seller = SellerFactory.build(createSellerDto);
-        Mockito.when(sellerRepo.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
-        Mockito.when(restTemplate.getForEntity(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
-                .thenReturn(new ResponseEntity<>(new ZipCodeDto(
+        Mockito.when(sellerRepo.findWithProductsById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
+        Mockito.when(zipCodeResolver.resolve(ArgumentMatchers.anyString()))
+                .thenReturn(new ZipCodeDto(
                         updateSellerDto.getZipCode(),
                         "Avenida Teste",
                         null,
@@ -313,7 +371,7 @@ public class SellerServiceImplTest {
                         null,
                         null,
                         null
-                ), HttpStatus.OK));
+                ));
 
         // Then
         assertThatThrownBy(() -> sellerService.updateSeller(seller.getId(), updateSellerDto))
@@ -335,9 +393,9 @@ public class SellerServiceImplTest {
 
         // When
         Seller seller = SellerFactory.build(createSellerDto);
-        Mockito.when(sellerRepo.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
-        Mockito.when(restTemplate.getForEntity(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
-                .thenReturn(new ResponseEntity<>(new ZipCodeDto(
+        Mockito.when(sellerRepo.findWithProductsById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
+        Mockito.when(zipCodeResolver.resolve(ArgumentMatchers.anyString()))
+                .thenReturn(new ZipCodeDto(
                         createSellerDto.getZipCode(),
                         createSellerDto.getAddress(),
                         null,
@@ -345,7 +403,7 @@ public class SellerServiceImplTest {
                         null,
                         null,
                         null
-                ), HttpStatus.OK));
+                ));
 
         // Then
         assertThatThrownBy(() -> sellerService.updateSeller(seller.getId(), updateSellerDto))
@@ -365,29 +423,16 @@ public class SellerServiceImplTest {
                 null
         );
         Seller seller = SellerFactory.build(createSellerDto);
-        Seller seller2 = new Seller(
-                2L,
-                "Beltrana",
-                "de Tal",
-                "teste@teste.com",
-                "Rua Jose Penha Tavares",
-                321,
-                "68909791",
-                Active.ATIVO,
-                new ArrayList<>()
-        );
-        List<Seller> sellers = new ArrayList<>();
-        sellers.add(seller);
-        sellers.add(seller2);
 
         // When
-        Mockito.when(sellerRepo.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
-        Mockito.when(sellerRepo.findAll()).thenReturn(sellers);
+        Mockito.when(sellerRepo.findWithProductsById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
+        Mockito.when(sellerEmailFilter.mightContain("teste@teste.com")).thenReturn(true);
+        Mockito.when(sellerRepo.existsByEmailIgnoreCaseAndIdNot("teste@teste.com", seller.getId())).thenReturn(true);
 
         // Then
         assertThatThrownBy(() -> sellerService.updateSeller(seller.getId(), updateSellerDto))
                 .isInstanceOf(BusinessRuleException.class);
-        verify(restTemplate, never()).getForEntity(ArgumentMatchers.anyString(), ArgumentMatchers.any());
+        verify(zipCodeResolver, never()).resolve(ArgumentMatchers.anyString());
     }
 
     @Test
@@ -399,11 +444,12 @@ public class SellerServiceImplTest {
         Seller seller = SellerFactory.build(createSellerDto);
         Mockito.when(sellerRepo.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
         sellerService.deleteSeller(seller.getId());
-        Seller inactiveSeller = sellerService.findSeller(seller.getId());
 
         // Then
-        assertThat(inactiveSeller).isNotNull();
-        assertThat(inactiveSeller.getActive()).isEqualTo(Active.INATIVO);
+        assertThat(seller.getActive()).isEqualTo(Active.INATIVO);
+        Mockito.verify(sellerRepo).save(seller);
+        Mockito.verify(itemBatchRepo).updateSellerActiveBySellerId(seller.getId(), Active.INATIVO);
+        Mockito.verify(productWarehouseStockService).clearSeller(seller.getId());
     }
 
     @Test
@@ -442,6 +488,43 @@ public class SellerServiceImplTest {
                 .isInstanceOf(BusinessRuleException.class);
     }
 
+    @Test
+    void activateSeller_addsSellerBatchesBack_whenSellerIsInactive() {
+        // Given
+        ItemBatch itemBatch = InboundOrderFactory.build(WarehouseFactory.build().getSections().get(0))
+                .getItemBatches().get(0);
+        Seller seller = itemBatch.getProduct().getSeller();
+        seller.setActive(Active.INATIVO);
+
+        // When
+        Mockito.when(sellerRepo.findWithProductsById(seller.getId())).thenReturn(Optional.of(seller));
+        Mockito.when(sellerRepo.save(seller)).thenReturn(seller);
+        Mockito.when(itemBatchRepo.findWithProductAndInboundOrderByProductSellerIdAndProductQuantityGreaterThan(
+                seller.getId(), 0)).thenReturn(List.of(itemBatch));
+        Seller activatedSeller = sellerService.activateSeller(seller.getId());
+
+        // Then
+        assertThat(activatedSeller.getActive()).isEqualTo(Active.ATIVO);
+        Mockito.verify(itemBatchRepo).updateSellerActiveBySellerId(seller.getId(), Active.ATIVO);
+        Mockito.verify(productWarehouseStockService).addStock(List.of(itemBatch));
+        Mockito.verify(stockIndex).putAll(List.of(itemBatch));
+        Mockito.verify(expiryTimeline).putAll(List.of(itemBatch));
+    }
+
+    @Test
+    void activateSeller_throwsBusinessRuleException_whenSellerAlreadyActive() {
+        // Given
+        Seller seller = SellerFactory.build(setupCreateSellerDto());
+
+        // When
+        Mockito.when(sellerRepo.findWithProductsById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(seller));
+
+        // Then
+        assertThatThrownBy(() -> sellerService.activateSeller(1L))
+                .isInstanceOf(BusinessRuleException.class);
+        Mockito.verifyNoInteractions(itemBatchRepo, stockIndex);
+    }
+
     @Test
     void getInactiveSellerBatches_returnListOfInactiveSellerBatch_whenWarehouseExistsAndInactiveSellerInWarehouse() {
         // Given
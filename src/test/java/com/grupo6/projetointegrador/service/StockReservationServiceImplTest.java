@@ -0,0 +1,231 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.exception.BusinessRuleException;
+import com.grupo6.projetointegrador.exception.NotFoundException;
+import com.grupo6.projetointegrador.factory.InboundOrderFactory;
+import com.grupo6.projetointegrador.factory.WarehouseFactory;
+import com.grupo6.projetointegrador.model.entity.ItemBatch;
+import com.grupo6.projetointegrador.model.entity.OrderPurchase;
+import com.grupo6.projetointegrador.model.entity.StockReservation;
+import com.grupo6.projetointegrador.model.enumeration.StatusOrder;
+import com.grupo6.projetointegrador.model.enumeration.StatusReservation;
+import com.grupo6.projetointegrador.repository.ItemBatchRepo;
+import com.grupo6.projetointegrador.repository.OrderPurchaseRepo;
+import com.grupo6.projetointegrador.repository.StockReservationRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MockitoExtension.class)
+public class StockReservationServiceImplTest {
+    @Mock
+    private StockReservationRepo stockReservationRepo;
+
+    @Mock
+    private OrderPurchaseRepo orderPurchaseRepo;
+
+    @Mock
+    private ItemBatchRepo batchRepo;
+
+    @Mock
+    private ItemBatchStockIndex stockIndex;
+
+    @Mock
+    private ProductWarehouseStockService productWarehouseStockService;
+
+    @Mock
+    private ExpiryTimeline expiryTimeline;
+
+    private StockReservationServiceImpl stockReservationService;
+
+    @BeforeEach
+    void setup() {
+        stockReservationService = new StockReservationServiceImpl(
+                stockReservationRepo, orderPurchaseRepo, batchRepo, stockIndex, productWarehouseStockService,
+                expiryTimeline, 3, Duration.ofMinutes(30), 100);
+    }
+
+    @Test
+    void reserveAll_reservesIndexedItemBatch_whenItStillHasQuantity() {
+        // Given
+        ItemBatch itemBatch = setupGenericItemBatch();
+
+        // When
+        Mockito.when(stockIndex.findValidItemBatchId(1L, 2)).thenReturn(Optional.of(itemBatch.getId()));
+        Mockito.when(batchRepo.decrementStock(Map.of(itemBatch.getId(), 2))).thenReturn(List.of());
+        Mockito.when(batchRepo.findWithProductAndInboundOrderByIdIn(Set.of(itemBatch.getId()))).thenReturn(List.of(itemBatch));
+        List<StockReservation> stockReservations = stockReservationService.reserveAll(Map.of(1L, 2));
+
+        // Then
+        assertThat(stockReservations).hasSize(1);
+        assertThat(stockReservations.get(0).getItemBatch()).isEqualTo(itemBatch);
+        assertThat(stockReservations.get(0).getQuantity()).isEqualTo(2);
+        assertThat(stockReservations.get(0).getStatus()).isEqualTo(StatusReservation.RESERVADO);
+        Mockito.verify(stockIndex).decrement(Map.of(itemBatch.getId(), 2));
+        Mockito.verify(productWarehouseStockService).removeStock(List.of(itemBatch), Map.of(itemBatch.getId(), 2));
+        Mockito.verify(batchRepo, Mockito.never()).findByDueDate21AndProductIdAndQty(1L, 2, ItemBatchStockIndex.firstValidDueDate());
+    }
+
+    @Test
+    void reserveAll_decrementsAndLoadsEveryProductTogether() {
+        // Given
+        ItemBatch itemBatch = setupGenericItemBatch();
+        ItemBatch otherItemBatch = setupGenericItemBatch();
+        otherItemBatch.setId(2L);
+
+        // When
+        Mockito.when(stockIndex.findValidItemBatchId(1L, 2)).thenReturn(Optional.of(itemBatch.getId()));
+        Mockito.when(stockIndex.findValidItemBatchId(2L, 3)).thenReturn(Optional.of(otherItemBatch.getId()));
+        Mockito.when(batchRepo.decrementStock(Map.of(itemBatch.getId(), 2, otherItemBatch.getId(), 3)))
+                .thenReturn(List.of());
+        Mockito.when(batchRepo.findWithProductAndInboundOrderByIdIn(Set.of(itemBatch.getId(), otherItemBatch.getId())))
+                .thenReturn(List.of(itemBatch, otherItemBatch));
+        List<StockReservation> stockReservations = stockReservationService.reserveAll(Map.of(1L, 2, 2L, 3));
+
+        // Then
+        assertThat(stockReservations).extracting(StockReservation::getQuantity).containsExactly(2, 3);
+        Mockito.verify(batchRepo).decrementStock(Mockito.anyMap());
+        Mockito.verify(batchRepo, Mockito.never()).findWithProductAndInboundOrderById(Mockito.any());
+    }
+
+    @Test
+    void reserveAll_retriesWithDatabaseBatch_whenQuantityWasTaken() {
+        // Given
+        ItemBatch itemBatch = setupGenericItemBatch();
+        ItemBatch otherItemBatch = setupGenericItemBatch();
+        otherItemBatch.setId(2L);
+
+        // When
+        Mockito.when(stockIndex.findValidItemBatchId(1L, 2)).thenReturn(Optional.of(itemBatch.getId()));
+        Mockito.when(batchRepo.decrementStock(Map.of(itemBatch.getId(), 2))).thenReturn(List.of(itemBatch.getId()));
+        Mockito.when(batchRepo.findByDueDate21AndProductIdAndQty(1L, 2, ItemBatchStockIndex.firstValidDueDate()))
+                .thenReturn(Optional.of(otherItemBatch));
+        Mockito.when(batchRepo.decrementStock(Map.of(otherItemBatch.getId(), 2))).thenReturn(List.of());
+        Mockito.when(batchRepo.findWithProductAndInboundOrderByIdIn(Set.of(otherItemBatch.getId())))
+                .thenReturn(List.of(otherItemBatch));
+        List<StockReservation> stockReservations = stockReservationService.reserveAll(Map.of(1L, 2));
+
+        // Then
+        assertThat(stockReservations).extracting(StockReservation::getItemBatch).containsExactly(otherItemBatch);
+        Mockito.verify(stockIndex).decrement(Map.of(otherItemBatch.getId(), 2));
+    }
+
+    @Test
+    void reserveAll_throwBusinessRuleException_whenEveryAttemptFails() {
+        // Given
+        ItemBatch itemBatch = setupGenericItemBatch();
+
+        // When / Then
+        Mockito.when(batchRepo.findByDueDate21AndProductIdAndQty(1L, 2, ItemBatchStockIndex.firstValidDueDate()))
+                .thenReturn(Optional.of(itemBatch));
+        Mockito.when(batchRepo.decrementStock(Map.of(itemBatch.getId(), 2))).thenReturn(List.of(itemBatch.getId()));
+        assertThatThrownBy(() -> stockReservationService.reserveAll(Map.of(1L, 2)))
+                .isInstanceOf(BusinessRuleException.class);
+        Mockito.verify(batchRepo, Mockito.times(3)).decrementStock(Map.of(itemBatch.getId(), 2));
+        Mockito.verify(stockIndex, Mockito.never()).decrement(Mockito.anyMap());
+    }
+
+    @Test
+    void reserveAll_throwNotFoundException_whenNoBatchHasQuantity() {
+        // When / Then
+        Mockito.when(batchRepo.findByDueDate21AndProductIdAndQty(1L, 2, ItemBatchStockIndex.firstValidDueDate()))
+                .thenReturn(Optional.empty());
+        assertThatThrownBy(() -> stockReservationService.reserveAll(Map.of(1L, 2)))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void confirm_linksReservationsToOrder() {
+        // Given
+        OrderPurchase orderPurchase = new OrderPurchase();
+        StockReservation stockReservation = new StockReservation(setupGenericItemBatch(), 2);
+
+        // When
+        stockReservationService.confirm(orderPurchase, List.of(stockReservation));
+
+        // Then
+        assertThat(stockReservation.getOrderPurchase()).isEqualTo(orderPurchase);
+        Mockito.verify(stockReservationRepo).saveAll(List.of(stockReservation));
+    }
+
+    @Test
+    void settle_marksReservationsAsLiquidado() {
+        // When
+        Mockito.when(stockReservationRepo.updateStatusByOrderPurchaseId(
+                1L, StatusReservation.RESERVADO, StatusReservation.LIQUIDADO)).thenReturn(2);
+
+        // Then
+        assertThat(stockReservationService.settle(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void release_returnReservedQuantitiesToBatches() {
+        // Given
+        ItemBatch itemBatch = setupGenericItemBatch();
+        List<StockReservation> stockReservations = List.of(
+                new StockReservation(itemBatch, 2),
+                new StockReservation(itemBatch, 3)
+        );
+
+        // When
+        Mockito.when(stockReservationRepo.updateStatusByOrderPurchaseId(
+                1L, StatusReservation.RESERVADO, StatusReservation.LIBERADO)).thenReturn(2);
+        Mockito.when(stockReservationRepo.findByOrderPurchaseId(1L)).thenReturn(stockReservations);
+        Mockito.when(batchRepo.findWithProductAndInboundOrderByIdIn(Set.of(itemBatch.getId()))).thenReturn(List.of(itemBatch));
+        int released = stockReservationService.release(1L);
+
+        // Then
+        assertThat(released).isEqualTo(2);
+        Mockito.verify(batchRepo).incrementStock(Map.of(itemBatch.getId(), 5));
+        Mockito.verify(stockIndex).putAll(List.of(itemBatch));
+        Mockito.verify(expiryTimeline).putAll(List.of(itemBatch));
+        Mockito.verify(productWarehouseStockService).addStock(List.of(itemBatch), Map.of(itemBatch.getId(), 5));
+    }
+
+    @Test
+    void release_returnNothing_whenReservationsWereAlreadySettledOrReleased() {
+        // When
+        Mockito.when(stockReservationRepo.updateStatusByOrderPurchaseId(
+                1L, StatusReservation.RESERVADO, StatusReservation.LIBERADO)).thenReturn(0);
+        int released = stockReservationService.release(1L);
+
+        // Then
+        assertThat(released).isZero();
+        Mockito.verify(batchRepo, Mockito.never()).incrementStock(Mockito.anyMap());
+    }
+
+    @Test
+    void releaseExpired_cancelOnlyOrdersThatAreStillOpen() {
+        // When
+        Mockito.when(stockReservationRepo.findOrderPurchaseIdsByStatusAndCreatedAtBefore(
+                Mockito.eq(StatusReservation.RESERVADO), Mockito.any(LocalDateTime.class), Mockito.any()))
+                .thenReturn(List.of(1L, 2L));
+        Mockito.when(orderPurchaseRepo.updateStatusById(1L, StatusOrder.ABERTO, StatusOrder.CANCELADO)).thenReturn(1);
+        Mockito.when(orderPurchaseRepo.updateStatusById(2L, StatusOrder.ABERTO, StatusOrder.CANCELADO)).thenReturn(0);
+        int cancelled = stockReservationService.releaseExpired();
+
+        // Then
+        assertThat(cancelled).isEqualTo(1);
+        Mockito.verify(stockReservationRepo).updateStatusByOrderPurchaseId(
+                1L, StatusReservation.RESERVADO, StatusReservation.LIBERADO);
+        Mockito.verify(stockReservationRepo, Mockito.never()).updateStatusByOrderPurchaseId(
+                2L, StatusReservation.RESERVADO, StatusReservation.LIBERADO);
+    }
+
+    private ItemBatch setupGenericItemBatch() {
+        return InboundOrderFactory.build(WarehouseFactory.build().getSections().get(0)).getItemBatches().get(0);
+    }
+}
@@ -0,0 +1,172 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.ConfigurationSeller;
+import com.grupo6.projetointegrador.dto.ZipCodeDto;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ViaCepZipCodeResolverTest {
+    private HttpServer server;
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private volatile long responseDelayMs;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/ws/", exchange -> {
+            upstreamCalls.incrementAndGet();
+            sleep(responseDelayMs);
+            String zipCode = exchange.getRequestURI().getPath().split("/")[2];
+            String body = zipCode.equals("00000000")
+                    ? "{\"erro\": true}"
+                    : "{\"cep\": \"" + zipCode + "\", \"logradouro\": \"Rua Canopus\"}";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void resolve_callsUpstreamOnce_whenZipCodeIsCached() {
+        // Given
+        ZipCodeResolver zipCodeResolver = buildResolver(2000);
+
+        // When
+        ZipCodeDto first = zipCodeResolver.resolve("86070180");
+        ZipCodeDto second = zipCodeResolver.resolve("86070180");
+
+        // Then
+        assertThat(first.getLogradouro()).isEqualTo("Rua Canopus");
+        assertThat(second).isEqualTo(first);
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void resolve_cachesInvalidZipCode() {
+        // Given
+        ZipCodeResolver zipCodeResolver = buildResolver(2000);
+
+        // When
+        ZipCodeDto first = zipCodeResolver.resolve("00000000");
+        ZipCodeDto second = zipCodeResolver.resolve("00000000");
+
+        // Then
+        assertThat(first.getErro()).isNotNull();
+        assertThat(second.getErro()).isNotNull();
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void resolve_callsUpstreamOnce_whenZipCodeIsFormattedDifferently() {
+        // Given
+        ZipCodeResolver zipCodeResolver = buildResolver(2000);
+
+        // When
+        ZipCodeDto first = zipCodeResolver.resolve("86070-180");
+        ZipCodeDto second = zipCodeResolver.resolve(" 86070180 ");
+
+        // Then
+        assertThat(first.getCep()).isEqualTo("86070180");
+        assertThat(second).isEqualTo(first);
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void resolve_returnsInvalidZipCodeWithoutUpstreamCall_whenZipCodeDoesNotHaveEightDigits() {
+        // Given
+        ZipCodeResolver zipCodeResolver = buildResolver(2000);
+
+        // When
+        ZipCodeDto result = zipCodeResolver.resolve("8607-018");
+
+        // Then
+        assertThat(result.getErro()).isNotNull();
+        assertThat(upstreamCalls.get()).isZero();
+    }
+
+    @Test
+    void resolve_sharesUpstreamCall_whenLookupsAreConcurrent() throws Exception {
+        // Given
+        ZipCodeResolver zipCodeResolver = buildResolver(2000);
+        responseDelayMs = 300;
+        int lookups = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(lookups);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        List<Future<ZipCodeDto>> futures = new ArrayList<>();
+        for (int i = 0; i < lookups; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return zipCodeResolver.resolve("86070180");
+            }));
+        }
+        start.countDown();
+        for (Future<ZipCodeDto> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS).getLogradouro()).isEqualTo("Rua Canopus");
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void resolve_throwsAndDoesNotCache_whenUpstreamTimesOut() {
+        // Given
+        ZipCodeResolver zipCodeResolver = buildResolver(200);
+        responseDelayMs = 1000;
+
+        // When / Then
+        assertThatThrownBy(() -> zipCodeResolver.resolve("86070180"))
+                .isInstanceOf(ResourceAccessException.class);
+        responseDelayMs = 0;
+        assertThat(zipCodeResolver.resolve("86070180").getLogradouro()).isEqualTo("Rua Canopus");
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+    }
+
+    private ZipCodeResolver buildResolver(int readTimeout) {
+        return new ViaCepZipCodeResolver(
+                ConfigurationSeller.pooledRestTemplate(5, 1000, readTimeout),
+                "http://localhost:" + server.getAddress().getPort() + "/ws/",
+                100,
+                60,
+                10
+        );
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.grupo6.projetointegrador.service;
+
+import com.grupo6.projetointegrador.dto.ZipCodeDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZipCodeIndexTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void findStreet_getStreet_whenZipCodeIsInConvertedCsv() throws IOException {
+        // Given
+        Path indexFile = convert(
+                "cep,logradouro",
+                "86070-180,Rua Canopus",
+                "01001000,\"Praça da Sé, lado ímpar\"",
+                "69902772,Rua H"
+        );
+
+        // When
+        try (ZipCodeIndex zipCodeIndex = ZipCodeIndex.open(indexFile)) {
+
+            // Then
+            assertThat(zipCodeIndex.size()).isEqualTo(3);
+            assertThat(zipCodeIndex.findStreet("86070180")).contains("Rua Canopus");
+            assertThat(zipCodeIndex.findStreet("01001-000")).contains("Praça da Sé, lado ímpar");
+            assertThat(zipCodeIndex.findStreet("69902772")).contains("Rua H");
+            assertThat(zipCodeIndex.findStreet("69902773")).isEmpty();
+            assertThat(zipCodeIndex.findStreet("abc")).isEmpty();
+        }
+    }
+
+    @Test
+    void convert_splitOnlyOnHeaderDelimiter_whenFileUsesSemicolons() throws IOException {
+        // Given
+        Path indexFile = convert(
+                "cep;logradouro",
+                "01001000;Praça da Sé, lado ímpar",
+                "86070180;Rua Canopus"
+        );
+
+        // When
+        try (ZipCodeIndex zipCodeIndex = ZipCodeIndex.open(indexFile)) {
+
+            // Then
+            assertThat(zipCodeIndex.size()).isEqualTo(2);
+            assertThat(zipCodeIndex.findStreet("01001000")).contains("Praça da Sé, lado ímpar");
+            assertThat(zipCodeIndex.findStreet("86070180")).contains("Rua Canopus");
+        }
+    }
+
+    @Test
+    void write_cutsLongStreetAtCharacterBoundary() throws IOException {
+        // Given
+        Path indexFile = tempDir.resolve("cep.idx");
+        String street = "é".repeat(40000);
+
+        // When
+        ZipCodeIndex.write(Map.of(86070180, street), indexFile);
+
+        // Then
+        try (ZipCodeIndex zipCodeIndex = ZipCodeIndex.open(indexFile)) {
+            assertThat(zipCodeIndex.findStreet("86070180")).contains("é".repeat(32767));
+        }
+    }
+
+    @Test
+    void convert_keepsLastStreet_whenZipCodeIsRepeated() throws IOException {
+        // Given
+        Path indexFile = convert("86070180,Rua Antiga", "86070180,Rua Canopus");
+
+        // When
+        try (ZipCodeIndex zipCodeIndex = ZipCodeIndex.open(indexFile)) {
+
+            // Then
+            assertThat(zipCodeIndex.size()).isEqualTo(1);
+            assertThat(zipCodeIndex.findStreet("86070180")).contains("Rua Canopus");
+        }
+    }
+
+    @Test
+    void resolve_returnsInvalidZipCode_whenZipCodeIsNotInIndex() throws IOException {
+        // Given
+        Path indexFile = convert("86070180,Rua Canopus");
+
+        try (ZipCodeIndex zipCodeIndex = ZipCodeIndex.open(indexFile)) {
+            OfflineZipCodeResolver zipCodeResolver = new OfflineZipCodeResolver(zipCodeIndex);
+
+            // When
+            ZipCodeDto found = zipCodeResolver.resolve("86070180");
+            ZipCodeDto missing = zipCodeResolver.resolve("00000000");
+
+            // Then
+            assertThat(found.getLogradouro()).isEqualTo("Rua Canopus");
+            assertThat(found.getErro()).isNull();
+            assertThat(missing.getErro()).isNotNull();
+        }
+    }
+
+    private Path convert(String... lines) throws IOException {
+        Path csvFile = tempDir.resolve("cep.csv");
+        Path indexFile = tempDir.resolve("cep.idx");
+        Files.write(csvFile, List.of(lines), StandardCharsets.UTF_8);
+        ZipCodeIndex.convert(csvFile, indexFile);
+        return indexFile;
+    }
+}
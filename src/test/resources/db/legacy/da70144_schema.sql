@@ -0,0 +1,24 @@
+-- Schema Hibernate generated (MySQL57Dialect) for the entities of commit da70144, before the Flyway migrations.
+-- Frozen here so SchemaMigrationIT can baseline a legacy database that does not depend on V1.
+create table buyer (id bigint not null auto_increment, primary key (id)) engine=InnoDB;
+create table inbound_order (id bigint not null auto_increment, order_date date, section_id bigint, warehouse_id bigint, warehouse_operator_id bigint, primary key (id)) engine=InnoDB;
+create table item_batch (id bigint not null auto_increment, category varchar(255), due_date date, manufacturing_date date, manufacturing_time datetime(6), price decimal(19,2), product_quantity integer not null, volume bigint, inbound_order_id bigint, product_id bigint, primary key (id)) engine=InnoDB;
+create table order_purchase (id bigint not null auto_increment, date_order date, status integer, buyer_id bigint, primary key (id)) engine=InnoDB;
+create table product (id bigint not null auto_increment, category varchar(255), price decimal(19,2), seller_id bigint, primary key (id)) engine=InnoDB;
+create table product_order (id bigint not null auto_increment, quantity integer not null, order_purchase_id bigint, product_id bigint, primary key (id)) engine=InnoDB;
+create table section (id bigint not null auto_increment, category varchar(255), volume bigint, warehouse_id bigint, primary key (id)) engine=InnoDB;
+create table seller (id bigint not null auto_increment, active varchar(255), address varchar(255) not null, email varchar(255) not null, first_name varchar(255) not null, house_number integer not null, last_name varchar(255) not null, zip_code varchar(255) not null, primary key (id)) engine=InnoDB;
+create table warehouse (id bigint not null auto_increment, warehouse_operator_id bigint, primary key (id)) engine=InnoDB;
+create table warehouse_operator (id bigint not null auto_increment, primary key (id)) engine=InnoDB;
+alter table seller add constraint UK_crgbovyy4gvgsum2yyb3fbfn7 unique (email);
+alter table inbound_order add constraint FKssby27jgvmajihvv9wsls44sm foreign key (section_id) references section (id);
+alter table inbound_order add constraint FK88b3xu9v3ad5kgehabm40g21 foreign key (warehouse_id) references warehouse (id);
+alter table inbound_order add constraint FK6b5ia4ktwd3x588eum1gscf49 foreign key (warehouse_operator_id) references warehouse_operator (id);
+alter table item_batch add constraint FK8f4et4e3e6mnep6n20e7tj65j foreign key (inbound_order_id) references inbound_order (id);
+alter table item_batch add constraint FK39eancubo27f3b4ga03f2hk3x foreign key (product_id) references product (id);
+alter table order_purchase add constraint FK3afv7xdbcw0s658vsfiput0xb foreign key (buyer_id) references buyer (id);
+alter table product add constraint FKesd6fy52tk7esoo2gcls4lfe3 foreign key (seller_id) references seller (id);
+alter table product_order add constraint FKe8h3tosojib3qvjnaparlar4k foreign key (order_purchase_id) references order_purchase (id);
+alter table product_order add constraint FKh73acsd9s5wp6l0e55td6jr1m foreign key (product_id) references product (id);
+alter table section add constraint FKlimr8jdiu8ur1jp722gvhsb9t foreign key (warehouse_id) references warehouse (id);
+alter table warehouse add constraint FKrycfd3n03721pf3dcq20ejnq2 foreign key (warehouse_operator_id) references warehouse_operator (id);
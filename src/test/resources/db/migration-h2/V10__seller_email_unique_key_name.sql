@@ -0,0 +1,3 @@
+-- H2 cannot rename the index behind a constraint, so the unique key is recreated with the new name.
+ALTER TABLE seller DROP CONSTRAINT UK_crgbovyy4gvgsum2yyb3fbfn7;
+ALTER TABLE seller ADD CONSTRAINT uk_seller_email UNIQUE (email);
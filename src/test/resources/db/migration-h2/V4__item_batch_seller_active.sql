@@ -0,0 +1,21 @@
+-- Copy of seller.active on each batch, flipped in bulk when a seller is deactivated,
+-- so the stock lookups filter item_batch alone instead of joining product and seller.
+ALTER TABLE item_batch ADD COLUMN seller_active VARCHAR(255) DEFAULT 'ATIVO' NOT NULL;
+
+-- H2 has no UPDATE ... JOIN, so the batches of inactive sellers are selected through a subquery.
+UPDATE item_batch SET seller_active = 'INATIVO'
+WHERE product_id IN (
+    SELECT t2.id FROM product AS t2 JOIN seller AS t3 ON t3.id = t2.seller_id WHERE t3.active = 'INATIVO');
+
+-- The seller status becomes part of every access path index, right after the equality column.
+-- The new indexes are created first because the old ones may be backing the foreign keys.
+CREATE INDEX ix_item_batch_product_active_due_date_quantity
+    ON item_batch (product_id, seller_active, due_date, product_quantity);
+CREATE INDEX ix_item_batch_category_active_due_date_quantity
+    ON item_batch (category, seller_active, due_date, product_quantity);
+CREATE INDEX ix_item_batch_inbound_order_active_due_date_quantity
+    ON item_batch (inbound_order_id, seller_active, due_date, product_quantity);
+
+DROP INDEX ix_item_batch_product_due_date_quantity ON item_batch;
+DROP INDEX ix_item_batch_category_due_date_quantity ON item_batch;
+DROP INDEX ix_item_batch_inbound_order_due_date_quantity ON item_batch;